@@ -21,8 +21,23 @@ dependencies {
     api(libs.spring.kafka)
     compileOnly(libs.spring.boot.starter.data.jpa)
     compileOnly(libs.jakarta.persistence.api)
+    compileOnly("io.micrometer:micrometer-core")
+    compileOnly(libs.spring.boot.starter.data.redis)
+    compileOnly(libs.resilience4j.circuitbreaker)
+    compileOnly(project(":nexora-spring-boot-starter-file-storage"))
+    compileOnly(libs.spring.boot.actuator)
+    compileOnly(libs.spring.boot.kafka)
+    implementation(libs.caffeine)
     api(libs.jackson.databind)
 
     testImplementation(libs.spring.boot.starter.test)
+    testImplementation("org.springframework:spring-jdbc")
+    testImplementation("io.micrometer:micrometer-core")
+    testImplementation(libs.spring.boot.starter.data.redis)
+    testImplementation(libs.resilience4j.circuitbreaker)
+    testImplementation(project(":nexora-spring-boot-starter-file-storage"))
+    testImplementation(libs.spring.boot.actuator)
+    testImplementation(libs.spring.boot.kafka)
+    testRuntimeOnly(libs.h2)
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
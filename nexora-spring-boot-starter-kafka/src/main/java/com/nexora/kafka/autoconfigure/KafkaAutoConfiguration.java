@@ -1,10 +1,84 @@
 package com.nexora.kafka.autoconfigure;
 
+import com.nexora.kafka.claimcheck.ClaimCheckConsumerFactoryPostProcessor;
+import com.nexora.kafka.claimcheck.ClaimCheckSerializer;
+import com.nexora.kafka.claimcheck.ClaimCheckStore;
+import com.nexora.kafka.codec.PayloadCodecConsumerFactoryPostProcessor;
+import com.nexora.kafka.filter.EventTypeFilter;
+import com.nexora.kafka.filter.EventTypeFilterPostProcessor;
+import com.nexora.kafka.idempotent.IdempotencyGuard;
+import com.nexora.kafka.idempotent.IdempotentListenerInterceptor;
+import com.nexora.kafka.idempotent.IdempotentListenerPostProcessor;
+import com.nexora.kafka.idempotent.JdbcProcessedIdStore;
+import com.nexora.kafka.idempotent.ProcessedIdStore;
+import com.nexora.kafka.idempotent.RedisProcessedIdStore;
+import com.nexora.kafka.listener.BatchListenerSupport;
+import com.nexora.kafka.listener.CircuitBreakerListenerBinder;
+import com.nexora.kafka.listener.ListenerConcurrencyController;
+import com.nexora.kafka.listener.SequenceGuard;
+import com.nexora.kafka.metrics.EventPublisherMetrics;
+import com.nexora.kafka.metrics.ListenerConcurrencyMetrics;
+import com.nexora.kafka.metrics.OutboxRelayMetrics;
+import com.nexora.kafka.outbox.JdbcOutboxLeaseRepository;
+import com.nexora.kafka.outbox.JdbcOutboxRepository;
+import com.nexora.kafka.outbox.OutboxEventWriter;
+import com.nexora.kafka.outbox.OutboxIdGenerator;
+import com.nexora.kafka.outbox.OutboxLeaseManager;
+import com.nexora.kafka.outbox.OutboxPurger;
+import com.nexora.kafka.outbox.OutboxRelay;
+import com.nexora.kafka.properties.KafkaProperties;
+import com.nexora.kafka.publisher.EventHeaders;
+import com.nexora.kafka.publisher.EventPublisher;
+import com.nexora.kafka.publisher.ProducerProfile;
+import com.nexora.kafka.publisher.SpillDrainer;
+import com.nexora.kafka.publisher.SpillJournal;
+import com.nexora.kafka.publisher.TopicRoutingKafkaTemplate;
+import com.nexora.storage.FileStorageService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.kafka.autoconfigure.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Kafka auto-configuration.
@@ -12,6 +86,13 @@ import org.springframework.kafka.annotation.EnableKafka;
  * <p>Automatically configures:
  * <ul>
  *   <li>Kafka template for event publishing</li>
+ *   <li>Claim-check of large payloads via file storage (if enabled)</li>
+ *   <li>Event type filtering before deserialization (if enabled)</li>
+ *   <li>Batch listener container factory (if enabled)</li>
+ *   <li>Listener concurrency autoscaling (if enabled)</li>
+ *   <li>Listener pause/resume from circuit breakers (if bound)</li>
+ *   <li>{@code @IdempotentListener} duplicate detection (if enabled)</li>
+ *   <li>Stale event detection by per-bizId sequence (if enabled)</li>
  *   <li>DLQ (Dead Letter Queue) error handler</li>
  *   <li>Outbox pattern support (if enabled)</li>
  * </ul>
@@ -23,26 +104,530 @@ import org.springframework.kafka.annotation.EnableKafka;
  *     dlq:
  *       enabled: true
  *       retry-attempts: 3
+ *     producer:
+ *       profile: THROUGHPUT
+ *       topics:
+ *         payment-events:
+ *           profile: DURABILITY
  *     outbox:
  *       enabled: true
+ *       batch-size: 500
+ *       poll-interval: 1s
+ *       max-retries: 5
+ *       lease:
+ *         enabled: true
+ *         buckets: 64
+ *       exactly-once:
+ *         enabled: true
  * </pre>
  *
  * @author sujie
  */
-@AutoConfiguration
+@AutoConfiguration(afterName = {
+    "org.springframework.boot.kafka.autoconfigure.KafkaAutoConfiguration",
+    "org.springframework.boot.jdbc.autoconfigure.DataSourceAutoConfiguration",
+    "org.springframework.boot.jdbc.autoconfigure.DataSourceTransactionManagerAutoConfiguration",
+    "org.springframework.boot.hibernate.autoconfigure.HibernateJpaAutoConfiguration",
+    "org.springframework.boot.data.redis.autoconfigure.DataRedisAutoConfiguration",
+    "com.nexora.resilience.autoconfigure.ResilienceAutoConfiguration",
+    "com.nexora.storage.autoconfigure.FileStorageAutoConfiguration"
+})
 @ConditionalOnClass(org.springframework.kafka.core.KafkaTemplate.class)
 @EnableKafka
-@ComponentScan(basePackageClasses = com.nexora.kafka.publisher.EventPublisher.class)
+@EnableConfigurationProperties(KafkaProperties.class)
+@ComponentScan(basePackageClasses = EventPublisher.class)
 public class KafkaAutoConfiguration {
 
+    private static final String LISTENER_FACTORY_CONFIGURER =
+        "org.springframework.boot.kafka.autoconfigure.ConcurrentKafkaListenerContainerFactoryConfigurer";
+
+    /**
+     * Producer factory for events, derived from the application's producer configuration
+     * with a {@link ByteArraySerializer} for values, tuned by {@code nexora.kafka.producer}.
+     * Values go through a {@link ClaimCheckSerializer} instead when claim-check is enabled.
+     *
+     * <p>With the spill journal enabled, {@code max.block.ms} defaults to
+     * {@code nexora.kafka.producer.spill.max-block} instead of the client's 60s, so a send
+     * waiting for metadata or buffer space times out quickly and the event is spilled.
+     *
+     * <p>Not a default autowire candidate, so it never competes with the application's own
+     * producer factory.
+     */
+    @Bean(defaultCandidate = false)
+    @ConditionalOnMissingBean(name = "eventProducerFactory")
+    public DefaultKafkaProducerFactory<String, byte[]> eventProducerFactory(ProducerFactory<?, ?> producerFactory,
+                                                                            KafkaProperties properties,
+                                                                            ObjectProvider<ClaimCheckStore> claimCheckStore) {
+        Map<String, Object> configs = new HashMap<>(producerFactory.getConfigurationProperties());
+        KafkaProperties.Producer producer = properties.getProducer();
+        configs.putAll(producerConfigs(producer.getProfile(), producer.getProperties()));
+        if (producer.getSpill().isEnabled()) {
+            configs.putIfAbsent(ProducerConfig.MAX_BLOCK_MS_CONFIG, producer.getSpill().getMaxBlock().toMillis());
+        }
+        ClaimCheckStore store = claimCheckStore.getIfAvailable();
+        Serializer<byte[]> valueSerializer = store != null ? new ClaimCheckSerializer(store) : new ByteArraySerializer();
+        return new DefaultKafkaProducerFactory<>(configs, new StringSerializer(), valueSerializer);
+    }
+
+    /**
+     * Kafka template used by {@link com.nexora.kafka.publisher.EventPublisher} and the outbox relay.
+     *
+     * <p>Payloads are serialized to JSON bytes up front, so values go to the producer as-is
+     * instead of being encoded to UTF-8 a second time by a {@code StringSerializer}.
+     *
+     * <p>Topics listed under {@code nexora.kafka.producer.topics} are sent through their own
+     * producer, a copy of the event producer factory with the topic's profile and properties.
+     */
+    @Bean(name = EventPublisher.KAFKA_TEMPLATE_BEAN_NAME, defaultCandidate = false)
+    @ConditionalOnMissingBean(name = EventPublisher.KAFKA_TEMPLATE_BEAN_NAME)
+    public KafkaTemplate<String, byte[]> eventKafkaTemplate(
+            @Qualifier("eventProducerFactory") ProducerFactory<String, byte[]> eventProducerFactory,
+            KafkaProperties properties) {
+        Map<String, KafkaProperties.TopicProducer> topics = properties.getProducer().getTopics();
+        if (topics.isEmpty()) {
+            return new KafkaTemplate<>(eventProducerFactory);
+        }
+        Map<String, ProducerFactory<String, byte[]>> topicProducerFactories = new HashMap<>();
+        topics.forEach((topic, override) -> {
+            ProducerProfile profile = override.getProfile() != null
+                ? override.getProfile() : properties.getProducer().getProfile();
+            Map<String, Object> configs = producerConfigs(profile, properties.getProducer().getProperties());
+            configs.putAll(override.getProperties());
+            topicProducerFactories.put(topic, eventProducerFactory.copyWithConfigurationOverride(configs));
+        });
+        return new TopicRoutingKafkaTemplate(eventProducerFactory, topicProducerFactories);
+    }
+
+    private static Map<String, Object> producerConfigs(ProducerProfile profile, Map<String, String> properties) {
+        Map<String, Object> configs = new HashMap<>();
+        if (profile != null) {
+            configs.putAll(profile.getConfigs());
+        }
+        configs.putAll(properties);
+        return configs;
+    }
+
+    /**
+     * Backpressure for {@link EventPublisher}: events that can't be sent right away go to a
+     * local journal, replayed by the drainer once the brokers keep up again. The publisher
+     * picks up the journal bean itself.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "nexora.kafka.producer.spill", name = "enabled", havingValue = "true")
+    static class SpillConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public SpillJournal spillJournal(KafkaProperties properties) {
+            KafkaProperties.Spill spill = properties.getProducer().getSpill();
+            return new SpillJournal(Path.of(spill.getDirectory()), (int) spill.getSegmentSize().toBytes());
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public SpillDrainer spillDrainer(SpillJournal spillJournal,
+                                         @Qualifier(EventPublisher.KAFKA_TEMPLATE_BEAN_NAME)
+                                         KafkaTemplate<String, byte[]> kafkaTemplate,
+                                         KafkaProperties properties) {
+            KafkaProperties.Spill spill = properties.getProducer().getSpill();
+            return new SpillDrainer(spillJournal, kafkaTemplate, spill.getDrainBatchSize(),
+                spill.getDrainInterval(), spill.getSendTimeout());
+        }
+    }
+
+    /**
+     * Claim-check for large payloads: the event producer uploads them to the file storage,
+     * and every consumer factory resolves the references back into payloads.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "com.nexora.storage.FileStorageService")
+    @ConditionalOnBean(type = "com.nexora.storage.FileStorageService")
+    @ConditionalOnProperty(prefix = "nexora.kafka.claim-check", name = "enabled", havingValue = "true")
+    static class ClaimCheckConfiguration {
+
+        @Bean
+        static ClaimCheckConsumerFactoryPostProcessor claimCheckConsumerFactoryPostProcessor(
+                ObjectProvider<ClaimCheckStore> claimCheckStore) {
+            return new ClaimCheckConsumerFactoryPostProcessor(SingletonSupplier.of(claimCheckStore::getObject));
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ClaimCheckStore claimCheckStore(FileStorageService fileStorageService, KafkaProperties properties) {
+            return new ClaimCheckStore(fileStorageService, properties.getClaimCheck());
+        }
+    }
+
+    /**
+     * Event type filtering: records of event types a topic doesn't accept are dropped by
+     * their header, before the value is deserialized.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "nexora.kafka.consumer.filter", name = "enabled", havingValue = "true")
+    static class EventTypeFilterConfiguration {
+
+        @Bean
+        static EventTypeFilterPostProcessor eventTypeFilterPostProcessor(ObjectProvider<EventTypeFilter> eventTypeFilter) {
+            return new EventTypeFilterPostProcessor(SingletonSupplier.of(eventTypeFilter::getObject));
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public EventTypeFilter eventTypeFilter(KafkaProperties properties) {
+            return new EventTypeFilter(properties.getConsumer().getFilter().getEventTypes());
+        }
+    }
+
+    /**
+     * Event publisher metrics, registered when Micrometer is available.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+    static class PublisherMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public EventPublisherMetrics eventPublisherMetrics(EventPublisher eventPublisher) {
+            return new EventPublisherMetrics(eventPublisher);
+        }
+    }
+
+    /**
+     * Batch listener container factory, registered next to the application's default factory
+     * when {@code nexora.kafka.consumer.batch.enabled} is set.
+     *
+     * <p>Configured by Spring Boot's {@link ConcurrentKafkaListenerContainerFactoryConfigurer} like
+     * the default factory, so {@code spring.kafka.listener.*} settings and the application's
+     * {@link org.springframework.kafka.listener.CommonErrorHandler} apply to batch listeners too;
+     * the batch settings are applied on top. The DLQ error handler, for batch listeners, retries
+     * and dead-letters only the record named by a
+     * {@link org.springframework.kafka.listener.BatchListenerFailedException} (see
+     * {@link BatchListenerSupport}) and redelivers the records after it.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = LISTENER_FACTORY_CONFIGURER)
+    @ConditionalOnBean(type = LISTENER_FACTORY_CONFIGURER, value = ConsumerFactory.class)
+    @ConditionalOnProperty(prefix = "nexora.kafka.consumer.batch", name = "enabled", havingValue = "true")
+    static class BatchListenerConfiguration {
+
+        @Bean(name = BatchListenerSupport.CONTAINER_FACTORY)
+        @ConditionalOnMissingBean(name = BatchListenerSupport.CONTAINER_FACTORY)
+        public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+                ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+                ConsumerFactory<Object, Object> consumerFactory,
+                KafkaProperties properties) {
+            KafkaProperties.Batch batch = properties.getConsumer().getBatch();
+            ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+            configurer.configure(factory, consumerFactory);
+            factory.setBatchListener(true);
+            if (batch.getConcurrency() != null) {
+                factory.setConcurrency(batch.getConcurrency());
+            }
+            factory.getContainerProperties().getKafkaConsumerProperties()
+                .setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batch.getMaxPollRecords()));
+            return factory;
+        }
+    }
+
+    /**
+     * Virtual-thread listener containers.
+     *
+     * <p>Every listener container factory gets a virtual-thread task executor, so blocking
+     * listeners no longer pin a platform thread per consumer and container concurrency can
+     * follow the partition count cheaply.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "nexora.kafka.consumer", name = "virtual-threads", havingValue = "true")
+    static class VirtualThreadListenerConfiguration {
+
+        @Bean
+        public static BeanPostProcessor virtualThreadListenerContainerFactoryPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof AbstractKafkaListenerContainerFactory<?, ?, ?> factory) {
+                        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(beanName + "-vt-");
+                        executor.setVirtualThreads(true);
+                        factory.getContainerProperties().setListenerTaskExecutor(executor);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Lag-driven concurrency autoscaling of listener containers.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "nexora.kafka.consumer.autoscale", name = "enabled", havingValue = "true")
+    static class AutoscaleConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public ListenerConcurrencyController listenerConcurrencyController(ListenerContainerRegistry registry,
+                                                                           KafkaProperties properties) {
+            return new ListenerConcurrencyController(registry, properties.getConsumer().getAutoscale());
+        }
+
+        /**
+         * Autoscaling metrics, registered when Micrometer is available.
+         */
+        @Configuration(proxyBeanMethods = false)
+        @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+        static class AutoscaleMetricsConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public ListenerConcurrencyMetrics listenerConcurrencyMetrics(ListenerConcurrencyController controller) {
+                return new ListenerConcurrencyMetrics(controller);
+            }
+        }
+    }
+
+    /**
+     * Pauses listener containers while their bound resilience4j circuit breaker is open.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry")
+    @ConditionalOnBean(type = "io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry")
+    static class CircuitBreakerPauseConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public CircuitBreakerListenerBinder circuitBreakerListenerBinder(ListenerContainerRegistry containerRegistry,
+                                                                         CircuitBreakerRegistry circuitBreakerRegistry,
+                                                                         KafkaProperties properties) {
+            KafkaProperties.CircuitBreakerPause circuitBreaker = properties.getConsumer().getCircuitBreaker();
+            return new CircuitBreakerListenerBinder(containerRegistry, circuitBreakerRegistry,
+                circuitBreaker.getBindings(), circuitBreaker.getProbeInterval());
+        }
+    }
+
+    /**
+     * Tracks the highest processed sequence per aggregate, for listeners dropping stale events.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "nexora.kafka.consumer.sequence-guard", name = "enabled", havingValue = "true")
+    public SequenceGuard sequenceGuard(KafkaProperties properties) {
+        return new SequenceGuard(properties.getConsumer().getSequenceGuard().getCapacity());
+    }
+
+    /**
+     * Duplicate detection for {@code @IdempotentListener} methods, backed by Redis when a
+     * {@link StringRedisTemplate} is available and by the {@code processed_message} table otherwise.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "nexora.kafka.idempotent", name = "enabled", havingValue = "true")
+    static class IdempotentConfiguration {
+
+        @Bean
+        static IdempotentListenerPostProcessor idempotentListenerPostProcessor(ObjectProvider<IdempotencyGuard> guard,
+                                                                               Environment environment) {
+            String header = environment.getProperty("nexora.kafka.idempotent.header", EventHeaders.MESSAGE_ID);
+            return new IdempotentListenerPostProcessor(
+                new IdempotentListenerInterceptor(SingletonSupplier.of(guard::getObject), header));
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(ProcessedIdStore.class)
+        public IdempotencyGuard idempotencyGuard(ProcessedIdStore store, KafkaProperties properties) {
+            return new IdempotencyGuard(store, properties.getIdempotent());
+        }
+
+        @Configuration(proxyBeanMethods = false)
+        @Order(1)
+        @ConditionalOnClass(name = "org.springframework.data.redis.core.StringRedisTemplate")
+        @ConditionalOnBean(type = "org.springframework.data.redis.core.StringRedisTemplate")
+        @ConditionalOnProperty(prefix = "nexora.kafka.idempotent", name = "store", havingValue = "redis", matchIfMissing = true)
+        static class RedisStoreConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public ProcessedIdStore redisProcessedIdStore(StringRedisTemplate redisTemplate, KafkaProperties properties) {
+                return new RedisProcessedIdStore(redisTemplate, properties.getIdempotent().getTtl());
+            }
+        }
+
+        @Configuration(proxyBeanMethods = false)
+        @Order(2)
+        @ConditionalOnClass(name = "org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate")
+        @ConditionalOnBean(DataSource.class)
+        @ConditionalOnProperty(prefix = "nexora.kafka.idempotent", name = "store", havingValue = "jdbc", matchIfMissing = true)
+        static class JdbcStoreConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public ProcessedIdStore jdbcProcessedIdStore(DataSource dataSource, KafkaProperties properties) {
+                return new JdbcProcessedIdStore(new NamedParameterJdbcTemplate(dataSource),
+                    properties.getIdempotent().getTtl());
+            }
+        }
+    }
+
+    /**
+     * Decompression of outbox payloads the relay sent compressed, before deserialization.
+     * On unless disabled: records without the codec header pass through unchanged.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "nexora.kafka.consumer", name = "decompress-payloads", havingValue = "true",
+        matchIfMissing = true)
+    static class PayloadDecompressionConfiguration {
+
+        @Bean
+        static PayloadCodecConsumerFactoryPostProcessor payloadCodecConsumerFactoryPostProcessor() {
+            return new PayloadCodecConsumerFactoryPostProcessor();
+        }
+    }
+
     /**
      * Outbox pattern support configuration.
-     * Only active when JPA is available and outbox is enabled.
+     * Only active when JDBC is available and outbox is enabled.
      */
-    @ConditionalOnClass(name = "org.springframework.boot.autoconfigure.domain.EntityScan")
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate")
+    @ConditionalOnBean({DataSource.class, PlatformTransactionManager.class})
     @ConditionalOnProperty(prefix = "nexora.kafka.outbox", name = "enabled", havingValue = "true", matchIfMissing = false)
     public static class OutboxConfiguration {
-        // Outbox entity scanning will be handled by Spring Boot auto-configuration
-        // when spring-boot-starter-data-jpa is on the classpath
+
+        @Bean
+        @ConditionalOnMissingBean
+        public JdbcOutboxRepository jdbcOutboxRepository(DataSource dataSource, KafkaProperties properties) {
+            KafkaProperties.Compression compression = properties.getOutbox().getCompression();
+            JdbcOutboxRepository repository = compression.isEnabled()
+                ? new JdbcOutboxRepository(new NamedParameterJdbcTemplate(dataSource), compression.getCodec(),
+                    (int) compression.getThreshold().toBytes())
+                : new JdbcOutboxRepository(new NamedParameterJdbcTemplate(dataSource));
+            repository.setSequences(properties.getOutbox().isSequences());
+            return repository;
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public OutboxIdGenerator outboxIdGenerator(KafkaProperties properties) {
+            int nodeId = properties.getOutbox().getNodeId();
+            if (nodeId < 0) {
+                // A random node ID would let two instances generate the same event IDs
+                throw new IllegalStateException("nexora.kafka.outbox.node-id must be set to a value (0-"
+                    + OutboxIdGenerator.MAX_NODE_ID + ") unique per instance sharing the outbox table");
+            }
+            return new OutboxIdGenerator(nodeId);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public OutboxEventWriter outboxEventWriter(JdbcOutboxRepository repository, OutboxIdGenerator idGenerator,
+                                                   KafkaProperties properties) {
+            return new OutboxEventWriter(repository, idGenerator, properties.getOutbox().getLease().getBuckets());
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "nexora.kafka.outbox.lease", name = "enabled", havingValue = "true")
+        public JdbcOutboxLeaseRepository jdbcOutboxLeaseRepository(DataSource dataSource) {
+            return new JdbcOutboxLeaseRepository(new NamedParameterJdbcTemplate(dataSource));
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "nexora.kafka.outbox.lease", name = "enabled", havingValue = "true")
+        public OutboxLeaseManager outboxLeaseManager(JdbcOutboxLeaseRepository repository, KafkaProperties properties) {
+            KafkaProperties.Outbox outbox = properties.getOutbox();
+            KafkaProperties.Lease lease = outbox.getLease();
+            return new OutboxLeaseManager(repository, leaseNodeId(), lease.getBuckets(),
+                lease.getTtl(), lease.getRenewInterval(), outbox.getSendTimeout());
+        }
+
+        private static String leaseNodeId() {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                host = "unknown";
+            }
+            // Random suffix keeps restarted or co-located instances apart
+            return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public OutboxRelay outboxRelay(JdbcOutboxRepository repository,
+                                       @Qualifier(EventPublisher.KAFKA_TEMPLATE_BEAN_NAME)
+                                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       KafkaProperties properties,
+                                       ObjectProvider<OutboxLeaseManager> leaseManager,
+                                       OutboxEventWriter outboxEventWriter,
+                                       @Qualifier("eventProducerFactory")
+                                       ObjectProvider<ProducerFactory<String, byte[]>> eventProducerFactory) {
+            OutboxLeaseManager leases = leaseManager.getIfAvailable();
+            if (repository.isSequences() && leases == null && !properties.getOutbox().isSingleNode()) {
+                // Relays claiming the same aggregate would send its events out of sequence
+                throw new IllegalStateException("nexora.kafka.outbox.sequences requires nexora.kafka.outbox.lease.enabled, "
+                    + "or nexora.kafka.outbox.single-node when only one instance relays the outbox");
+            }
+            OutboxRelay relay = new OutboxRelay(repository, kafkaTemplate,
+                new TransactionTemplate(transactionManager), properties.getOutbox(), leases);
+            relay.setSchemaVersions(properties.getProducer().getSchemaVersions());
+            if (properties.getOutbox().getExactlyOnce().isEnabled()) {
+                relay.enableTransactions(transactionalTemplates(eventProducerFactory.getObject(), properties.getOutbox()));
+            }
+            if (properties.getOutbox().isWakeOnCommit()) {
+                outboxEventWriter.setCommitListener(relay::wakeup);
+            }
+            return relay;
+        }
+
+        /**
+         * One template per relay lane, each on a copy of the event producer factory with its
+         * own transactional ID. Per-topic producers are not used: a transaction spans one producer.
+         *
+         * <p>The transactional IDs embed the node ID, which must be set: without it, relays on
+         * other instances would share the IDs and fence each other.
+         */
+        private static List<KafkaTemplate<String, byte[]>> transactionalTemplates(
+                ProducerFactory<String, byte[]> producerFactory, KafkaProperties.Outbox outbox) {
+            if (outbox.getNodeId() < 0) {
+                throw new IllegalStateException("nexora.kafka.outbox.exactly-once requires nexora.kafka.outbox.node-id "
+                    + "to be set to a value unique and stable per instance");
+            }
+            String prefix = outbox.getExactlyOnce().getTransactionalIdPrefix() + outbox.getNodeId() + "-";
+            List<KafkaTemplate<String, byte[]>> templates = new ArrayList<>();
+            for (int lane = 0; lane < Math.max(1, outbox.getLanes()); lane++) {
+                // Transactions require idempotence, which in turn requires acks=all
+                Map<String, Object> overrides = Map.of(
+                    ProducerConfig.TRANSACTIONAL_ID_CONFIG, prefix + lane + "-",
+                    ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                    ProducerConfig.ACKS_CONFIG, "all");
+                templates.add(new KafkaTemplate<>(producerFactory.copyWithConfigurationOverride(overrides)));
+            }
+            return templates;
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "nexora.kafka.outbox.purge", name = "enabled", havingValue = "true")
+        public OutboxPurger outboxPurger(JdbcOutboxRepository repository,
+                                         PlatformTransactionManager transactionManager,
+                                         KafkaProperties properties) {
+            return new OutboxPurger(repository, new TransactionTemplate(transactionManager),
+                properties.getOutbox().getPurge());
+        }
+
+        /**
+         * Outbox relay metrics, registered when Micrometer is available.
+         */
+        @Configuration(proxyBeanMethods = false)
+        @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+        static class OutboxMetricsConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public OutboxRelayMetrics outboxRelayMetrics(OutboxRelay outboxRelay, JdbcOutboxRepository repository) {
+                return new OutboxRelayMetrics(outboxRelay, repository);
+            }
+        }
     }
 }
@@ -1,19 +1,51 @@
 package com.nexora.kafka.autoconfigure;
 
+import com.nexora.kafka.dlq.DlqDestinationResolver;
+import com.nexora.kafka.dlq.DlqReplayEndpoint;
+import com.nexora.kafka.dlq.DlqReplayService;
+import com.nexora.kafka.dlq.DlqTopicProvisioner;
+import com.nexora.kafka.properties.KafkaProperties;
+import com.nexora.kafka.retry.DelaySuffixRetryTopicNamesProviderFactory;
+import com.nexora.kafka.retry.TieredBackOff;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.retrytopic.RetryTopicBeanNames;
+import org.springframework.kafka.retrytopic.RetryTopicComponentFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+import org.springframework.kafka.retrytopic.RetryTopicNamesProviderFactory;
+import org.springframework.kafka.support.serializer.DeserializationException;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Kafka DLQ (Dead Letter Queue) auto-configuration.
  *
@@ -22,48 +54,77 @@ import org.springframework.util.backoff.FixedBackOff;
  *
  * <p>DLQ topic naming: {original-topic}.dlq
  *
+ * <p>DLQ topics of listener topics are created at startup with the listener topic's
+ * partition count ({@code nexora.kafka.dlq.provisioning}), so records keep their partition.
+ *
+ * <p>With {@code nexora.kafka.dlq.retry-topics.enabled=true}, failed records are retried
+ * without blocking their partition: they are forwarded to {original-topic}.retry-{delay}
+ * topics (e.g. {@code orders.retry-1s}, {@code orders.retry-30s}) consumed by the same
+ * listener once the delay has elapsed, and to {original-topic}.dlq after the last tier.
+ *
+ * <p>DLQ records are replayed to their original topic with the {@link DlqReplayService},
+ * also exposed as the {@code dlqreplay} actuator endpoint when the actuator is present.
+ *
  * @author sujie
  */
 @Slf4j
-@Configuration
+@AutoConfiguration(afterName = "org.springframework.boot.kafka.autoconfigure.KafkaAutoConfiguration")
 @ConditionalOnClass(name = "org.springframework.kafka.core.KafkaTemplate")
 @ConditionalOnProperty(prefix = "nexora.kafka.dlq", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(KafkaProperties.class)
 public class KafkaDlqAutoConfiguration {
 
+    static final String DLQ_SUFFIX = ".dlq";
+    static final String RETRY_SUFFIX = ".retry";
+
     @Autowired(required = false)
     private KafkaTemplate<Object, Object> kafkaTemplate;
 
+    /**
+     * Resolves {topic}.dlq destinations, cached per topic and partition.
+     *
+     * <p>With provisioning enabled, records of topics whose DLQ partition count is unknown
+     * go to a partition picked by the producer instead of being verified per record.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public DlqDestinationResolver dlqDestinationResolver(KafkaProperties properties) {
+        return new DlqDestinationResolver(DLQ_SUFFIX, !properties.getDlq().getProvisioning().isEnabled());
+    }
+
     /**
      * Common error handler with DLQ support.
      *
      * <p>Configuration:
      * <ul>
-     *   <li>Max retry attempts: 3</li>
-     * <li>Backoff interval: 1 second</li>
-   *   <li>Failed messages sent to DLQ topic</li>
+     *   <li>Max retry attempts: {@code nexora.kafka.dlq.retry-attempts}</li>
+     *   <li>Backoff interval: 1 second</li>
+     *   <li>Failed messages sent to DLQ topic</li>
      * </ul>
+     *
+     * <p>Retries block the partition; enable retry topics for listeners where that matters.
      */
     @Bean
-    public CommonErrorHandler kafkaErrorHandler() {
+    public CommonErrorHandler kafkaErrorHandler(KafkaProperties properties, DlqDestinationResolver dlqDestinationResolver) {
         if (kafkaTemplate == null) {
             log.warn("KafkaTemplate not available, DLQ disabled");
             // Return a simple error handler without DLQ
             return new DefaultErrorHandler();
         }
 
-        // Fixed backoff: retry after 1 second, max 3 attempts
-        FixedBackOff backOff = new FixedBackOff(1000L, 3L);
+        // Fixed backoff: retry after 1 second, up to the configured attempts
+        FixedBackOff backOff = new FixedBackOff(1000L, properties.getDlq().getRetryAttempts());
 
         // Dead letter publishing recoverer
-        // Automatically sends failed messages to DLQ topic
+        // Automatically sends failed messages to DLQ topic: original-topic + ".dlq"
         DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
             kafkaTemplate,
-            (record, exception) -> {
-                // DLQ topic name: original-topic + ".dlq"
-                String dlqTopic = record.topic() + ".dlq";
-                return new org.apache.kafka.common.TopicPartition(dlqTopic, record.partition());
-            }
+            dlqDestinationResolver
         );
+        if (properties.getDlq().getProvisioning().isEnabled()) {
+            // Partitions are checked once at startup instead of a metadata fetch per record
+            recoverer.setVerifyPartition(false);
+        }
 
         // Default error handler with DLQ
         DefaultErrorHandler errorHandler = new DefaultErrorHandler(
@@ -74,9 +135,131 @@ public class KafkaDlqAutoConfiguration {
         // Configure which exceptions should NOT be retried
         errorHandler.addNotRetryableExceptions(
             IllegalArgumentException.class,
-            org.springframework.kafka.support.serializer.DeserializationException.class
+            DeserializationException.class
         );
 
         return errorHandler;
     }
+
+    /**
+     * Creates missing DLQ topics with their listener topic's partition count at startup.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnBean({KafkaAdmin.class, ListenerContainerRegistry.class})
+    @ConditionalOnProperty(prefix = "nexora.kafka.dlq.provisioning", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class DlqProvisioningConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public DlqTopicProvisioner dlqTopicProvisioner(KafkaAdmin kafkaAdmin, ListenerContainerRegistry containerRegistry,
+                                                       @Qualifier("kafkaErrorHandler") CommonErrorHandler kafkaErrorHandler,
+                                                       DlqDestinationResolver dlqDestinationResolver,
+                                                       KafkaProperties properties) {
+            KafkaProperties.Provisioning provisioning = properties.getDlq().getProvisioning();
+            return new DlqTopicProvisioner(() -> AdminClient.create(kafkaAdmin.getConfigurationProperties()),
+                containerRegistry, kafkaErrorHandler, dlqDestinationResolver,
+                provisioning.getReplicationFactor(), provisioning.getTimeout());
+        }
+    }
+
+    /**
+     * Non-blocking retry topics.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "nexora.kafka.dlq.retry-topics", name = "enabled", havingValue = "true")
+    @ConditionalOnBean(KafkaTemplate.class)
+    static class RetryTopicsConfiguration {
+
+        /**
+         * Retry topic configuration picked up by {@code @KafkaListener} processing.
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public RetryTopicConfiguration nexoraRetryTopicConfiguration(KafkaTemplate<Object, Object> kafkaTemplate,
+                                                                     KafkaProperties properties) {
+            KafkaProperties.RetryTopics retryTopics = properties.getDlq().getRetryTopics();
+            TieredBackOff backOff = new TieredBackOff(retryTopics.getDelays());
+            RetryTopicConfigurationBuilder builder = RetryTopicConfigurationBuilder.newInstance()
+                .customBackoff(backOff)
+                .maxAttempts(backOff.getRetries() + 1)
+                .retryTopicSuffix(RETRY_SUFFIX)
+                .dltSuffix(DLQ_SUFFIX)
+                .notRetryOn(List.of(IllegalArgumentException.class, DeserializationException.class))
+                .traversingCauses()
+                // The DLQ is for inspection and replay, not consumed by the listener's app
+                .autoStartDltHandler(false);
+            if (!retryTopics.getTopics().isEmpty()) {
+                builder.includeTopics(retryTopics.getTopics());
+            }
+            if (retryTopics.isAutoCreateTopics()) {
+                builder.autoCreateTopicsWith(retryTopics.getPartitions(), retryTopics.getReplicationFactor());
+            } else {
+                builder.doNotAutoCreateRetryTopics();
+            }
+            log.info("Kafka retry topics enabled: delays={}", retryTopics.getDelays());
+            return builder.create(kafkaTemplate);
+        }
+
+        /**
+         * Retry topic infrastructure naming retry topics {@code .retry-1s}, {@code .retry-30s}, ...
+         * instead of raw milliseconds.
+         *
+         * <p>Spring Kafka only takes its components from a {@link RetryTopicConfigurationSupport},
+         * never from beans. Registered under the name of its default support, so it takes its place.
+         */
+        @Configuration(value = RetryTopicBeanNames.DEFAULT_RETRY_TOPIC_CONFIG_SUPPORT_BEAN_NAME, proxyBeanMethods = false)
+        @ConditionalOnMissingBean(RetryTopicConfigurationSupport.class)
+        static class RetryTopicNamingConfiguration extends RetryTopicConfigurationSupport {
+
+            @Override
+            protected RetryTopicComponentFactory createComponentFactory() {
+                return new RetryTopicComponentFactory() {
+                    @Override
+                    public RetryTopicNamesProviderFactory retryTopicNamesProviderFactory() {
+                        return new DelaySuffixRetryTopicNamesProviderFactory();
+                    }
+                };
+            }
+        }
+    }
+
+    /**
+     * Rate-limited, resumable replay of DLQ records.
+     *
+     * <p>Uses its own {@code byte[]} consumers and producer derived from the application's
+     * Kafka configuration, so records are replayed exactly as they were dead-lettered.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnBean({ConsumerFactory.class, ProducerFactory.class})
+    @ConditionalOnProperty(prefix = "nexora.kafka.dlq.replay", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class DlqReplayConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public DlqReplayService dlqReplayService(ConsumerFactory<?, ?> consumerFactory,
+                                                 ProducerFactory<?, ?> producerFactory,
+                                                 KafkaProperties properties) {
+            KafkaProperties.Replay replay = properties.getDlq().getReplay();
+            Map<String, Object> consumerConfigs = new HashMap<>(consumerFactory.getConfigurationProperties());
+            consumerConfigs.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+            consumerConfigs.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, replay.getBatchSize());
+            Map<String, Object> producerConfigs = new HashMap<>(producerFactory.getConfigurationProperties());
+            return new DlqReplayService(
+                new DefaultKafkaConsumerFactory<>(consumerConfigs, new ByteArrayDeserializer(), new ByteArrayDeserializer()),
+                new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerConfigs,
+                    new ByteArraySerializer(), new ByteArraySerializer())),
+                replay);
+        }
+
+        @Configuration(proxyBeanMethods = false)
+        @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+        static class DlqReplayEndpointConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public DlqReplayEndpoint dlqReplayEndpoint(DlqReplayService dlqReplayService) {
+                return new DlqReplayEndpoint(dlqReplayService);
+            }
+        }
+    }
 }
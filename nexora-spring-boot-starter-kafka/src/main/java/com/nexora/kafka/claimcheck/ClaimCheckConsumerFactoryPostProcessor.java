@@ -0,0 +1,50 @@
+package com.nexora.kafka.claimcheck;
+
+import com.nexora.kafka.listener.ValueDeserializerSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * Wraps the value deserializer of every {@link DefaultKafkaConsumerFactory} in a
+ * {@link ClaimCheckDeserializer}, so listeners receive claim-checked payloads transparently.
+ *
+ * <p>The factory's deserializer supplier is wrapped (see {@link ValueDeserializerSupport}),
+ * so per-consumer deserializers stay per consumer.
+ *
+ * <p>Runs just before the event type filter, so records it drops are never fetched.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class ClaimCheckConsumerFactoryPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final Supplier<ClaimCheckStore> store;
+
+    public ClaimCheckConsumerFactoryPostProcessor(Supplier<ClaimCheckStore> store) {
+        this.store = store;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DefaultKafkaConsumerFactory<?, ?> factory) {
+            wrap(factory, beanName);
+        }
+        return bean;
+    }
+
+    private <V> void wrap(DefaultKafkaConsumerFactory<?, V> factory, String beanName) {
+        if (ValueDeserializerSupport.wrapValueDeserializer(factory, ClaimCheckDeserializer.class,
+                deserializer -> new ClaimCheckDeserializer<>(deserializer, store))) {
+            log.info("Enabled claim-check payloads on consumer factory {}", beanName);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.nexora.kafka.claimcheck;
+
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Value deserializer that resolves claim-checked payloads before delegating.
+ *
+ * <p>Records with an {@link EventHeaders#CLAIM_CHECK} header have their payload fetched
+ * from the {@link ClaimCheckStore} and passed to the delegate in place of the empty value;
+ * only those records touch the storage. Other records go to the delegate unchanged.
+ *
+ * <p>The store is resolved on first use, so the deserializer can be created before it.
+ *
+ * @param <T> the value type
+ * @author sujie
+ */
+public class ClaimCheckDeserializer<T> implements Deserializer<T> {
+
+    private final Deserializer<T> delegate;
+    private final Supplier<ClaimCheckStore> store;
+
+    public ClaimCheckDeserializer(Deserializer<T> delegate, Supplier<ClaimCheckStore> store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        Header reference = headers.lastHeader(EventHeaders.CLAIM_CHECK);
+        if (reference != null) {
+            data = store.get().checkOut(new String(reference.value(), StandardCharsets.UTF_8));
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
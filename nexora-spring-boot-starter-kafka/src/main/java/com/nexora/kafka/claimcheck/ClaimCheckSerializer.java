@@ -0,0 +1,47 @@
+package com.nexora.kafka.claimcheck;
+
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Value serializer of the event producer that checks large payloads in.
+ *
+ * <p>A payload above the threshold is uploaded to the {@link ClaimCheckStore}; the record
+ * then carries the file key in the {@link EventHeaders#CLAIM_CHECK} header and an empty
+ * value. Smaller payloads pass through unchanged.
+ *
+ * <p>The upload runs on the sending thread, inside {@code KafkaTemplate.send}; a failed
+ * upload fails the send like any serialization error.
+ *
+ * @author sujie
+ */
+public class ClaimCheckSerializer implements Serializer<byte[]> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ClaimCheckStore store;
+
+    public ClaimCheckSerializer(ClaimCheckStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public byte[] serialize(String topic, byte[] data) {
+        // No headers to carry a reference
+        return data;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, byte[] data) {
+        if (data == null || !store.exceedsThreshold(data.length)) {
+            return data;
+        }
+        String key = store.checkIn(topic, data);
+        headers.add(EventHeaders.CLAIM_CHECK, key.getBytes(StandardCharsets.UTF_8));
+        // Empty rather than null, which would be a tombstone on compacted topics
+        return EMPTY;
+    }
+}
@@ -0,0 +1,119 @@
+package com.nexora.kafka.claimcheck;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nexora.kafka.properties.KafkaProperties;
+import com.nexora.storage.FileMetadata;
+import com.nexora.storage.FileStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Claim-check storage of large event payloads.
+ *
+ * <p>Payloads above {@code threshold} are uploaded through the {@link FileStorageService}
+ * and travel through Kafka as a file key only, so big events no longer inflate broker disk,
+ * replication and producer batches shared with small ones, nor hit {@code max.request.size}.
+ *
+ * <p>Fetched payloads are kept in a cache bounded by total size, so retries, redeliveries
+ * and several listeners of the same topic in one JVM download a payload once.
+ *
+ * <p>Uploaded payloads are never deleted by Kafka retention; expire the storage path with
+ * a lifecycle rule at least as long as the topic retention.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class ClaimCheckStore {
+
+    private final FileStorageService storage;
+    private final long threshold;
+    private final String path;
+    private final Cache<String, byte[]> cache;
+    private final LongAdder checkedIn = new LongAdder();
+    private final LongAdder fetched = new LongAdder();
+
+    public ClaimCheckStore(FileStorageService storage, KafkaProperties.ClaimCheck properties) {
+        this.storage = storage;
+        this.threshold = properties.getThreshold().toBytes();
+        this.path = properties.getPath().endsWith("/") ? properties.getPath() : properties.getPath() + "/";
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(properties.getCacheSize().toBytes())
+            .weigher((String key, byte[] value) -> value.length)
+            .expireAfterAccess(properties.getCacheTtl())
+            .build();
+    }
+
+    /**
+     * Whether a payload is too large to travel through Kafka.
+     *
+     * @param size the payload size in bytes
+     * @return true if the payload should be checked in
+     */
+    public boolean exceedsThreshold(int size) {
+        return size > threshold;
+    }
+
+    /**
+     * Upload a payload.
+     *
+     * @param topic   the topic the payload is published to
+     * @param payload the payload
+     * @return the file key referencing the payload
+     * @throws SerializationException if the upload fails
+     */
+    public String checkIn(String topic, byte[] payload) {
+        try {
+            FileMetadata metadata = storage.upload(new ByteArrayInputStream(payload), topic + ".bin", path + topic + "/");
+            checkedIn.increment();
+            log.debug("Checked in payload: topic={}, size={}, key={}", topic, payload.length, metadata.getFileKey());
+            return metadata.getFileKey();
+        } catch (IOException e) {
+            throw new SerializationException("Failed to upload claim-check payload for topic " + topic, e);
+        }
+    }
+
+    /**
+     * Fetch a payload, from the cache if it was fetched before.
+     *
+     * @param key the file key
+     * @return the payload
+     * @throws SerializationException if the download fails
+     */
+    public byte[] checkOut(String key) {
+        try {
+            return cache.get(key, this::download);
+        } catch (UncheckedIOException e) {
+            throw new SerializationException("Failed to download claim-check payload " + key, e.getCause());
+        }
+    }
+
+    private byte[] download(String key) {
+        try (InputStream in = storage.download(key)) {
+            fetched.increment();
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Number of payloads uploaded.
+     */
+    public long getCheckedIn() {
+        return checkedIn.sum();
+    }
+
+    /**
+     * Number of payloads downloaded, cache hits excluded.
+     */
+    public long getFetched() {
+        return fetched.sum();
+    }
+}
@@ -0,0 +1,98 @@
+package com.nexora.kafka.codec;
+
+import org.apache.kafka.common.compress.Compression;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.record.RecordBatch;
+import org.apache.kafka.common.utils.BufferSupplier;
+import org.apache.kafka.common.utils.ByteBufferOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compression codecs for event payloads, using the LZ4 and zstd implementations bundled
+ * with kafka-clients.
+ *
+ * <p>Compressed payloads are sent with an {@link com.nexora.kafka.publisher.EventHeaders#PAYLOAD_CODEC}
+ * header naming the codec, and decompressed on the consumer side by {@link PayloadCodecDeserializer}.
+ *
+ * @author sujie
+ */
+public enum PayloadCodec {
+
+    /**
+     * LZ4: fast, moderate ratio.
+     */
+    LZ4("lz4", Compression.lz4().build()),
+
+    /**
+     * Zstandard: better ratio at some CPU cost.
+     */
+    ZSTD("zstd", Compression.zstd().build());
+
+    private final String id;
+    private final Compression compression;
+
+    PayloadCodec(String id, Compression compression) {
+        this.id = id;
+        this.compression = compression;
+    }
+
+    /**
+     * Name stored in the {@code payload_codec} column and sent in the codec header.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Codec by its ID.
+     *
+     * @param id the codec ID
+     * @return the codec
+     * @throws IllegalArgumentException if the codec is unknown
+     */
+    public static PayloadCodec of(String id) {
+        for (PayloadCodec codec : values()) {
+            if (codec.id.equals(id)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payload codec: " + id);
+    }
+
+    /**
+     * Compress a payload.
+     *
+     * @param data the payload
+     * @return the compressed payload
+     */
+    public byte[] compress(byte[] data) {
+        ByteBufferOutputStream buffer = new ByteBufferOutputStream(data.length / 2 + 64);
+        try (OutputStream out = compression.wrapForOutput(buffer, RecordBatch.CURRENT_MAGIC_VALUE)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new SerializationException("Failed to compress payload with " + id, e);
+        }
+        ByteBuffer compressed = buffer.buffer();
+        return Arrays.copyOf(compressed.array(), compressed.position());
+    }
+
+    /**
+     * Decompress a payload.
+     *
+     * @param data the compressed payload
+     * @return the payload
+     */
+    public byte[] decompress(byte[] data) {
+        try (InputStream in = compression.wrapForInput(ByteBuffer.wrap(data), RecordBatch.CURRENT_MAGIC_VALUE,
+                BufferSupplier.NO_CACHING)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new SerializationException("Failed to decompress payload with " + id, e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.nexora.kafka.codec;
+
+import com.nexora.kafka.listener.ValueDeserializerSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+/**
+ * Wraps the value deserializer of every {@link DefaultKafkaConsumerFactory} in a
+ * {@link PayloadCodecDeserializer}, so listeners receive compressed outbox payloads
+ * decompressed.
+ *
+ * <p>The factory's deserializer supplier is wrapped (see {@link ValueDeserializerSupport}),
+ * so per-consumer deserializers stay per consumer.
+ *
+ * <p>Runs before the claim-check and event type filter post-processors, so it wraps the
+ * application's deserializer directly and payloads are decompressed after being fetched.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class PayloadCodecConsumerFactoryPostProcessor implements BeanPostProcessor, Ordered {
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 2;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DefaultKafkaConsumerFactory<?, ?> factory) {
+            wrap(factory, beanName);
+        }
+        return bean;
+    }
+
+    private <V> void wrap(DefaultKafkaConsumerFactory<?, V> factory, String beanName) {
+        if (ValueDeserializerSupport.wrapValueDeserializer(factory, PayloadCodecDeserializer.class,
+                PayloadCodecDeserializer::new)) {
+            log.info("Enabled payload decompression on consumer factory {}", beanName);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.nexora.kafka.codec;
+
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+/**
+ * Value deserializer that decompresses payloads before delegating.
+ *
+ * <p>Records with an {@link EventHeaders#PAYLOAD_CODEC} header are decompressed with that
+ * {@link PayloadCodec} and passed to the delegate; other records go to it unchanged.
+ *
+ * @param <T> the value type
+ * @author sujie
+ */
+public class PayloadCodecDeserializer<T> implements Deserializer<T> {
+
+    private final Deserializer<T> delegate;
+
+    public PayloadCodecDeserializer(Deserializer<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        String codec = EventHeaders.lastValue(headers, EventHeaders.PAYLOAD_CODEC);
+        if (codec != null && data != null) {
+            data = PayloadCodec.of(codec).decompress(data);
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
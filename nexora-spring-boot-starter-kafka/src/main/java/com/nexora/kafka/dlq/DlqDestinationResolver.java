@@ -0,0 +1,113 @@
+package com.nexora.kafka.dlq;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+
+/**
+ * Destination resolver of the dead letter publishing recoverer: {@code {topic}.dlq} on the
+ * record's partition.
+ *
+ * <p>Destinations are cached per source topic and partition, so resolving one costs a map
+ * lookup and an array read instead of a topic name concatenation per failed record. When
+ * the DLQ partition count is known ({@link #register}, done by {@link DlqTopicProvisioner}),
+ * partitions the DLQ lacks resolve to partition {@code -1} and the producer picks one.
+ * Topics not registered resolve to the same partition, or to {@code -1} if
+ * {@code samePartitionIfUnknown} is false.
+ *
+ * @author sujie
+ */
+public class DlqDestinationResolver implements BiFunction<ConsumerRecord<?, ?>, Exception, TopicPartition> {
+
+    private final String suffix;
+    private final boolean samePartitionIfUnknown;
+    private final ConcurrentMap<String, Destinations> destinations = new ConcurrentHashMap<>();
+
+    /**
+     * Create a resolver.
+     *
+     * @param suffix                 the DLQ topic suffix, e.g. {@code .dlq}
+     * @param samePartitionIfUnknown whether records of unregistered topics keep their partition
+     */
+    public DlqDestinationResolver(String suffix, boolean samePartitionIfUnknown) {
+        this.suffix = suffix;
+        this.samePartitionIfUnknown = samePartitionIfUnknown;
+    }
+
+    @Override
+    public TopicPartition apply(ConsumerRecord<?, ?> record, Exception exception) {
+        Destinations topic = destinations.get(record.topic());
+        if (topic == null) {
+            topic = destinations.computeIfAbsent(record.topic(), t -> new Destinations(t + suffix, 0, false));
+        }
+        return topic.resolve(record.partition(), samePartitionIfUnknown);
+    }
+
+    /**
+     * Record the partition count of a topic's DLQ.
+     *
+     * @param topic         the source topic
+     * @param dlqPartitions the number of partitions of its DLQ topic
+     */
+    public void register(String topic, int dlqPartitions) {
+        destinations.put(topic, new Destinations(dlqTopic(topic), dlqPartitions, true));
+    }
+
+    /**
+     * DLQ topic of a source topic.
+     *
+     * @param topic the source topic
+     * @return the DLQ topic name
+     */
+    public String dlqTopic(String topic) {
+        return topic + suffix;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    private static final class Destinations {
+
+        private final TopicPartition any;
+        private final boolean known;
+        private volatile TopicPartition[] partitions;
+
+        Destinations(String dlqTopic, int dlqPartitions, boolean known) {
+            this.any = new TopicPartition(dlqTopic, -1);
+            this.known = known;
+            this.partitions = new TopicPartition[dlqPartitions];
+            for (int i = 0; i < dlqPartitions; i++) {
+                partitions[i] = new TopicPartition(dlqTopic, i);
+            }
+        }
+
+        TopicPartition resolve(int partition, boolean samePartitionIfUnknown) {
+            TopicPartition[] current = partitions;
+            if (partition >= 0 && partition < current.length) {
+                return current[partition];
+            }
+            if (known || !samePartitionIfUnknown || partition < 0) {
+                return any;
+            }
+            return grow(partition);
+        }
+
+        private synchronized TopicPartition grow(int partition) {
+            TopicPartition[] current = partitions;
+            if (partition < current.length) {
+                return current[partition];
+            }
+            TopicPartition[] grown = Arrays.copyOf(current, partition + 1);
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new TopicPartition(any.topic(), i);
+            }
+            partitions = grown;
+            return grown[partition];
+        }
+    }
+}
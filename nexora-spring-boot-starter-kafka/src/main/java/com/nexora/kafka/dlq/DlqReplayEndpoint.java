@@ -0,0 +1,62 @@
+package com.nexora.kafka.dlq;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Actuator endpoint driving the {@link DlqReplayService}.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/dlqreplay}: progress of the running or last replay</li>
+ *   <li>{@code POST /actuator/dlqreplay}: start a background replay, with {@code dlqTopic}
+ *       and the optional {@code replayId}, {@code exception}, {@code from}, {@code to} and
+ *       {@code key} filters</li>
+ *   <li>{@code DELETE /actuator/dlqreplay}: cancel the running replay</li>
+ * </ul>
+ *
+ * <p>Progress is checkpointed per DLQ topic and {@code replayId}: posting the same request
+ * again resumes a cancelled or failed replay where it stopped. Without a {@code replayId},
+ * each filter combination gets its own checkpoint, so changing the filters starts a new scan
+ * from the beginning (or {@code from}); pass a new {@code replayId} to rescan with the same
+ * filters.
+ *
+ * @author sujie
+ */
+@Endpoint(id = "dlqreplay")
+public class DlqReplayEndpoint {
+
+    private final DlqReplayService replayService;
+
+    public DlqReplayEndpoint(DlqReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    @ReadOperation
+    public DlqReplayStatus status() {
+        return replayService.getStatus();
+    }
+
+    @WriteOperation
+    public DlqReplayStatus replay(String dlqTopic, @Nullable String replayId,
+                                  @Nullable String exception, @Nullable Instant from,
+                                  @Nullable Instant to, @Nullable String key) {
+        DlqReplayRequest request = new DlqReplayRequest(dlqTopic, replayId,
+            exception != null ? Set.of(exception) : null, from, to, key != null ? Set.of(key) : null);
+        if (!replayService.start(request)) {
+            throw new IllegalStateException("A DLQ replay is already running");
+        }
+        return replayService.getStatus();
+    }
+
+    @DeleteOperation
+    public DlqReplayStatus cancel() {
+        replayService.cancel();
+        return replayService.getStatus();
+    }
+}
@@ -0,0 +1,102 @@
+package com.nexora.kafka.dlq;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * What to replay from a DLQ topic.
+ *
+ * <p>Progress is checkpointed per {@code dlqTopic} and {@code replayId}: running the same
+ * request again resumes where it stopped, a new {@code replayId} starts over. Without an
+ * explicit {@code replayId}, it is derived from the filters, so a request with different
+ * filters starts its own scan instead of resuming past records it never looked at. All
+ * filters are optional and combined with AND.
+ *
+ * @param dlqTopic   the DLQ topic, e.g. {@code orders.dlq}
+ * @param replayId   the checkpoint name, derived from the filters if blank
+ * @param exceptions exception class names (fully qualified or simple) of the failure or its cause
+ * @param from       earliest dead-lettering time, inclusive
+ * @param to         latest dead-lettering time, exclusive
+ * @param keys       record keys
+ * @author sujie
+ */
+public record DlqReplayRequest(String dlqTopic, String replayId, Set<String> exceptions,
+                               Instant from, Instant to, Set<String> keys) {
+
+    /**
+     * Checkpoint name used when none is given and no filter is set.
+     */
+    public static final String DEFAULT_REPLAY_ID = "default";
+
+    private static final String FILTERED_REPLAY_ID_PREFIX = "filtered-";
+
+    public DlqReplayRequest {
+        if (dlqTopic == null || dlqTopic.isBlank()) {
+            throw new IllegalArgumentException("DLQ topic is required");
+        }
+        exceptions = exceptions == null ? Set.of() : Set.copyOf(exceptions);
+        keys = keys == null ? Set.of() : Set.copyOf(keys);
+        replayId = replayId == null || replayId.isBlank() ? filterReplayId(exceptions, from, to, keys) : replayId;
+    }
+
+    /**
+     * Checkpoint name of a filter combination: {@link #DEFAULT_REPLAY_ID} without filters,
+     * otherwise a digest of the filters that doesn't depend on their order.
+     */
+    private static String filterReplayId(Set<String> exceptions, Instant from, Instant to, Set<String> keys) {
+        if (exceptions.isEmpty() && from == null && to == null && keys.isEmpty()) {
+            return DEFAULT_REPLAY_ID;
+        }
+        String filters = String.join(",", new TreeSet<>(exceptions)) + "|" + from + "|" + to
+            + "|" + String.join(",", new TreeSet<>(keys));
+        return FILTERED_REPLAY_ID_PREFIX + DigestUtils.md5DigestAsHex(filters.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Replay a whole DLQ topic.
+     *
+     * @param dlqTopic the DLQ topic
+     * @return the request
+     */
+    public static DlqReplayRequest of(String dlqTopic) {
+        return new DlqReplayRequest(dlqTopic, null, null, null, null, null);
+    }
+
+    /**
+     * Whether a DLQ record passes the filters.
+     *
+     * @param record the DLQ record
+     * @return true if it should be replayed
+     */
+    public boolean matches(ConsumerRecord<byte[], byte[]> record) {
+        if (from != null && record.timestamp() < from.toEpochMilli()) {
+            return false;
+        }
+        if (to != null && record.timestamp() >= to.toEpochMilli()) {
+            return false;
+        }
+        if (!keys.isEmpty() && (record.key() == null
+                || !keys.contains(new String(record.key(), StandardCharsets.UTF_8)))) {
+            return false;
+        }
+        return exceptions.isEmpty()
+            || matchesException(record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_FQCN))
+            || matchesException(record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN));
+    }
+
+    private boolean matchesException(Header header) {
+        if (header == null) {
+            return false;
+        }
+        String className = new String(header.value(), StandardCharsets.UTF_8);
+        return exceptions.contains(className)
+            || exceptions.contains(className.substring(className.lastIndexOf('.') + 1));
+    }
+}
@@ -0,0 +1,279 @@
+package com.nexora.kafka.dlq;
+
+import com.nexora.kafka.properties.KafkaProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams DLQ records back to their original topic.
+ *
+ * <p>A replay reads the DLQ topic up to its end offsets at the time the replay starts, so
+ * records that fail again and return to the DLQ are not replayed in a loop. Matching
+ * records are sent to the topic named by the {@code kafka_dlt-original-topic} header with
+ * their key, value and headers, minus the {@code kafka_dlt-*} failure headers and the
+ * {@code retry_topic-*} attempt headers of retry topics; records keep their message ID, so
+ * {@code @IdempotentListener} consumers still drop duplicates.
+ *
+ * <p>Sends are throttled by a token bucket ({@code rate}, {@code burst}) so a replay of
+ * millions of records doesn't overwhelm the consumers. Progress is committed as consumer
+ * group offsets after each poll, once its records are acknowledged; a stopped or crashed
+ * replay resumes from there, replaying at most one poll twice.
+ *
+ * <p>One replay runs at a time, either on the caller thread ({@link #replay}) or in the
+ * background ({@link #start}).
+ *
+ * @author sujie
+ */
+@Slf4j
+public class DlqReplayService implements DisposableBean {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final String DLQ_SUFFIX = ".dlq";
+    private static final String DLT_HEADER_PREFIX = "kafka_dlt-";
+    private static final String RETRY_TOPIC_HEADER_PREFIX = "retry_topic-";
+
+    private final ConsumerFactory<byte[], byte[]> consumerFactory;
+    private final KafkaTemplate<byte[], byte[]> kafkaTemplate;
+    private final KafkaProperties.Replay properties;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile boolean cancelled;
+    private volatile DlqReplayRequest current;
+    private volatile String error;
+
+    /**
+     * Create a replay service.
+     *
+     * @param consumerFactory factory of raw {@code byte[]} consumers for the DLQ topics
+     * @param kafkaTemplate   raw {@code byte[]} template, so records are replayed unchanged
+     * @param properties      the replay properties
+     */
+    public DlqReplayService(ConsumerFactory<byte[], byte[]> consumerFactory,
+                            KafkaTemplate<byte[], byte[]> kafkaTemplate,
+                            KafkaProperties.Replay properties) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Replay on the caller thread.
+     *
+     * @param request what to replay
+     * @return the final status
+     * @throws IllegalStateException if another replay is running
+     */
+    public DlqReplayStatus replay(DlqReplayRequest request) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A DLQ replay is already running: " + current);
+        }
+        reset(request);
+        execute(request);
+        return getStatus();
+    }
+
+    /**
+     * Replay in the background.
+     *
+     * @param request what to replay
+     * @return false if another replay is running
+     */
+    public boolean start(DlqReplayRequest request) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        reset(request);
+        Thread thread = new Thread(() -> execute(request), "nexora-dlq-replay");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Stop the running replay after the current record; progress so far stays checkpointed.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Progress of the running or last replay.
+     *
+     * @return the status
+     */
+    public DlqReplayStatus getStatus() {
+        return new DlqReplayStatus(current, running.get(), scanned.get(), replayed.get(), skipped.get(), error);
+    }
+
+    private void reset(DlqReplayRequest request) {
+        current = request;
+        cancelled = false;
+        error = null;
+        scanned.set(0);
+        replayed.set(0);
+        skipped.set(0);
+    }
+
+    private void execute(DlqReplayRequest request) {
+        log.info("Starting DLQ replay: {}", request);
+        try {
+            run(request);
+            log.info("DLQ replay {}: topic={}, scanned={}, replayed={}, skipped={}", cancelled ? "cancelled" : "finished",
+                request.dlqTopic(), scanned.get(), replayed.get(), skipped.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interrupted";
+        } catch (Exception e) {
+            log.error("DLQ replay failed: topic={}, replayed={}", request.dlqTopic(), replayed.get(), e);
+            error = e.toString();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void run(DlqReplayRequest request) throws Exception {
+        String groupId = properties.getGroupIdPrefix() + request.dlqTopic() + "." + request.replayId();
+        TokenBucket bucket = new TokenBucket(properties.getRate(), properties.getBurst());
+        try (Consumer<byte[], byte[]> consumer = consumerFactory.createConsumer(groupId, null)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(request.dlqTopic()).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            seekToStart(consumer, partitions, request);
+            Set<TopicPartition> remaining = new HashSet<>(partitions);
+            pauseCompleted(consumer, remaining, endOffsets);
+
+            while (!remaining.isEmpty() && !cancelled) {
+                ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                for (ConsumerRecord<byte[], byte[]> record : records) {
+                    if (cancelled) {
+                        break;
+                    }
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() >= endOffsets.get(partition)) {
+                        // Dead-lettered after the replay started
+                        continue;
+                    }
+                    scanned.incrementAndGet();
+                    if (request.matches(record)) {
+                        bucket.acquire();
+                        sends.add(kafkaTemplate.send(replayRecord(record)));
+                        replayed.incrementAndGet();
+                    } else {
+                        skipped.incrementAndGet();
+                    }
+                    offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                }
+                // Checkpoint only what the brokers acknowledged
+                CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+                    .get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                if (!offsets.isEmpty()) {
+                    consumer.commitSync(offsets);
+                }
+                pauseCompleted(consumer, remaining, endOffsets);
+            }
+        }
+    }
+
+    private static void seekToStart(Consumer<byte[], byte[]> consumer, List<TopicPartition> partitions,
+                                    DlqReplayRequest request) {
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        Map<TopicPartition, Long> timestamps = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata checkpoint = committed.get(partition);
+            if (checkpoint != null) {
+                consumer.seek(partition, checkpoint.offset());
+            } else if (request.from() != null) {
+                timestamps.put(partition, request.from().toEpochMilli());
+            } else {
+                consumer.seekToBeginning(List.of(partition));
+            }
+        }
+        if (!timestamps.isEmpty()) {
+            // Skip straight to the start of the time range instead of scanning from the beginning
+            Map<TopicPartition, OffsetAndTimestamp> offsets = consumer.offsetsForTimes(timestamps);
+            timestamps.keySet().forEach(partition -> {
+                OffsetAndTimestamp offset = offsets.get(partition);
+                if (offset != null) {
+                    consumer.seek(partition, offset.offset());
+                } else {
+                    consumer.seekToEnd(List.of(partition));
+                }
+            });
+        }
+    }
+
+    private static void pauseCompleted(Consumer<byte[], byte[]> consumer, Set<TopicPartition> remaining,
+                                       Map<TopicPartition, Long> endOffsets) {
+        List<TopicPartition> completed = remaining.stream()
+            .filter(partition -> consumer.position(partition) >= endOffsets.get(partition))
+            .toList();
+        if (!completed.isEmpty()) {
+            consumer.pause(completed);
+            completed.forEach(remaining::remove);
+        }
+    }
+
+    /**
+     * Build the record sent back to the original topic.
+     *
+     * <p>Dead-letter and retry-topic headers are dropped, so a replayed record starts over with
+     * a fresh attempt count instead of going straight back to the DLQ on its first failure.
+     */
+    static ProducerRecord<byte[], byte[]> replayRecord(ConsumerRecord<byte[], byte[]> record) {
+        Header originalTopic = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        String topic;
+        if (originalTopic != null) {
+            topic = new String(originalTopic.value(), StandardCharsets.UTF_8);
+        } else if (record.topic().endsWith(DLQ_SUFFIX)) {
+            topic = record.topic().substring(0, record.topic().length() - DLQ_SUFFIX.length());
+        } else {
+            throw new IllegalStateException("No original topic for DLQ record " + record.topic()
+                + "-" + record.partition() + "@" + record.offset());
+        }
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith(DLT_HEADER_PREFIX) && !header.key().startsWith(RETRY_TOPIC_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        return new ProducerRecord<>(topic, null, record.key(), record.value(), headers);
+    }
+
+    @Override
+    public void destroy() {
+        cancel();
+        kafkaTemplate.getProducerFactory().reset();
+    }
+}
@@ -0,0 +1,16 @@
+package com.nexora.kafka.dlq;
+
+/**
+ * Progress of a DLQ replay.
+ *
+ * @param request  the replay request, null if no replay ran yet
+ * @param running  whether the replay is still in progress
+ * @param scanned  DLQ records read
+ * @param replayed records sent back to their original topic
+ * @param skipped  records filtered out
+ * @param error    the failure that stopped the replay, if any
+ * @author sujie
+ */
+public record DlqReplayStatus(DlqReplayRequest request, boolean running, long scanned, long replayed,
+                              long skipped, String error) {
+}
@@ -0,0 +1,220 @@
+package com.nexora.kafka.dlq;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewPartitions;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.TopicPartitionOffset;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Creates the DLQ topics of listener topics before the listener containers start.
+ *
+ * <p>For every topic subscribed by a container using the DLQ error handler, the
+ * {@code {topic}.dlq} topic is created with the source topic's partition count if missing,
+ * and its partitions are increased if it has fewer. The resulting partition counts are
+ * registered with the {@link DlqDestinationResolver}, so dead-lettering a record never
+ * waits on metadata of a missing topic or partition.
+ *
+ * <p>Topic patterns are not resolved. Failures are logged and don't fail startup: records of
+ * topics whose DLQ could not be provisioned are sent to a partition picked by the producer.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class DlqTopicProvisioner implements SmartLifecycle {
+
+    private final Supplier<Admin> adminFactory;
+    private final ListenerContainerRegistry containerRegistry;
+    private final CommonErrorHandler errorHandler;
+    private final DlqDestinationResolver resolver;
+    private final Optional<Short> replicationFactor;
+    private final Duration timeout;
+
+    private volatile boolean running;
+    private boolean provisioned;
+
+    /**
+     * Create a provisioner.
+     *
+     * @param adminFactory      creates the admin client used at startup, closed afterwards
+     * @param containerRegistry the listener container registry
+     * @param errorHandler      the DLQ error handler; only containers using it are provisioned
+     * @param resolver          the DLQ destination resolver of the error handler
+     * @param replicationFactor the replication factor of created DLQ topics, -1 for the broker default
+     * @param timeout           max time to wait for each admin request
+     */
+    public DlqTopicProvisioner(Supplier<Admin> adminFactory, ListenerContainerRegistry containerRegistry,
+                               CommonErrorHandler errorHandler, DlqDestinationResolver resolver,
+                               short replicationFactor, Duration timeout) {
+        this.adminFactory = adminFactory;
+        this.containerRegistry = containerRegistry;
+        this.errorHandler = errorHandler;
+        this.resolver = resolver;
+        this.replicationFactor = replicationFactor > 0 ? Optional.of(replicationFactor) : Optional.empty();
+        this.timeout = timeout;
+    }
+
+    /**
+     * Topics subscribed by the containers using the DLQ error handler.
+     */
+    Set<String> listenerTopics() {
+        Set<String> topics = new TreeSet<>();
+        for (MessageListenerContainer container : containerRegistry.getAllListenerContainers()) {
+            if (!(container instanceof AbstractMessageListenerContainer<?, ?> abstractContainer)
+                    || abstractContainer.getCommonErrorHandler() != errorHandler) {
+                continue;
+            }
+            String[] names = abstractContainer.getContainerProperties().getTopics();
+            if (names != null) {
+                topics.addAll(List.of(names));
+            }
+            TopicPartitionOffset[] partitions = abstractContainer.getContainerProperties().getTopicPartitions();
+            if (partitions != null) {
+                for (TopicPartitionOffset partition : partitions) {
+                    topics.add(partition.getTopic());
+                }
+            }
+        }
+        topics.removeIf(topic -> topic.endsWith(resolver.getSuffix()));
+        return topics;
+    }
+
+    /**
+     * Create or grow the DLQ topics of the given topics and register their partition counts.
+     *
+     * @param admin  the admin client
+     * @param topics the source topics
+     */
+    void provision(Admin admin, Collection<String> topics) throws InterruptedException {
+        List<String> names = new ArrayList<>(topics);
+        topics.forEach(topic -> names.add(resolver.dlqTopic(topic)));
+        Map<String, KafkaFuture<TopicDescription>> descriptions = admin.describeTopics(names).topicNameValues();
+
+        Map<String, Integer> sourcePartitions = new LinkedHashMap<>();
+        List<NewTopic> newTopics = new ArrayList<>();
+        Map<String, NewPartitions> newPartitions = new HashMap<>();
+        for (String topic : topics) {
+            TopicDescription source = describe(descriptions, topic);
+            if (source == null) {
+                log.warn("Listener topic {} not found, its DLQ is not provisioned", topic);
+                continue;
+            }
+            int partitions = source.partitions().size();
+            String dlqTopic = resolver.dlqTopic(topic);
+            TopicDescription dlq = describe(descriptions, dlqTopic);
+            if (dlq == null) {
+                newTopics.add(new NewTopic(dlqTopic, Optional.of(partitions), replicationFactor));
+            } else if (dlq.partitions().size() < partitions) {
+                newPartitions.put(dlqTopic, NewPartitions.increaseTo(partitions));
+            }
+            sourcePartitions.put(topic, partitions);
+        }
+
+        Map<String, KafkaFuture<Void>> created = newTopics.isEmpty() ? Map.of() : admin.createTopics(newTopics).values();
+        Map<String, KafkaFuture<Void>> grown = newPartitions.isEmpty() ? Map.of() : admin.createPartitions(newPartitions).values();
+        sourcePartitions.forEach((topic, partitions) -> {
+            String dlqTopic = resolver.dlqTopic(topic);
+            KafkaFuture<Void> change = created.containsKey(dlqTopic) ? created.get(dlqTopic) : grown.get(dlqTopic);
+            if (change == null || await(change, dlqTopic)) {
+                resolver.register(topic, partitions);
+            }
+        });
+        log.info("Provisioned DLQ topics: created={}, grown={}, topics={}",
+            created.size(), grown.size(), sourcePartitions.size());
+    }
+
+    private TopicDescription describe(Map<String, KafkaFuture<TopicDescription>> descriptions, String topic)
+            throws InterruptedException {
+        try {
+            return descriptions.get(topic).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UnknownTopicOrPartitionException) {
+                return null;
+            }
+            throw new IllegalStateException("Failed to describe topic " + topic, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out describing topic " + topic, e);
+        }
+    }
+
+    private boolean await(KafkaFuture<Void> change, String dlqTopic) {
+        try {
+            change.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Provisioned DLQ topic {}", dlqTopic);
+            return true;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TopicExistsException) {
+                // Created concurrently by another instance
+                return true;
+            }
+            log.warn("Failed to provision DLQ topic {}", dlqTopic, e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("Timed out provisioning DLQ topic {}", dlqTopic);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (provisioned) {
+            return;
+        }
+        provisioned = true;
+        Set<String> topics = listenerTopics();
+        if (topics.isEmpty()) {
+            return;
+        }
+        try (Admin admin = adminFactory.get()) {
+            provision(admin, topics);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to provision DLQ topics of {}", topics, e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Provision before the containers start, so their first failed record finds its DLQ.
+     */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 100;
+    }
+}
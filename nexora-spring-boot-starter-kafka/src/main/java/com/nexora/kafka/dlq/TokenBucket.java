@@ -0,0 +1,56 @@
+package com.nexora.kafka.dlq;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter: refills at a fixed rate up to a burst capacity and blocks
+ * callers once it is empty.
+ *
+ * @author sujie
+ */
+final class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Create a full bucket.
+     *
+     * @param permitsPerSecond the refill rate
+     * @param burst            the capacity
+     */
+    TokenBucket(double permitsPerSecond, int burst) {
+        this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Take a token, waiting until one is available.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void acquire() throws InterruptedException {
+        long wait = reserve(System.nanoTime());
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Take a token, going into debt if the bucket is empty.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return nanoseconds until the token is covered, 0 if it was available
+     */
+    synchronized long reserve(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
@@ -0,0 +1,60 @@
+package com.nexora.kafka.filter;
+
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accepts records by their {@link EventHeaders#EVENT_TYPE} header.
+ *
+ * <p>Each listed topic accepts only its configured event types. Topics that are not listed
+ * and records without the header are always accepted, so records from other producers are
+ * never dropped by accident.
+ *
+ * <p>Used both by {@link EventTypeFilteringDeserializer}, which skips parsing rejected
+ * records, and as the listener {@link RecordFilterStrategy}, which then discards them.
+ *
+ * @author sujie
+ */
+public class EventTypeFilter implements RecordFilterStrategy<Object, Object> {
+
+    private final Map<String, Set<String>> eventTypes;
+
+    /**
+     * Create a filter.
+     *
+     * @param eventTypes accepted event types by topic
+     */
+    public EventTypeFilter(Map<String, List<String>> eventTypes) {
+        Map<String, Set<String>> copy = new HashMap<>();
+        eventTypes.forEach((topic, types) -> copy.put(topic, Set.copyOf(types)));
+        this.eventTypes = Map.copyOf(copy);
+    }
+
+    /**
+     * Whether a record of a topic is accepted.
+     *
+     * @param topic   the record topic
+     * @param headers the record headers
+     * @return true unless the topic is listed and the event type is not accepted for it
+     */
+    public boolean accepts(String topic, Headers headers) {
+        Set<String> accepted = eventTypes.get(topic);
+        if (accepted == null) {
+            return true;
+        }
+        String eventType = EventHeaders.lastValue(headers, EventHeaders.EVENT_TYPE);
+        return eventType == null || accepted.contains(eventType);
+    }
+
+    @Override
+    public boolean filter(ConsumerRecord<Object, Object> consumerRecord) {
+        return !accepts(consumerRecord.topic(), consumerRecord.headers());
+    }
+}
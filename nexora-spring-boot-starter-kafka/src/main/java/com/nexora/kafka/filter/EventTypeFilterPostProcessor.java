@@ -0,0 +1,96 @@
+package com.nexora.kafka.filter;
+
+import com.nexora.kafka.listener.ValueDeserializerSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Applies an {@link EventTypeFilter} to every consumer and listener container factory.
+ *
+ * <p>The value deserializer of each {@link DefaultKafkaConsumerFactory} is wrapped in an
+ * {@link EventTypeFilteringDeserializer} (see {@link ValueDeserializerSupport}), and each
+ * {@link AbstractKafkaListenerContainerFactory} gets the filter as its record filter strategy. A
+ * strategy already set on the factory is kept: the two are composed, and a record is discarded
+ * if either of them rejects it.
+ *
+ * <p>Runs last, so its deserializer wraps the others and rejected records skip them too.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class EventTypeFilterPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final Supplier<EventTypeFilter> filter;
+
+    public EventTypeFilterPostProcessor(Supplier<EventTypeFilter> filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DefaultKafkaConsumerFactory<?, ?> factory) {
+            wrap(factory, beanName);
+        } else if (bean instanceof AbstractKafkaListenerContainerFactory<?, ?, ?> factory) {
+            applyFilter(factory);
+            log.info("Enabled event type filter on listener container factory {}", beanName);
+        }
+        return bean;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void applyFilter(AbstractKafkaListenerContainerFactory<?, ?, ?> factory) {
+        EventTypeFilter eventTypeFilter = filter.get();
+        RecordFilterStrategy<Object, Object> existing = (RecordFilterStrategy<Object, Object>)
+            new DirectFieldAccessor(factory).getPropertyValue("recordFilterStrategy");
+        if (existing == null || existing == eventTypeFilter) {
+            factory.setRecordFilterStrategy(eventTypeFilter);
+        } else {
+            factory.setRecordFilterStrategy(new CompositeRecordFilterStrategy(existing, eventTypeFilter));
+        }
+    }
+
+    private <V> void wrap(DefaultKafkaConsumerFactory<?, V> factory, String beanName) {
+        if (ValueDeserializerSupport.wrapValueDeserializer(factory, EventTypeFilteringDeserializer.class,
+                deserializer -> new EventTypeFilteringDeserializer<>(deserializer, filter))) {
+            log.info("Enabled event type filter on consumer factory {}", beanName);
+        }
+    }
+
+    /**
+     * Discards a record if either strategy rejects it; the existing strategy runs first and
+     * decides whether empty batches are ignored.
+     */
+    record CompositeRecordFilterStrategy(RecordFilterStrategy<Object, Object> existing,
+                                         EventTypeFilter eventTypeFilter)
+        implements RecordFilterStrategy<Object, Object> {
+
+        @Override
+        public boolean filter(ConsumerRecord<Object, Object> consumerRecord) {
+            return existing.filter(consumerRecord) || eventTypeFilter.filter(consumerRecord);
+        }
+
+        @Override
+        public List<ConsumerRecord<Object, Object>> filterBatch(List<ConsumerRecord<Object, Object>> records) {
+            return eventTypeFilter.filterBatch(existing.filterBatch(records));
+        }
+
+        @Override
+        public boolean ignoreEmptyBatch() {
+            return existing.ignoreEmptyBatch();
+        }
+    }
+}
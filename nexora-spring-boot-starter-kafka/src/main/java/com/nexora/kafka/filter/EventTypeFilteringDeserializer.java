@@ -0,0 +1,54 @@
+package com.nexora.kafka.filter;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Value deserializer that skips records rejected by an {@link EventTypeFilter}.
+ *
+ * <p>Rejected records are never handed to the delegate: their value becomes null and the
+ * listener's {@link EventTypeFilter} record filter discards them. A record filter alone
+ * only runs after deserialization, so without this every unwanted record would still be
+ * parsed (and, with claim-check, downloaded).
+ *
+ * <p>The filter is resolved on first use, so the deserializer can be created before it.
+ *
+ * @param <T> the value type
+ * @author sujie
+ */
+public class EventTypeFilteringDeserializer<T> implements Deserializer<T> {
+
+    private final Deserializer<T> delegate;
+    private final Supplier<EventTypeFilter> filter;
+
+    public EventTypeFilteringDeserializer(Deserializer<T> delegate, Supplier<EventTypeFilter> filter) {
+        this.delegate = delegate;
+        this.filter = filter;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (!filter.get().accepts(topic, headers)) {
+            return null;
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,126 @@
+package com.nexora.kafka.idempotent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over string IDs with two rotating generations.
+ *
+ * <p>Inserts go to the current generation; once it holds {@code expectedInsertions} IDs
+ * it becomes the previous generation and a fresh one starts, so the false positive rate
+ * stays bounded on an unbounded stream while recent IDs are always remembered.
+ *
+ * @author sujie
+ */
+class BloomFilter {
+
+    private final int expectedInsertions;
+    private final int bits;
+    private final int hashes;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        this.expectedInsertions = expectedInsertions;
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = (int) Math.min(Integer.MAX_VALUE - 63L, Math.max(64L, optimalBits));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * ln2));
+        this.current = new Generation(bits);
+        this.previous = new Generation(bits);
+    }
+
+    /**
+     * Whether the ID may have been added; false means it definitely wasn't.
+     */
+    boolean mightContain(String id) {
+        long hash = hash(id);
+        return current.mightContain(hash, hashes, bits) || previous.mightContain(hash, hashes, bits);
+    }
+
+    /**
+     * Add an ID, rotating generations when the current one is full.
+     */
+    void put(String id) {
+        Generation generation = current;
+        generation.put(hash(id), hashes, bits);
+        if (generation.count.incrementAndGet() == expectedInsertions) {
+            synchronized (this) {
+                if (current == generation) {
+                    previous = generation;
+                    current = new Generation(bits);
+                }
+            }
+        }
+    }
+
+    int getBits() {
+        return bits;
+    }
+
+    int getHashes() {
+        return hashes;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with a murmur mix.
+     */
+    private static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Generation {
+
+        private final AtomicLongArray words;
+        private final AtomicLong count = new AtomicLong();
+
+        Generation(int bits) {
+            this.words = new AtomicLongArray((bits + 63) >>> 6);
+        }
+
+        // Kirsch-Mitzenmacher double hashing: index_i = h1 + i * h2
+        boolean mightContain(long hash, int hashes, int bits) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                int index = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get(index >>> 6) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long hash, int hashes, int bits) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                int index = Math.floorMod(h1 + i * h2, bits);
+                long mask = 1L << index;
+                int word = index >>> 6;
+                long value;
+                while (((value = words.get(word)) & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    // Retry on concurrent update of the same word
+                }
+            }
+        }
+    }
+}
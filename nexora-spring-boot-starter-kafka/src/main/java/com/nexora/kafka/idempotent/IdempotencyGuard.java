@@ -0,0 +1,239 @@
+package com.nexora.kafka.idempotent;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nexora.kafka.properties.KafkaProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tiered duplicate check for {@link IdempotentListener} methods.
+ *
+ * <p>A message ID is checked in three tiers, cheapest first:
+ * <ol>
+ *   <li>a bounded in-memory cache of the IDs this instance processed: a hit is a duplicate;</li>
+ *   <li>a Bloom filter of the IDs this instance processed: a miss means this instance never
+ *       saw the ID, so the record is processed without a store round trip and the ID is
+ *       recorded afterwards with an atomic insert-if-absent;</li>
+ *   <li>for Bloom hits, which may be false positives, a claim in the shared
+ *       {@link ProcessedIdStore}, an atomic insert-if-absent that fails for IDs processed or
+ *       being processed. The claim is turned into a processed ID once the listener succeeds,
+ *       or released if it fails so that the redelivery is processed again.</li>
+ * </ol>
+ *
+ * <p>The Bloom filter is warmed up from the store at startup (JDBC only; with Redis it starts
+ * empty) and only learns the IDs this instance processes afterwards, so a record processed by
+ * another instance, e.g. redelivered after a rebalance, passes the check and is processed
+ * again; recording it afterwards reports it as a late duplicate. Listeners whose side effects
+ * must never repeat should set {@code nexora.kafka.idempotent.claim-unseen}, which claims
+ * every ID the cache doesn't know at the cost of a second store write per record.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class IdempotencyGuard implements SmartLifecycle {
+
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final ProcessedIdStore store;
+    private final KafkaProperties.Idempotent properties;
+    private final Cache<String, Boolean> recent;
+    private final BloomFilter bloomFilter;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder bloomMisses = new LongAdder();
+    private final LongAdder claims = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder lateDuplicates = new LongAdder();
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public IdempotencyGuard(ProcessedIdStore store, KafkaProperties.Idempotent properties) {
+        this.store = store;
+        this.properties = properties;
+        this.recent = Caffeine.newBuilder()
+            .maximumSize(properties.getCacheSize())
+            .expireAfterWrite(properties.getTtl())
+            .build();
+        this.bloomFilter = properties.isClaimUnseen() ? null
+            : new BloomFilter(properties.getBloomExpectedInsertions(), properties.getBloomFalsePositiveRate());
+    }
+
+    /**
+     * Check a message ID before its record is processed, claiming it in the store unless the
+     * Bloom filter shows this instance never saw it.
+     *
+     * @param id the message ID
+     * @return {@link Admission#DUPLICATE} if the record should be skipped
+     */
+    public Admission admit(String id) {
+        if (recent.getIfPresent(id) != null) {
+            cacheHits.increment();
+            duplicates.increment();
+            return Admission.DUPLICATE;
+        }
+        if (bloomFilter != null && !bloomFilter.mightContain(id)) {
+            bloomMisses.increment();
+            return Admission.UNCLAIMED;
+        }
+        claims.increment();
+        if (!store.claim(id, properties.getClaimTimeout())) {
+            duplicates.increment();
+            return Admission.DUPLICATE;
+        }
+        return Admission.CLAIMED;
+    }
+
+    /**
+     * Record a message ID after its record was processed.
+     *
+     * @param id        the message ID
+     * @param admission how the ID was admitted
+     */
+    public void markProcessed(String id, Admission admission) {
+        if (admission == Admission.CLAIMED) {
+            store.markProcessed(id);
+        } else if (!store.record(id)) {
+            lateDuplicates.increment();
+            log.warn("Message processed more than once: id={}", id);
+        }
+        remember(id);
+    }
+
+    private void remember(String id) {
+        recent.put(id, Boolean.TRUE);
+        if (bloomFilter != null) {
+            bloomFilter.put(id);
+        }
+    }
+
+    /**
+     * Load recently processed IDs into the cache and Bloom filter.
+     */
+    public void warmUp() {
+        if (bloomFilter == null) {
+            return;
+        }
+        List<String> ids = store.recentIds(properties.getBloomExpectedInsertions());
+        for (String id : ids) {
+            bloomFilter.put(id);
+        }
+        int cached = (int) Math.min(ids.size(), properties.getCacheSize());
+        for (String id : ids.subList(0, cached)) {
+            recent.put(id, Boolean.TRUE);
+        }
+        log.info("Idempotency guard warmed up: ids={}, bloomBits={}, bloomHashes={}",
+            ids.size(), bloomFilter.getBits(), bloomFilter.getHashes());
+    }
+
+    /**
+     * Release a claimed message ID after its record failed.
+     *
+     * @param id the message ID
+     */
+    public void release(String id) {
+        try {
+            store.release(id);
+        } catch (Exception e) {
+            log.warn("Failed to release message ID claim, it lapses after {}: id={}",
+                properties.getClaimTimeout(), id, e);
+        }
+    }
+
+    private void purgeExpired() {
+        try {
+            int purged = store.purgeExpired();
+            if (purged > 0) {
+                log.info("Purged {} processed message IDs older than {}", purged, properties.getTtl());
+            }
+        } catch (Exception e) {
+            log.error("Failed to purge processed message IDs", e);
+        }
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getBloomMisses() {
+        return bloomMisses.sum();
+    }
+
+    public long getClaims() {
+        return claims.sum();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public long getLateDuplicates() {
+        return lateDuplicates.sum();
+    }
+
+    @Override
+    public void start() {
+        try {
+            warmUp();
+        } catch (Exception e) {
+            log.warn("Failed to warm up idempotency guard, starting cold", e);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nexora-idempotency-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = PURGE_INTERVAL.toMillis();
+        scheduler.scheduleWithFixedDelay(this::purgeExpired, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before the listener containers so the first records see a warm filter, and stop
+     * after them.
+     */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 100;
+    }
+
+    /**
+     * Outcome of {@link #admit}.
+     */
+    public enum Admission {
+        /**
+         * Processed, or being processed under a live claim: skip the record.
+         */
+        DUPLICATE,
+        /**
+         * Claimed in the store: mark it processed on success, release it on failure.
+         */
+        CLAIMED,
+        /**
+         * Unknown to this instance, so not claimed: record it once processed.
+         */
+        UNCLAIMED
+    }
+}
@@ -0,0 +1,39 @@
+package com.nexora.kafka.idempotent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code @KafkaListener} method whose records are processed at most once.
+ *
+ * <p>The message ID is read from a record header ({@code nexora-message-id} by default,
+ * which the outbox relay sets to the outbox event ID). Records without the header are
+ * identified by {@code topic-partition@offset}. A record whose ID was already processed
+ * is acknowledged without invoking the method; the ID is recorded only after the method
+ * returns normally, so a failed record is still retried.
+ *
+ * <p>The method must take the {@code ConsumerRecord} or {@code Message} as a parameter.
+ *
+ * <pre>
+ * &#64;IdempotentListener
+ * &#64;KafkaListener(topics = "order-events")
+ * public void onOrderEvent(ConsumerRecord&lt;String, String&gt; record) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author sujie
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface IdempotentListener {
+
+    /**
+     * Header carrying the message ID; empty to use {@code nexora.kafka.idempotent.header}.
+     */
+    String header() default "";
+}
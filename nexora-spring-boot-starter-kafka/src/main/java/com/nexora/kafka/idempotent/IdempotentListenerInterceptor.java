@@ -0,0 +1,108 @@
+package com.nexora.kafka.idempotent;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Skips {@link IdempotentListener} invocations for already processed records: the message
+ * ID is checked (and claimed, if the {@link IdempotencyGuard} needs to) before the
+ * invocation, recorded once it succeeds and its claim released if it fails.
+ *
+ * @author sujie
+ */
+public class IdempotentListenerInterceptor implements MethodInterceptor {
+
+    private final Supplier<IdempotencyGuard> guard;
+    private final String defaultHeader;
+    private final Map<Method, String> headers = new ConcurrentHashMap<>();
+
+    /**
+     * Create an interceptor.
+     *
+     * @param guard         supplies the guard; resolved on first use, so that the post-processor
+     *                      holding this interceptor doesn't initialize the store early
+     * @param defaultHeader the message ID header for methods that don't name one
+     */
+    public IdempotentListenerInterceptor(Supplier<IdempotencyGuard> guard, String defaultHeader) {
+        this.guard = guard;
+        this.defaultHeader = defaultHeader;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String id = messageId(invocation.getArguments(), headerOf(invocation.getMethod()));
+        if (id == null) {
+            throw new IllegalStateException("@IdempotentListener method " + invocation.getMethod()
+                + " must take the ConsumerRecord or Message as a parameter");
+        }
+        IdempotencyGuard idempotencyGuard = guard.get();
+        IdempotencyGuard.Admission admission = idempotencyGuard.admit(id);
+        if (admission == IdempotencyGuard.Admission.DUPLICATE) {
+            return null;
+        }
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable ex) {
+            if (admission == IdempotencyGuard.Admission.CLAIMED) {
+                idempotencyGuard.release(id);
+            }
+            throw ex;
+        }
+        idempotencyGuard.markProcessed(id, admission);
+        return result;
+    }
+
+    private String headerOf(Method method) {
+        return headers.computeIfAbsent(method, key -> {
+            IdempotentListener annotation = AnnotatedElementUtils.findMergedAnnotation(key, IdempotentListener.class);
+            return annotation != null && StringUtils.hasText(annotation.header()) ? annotation.header() : defaultHeader;
+        });
+    }
+
+    /**
+     * Message ID of the record among the listener arguments.
+     *
+     * @return the ID, or null if no argument is a record
+     */
+    static String messageId(Object[] arguments, String header) {
+        for (Object argument : arguments) {
+            if (argument instanceof ConsumerRecord<?, ?> record) {
+                Header value = record.headers().lastHeader(header);
+                return value != null
+                    ? new String(value.value(), StandardCharsets.UTF_8)
+                    : position(record.topic(), record.partition(), record.offset());
+            }
+            if (argument instanceof Message<?> message) {
+                MessageHeaders messageHeaders = message.getHeaders();
+                Object value = messageHeaders.get(header);
+                if (value instanceof byte[] bytes) {
+                    return new String(bytes, StandardCharsets.UTF_8);
+                }
+                if (value != null) {
+                    return value.toString();
+                }
+                return position(messageHeaders.get(KafkaHeaders.RECEIVED_TOPIC),
+                    messageHeaders.get(KafkaHeaders.RECEIVED_PARTITION), messageHeaders.get(KafkaHeaders.OFFSET));
+            }
+        }
+        return null;
+    }
+
+    private static String position(Object topic, Object partition, Object offset) {
+        return topic + "-" + partition + "@" + offset;
+    }
+}
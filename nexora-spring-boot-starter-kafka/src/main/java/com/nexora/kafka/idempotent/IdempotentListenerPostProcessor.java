@@ -0,0 +1,25 @@
+package com.nexora.kafka.idempotent;
+
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.core.Ordered;
+
+/**
+ * Proxies beans with {@link IdempotentListener} methods.
+ *
+ * <p>Runs just before the {@code @KafkaListener} annotation processor, so listener
+ * endpoints are registered against the proxy and every record goes through the
+ * {@link IdempotentListenerInterceptor}.
+ *
+ * @author sujie
+ */
+public class IdempotentListenerPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    public IdempotentListenerPostProcessor(IdempotentListenerInterceptor interceptor) {
+        this.advisor = new DefaultPointcutAdvisor(
+            AnnotationMatchingPointcut.forMethodAnnotation(IdempotentListener.class), interceptor);
+        setProxyTargetClass(true);
+        setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+    }
+}
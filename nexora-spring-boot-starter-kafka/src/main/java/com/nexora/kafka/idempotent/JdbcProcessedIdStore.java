@@ -0,0 +1,113 @@
+package com.nexora.kafka.idempotent;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * {@link ProcessedIdStore} backed by a relational table.
+ *
+ * <p>Schema:
+ * <pre>
+ * CREATE TABLE processed_message (
+ *     id            VARCHAR(191) PRIMARY KEY,
+ *     processed_at  TIMESTAMP NOT NULL,
+ *     claimed_until TIMESTAMP NULL
+ * );
+ * CREATE INDEX idx_processed_message_at ON processed_message (processed_at);
+ * </pre>
+ *
+ * <p>A row with {@code claimed_until} set is a claim in progress; it is cleared once the
+ * record is processed. Claim times are taken from the database clock, so instances with
+ * skewed clocks still agree on when a claim lapses, and are stored in UTC whatever the time
+ * zone of the JVM or the session.
+ *
+ * @author sujie
+ */
+public class JdbcProcessedIdStore implements ProcessedIdStore {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+
+    public JdbcProcessedIdStore(NamedParameterJdbcTemplate jdbcTemplate, Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public boolean claim(String id, Duration timeout) {
+        Instant now = currentTime();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("id", id)
+            .addValue("now", utc(now))
+            .addValue("claimedUntil", utc(now.plus(timeout)));
+        try {
+            jdbcTemplate.update("INSERT INTO processed_message (id, processed_at, claimed_until) "
+                + "VALUES (:id, :now, :claimedUntil)", params);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Take over a lapsed claim; processed rows have no claimed_until and never match
+            return jdbcTemplate.update("UPDATE processed_message SET processed_at = :now, claimed_until = :claimedUntil "
+                + "WHERE id = :id AND claimed_until < :now", params) == 1;
+        }
+    }
+
+    @Override
+    public void markProcessed(String id) {
+        jdbcTemplate.update("UPDATE processed_message SET processed_at = :processedAt, claimed_until = NULL WHERE id = :id",
+            new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("processedAt", utc(Instant.now())));
+    }
+
+    @Override
+    public boolean record(String id) {
+        try {
+            jdbcTemplate.update("INSERT INTO processed_message (id, processed_at) VALUES (:id, :processedAt)",
+                new MapSqlParameterSource()
+                    .addValue("id", id)
+                    .addValue("processedAt", utc(Instant.now())));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String id) {
+        jdbcTemplate.update("DELETE FROM processed_message WHERE id = :id AND claimed_until IS NOT NULL",
+            new MapSqlParameterSource("id", id));
+    }
+
+    @Override
+    public int purgeExpired() {
+        return jdbcTemplate.update("DELETE FROM processed_message WHERE processed_at < :cutoff",
+            new MapSqlParameterSource("cutoff", utc(Instant.now().minus(ttl))));
+    }
+
+    @Override
+    public List<String> recentIds(int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM processed_message WHERE claimed_until IS NULL "
+            + "ORDER BY processed_at DESC LIMIT :limit", new MapSqlParameterSource("limit", limit), String.class);
+    }
+
+    private Instant currentTime() {
+        OffsetDateTime now = jdbcTemplate.getJdbcOperations()
+            .queryForObject("SELECT CURRENT_TIMESTAMP", OffsetDateTime.class);
+        if (now == null) {
+            throw new IllegalStateException("Database returned no CURRENT_TIMESTAMP");
+        }
+        return now.toInstant();
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,67 @@
+package com.nexora.kafka.idempotent;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Durable record of processed message IDs, shared by all consumer instances.
+ *
+ * <p>An ID is first claimed, atomically, by the instance about to process its record, then
+ * either marked processed or released if processing failed. A claim that is neither, e.g.
+ * because its instance crashed, lapses after its timeout so the record can be processed again.
+ * IDs processed without a claim are {@link #record recorded} afterwards instead.
+ *
+ * @author sujie
+ */
+public interface ProcessedIdStore {
+
+    /**
+     * Claim an ID atomically if it is neither processed nor claimed by a live claim.
+     *
+     * @param id      the message ID
+     * @param timeout how long the claim holds before another instance may take it over
+     * @return true if this call claimed it, false if it is processed or being processed
+     */
+    boolean claim(String id, Duration timeout);
+
+    /**
+     * Turn a claim into a processed ID, remembered for the retention.
+     *
+     * @param id the message ID
+     */
+    void markProcessed(String id);
+
+    /**
+     * Record an ID processed without a claim, atomically if it is neither processed nor claimed.
+     *
+     * @param id the message ID
+     * @return true if this call recorded it, false if it was processed or claimed elsewhere
+     */
+    boolean record(String id);
+
+    /**
+     * Drop a claim whose record failed, so a redelivery processes it again.
+     *
+     * @param id the message ID
+     */
+    void release(String id);
+
+    /**
+     * Remove IDs older than the retention; a no-op for stores that expire entries themselves.
+     *
+     * @return the number of removed IDs
+     */
+    default int purgeExpired() {
+        return 0;
+    }
+
+    /**
+     * The most recently processed IDs, used to warm up local filters at startup.
+     *
+     * @param limit the maximum number of IDs
+     * @return the IDs, newest first; empty for stores that can't list them cheaply
+     */
+    default List<String> recentIds(int limit) {
+        return List.of();
+    }
+}
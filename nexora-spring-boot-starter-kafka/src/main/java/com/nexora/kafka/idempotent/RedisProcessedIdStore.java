@@ -0,0 +1,60 @@
+package com.nexora.kafka.idempotent;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link ProcessedIdStore} backed by Redis keys that expire after the retention.
+ *
+ * <p>A claim is a key holding a value unique to this store instance and expiring after the
+ * claim timeout; marking the ID processed overwrites it with a key expiring after the
+ * retention. A claim is only released while it still holds this instance's value, so a claim
+ * that lapsed and was taken over by another instance, or a processed ID, stays.
+ *
+ * @author sujie
+ */
+public class RedisProcessedIdStore implements ProcessedIdStore {
+
+    private static final String KEY_PREFIX = "nexora:kafka:processed:";
+    private static final String PROCESSED = "1";
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final String claimValue = "claim:" + UUID.randomUUID();
+
+    public RedisProcessedIdStore(StringRedisTemplate redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public boolean claim(String id, Duration timeout) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + id, claimValue, timeout));
+    }
+
+    @Override
+    public void markProcessed(String id) {
+        redisTemplate.opsForValue().set(KEY_PREFIX + id, PROCESSED, ttl);
+    }
+
+    @Override
+    public boolean record(String id) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + id, PROCESSED, ttl));
+    }
+
+    @Override
+    public void release(String id) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + id), claimValue);
+    }
+}
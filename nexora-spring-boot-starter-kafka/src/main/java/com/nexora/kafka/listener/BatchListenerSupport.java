@@ -0,0 +1,138 @@
+package com.nexora.kafka.listener;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Helpers for batch listeners on the {@value #CONTAINER_FACTORY} container factory.
+ *
+ * <p>Usage:
+ * <pre>
+ * &#64;KafkaListener(topics = "orders", containerFactory = BatchListenerSupport.CONTAINER_FACTORY)
+ * public void onOrders(List&lt;ConsumerRecord&lt;String, String&gt;&gt; records) {
+ *     BatchListenerSupport.forEachRecord(records, this::handle);
+ * }
+ * </pre>
+ *
+ * <p>A failure is reported as a {@link BatchListenerFailedException} pointing at the failing
+ * record, so the error handler commits the records before it, retries or dead-letters only
+ * that record, and redelivers the rest instead of the whole batch.
+ *
+ * <p>{@link #forEachRecordConcurrently} processes the records of one poll on virtual threads,
+ * for listeners that mostly block on I/O. Records of the same partition and key are still
+ * handled in order, and offsets are committed in order because the batch only completes
+ * once every record is done.
+ *
+ * @author sujie
+ */
+public final class BatchListenerSupport {
+
+    /**
+     * Bean name of the auto-configured batch listener container factory.
+     */
+    public static final String CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
+
+    private BatchListenerSupport() {
+    }
+
+    /**
+     * Handle records concurrently on virtual threads, one sequential chain per partition and key.
+     *
+     * <p>Waits for all chains to finish. If records failed, the one earliest in the batch is
+     * reported, so offsets are committed up to it; records after it are redelivered, including
+     * those that already succeeded on other chains, so handlers must be idempotent.
+     *
+     * @param records the batch
+     * @param handler handles one record, called from several threads at once
+     * @param <K>     the key type
+     * @param <V>     the value type
+     * @throws BatchListenerFailedException if a record fails
+     */
+    public static <K, V> void forEachRecordConcurrently(List<ConsumerRecord<K, V>> records,
+                                                        Consumer<ConsumerRecord<K, V>> handler) {
+        if (records.size() <= 1) {
+            forEachRecord(records, handler);
+            return;
+        }
+        Map<ChainKey, List<Integer>> chains = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<K, V> record = records.get(i);
+            chains.computeIfAbsent(new ChainKey(record.topic(), record.partition(), chainKeyOf(record.key())),
+                chainKey -> new ArrayList<>()).add(i);
+        }
+
+        AtomicReferenceArray<RuntimeException> failures = new AtomicReferenceArray<>(records.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<Integer> chain : chains.values()) {
+                executor.execute(() -> {
+                    for (int index : chain) {
+                        try {
+                            handler.accept(records.get(index));
+                        } catch (RuntimeException e) {
+                            // Later records of the chain depend on this one
+                            failures.set(index, e);
+                            return;
+                        }
+                    }
+                });
+            }
+        }
+
+        for (int i = 0; i < records.size(); i++) {
+            RuntimeException failure = failures.get(i);
+            if (failure != null) {
+                throw toBatchFailure(records.get(i), failure);
+            }
+        }
+    }
+
+    /**
+     * Handle records one by one, reporting the first failure with its record.
+     *
+     * @param records the batch
+     * @param handler handles one record
+     * @param <K>     the key type
+     * @param <V>     the value type
+     * @throws BatchListenerFailedException if a record fails
+     */
+    public static <K, V> void forEachRecord(List<ConsumerRecord<K, V>> records,
+                                            Consumer<ConsumerRecord<K, V>> handler) {
+        for (ConsumerRecord<K, V> record : records) {
+            try {
+                handler.accept(record);
+            } catch (RuntimeException e) {
+                throw toBatchFailure(record, e);
+            }
+        }
+    }
+
+    private static BatchListenerFailedException toBatchFailure(ConsumerRecord<?, ?> record, RuntimeException e) {
+        if (e instanceof BatchListenerFailedException failure) {
+            return failure;
+        }
+        return new BatchListenerFailedException("Failed to process record " + record.topic() + "-"
+            + record.partition() + "@" + record.offset(), e, record);
+    }
+
+    private static Object chainKeyOf(Object key) {
+        if (key == null) {
+            // Records without a key have no order to keep and get a chain each
+            return new Object();
+        }
+        // Arrays compare by identity; each record has its own copy of the key bytes
+        return key instanceof byte[] bytes ? ByteBuffer.wrap(bytes) : key;
+    }
+
+    private record ChainKey(String topic, int partition, Object key) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.nexora.kafka.listener;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pauses listener containers while the circuit breaker guarding their downstream
+ * dependency is open.
+ *
+ * <p>Each binding maps a listener ID to a {@link CircuitBreaker} of the registry. When the
+ * breaker opens, the container is paused, so the backlog stays in Kafka instead of
+ * failing record after record into retries and the DLQ; when it moves to half-open or
+ * closed, the container resumes and the next records act as the trial calls. Bound
+ * containers pause immediately after the current record rather than after the whole poll.
+ *
+ * <p>A paused container makes no calls, so a breaker without automatic open-to-half-open
+ * transition would stay open forever. Open breakers are therefore probed every
+ * {@code probe-interval}: acquiring and releasing a permission moves the breaker to
+ * half-open once its wait duration has passed.
+ *
+ * <p>The listener must route its downstream calls through the same breaker.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class CircuitBreakerListenerBinder implements SmartLifecycle {
+
+    private final ListenerContainerRegistry containerRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Map<String, String> bindings;
+    private final Duration probeInterval;
+    private final List<Binding> bound = new ArrayList<>();
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Create a binder.
+     *
+     * @param containerRegistry      the listener container registry
+     * @param circuitBreakerRegistry the circuit breaker registry
+     * @param bindings               circuit breaker names by listener ID
+     * @param probeInterval          how often open breakers are probed for half-open
+     */
+    public CircuitBreakerListenerBinder(ListenerContainerRegistry containerRegistry,
+                                        CircuitBreakerRegistry circuitBreakerRegistry,
+                                        Map<String, String> bindings, Duration probeInterval) {
+        this.containerRegistry = containerRegistry;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bindings = Map.copyOf(bindings);
+        this.probeInterval = probeInterval;
+    }
+
+    /**
+     * Pause or resume a container for a breaker state.
+     */
+    static void apply(MessageListenerContainer container, CircuitBreaker.State state, String breakerName) {
+        boolean open = state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+        if (open && !container.isPauseRequested()) {
+            container.pause();
+            log.warn("Paused listener {}: circuit breaker {} is {}", container.getListenerId(), breakerName, state);
+        } else if (!open && container.isPauseRequested()) {
+            container.resume();
+            log.info("Resumed listener {}: circuit breaker {} is {}", container.getListenerId(), breakerName, state);
+        }
+    }
+
+    /**
+     * Probe open breakers so they can move to half-open while their container is paused.
+     */
+    void probe() {
+        for (Binding binding : bound) {
+            if (binding.breaker.getState() == CircuitBreaker.State.OPEN && binding.breaker.tryAcquirePermission()) {
+                binding.breaker.releasePermission();
+            }
+        }
+    }
+
+    private void runProbe() {
+        try {
+            probe();
+        } catch (Exception e) {
+            log.error("Circuit breaker probe failed", e);
+        }
+    }
+
+    private void bind() {
+        bindings.forEach((listenerId, breakerName) -> {
+            MessageListenerContainer container = containerRegistry.getListenerContainer(listenerId);
+            if (container == null) {
+                log.warn("No listener container {} to bind to circuit breaker {}", listenerId, breakerName);
+                return;
+            }
+            if (container instanceof AbstractMessageListenerContainer<?, ?> abstractContainer) {
+                abstractContainer.getContainerProperties().setPauseImmediate(true);
+            }
+            CircuitBreaker breaker = circuitBreakerRegistry.circuitBreaker(breakerName);
+            breaker.getEventPublisher().onStateTransition(event ->
+                apply(container, event.getStateTransition().getToState(), breakerName));
+            apply(container, breaker.getState(), breakerName);
+            bound.add(new Binding(container, breaker));
+        });
+        log.info("Bound {} listener containers to circuit breakers", bound.size());
+    }
+
+    @Override
+    public void start() {
+        // Breaker event subscriptions can't be removed, so bind only once
+        if (bound.isEmpty()) {
+            bind();
+        }
+        running = true;
+        if (bound.isEmpty()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nexora-breaker-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = probeInterval.toMillis();
+        scheduler.scheduleAtFixedRate(this::runProbe, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Bind before the containers start, so the pause settings apply from the first poll.
+     */
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 100;
+    }
+
+    private record Binding(MessageListenerContainer container, CircuitBreaker breaker) {
+    }
+}
@@ -0,0 +1,296 @@
+package com.nexora.kafka.listener;
+
+import com.nexora.kafka.properties.KafkaProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adjusts the concurrency of {@link ConcurrentMessageListenerContainer}s from consumer lag
+ * and load.
+ *
+ * <p>Every {@code nexora.kafka.consumer.autoscale.interval} each container is sampled from
+ * its consumers' own metrics: {@code records-lag-max} for the backlog and
+ * {@code poll-idle-ratio-avg} for how much time consumers spend waiting rather than
+ * processing. A container whose lag reaches {@code scale-up-lag} while its consumers are
+ * busy doubles its concurrency; one whose lag is at most {@code scale-down-lag} while its
+ * consumers are idle drops one consumer. Concurrency stays within the configured bounds,
+ * is not raised beyond the partitions assigned to the container, and changes at most once
+ * per {@code cooldown}, since each change restarts the container and rebalances the group.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class ListenerConcurrencyController implements SmartLifecycle {
+
+    static final String LAG_METRIC = "records-lag-max";
+    static final String LAG_GROUP = "consumer-fetch-manager-metrics";
+    static final String IDLE_METRIC = "poll-idle-ratio-avg";
+    static final String IDLE_GROUP = "consumer-metrics";
+
+    private final ListenerContainerRegistry registry;
+    private final KafkaProperties.Autoscale properties;
+    private final Map<String, ContainerState> states = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public ListenerConcurrencyController(ListenerContainerRegistry registry, KafkaProperties.Autoscale properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    /**
+     * Register a callback for discovered containers and scaling decisions, e.g. for metrics.
+     *
+     * @param listener the callback
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sample all managed containers and rescale those that need it.
+     */
+    public void evaluate() {
+        for (MessageListenerContainer container : registry.getListenerContainers()) {
+            if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent
+                && container.isRunning() && isManaged(container.getListenerId())) {
+                evaluate(concurrent);
+            }
+        }
+    }
+
+    private boolean isManaged(String listenerId) {
+        return properties.getListenerIds().isEmpty() || properties.getListenerIds().contains(listenerId);
+    }
+
+    void evaluate(ConcurrentMessageListenerContainer<?, ?> container) {
+        ContainerState state = states.computeIfAbsent(container.getListenerId(), id -> {
+            ContainerState created = new ContainerState(id);
+            listeners.forEach(listener -> listener.onContainer(created));
+            return created;
+        });
+        if (state.rescaling) {
+            return;
+        }
+        sample(container, state);
+        int current = container.getConcurrency();
+        state.concurrency = current;
+
+        Collection<?> assigned = container.getAssignedPartitions();
+        int target = target(current, state.lag, state.idleRatio, assigned != null ? assigned.size() : 0);
+        long now = System.nanoTime();
+        if (target == current || state.lastChange != ContainerState.NEVER
+            && now - state.lastChange < properties.getCooldown().toNanos()) {
+            return;
+        }
+        rescale(container, state, current, target, now);
+    }
+
+    /**
+     * Concurrency a container should run with.
+     *
+     * @param current    the current concurrency
+     * @param lag        the max lag of the container's consumers
+     * @param idleRatio  the average poll idle ratio, NaN if unknown
+     * @param partitions the partitions assigned to the container, 0 if unknown
+     * @return the target concurrency
+     */
+    int target(int current, long lag, double idleRatio, int partitions) {
+        int min = Math.max(1, properties.getMinConcurrency());
+        int max = Math.max(min, properties.getMaxConcurrency());
+        int target = current;
+        boolean idle = !Double.isNaN(idleRatio) && idleRatio >= properties.getIdleRatio();
+        if (lag >= properties.getScaleUpLag() && !idle) {
+            // More consumers than partitions would sit idle
+            int ceiling = partitions > 0 ? Math.min(max, partitions) : max;
+            target = Math.max(current, Math.min(ceiling, current * 2));
+        } else if (lag <= properties.getScaleDownLag() && idle) {
+            target = current - 1;
+        }
+        return Math.clamp(target, min, max);
+    }
+
+    private void sample(ConcurrentMessageListenerContainer<?, ?> container, ContainerState state) {
+        long lag = 0;
+        double idleSum = 0;
+        int idleCount = 0;
+        for (Map<MetricName, ? extends Metric> clientMetrics : container.metrics().values()) {
+            for (Map.Entry<MetricName, ? extends Metric> entry : clientMetrics.entrySet()) {
+                MetricName name = entry.getKey();
+                double value = value(entry.getValue());
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                // The per-partition variant carries a topic tag
+                if (LAG_METRIC.equals(name.name()) && LAG_GROUP.equals(name.group())
+                    && !name.tags().containsKey("topic")) {
+                    lag = Math.max(lag, (long) value);
+                } else if (IDLE_METRIC.equals(name.name()) && IDLE_GROUP.equals(name.group())) {
+                    idleSum += value;
+                    idleCount++;
+                }
+            }
+        }
+        state.lag = lag;
+        state.idleRatio = idleCount > 0 ? idleSum / idleCount : Double.NaN;
+    }
+
+    private static double value(Metric metric) {
+        return metric.metricValue() instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+
+    private void rescale(ConcurrentMessageListenerContainer<?, ?> container, ContainerState state,
+                         int current, int target, long now) {
+        log.info("Rescaling listener container: id={}, concurrency {} -> {}, lag={}, idleRatio={}",
+            state.listenerId, current, target, state.lag, state.idleRatio);
+        state.rescaling = true;
+        state.lastChange = now;
+        Executor executor = scheduler != null ? scheduler : Runnable::run;
+        // Concurrency only applies on start; restart off the consumer thread running the callback
+        container.stop(() -> executor.execute(() -> {
+            try {
+                container.setConcurrency(target);
+                container.start();
+                state.concurrency = target;
+                (target > current ? state.scaleUps : state.scaleDowns).incrementAndGet();
+                listeners.forEach(listener -> listener.onRescale(state, current, target));
+            } catch (Exception e) {
+                log.error("Failed to restart listener container {}", state.listenerId, e);
+            } finally {
+                state.rescaling = false;
+            }
+        }));
+    }
+
+    /**
+     * Containers seen so far.
+     */
+    public Collection<ContainerState> getStates() {
+        return states.values();
+    }
+
+    private void runEvaluation() {
+        try {
+            evaluate();
+        } catch (Exception e) {
+            log.error("Listener concurrency evaluation failed", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nexora-kafka-autoscaler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::runEvaluation, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Listener concurrency autoscaling started: min={}, max={}, interval={}",
+            properties.getMinConcurrency(), properties.getMaxConcurrency(), properties.getInterval());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start after the listener containers so they exist on the first evaluation.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Last observed state and scaling history of one container.
+     */
+    public static class ContainerState {
+
+        private static final long NEVER = Long.MIN_VALUE;
+
+        private final String listenerId;
+        private final AtomicLong scaleUps = new AtomicLong();
+        private final AtomicLong scaleDowns = new AtomicLong();
+
+        private volatile int concurrency;
+        private volatile long lag;
+        private volatile double idleRatio = Double.NaN;
+        private volatile long lastChange = NEVER;
+        private volatile boolean rescaling;
+
+        ContainerState(String listenerId) {
+            this.listenerId = listenerId;
+        }
+
+        public String getListenerId() {
+            return listenerId;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public long getLag() {
+            return lag;
+        }
+
+        public double getIdleRatio() {
+            return idleRatio;
+        }
+
+        public long getScaleUps() {
+            return scaleUps.get();
+        }
+
+        public long getScaleDowns() {
+            return scaleDowns.get();
+        }
+    }
+
+    /**
+     * Callback for controller decisions.
+     */
+    public interface Listener {
+
+        /**
+         * A container is managed for the first time.
+         */
+        default void onContainer(ContainerState state) {
+        }
+
+        /**
+         * A container was restarted with a new concurrency.
+         */
+        default void onRescale(ContainerState state, int from, int to) {
+        }
+    }
+}
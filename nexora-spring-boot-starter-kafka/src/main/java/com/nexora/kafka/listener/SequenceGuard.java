@@ -0,0 +1,241 @@
+package com.nexora.kafka.listener;
+
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Drops stale events by their per-bizId {@link EventHeaders#SEQUENCE sequence}.
+ *
+ * <p>Outbox events relayed on parallel lanes or retried after a failure can arrive after a
+ * newer event of the same aggregate. The guard remembers the highest processed sequence per
+ * topic and {@code bizId} and reports older or repeated ones as stale, without a database
+ * lookup. Suited to events carrying the latest state of an aggregate, where an older event
+ * adds nothing once a newer one was applied.
+ *
+ * <p>Sequences are assigned by the outbox relay ({@code nexora.kafka.outbox.sequences}): they
+ * count 1, 2, 3, ... per topic and {@code bizId} in the order the relay first sends the events,
+ * so a lower sequence is always an older event.
+ *
+ * <p>Usage:
+ * <pre>
+ * &#64;KafkaListener(topics = "profiles")
+ * public void onProfile(ConsumerRecord&lt;String, String&gt; record) {
+ *     sequenceGuard.process(record, this::apply);
+ * }
+ * </pre>
+ *
+ * <p>Sequences are kept in a fixed-size, 4-way set-associative table of primitive longs
+ * keyed by a 64-bit hash of topic and {@code bizId}; reading the headers allocates nothing.
+ * When a set is full, the aggregate written longest ago is evicted, tracked by a write stamp
+ * per entry. An evicted or never-seen
+ * aggregate is accepted, so the guard only ever lets a stale event through, never drops a new
+ * one. Records without the sequence or {@link EventHeaders#BIZ_ID} header are always accepted.
+ *
+ * @author sujie
+ */
+public class SequenceGuard {
+
+    private static final int WAYS = 4;
+    private static final long EMPTY = 0L;
+
+    private final long[] keys;
+    private final long[] sequences;
+    private final long[] stamps;
+    private final int setMask;
+    private long clock;
+
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create a guard.
+     *
+     * @param capacity the number of aggregates to track, rounded up to a power of two
+     */
+    public SequenceGuard(int capacity) {
+        int minSets = (capacity + WAYS - 1) / WAYS;
+        int sets = minSets <= 1 ? 1 : Integer.highestOneBit(minSets - 1) << 1;
+        this.keys = new long[sets * WAYS];
+        this.sequences = new long[sets * WAYS];
+        this.stamps = new long[sets * WAYS];
+        this.setMask = sets - 1;
+    }
+
+    /**
+     * Run a handler unless the record is stale, then record its sequence.
+     *
+     * @param record  the consumer record
+     * @param handler handles the record
+     * @param <K>     the key type
+     * @param <V>     the value type
+     * @return true if the handler ran, false if the record was dropped
+     */
+    public <K, V> boolean process(ConsumerRecord<K, V> record, Consumer<ConsumerRecord<K, V>> handler) {
+        if (isStale(record)) {
+            return false;
+        }
+        handler.accept(record);
+        markProcessed(record);
+        return true;
+    }
+
+    /**
+     * Whether a newer or the same event of the record's aggregate was already processed.
+     *
+     * @param record the consumer record
+     * @return true if the record should be skipped
+     */
+    public boolean isStale(ConsumerRecord<?, ?> record) {
+        long sequence = sequenceOf(record.headers());
+        byte[] bizId = bizIdOf(record.headers());
+        return sequence >= 0 && bizId != null && isStale(hash(record.topic(), bizId), sequence);
+    }
+
+    /**
+     * Record the sequence of a processed record.
+     *
+     * @param record the consumer record
+     */
+    public void markProcessed(ConsumerRecord<?, ?> record) {
+        long sequence = sequenceOf(record.headers());
+        byte[] bizId = bizIdOf(record.headers());
+        if (sequence >= 0 && bizId != null) {
+            markProcessed(hash(record.topic(), bizId), sequence);
+        }
+    }
+
+    /**
+     * Whether an event with this or a higher sequence was already processed for an aggregate.
+     *
+     * @param topic    the topic
+     * @param bizId    the business ID
+     * @param sequence the event sequence
+     * @return true if the event should be skipped
+     */
+    public boolean isStale(String topic, String bizId, long sequence) {
+        return isStale(hash(topic, bizId.getBytes(StandardCharsets.UTF_8)), sequence);
+    }
+
+    /**
+     * Record the sequence of a processed event.
+     *
+     * @param topic    the topic
+     * @param bizId    the business ID
+     * @param sequence the event sequence
+     */
+    public void markProcessed(String topic, String bizId, long sequence) {
+        markProcessed(hash(topic, bizId.getBytes(StandardCharsets.UTF_8)), sequence);
+    }
+
+    private synchronized boolean isStale(long key, long sequence) {
+        int base = ((int) key & setMask) * WAYS;
+        for (int i = base; i < base + WAYS; i++) {
+            if (keys[i] == key) {
+                if (sequence <= sequences[i]) {
+                    stale.increment();
+                    return true;
+                }
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void markProcessed(long key, long sequence) {
+        int base = ((int) key & setMask) * WAYS;
+        int victim = base;
+        long stamp = ++clock;
+        for (int i = base; i < base + WAYS; i++) {
+            if (keys[i] == key) {
+                sequences[i] = Math.max(sequences[i], sequence);
+                stamps[i] = stamp;
+                return;
+            }
+            if (keys[victim] != EMPTY && (keys[i] == EMPTY || stamps[i] < stamps[victim])) {
+                victim = i;
+            }
+        }
+        if (keys[victim] != EMPTY) {
+            evictions.increment();
+        }
+        keys[victim] = key;
+        sequences[victim] = sequence;
+        stamps[victim] = stamp;
+    }
+
+    /**
+     * 64-bit FNV-1a over topic and business ID, finished with the MurmurHash3 mixer so
+     * the low bits used as set index are well spread.
+     */
+    private static long hash(String topic, byte[] bizId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < topic.length(); i++) {
+            hash = (hash ^ topic.charAt(i)) * 0x100000001b3L;
+        }
+        // Separator, so ("ab", "c") and ("a", "bc") differ
+        hash = (hash ^ 0xff) * 0x100000001b3L;
+        for (byte b : bizId) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    private static byte[] bizIdOf(Headers headers) {
+        Header header = headers.lastHeader(EventHeaders.BIZ_ID);
+        return header != null ? header.value() : null;
+    }
+
+    /**
+     * Parse the decimal sequence header without creating a string.
+     *
+     * @return the sequence, or -1 if absent or malformed
+     */
+    private static long sequenceOf(Headers headers) {
+        Header header = headers.lastHeader(EventHeaders.SEQUENCE);
+        byte[] value = header != null ? header.value() : null;
+        if (value == null || value.length == 0) {
+            return -1L;
+        }
+        long sequence = 0L;
+        for (byte b : value) {
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || sequence > (Long.MAX_VALUE - digit) / 10) {
+                return -1L;
+            }
+            sequence = sequence * 10 + digit;
+        }
+        return sequence;
+    }
+
+    /**
+     * Number of aggregates the table can track.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Number of records reported as stale.
+     */
+    public long getStale() {
+        return stale.sum();
+    }
+
+    /**
+     * Number of tracked aggregates evicted to make room for others.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,155 @@
+package com.nexora.kafka.listener;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.beans.BeanUtils;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Helpers for post-processors decorating the value deserializer of consumer factories.
+ *
+ * <p>Wrappers are installed with the factory's {@code setValueDeserializerSupplier}. A factory
+ * sharing one deserializer keeps sharing it, and a deserializer configured by class name
+ * ({@code value.deserializer}) is instantiated per consumer, as Kafka would. Only a factory
+ * creating a deserializer per consumer from its own supplier needs that supplier, which the
+ * factory does not expose; it is read from the factory's field, and the post-processor fails
+ * if the field is missing rather than leaving the factory unwrapped.
+ *
+ * <p>When the deserializer is an {@link ErrorHandlingDeserializer}, the wrappers end up
+ * outside it, so their own failures, e.g. a claim-check download or a decompression error,
+ * would escape {@code poll()} and block the partition. They are caught instead and reported
+ * in the {@link SerializationUtils#VALUE_DESERIALIZER_EXCEPTION_HEADER} header with a null
+ * value, as the {@link ErrorHandlingDeserializer} does, so the container's error handler
+ * deals with the record.
+ *
+ * @author sujie
+ */
+public final class ValueDeserializerSupport {
+
+    private static final String SUPPLIER_FIELD = "valueDeserializerSupplier";
+
+    private ValueDeserializerSupport() {
+    }
+
+    /**
+     * Wrap the value deserializer of a consumer factory.
+     *
+     * @param factory     the consumer factory
+     * @param wrapperType the wrapper class, skipped if the deserializer already is one
+     * @param wrapper     wraps each deserializer the factory creates
+     * @param <V>         the value type
+     * @return true if the factory was changed, false if already wrapped or no deserializer is configured
+     */
+    public static <V> boolean wrapValueDeserializer(DefaultKafkaConsumerFactory<?, V> factory, Class<?> wrapperType,
+                                                    UnaryOperator<Deserializer<V>> wrapper) {
+        Deserializer<V> deserializer = factory.getValueDeserializer();
+        if (wrapperType.isInstance(unwrap(deserializer))) {
+            return false;
+        }
+        Supplier<Deserializer<V>> previous;
+        if (deserializer == null) {
+            Class<?> type = deserializerClass(
+                factory.getConfigurationProperties().get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG));
+            if (type == null) {
+                return false;
+            }
+            previous = () -> instantiate(type);
+        } else if (deserializer == factory.getValueDeserializer()) {
+            previous = () -> deserializer;
+        } else {
+            previous = valueDeserializerSupplier(factory);
+        }
+        factory.setValueDeserializerSupplier(() -> wrap(previous.get(), wrapper));
+        return true;
+    }
+
+    private static <V> Deserializer<V> wrap(Deserializer<V> deserializer, UnaryOperator<Deserializer<V>> wrapper) {
+        if (deserializer instanceof FailureReportingDeserializer<V> reporting) {
+            // Keep reporting outermost, so the new wrapper's failures are reported too
+            return new FailureReportingDeserializer<>(wrapper.apply(reporting.delegate));
+        }
+        if (deserializer instanceof ErrorHandlingDeserializer<V>) {
+            return new FailureReportingDeserializer<>(wrapper.apply(deserializer));
+        }
+        return wrapper.apply(deserializer);
+    }
+
+    private static Deserializer<?> unwrap(Deserializer<?> deserializer) {
+        return deserializer instanceof FailureReportingDeserializer<?> reporting ? reporting.delegate : deserializer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Supplier<Deserializer<V>> valueDeserializerSupplier(DefaultKafkaConsumerFactory<?, V> factory) {
+        // The factory has no getter for its supplier
+        Field field = ReflectionUtils.findField(DefaultKafkaConsumerFactory.class, SUPPLIER_FIELD);
+        if (field == null) {
+            throw new IllegalStateException("Cannot wrap the per-consumer value deserializer of " + factory
+                + ": DefaultKafkaConsumerFactory has no " + SUPPLIER_FIELD + " field");
+        }
+        ReflectionUtils.makeAccessible(field);
+        return (Supplier<Deserializer<V>>) ReflectionUtils.getField(field, factory);
+    }
+
+    private static Class<?> deserializerClass(Object config) {
+        if (config instanceof Class<?> type) {
+            return type;
+        }
+        if (config instanceof String name) {
+            return ClassUtils.resolveClassName(name, ClassUtils.getDefaultClassLoader());
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Deserializer<V> instantiate(Class<?> type) {
+        return (Deserializer<V>) BeanUtils.instantiateClass(type);
+    }
+
+    /**
+     * Reports failures of wrappers around an {@link ErrorHandlingDeserializer} the way it
+     * reports its own.
+     */
+    static final class FailureReportingDeserializer<V> implements Deserializer<V> {
+
+        private final Deserializer<V> delegate;
+
+        FailureReportingDeserializer(Deserializer<V> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void configure(Map<String, ?> configs, boolean isKey) {
+            delegate.configure(configs, isKey);
+        }
+
+        @Override
+        public V deserialize(String topic, byte[] data) {
+            return delegate.deserialize(topic, data);
+        }
+
+        @Override
+        public V deserialize(String topic, Headers headers, byte[] data) {
+            try {
+                return delegate.deserialize(topic, headers, data);
+            } catch (Exception e) {
+                SerializationUtils.deserializationException(headers, data, e, false);
+                return null;
+            }
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.nexora.kafka.metrics;
+
+import com.nexora.kafka.publisher.EventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer metrics of the {@link EventPublisher}.
+ *
+ * <p>Meters:
+ * <ul>
+ *   <li>{@code nexora.kafka.publish.latency} (tags {@code topic}, {@code result}) - time from
+ *       handing a record to the producer until the broker acknowledged it or the send failed;
+ *       its counts give the send and error rates</li>
+ *   <li>{@code nexora.kafka.publish.payload.size} (tag {@code topic}) - serialized payload size</li>
+ *   <li>{@code nexora.kafka.publish.in.flight} - records sent and not yet acknowledged</li>
+ *   <li>{@code nexora.kafka.publish.spilled} (tag {@code topic}) - events appended to the spill journal</li>
+ *   <li>{@code nexora.kafka.publish.spill.pending} - spilled events not yet drained</li>
+ * </ul>
+ *
+ * @author sujie
+ */
+public class EventPublisherMetrics implements MeterBinder, EventPublisher.Listener {
+
+    private final EventPublisher publisher;
+    private final Map<String, TopicMeters> topics = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public EventPublisherMetrics(EventPublisher publisher) {
+        this.publisher = publisher;
+        publisher.addListener(this);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("nexora.kafka.publish.in.flight", publisher, EventPublisher::getInFlight)
+            .description("Event records sent and not yet acknowledged")
+            .register(registry);
+        Gauge.builder("nexora.kafka.publish.spill.pending", publisher, EventPublisher::getSpillPending)
+            .description("Spilled events not yet drained to Kafka")
+            .register(registry);
+    }
+
+    @Override
+    public void onSend(String topic, int payloadSize) {
+        TopicMeters meters = meters(topic);
+        if (meters != null) {
+            meters.payloadSize.record(payloadSize);
+        }
+    }
+
+    @Override
+    public void onComplete(String topic, long latencyNanos, Throwable failure) {
+        TopicMeters meters = meters(topic);
+        if (meters != null) {
+            (failure == null ? meters.success : meters.error).record(latencyNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void onSpill(String topic) {
+        TopicMeters meters = meters(topic);
+        if (meters != null) {
+            meters.spilled.increment();
+        }
+    }
+
+    private TopicMeters meters(String topic) {
+        MeterRegistry current = registry;
+        return current != null ? topics.computeIfAbsent(topic, key -> new TopicMeters(current, key)) : null;
+    }
+
+    private static final class TopicMeters {
+
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary payloadSize;
+        private final Counter spilled;
+
+        TopicMeters(MeterRegistry registry, String topic) {
+            this.success = latency(registry, topic, "success");
+            this.error = latency(registry, topic, "error");
+            this.payloadSize = DistributionSummary.builder("nexora.kafka.publish.payload.size")
+                .description("Serialized event payload size")
+                .baseUnit("bytes")
+                .tag("topic", topic)
+                .publishPercentileHistogram()
+                .register(registry);
+            this.spilled = Counter.builder("nexora.kafka.publish.spilled")
+                .description("Events appended to the spill journal instead of being sent")
+                .tag("topic", topic)
+                .register(registry);
+        }
+
+        private static Timer latency(MeterRegistry registry, String topic, String result) {
+            return Timer.builder("nexora.kafka.publish.latency")
+                .description("Time until the broker acknowledged an event record")
+                .tags("topic", topic, "result", result)
+                .publishPercentileHistogram()
+                .register(registry);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.nexora.kafka.metrics;
+
+import com.nexora.kafka.listener.ListenerConcurrencyController;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Micrometer metrics of the {@link ListenerConcurrencyController}.
+ *
+ * <p>Meters, all tagged with {@code listener}:
+ * <ul>
+ *   <li>{@code nexora.kafka.listener.concurrency} - current container concurrency</li>
+ *   <li>{@code nexora.kafka.listener.lag} - max consumer lag at the last evaluation</li>
+ *   <li>{@code nexora.kafka.listener.poll.idle.ratio} - average poll idle ratio at the last evaluation</li>
+ *   <li>{@code nexora.kafka.listener.rescale} (tag {@code direction}) - concurrency changes</li>
+ * </ul>
+ *
+ * <p>Containers are registered as the controller discovers them.
+ *
+ * @author sujie
+ */
+public class ListenerConcurrencyMetrics implements MeterBinder, ListenerConcurrencyController.Listener {
+
+    private final ListenerConcurrencyController controller;
+    private volatile MeterRegistry registry;
+
+    public ListenerConcurrencyMetrics(ListenerConcurrencyController controller) {
+        this.controller = controller;
+        controller.addListener(this);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        controller.getStates().forEach(this::onContainer);
+    }
+
+    @Override
+    public void onContainer(ListenerConcurrencyController.ContainerState state) {
+        MeterRegistry current = registry;
+        if (current == null) {
+            return;
+        }
+        String listener = state.getListenerId();
+        Gauge.builder("nexora.kafka.listener.concurrency", state, ListenerConcurrencyController.ContainerState::getConcurrency)
+            .description("Listener container concurrency")
+            .tag("listener", listener)
+            .register(current);
+        Gauge.builder("nexora.kafka.listener.lag", state, ListenerConcurrencyController.ContainerState::getLag)
+            .description("Max consumer lag of the listener container")
+            .tag("listener", listener)
+            .register(current);
+        Gauge.builder("nexora.kafka.listener.poll.idle.ratio", state, ListenerConcurrencyController.ContainerState::getIdleRatio)
+            .description("Average fraction of time the container's consumers wait in poll")
+            .tag("listener", listener)
+            .register(current);
+        FunctionCounter.builder("nexora.kafka.listener.rescale", state, ListenerConcurrencyController.ContainerState::getScaleUps)
+            .description("Listener container concurrency changes")
+            .tags("listener", listener, "direction", "up")
+            .register(current);
+        FunctionCounter.builder("nexora.kafka.listener.rescale", state, ListenerConcurrencyController.ContainerState::getScaleDowns)
+            .description("Listener container concurrency changes")
+            .tags("listener", listener, "direction", "down")
+            .register(current);
+    }
+}
@@ -0,0 +1,91 @@
+package com.nexora.kafka.metrics;
+
+import com.nexora.kafka.outbox.JdbcOutboxRepository;
+import com.nexora.kafka.outbox.OutboxRelay;
+import com.nexora.kafka.outbox.OutboxRelayLane;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer metrics of the {@link OutboxRelay}.
+ *
+ * <p>Meters:
+ * <ul>
+ *   <li>{@code nexora.kafka.outbox.lane.queue.depth} (tag {@code lane}) - events dispatched
+ *       to a lane and not yet handed to the producer</li>
+ *   <li>{@code nexora.kafka.outbox.coalesced} - events marked SENT unpublished, superseded by a newer
+ *       event of the same aggregate</li>
+ *   <li>{@code nexora.kafka.outbox.pending} - NEW events in the outbox</li>
+ *   <li>{@code nexora.kafka.outbox.lag} - age of the oldest NEW event, 0 when the outbox is drained</li>
+ * </ul>
+ *
+ * <p>The backlog gauges share one query, run at most once per {@value #BACKLOG_SAMPLE_SECONDS}
+ * seconds however often the registries are scraped.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class OutboxRelayMetrics implements MeterBinder {
+
+    static final long BACKLOG_SAMPLE_SECONDS = 10;
+
+    private static final JdbcOutboxRepository.Backlog EMPTY = new JdbcOutboxRepository.Backlog(0L, null);
+
+    private final OutboxRelay relay;
+    private final JdbcOutboxRepository repository;
+
+    private JdbcOutboxRepository.Backlog backlog = EMPTY;
+    private long sampledAt;
+    private boolean sampled;
+
+    public OutboxRelayMetrics(OutboxRelay relay, JdbcOutboxRepository repository) {
+        this.relay = relay;
+        this.repository = repository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (OutboxRelayLane lane : relay.getLanes()) {
+            Gauge.builder("nexora.kafka.outbox.lane.queue.depth", lane, OutboxRelayLane::getQueueDepth)
+                .description("Outbox events queued on a relay lane")
+                .tag("lane", String.valueOf(lane.getIndex()))
+                .register(registry);
+        }
+        FunctionCounter.builder("nexora.kafka.outbox.coalesced", relay, OutboxRelay::getCoalesced)
+            .description("Outbox events superseded by a newer event of the same aggregate")
+            .register(registry);
+        Gauge.builder("nexora.kafka.outbox.pending", this, metrics -> metrics.sampleBacklog().pending())
+            .description("NEW events waiting in the outbox")
+            .register(registry);
+        TimeGauge.builder("nexora.kafka.outbox.lag", this, TimeUnit.MILLISECONDS, OutboxRelayMetrics::lagMillis)
+            .description("Age of the oldest NEW outbox event")
+            .register(registry);
+    }
+
+    private double lagMillis() {
+        Instant oldest = sampleBacklog().oldestCreatedAt();
+        return oldest != null ? Math.max(0L, Duration.between(oldest, Instant.now()).toMillis()) : 0.0;
+    }
+
+    synchronized JdbcOutboxRepository.Backlog sampleBacklog() {
+        long now = System.nanoTime();
+        if (!sampled || now - sampledAt >= TimeUnit.SECONDS.toNanos(BACKLOG_SAMPLE_SECONDS)) {
+            sampled = true;
+            sampledAt = now;
+            try {
+                backlog = repository.backlog();
+            } catch (Exception e) {
+                log.warn("Failed to sample outbox backlog", e);
+            }
+        }
+        return backlog;
+    }
+}
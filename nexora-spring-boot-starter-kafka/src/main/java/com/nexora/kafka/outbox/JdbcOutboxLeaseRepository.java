@@ -0,0 +1,204 @@
+package com.nexora.kafka.outbox;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JDBC access to the outbox lease tables used to split relay work between nodes.
+ *
+ * <p>Schema:
+ * <pre>
+ * CREATE TABLE outbox_lease (
+ *     bucket     INT PRIMARY KEY,
+ *     owner      VARCHAR(128),
+ *     expires_at TIMESTAMP NOT NULL
+ * );
+ * CREATE TABLE outbox_relay_node (
+ *     node_id    VARCHAR(128) PRIMARY KEY,
+ *     expires_at TIMESTAMP NOT NULL
+ * );
+ * </pre>
+ *
+ * <p>Every statement is a single-row or owner-scoped conditional UPDATE, so no lock is
+ * held beyond the statement itself. Lease times are taken from {@link #currentTime() the
+ * database clock}, so nodes with skewed clocks still agree on when a lease expires, and are
+ * stored in the {@code TIMESTAMP} columns as UTC, so nodes and sessions in different time
+ * zones agree as well.
+ *
+ * @author sujie
+ */
+public class JdbcOutboxLeaseRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public JdbcOutboxLeaseRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Create the lease rows for buckets {@code 0..buckets-1} that don't exist yet.
+     *
+     * @param buckets the number of buckets
+     */
+    public void initialize(int buckets) {
+        Set<Integer> existing = new HashSet<>(jdbcTemplate.getJdbcOperations()
+            .queryForList("SELECT bucket FROM outbox_lease", Integer.class));
+        LocalDateTime epoch = utc(Instant.EPOCH);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (existing.contains(bucket)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.update("INSERT INTO outbox_lease (bucket, owner, expires_at) VALUES (:bucket, NULL, :epoch)",
+                    new MapSqlParameterSource().addValue("bucket", bucket).addValue("epoch", epoch));
+            } catch (DuplicateKeyException e) {
+                // Created concurrently by another node
+            }
+        }
+    }
+
+    /**
+     * Current time of the database, the reference clock for all lease expiries.
+     *
+     * @return the database time
+     */
+    public Instant currentTime() {
+        OffsetDateTime now = jdbcTemplate.getJdbcOperations()
+            .queryForObject("SELECT CURRENT_TIMESTAMP", OffsetDateTime.class);
+        if (now == null) {
+            throw new IllegalStateException("Database returned no CURRENT_TIMESTAMP");
+        }
+        return now.toInstant();
+    }
+
+    /**
+     * Register or refresh a relay node.
+     *
+     * @param nodeId    the node ID
+     * @param expiresAt when the registration lapses unless refreshed
+     */
+    public void heartbeat(String nodeId, Instant expiresAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("nodeId", nodeId)
+            .addValue("expiresAt", utc(expiresAt));
+        int updated = jdbcTemplate.update(
+            "UPDATE outbox_relay_node SET expires_at = :expiresAt WHERE node_id = :nodeId", params);
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update(
+                    "INSERT INTO outbox_relay_node (node_id, expires_at) VALUES (:nodeId, :expiresAt)", params);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(
+                    "UPDATE outbox_relay_node SET expires_at = :expiresAt WHERE node_id = :nodeId", params);
+            }
+        }
+    }
+
+    /**
+     * Count relay nodes whose registration has not lapsed.
+     *
+     * @param now the current database time
+     * @return the number of live nodes
+     */
+    public int countLiveNodes(Instant now) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_relay_node WHERE expires_at > :now",
+            new MapSqlParameterSource("now", utc(now)), Integer.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Extend all still-valid leases held by an owner.
+     *
+     * @param owner     the owner node ID
+     * @param now       the current database time
+     * @param expiresAt the new lease expiry
+     * @return the renewed buckets
+     */
+    public List<Integer> renew(String owner, Instant now, Instant expiresAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("owner", owner)
+            .addValue("now", utc(now))
+            .addValue("expiresAt", utc(expiresAt));
+        jdbcTemplate.update(
+            "UPDATE outbox_lease SET expires_at = :expiresAt WHERE owner = :owner AND expires_at > :now", params);
+        return jdbcTemplate.queryForList(
+            "SELECT bucket FROM outbox_lease WHERE owner = :owner AND expires_at > :now ORDER BY bucket",
+            params, Integer.class);
+    }
+
+    /**
+     * Find buckets that are unowned or whose lease has expired.
+     *
+     * @param now the current database time
+     * @return the available buckets
+     */
+    public List<Integer> findAvailable(Instant now) {
+        return jdbcTemplate.queryForList(
+            "SELECT bucket FROM outbox_lease WHERE owner IS NULL OR expires_at <= :now ORDER BY bucket",
+            new MapSqlParameterSource("now", utc(now)), Integer.class);
+    }
+
+    /**
+     * Take over a bucket if it is still available.
+     *
+     * @param bucket    the bucket
+     * @param owner     the new owner node ID
+     * @param now       the current database time
+     * @param expiresAt the lease expiry
+     * @return true if the lease was acquired
+     */
+    public boolean tryAcquire(int bucket, String owner, Instant now, Instant expiresAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("bucket", bucket)
+            .addValue("owner", owner)
+            .addValue("now", utc(now))
+            .addValue("expiresAt", utc(expiresAt));
+        return jdbcTemplate.update("""
+            UPDATE outbox_lease SET owner = :owner, expires_at = :expiresAt
+            WHERE bucket = :bucket AND (owner IS NULL OR expires_at <= :now)
+            """, params) == 1;
+    }
+
+    /**
+     * Give up leases held by an owner.
+     *
+     * @param buckets the buckets to release
+     * @param owner   the owner node ID
+     */
+    public void release(Collection<Integer> buckets, String owner) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE outbox_lease SET owner = NULL WHERE owner = :owner AND bucket IN (:buckets)",
+            new MapSqlParameterSource().addValue("owner", owner).addValue("buckets", buckets));
+    }
+
+    /**
+     * Remove a node registration.
+     *
+     * @param nodeId the node ID
+     */
+    public void unregister(String nodeId) {
+        jdbcTemplate.update("DELETE FROM outbox_relay_node WHERE node_id = :nodeId",
+            new MapSqlParameterSource("nodeId", nodeId));
+    }
+
+    /**
+     * The UTC wall-clock time of an instant, bound as a {@code TIMESTAMP} without time zone so
+     * neither the JVM nor the session time zone shifts it.
+     */
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,519 @@
+package com.nexora.kafka.outbox;
+
+import com.nexora.kafka.codec.PayloadCodec;
+import org.jspecify.annotations.Nullable;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC access to the {@code outbox_event} table used by the outbox relay.
+ *
+ * <p>Rows are claimed with {@code SELECT ... FOR UPDATE SKIP LOCKED} so concurrent relays
+ * never block on each other, and status changes are applied with one bulk UPDATE per batch
+ * instead of one entity save per row.
+ *
+ * <p>The claim query requires a database supporting {@code LIMIT} together with
+ * {@code FOR UPDATE SKIP LOCKED} (PostgreSQL 9.5+, MySQL 8.0+). Oracle is not supported: it
+ * has no {@code LIMIT}, and does not allow its row limiting clause with {@code FOR UPDATE}.
+ * The claim must run inside a transaction so the row locks are held until the batch status
+ * is written.
+ *
+ * <p>With a {@link PayloadCodec}, large payloads are stored compressed. The codec columns are
+ * only read and written with compression enabled, so tables without them keep working as long
+ * as it is off. Enabling it needs these columns:
+ * <pre>
+ * ALTER TABLE outbox_event ADD COLUMN payload_codec VARCHAR(16);
+ * ALTER TABLE outbox_event ADD COLUMN payload_data BLOB;  -- BYTEA on PostgreSQL
+ * ALTER TABLE outbox_event ALTER COLUMN payload DROP NOT NULL;
+ * </pre>
+ * Compressed rows can only be read with compression enabled. To stop compressing while some
+ * are left, raise the threshold instead, until they have been relayed and purged.
+ *
+ * <p>Per-aggregate sequences ({@link #setSequences}) need a column, and a table keeping the
+ * last sequence of each aggregate, which purging leaves alone:
+ * <pre>
+ * ALTER TABLE outbox_event ADD COLUMN seq BIGINT;
+ * CREATE TABLE outbox_sequence (
+ *     topic  VARCHAR(128) NOT NULL,
+ *     biz_id VARCHAR(64)  NOT NULL,
+ *     seq    BIGINT       NOT NULL,
+ *     PRIMARY KEY (topic, biz_id)
+ * );
+ * </pre>
+ *
+ * @author sujie
+ */
+public class JdbcOutboxRepository {
+
+    private static final String CLAIM_SQL = """
+        SELECT %s
+        FROM outbox_event
+        WHERE status = 'NEW'
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String CLAIM_BUCKETS_SQL = """
+        SELECT %s
+        FROM outbox_event
+        WHERE status = 'NEW' AND bucket IN (:buckets)
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String FIND_SENT_SQL = """
+        SELECT %s
+        FROM outbox_event
+        WHERE status = 'SENT' AND updated_at < :cutoff
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String FIND_SENT_IDS_SQL = """
+        SELECT id
+        FROM outbox_event
+        WHERE status = 'SENT' AND updated_at < :cutoff
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String DELETE_SENT_SQL = """
+        DELETE FROM outbox_event
+        WHERE id IN (:ids) AND status = 'SENT'
+        """;
+
+    private static final String BACKLOG_SQL = """
+        SELECT COUNT(*) AS pending, MIN(created_at) AS oldest
+        FROM outbox_event
+        WHERE status = 'NEW'
+        """;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO outbox_event (%s)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?%s)
+        """;
+
+    private static final String COLUMNS = "id, event_type, topic, biz_id, payload, status, retry_count, bucket, created_at, updated_at";
+
+    private static final String CODEC_COLUMNS = ", payload_codec, payload_data";
+
+    private static final String SEQUENCE_COLUMN = ", seq";
+
+    private static final String LAST_SEQUENCES_SQL = """
+        SELECT topic, biz_id, seq
+        FROM outbox_sequence
+        WHERE biz_id IN (:bizIds)
+        FOR UPDATE
+        """;
+
+    private static final String INSERT_LAST_SEQUENCE_SQL = """
+        INSERT INTO outbox_sequence (seq, topic, biz_id)
+        VALUES (?, ?, ?)
+        """;
+
+    private static final String UPDATE_LAST_SEQUENCE_SQL = """
+        UPDATE outbox_sequence
+        SET seq = ?
+        WHERE topic = ? AND biz_id = ?
+        """;
+
+    private static final String SET_SEQUENCE_SQL = """
+        UPDATE outbox_event
+        SET seq = ?
+        WHERE id = ?
+        """;
+
+    private static final String MARK_SENT_SQL = """
+        UPDATE outbox_event
+        SET status = 'SENT', updated_at = :now
+        WHERE id IN (:ids)
+        """;
+
+    private static final String MARK_FAILED_SQL = """
+        UPDATE outbox_event
+        SET retry_count = retry_count + 1,
+            status = CASE WHEN retry_count + 1 >= :maxRetries THEN 'FAILED' ELSE 'NEW' END,
+            updated_at = :now
+        WHERE id IN (:ids)
+        """;
+
+    private static final String REQUEUE_SQL = """
+        UPDATE outbox_event
+        SET status = 'NEW', updated_at = :now
+        WHERE id IN (:ids)
+        """;
+
+    private static final RowMapper<OutboxEvent> ROW_MAPPER = (rs, rowNum) -> {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(rs.getLong("id"));
+        event.setEventType(rs.getString("event_type"));
+        event.setTopic(rs.getString("topic"));
+        event.setBizId(rs.getString("biz_id"));
+        event.setPayload(rs.getString("payload"));
+        event.setStatus(OutboxStatus.valueOf(rs.getString("status")));
+        event.setRetryCount(rs.getInt("retry_count"));
+        event.setBucket(rs.getInt("bucket"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        event.setCreatedAt(createdAt != null ? createdAt.toInstant() : null);
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        event.setUpdatedAt(updatedAt != null ? updatedAt.toInstant() : null);
+        return event;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PayloadCodec codec;
+    private final int compressionThreshold;
+    private final RowMapper<OutboxEvent> rowMapper = this::mapRow;
+    private boolean sequences;
+    private String claimSql;
+    private String claimBucketsSql;
+    private String findSentSql;
+    private String insertSql;
+
+    public JdbcOutboxRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, null, 0);
+    }
+
+    /**
+     * Create a repository storing large payloads compressed.
+     *
+     * <p>Payloads longer than {@code compressionThreshold} bytes are written compressed to
+     * {@code payload_data} with their codec in {@code payload_codec}, leaving {@code payload}
+     * NULL. Compressed rows are read back with the codec named in the row, whichever codec
+     * is configured now.
+     *
+     * @param jdbcTemplate         the JDBC template
+     * @param codec                the codec for large payloads, or null to store all payloads as text
+     * @param compressionThreshold the payload size in bytes above which payloads are compressed
+     */
+    public JdbcOutboxRepository(NamedParameterJdbcTemplate jdbcTemplate, @Nullable PayloadCodec codec,
+                                int compressionThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codec = codec;
+        this.compressionThreshold = compressionThreshold;
+        buildStatements();
+    }
+
+    /**
+     * Read and purge events with their per-(topic, bizId) sequence, stored in the {@code seq}
+     * column and sent in the {@code nexora-sequence} header.
+     *
+     * <p>Sequences are assigned by the relay with {@link #assignSequences}, not on insert, so
+     * writers don't contend on anything. The last sequence of each aggregate is kept in the
+     * {@code outbox_sequence} table, so numbering goes on where it left off after its events
+     * are purged.
+     *
+     * @param sequences whether events carry sequences
+     */
+    public void setSequences(boolean sequences) {
+        this.sequences = sequences;
+        buildStatements();
+    }
+
+    public boolean isSequences() {
+        return sequences;
+    }
+
+    private void buildStatements() {
+        String storedColumns = codec != null ? COLUMNS + CODEC_COLUMNS : COLUMNS;
+        String columns = storedColumns + (sequences ? SEQUENCE_COLUMN : "");
+        this.claimSql = CLAIM_SQL.formatted(columns);
+        this.claimBucketsSql = CLAIM_BUCKETS_SQL.formatted(columns);
+        this.findSentSql = FIND_SENT_SQL.formatted(columns);
+        this.insertSql = INSERT_SQL.formatted(storedColumns, codec != null ? ", ?, ?" : "");
+    }
+
+    private OutboxEvent mapRow(ResultSet rs, int rowNum) throws SQLException {
+        OutboxEvent event = ROW_MAPPER.mapRow(rs, rowNum);
+        if (codec != null) {
+            event.setPayloadCodec(rs.getString("payload_codec"));
+            event.setPayloadData(rs.getBytes("payload_data"));
+        }
+        if (sequences) {
+            long sequence = rs.getLong("seq");
+            event.setSequence(rs.wasNull() ? null : sequence);
+        }
+        return event;
+    }
+
+    /**
+     * Insert events with one JDBC batch.
+     *
+     * <p>IDs must already be assigned. For a single network round trip enable the driver's
+     * batch rewriting ({@code rewriteBatchedStatements=true} for MySQL,
+     * {@code reWriteBatchedInserts=true} for PostgreSQL).
+     *
+     * @param events the events to insert
+     */
+    public void insertAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.getJdbcOperations().batchUpdate(insertSql, events, events.size(), (ps, event) -> {
+            byte[] compressed = compress(event.getPayload());
+            ps.setLong(1, event.getId());
+            ps.setString(2, event.getEventType());
+            ps.setString(3, event.getTopic());
+            ps.setString(4, event.getBizId());
+            ps.setString(5, compressed == null ? event.getPayload() : null);
+            ps.setString(6, event.getStatus().name());
+            ps.setInt(7, event.getRetryCount());
+            ps.setInt(8, event.getBucket());
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+            if (codec != null) {
+                ps.setString(11, compressed != null ? codec.getId() : null);
+                ps.setBytes(12, compressed);
+            }
+        });
+    }
+
+    private byte[] compress(String payload) {
+        // A UTF-8 char is at most 3 bytes, so short payloads skip encoding
+        if (codec == null || payload.length() * 3L <= compressionThreshold) {
+            return null;
+        }
+        byte[] data = payload.getBytes(StandardCharsets.UTF_8);
+        if (data.length <= compressionThreshold) {
+            return null;
+        }
+        byte[] compressed = codec.compress(data);
+        // Incompressible payloads stay text
+        return compressed.length < data.length ? compressed : null;
+    }
+
+    /**
+     * Claim up to {@code limit} NEW events, oldest first.
+     *
+     * <p>Rows locked by another relay are skipped rather than waited on.
+     *
+     * @param limit the max number of events to claim
+     * @return the claimed events, locked until the surrounding transaction ends
+     */
+    public List<OutboxEvent> claimBatch(int limit) {
+        return jdbcTemplate.query(claimSql, new MapSqlParameterSource("limit", limit), rowMapper);
+    }
+
+    /**
+     * Claim up to {@code limit} NEW events of the given buckets, oldest first.
+     *
+     * @param limit   the max number of events to claim
+     * @param buckets the buckets leased by this node
+     * @return the claimed events, locked until the surrounding transaction ends
+     */
+    public List<OutboxEvent> claimBatch(int limit, Collection<Integer> buckets) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("limit", limit)
+            .addValue("buckets", buckets);
+        return jdbcTemplate.query(claimBucketsSql, params, rowMapper);
+    }
+
+    /**
+     * Number claimed events without a sequence after the last sequence of their topic and
+     * {@code bizId}, in list order, and store the numbers with one JDBC batch per table.
+     *
+     * <p>Must run in the transaction holding the claim, by the only relay sending these
+     * aggregates: with several relaying nodes, the holder of their bucket lease. Events of an
+     * aggregate that already have a sequence must come before those without one.
+     *
+     * <p>The {@code outbox_sequence} rows read are locked until the transaction ends, and a
+     * relay numbering a new aggregate at the same time fails on its primary key, so two relays
+     * never hand out the same number even if they claim the same aggregate.
+     *
+     * @param events the claimed events, in the order they are sent
+     */
+    public void assignSequences(List<OutboxEvent> events) {
+        Set<String> bizIds = new HashSet<>();
+        for (OutboxEvent event : events) {
+            if (event.getSequence() == null && event.getBizId() != null) {
+                bizIds.add(event.getBizId());
+            }
+        }
+        if (bizIds.isEmpty()) {
+            return;
+        }
+        Map<Aggregate, Long> last = new HashMap<>();
+        jdbcTemplate.query(LAST_SEQUENCES_SQL, new MapSqlParameterSource("bizIds", bizIds), (RowCallbackHandler) rs ->
+            last.put(new Aggregate(rs.getString("topic"), rs.getString("biz_id")), rs.getLong("seq")));
+        Set<Aggregate> known = Set.copyOf(last.keySet());
+        Set<Aggregate> renumbered = new HashSet<>();
+        List<OutboxEvent> numbered = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (event.getSequence() == null && event.getBizId() != null) {
+                Aggregate aggregate = new Aggregate(event.getTopic(), event.getBizId());
+                event.setSequence(last.merge(aggregate, 1L, Long::sum));
+                renumbered.add(aggregate);
+                numbered.add(event);
+            }
+        }
+        JdbcOperations operations = jdbcTemplate.getJdbcOperations();
+        operations.batchUpdate(SET_SEQUENCE_SQL, numbered, numbered.size(), (ps, event) -> {
+            ps.setLong(1, event.getSequence());
+            ps.setLong(2, event.getId());
+        });
+        List<Map.Entry<Aggregate, Long>> inserted = new ArrayList<>();
+        List<Map.Entry<Aggregate, Long>> updated = new ArrayList<>();
+        for (Aggregate aggregate : renumbered) {
+            (known.contains(aggregate) ? updated : inserted).add(Map.entry(aggregate, last.get(aggregate)));
+        }
+        storeLastSequences(operations, INSERT_LAST_SEQUENCE_SQL, inserted);
+        storeLastSequences(operations, UPDATE_LAST_SEQUENCE_SQL, updated);
+    }
+
+    private static void storeLastSequences(JdbcOperations operations, String sql,
+                                           List<Map.Entry<Aggregate, Long>> lastSequences) {
+        if (lastSequences.isEmpty()) {
+            return;
+        }
+        operations.batchUpdate(sql, lastSequences, lastSequences.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setString(2, entry.getKey().topic());
+            ps.setString(3, entry.getKey().bizId());
+        });
+    }
+
+    /**
+     * Mark events as SENT with a single UPDATE.
+     *
+     * @param ids the event IDs
+     * @return the number of updated rows
+     */
+    public int markSent(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("ids", ids)
+            .addValue("now", Timestamp.from(Instant.now()));
+        return jdbcTemplate.update(MARK_SENT_SQL, params);
+    }
+
+    /**
+     * Record a failed publish attempt for events with a single UPDATE.
+     *
+     * <p>Events stay NEW so the next poll retries them, until {@code maxRetries}
+     * attempts are used up and they are marked FAILED.
+     *
+     * @param ids        the event IDs
+     * @param maxRetries the max publish attempts
+     * @return the number of updated rows
+     */
+    public int markFailed(Collection<Long> ids, int maxRetries) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("ids", ids)
+            .addValue("maxRetries", maxRetries)
+            .addValue("now", Timestamp.from(Instant.now()));
+        return jdbcTemplate.update(MARK_FAILED_SQL, params);
+    }
+
+    /**
+     * Put claimed events back to NEW with a single UPDATE, without counting a publish attempt.
+     *
+     * <p>For events that were not published through no fault of their own, e.g. because an
+     * earlier event of the same aggregate failed.
+     *
+     * @param ids the event IDs
+     * @return the number of updated rows
+     */
+    public int requeue(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("ids", ids)
+            .addValue("now", Timestamp.from(Instant.now()));
+        return jdbcTemplate.update(REQUEUE_SQL, params);
+    }
+
+    /**
+     * Lock up to {@code limit} SENT events last updated before {@code cutoff}, oldest first.
+     *
+     * @param cutoff only events sent before this instant
+     * @param limit  the max number of events
+     * @return the events, locked until the surrounding transaction ends
+     */
+    public List<OutboxEvent> findSentBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.query(findSentSql, sentParams(cutoff, limit), rowMapper);
+    }
+
+    /**
+     * Lock the IDs of up to {@code limit} SENT events last updated before {@code cutoff}.
+     *
+     * @param cutoff only events sent before this instant
+     * @param limit  the max number of events
+     * @return the event IDs, locked until the surrounding transaction ends
+     */
+    public List<Long> findSentIdsBefore(Instant cutoff, int limit) {
+        return jdbcTemplate.queryForList(FIND_SENT_IDS_SQL, sentParams(cutoff, limit), Long.class);
+    }
+
+    /**
+     * Delete SENT events with a single DELETE.
+     *
+     * @param ids the event IDs
+     * @return the number of deleted rows
+     */
+    public int deleteSent(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(DELETE_SENT_SQL, new MapSqlParameterSource("ids", ids));
+    }
+
+    /**
+     * Count the NEW events and find the creation time of the oldest one.
+     *
+     * <p>Scans the NEW rows only; an index on {@code (status, created_at)} keeps it cheap.
+     *
+     * @return the backlog
+     */
+    public Backlog backlog() {
+        Backlog backlog = jdbcTemplate.queryForObject(BACKLOG_SQL, new MapSqlParameterSource(), (rs, rowNum) -> {
+            Timestamp oldest = rs.getTimestamp("oldest");
+            return new Backlog(rs.getLong("pending"), oldest != null ? oldest.toInstant() : null);
+        });
+        return backlog != null ? backlog : new Backlog(0L, null);
+    }
+
+    private static MapSqlParameterSource sentParams(Instant cutoff, int limit) {
+        return new MapSqlParameterSource()
+            .addValue("cutoff", Timestamp.from(cutoff))
+            .addValue("limit", limit);
+    }
+
+    private record Aggregate(String topic, String bizId) {
+    }
+
+    /**
+     * Unsent outbox events.
+     *
+     * @param pending         the number of NEW events
+     * @param oldestCreatedAt the creation time of the oldest NEW event, or null if there is none
+     */
+    public record Backlog(long pending, Instant oldestCreatedAt) {
+    }
+}
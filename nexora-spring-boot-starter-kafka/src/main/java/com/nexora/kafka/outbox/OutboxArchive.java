@@ -0,0 +1,99 @@
+package com.nexora.kafka.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A gzip-compressed NDJSON segment file of purged outbox events.
+ *
+ * <p>Each event is written as one JSON object per line. Every appended chunk is
+ * sync-flushed, so it can be read back even if the segment is never closed.
+ *
+ * @author sujie
+ */
+public class OutboxArchive implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS");
+    private static final byte NEWLINE = '\n';
+
+    private final Path path;
+    private final OutputStream out;
+    private long events;
+
+    private OutboxArchive(Path path) throws IOException {
+        this.path = path;
+        this.out = new GZIPOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE_NEW), 64 * 1024, true);
+    }
+
+    /**
+     * Create a new segment in a directory.
+     *
+     * @param directory the archive directory, created if missing
+     * @return the open segment
+     * @throws IOException if the segment cannot be created
+     */
+    public static OutboxArchive create(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String name = "outbox-sent-" + ZonedDateTime.now(ZoneOffset.UTC).format(SEGMENT_TIME) + ".ndjson.gz";
+        return new OutboxArchive(directory.resolve(name));
+    }
+
+    /**
+     * Append events and flush them to the file.
+     *
+     * @param chunk the events to archive
+     * @throws IOException if writing fails
+     */
+    public void append(List<OutboxEvent> chunk) throws IOException {
+        for (OutboxEvent event : chunk) {
+            out.write(MAPPER.writeValueAsBytes(toMap(event)));
+            out.write(NEWLINE);
+        }
+        out.flush();
+        events += chunk.size();
+    }
+
+    private static Map<String, Object> toMap(OutboxEvent event) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", event.getId());
+        row.put("eventType", event.getEventType());
+        row.put("topic", event.getTopic());
+        row.put("bizId", event.getBizId());
+        row.put("status", event.getStatus() != null ? event.getStatus().name() : null);
+        row.put("retryCount", event.getRetryCount());
+        row.put("createdAt", event.getCreatedAt() != null ? event.getCreatedAt().toString() : null);
+        row.put("updatedAt", event.getUpdatedAt() != null ? event.getUpdatedAt().toString() : null);
+        row.put("payload", event.getPayloadText());
+        return row;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Number of events written to this segment.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
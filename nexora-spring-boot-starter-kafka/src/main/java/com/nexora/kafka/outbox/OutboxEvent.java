@@ -1,12 +1,16 @@
 package com.nexora.kafka.outbox;
 
+import com.nexora.kafka.codec.PayloadCodec;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 
 /**
@@ -17,6 +21,8 @@ import java.time.Instant;
  *
  * <p>Used for implementing the Outbox Pattern for reliable event publishing.
  *
+ * <p>The {@code id} column is a plain {@code BIGINT} primary key without auto-increment.
+ *
  * @author sujie
  */
 @Entity
@@ -26,8 +32,11 @@ import java.time.Instant;
 @Setter
 public class OutboxEvent {
 
+    /**
+     * Time-ordered ID assigned by the application (see {@link OutboxIdGenerator}),
+     * so inserts can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(nullable = false, length = 64)
@@ -39,9 +48,27 @@ public class OutboxEvent {
     @Column(nullable = false, length = 64)
     private String bizId;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    /**
+     * JSON payload, null when stored compressed in {@code payloadData}.
+     */
+    @Column(columnDefinition = "TEXT")
     private String payload;
 
+    /**
+     * Codec of a compressed payload, see {@link com.nexora.kafka.codec.PayloadCodec}.
+     */
+    @Column(length = 16)
+    private String payloadCodec;
+
+    /**
+     * Compressed payload, set instead of {@code payload} when {@code payloadCodec} is set.
+     * Mapped to a plain binary column ({@code BYTEA} on PostgreSQL), not a large object, to
+     * match the bytes {@link JdbcOutboxRepository} writes and reads.
+     */
+    @Column
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    private byte[] payloadData;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private OutboxStatus status = OutboxStatus.NEW;
@@ -49,6 +76,20 @@ public class OutboxEvent {
     @Column
     private Integer retryCount = 0;
 
+    /**
+     * Virtual bucket derived from {@code bizId}, used to split relay work between nodes.
+     */
+    @Column(nullable = false)
+    private Integer bucket = 0;
+
+    /**
+     * Per-(topic, bizId) sequence sent in the {@code nexora-sequence} header: 1, 2, 3, ...
+     * in relay order, assigned when the event is first claimed. Null until then, and unless
+     * sequences are enabled.
+     */
+    @Column(name = "seq")
+    private Long sequence;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
@@ -57,6 +98,36 @@ public class OutboxEvent {
     @Column(nullable = false)
     private Instant updatedAt;
 
+    /**
+     * Payload as sent to Kafka: compressed if {@code payloadCodec} is set, UTF-8 JSON otherwise.
+     *
+     * @return the record value
+     */
+    public byte[] getPayloadBytes() {
+        if (payloadCodec != null) {
+            return payloadData;
+        }
+        return requirePayload().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * JSON payload, decompressed if stored compressed.
+     *
+     * @return the payload
+     */
+    public String getPayloadText() {
+        return payloadCodec != null
+            ? new String(PayloadCodec.of(payloadCodec).decompress(payloadData), StandardCharsets.UTF_8)
+            : requirePayload();
+    }
+
+    private String requirePayload() {
+        if (payload == null) {
+            throw new IllegalStateException("Outbox event " + id + " has neither a payload nor a compressed payload");
+        }
+        return payload;
+    }
+
     /**
      * Create a new outbox event.
      *
@@ -0,0 +1,129 @@
+package com.nexora.kafka.outbox;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes outbox events within the caller's transaction.
+ *
+ * <p>Inside a transaction, events are buffered and inserted with one JDBC batch right
+ * before commit, so a unit of work emitting many events costs a single round trip.
+ * The insert shares the caller's connection, so events are committed or rolled back
+ * together with the business data. Without an active transaction each event is
+ * inserted immediately.
+ *
+ * <p>A commit listener, typically {@link OutboxRelay#wakeup()}, is notified once the
+ * events are durable, so the relay can publish them without waiting for its next poll.
+ *
+ * @author sujie
+ */
+public class OutboxEventWriter {
+
+    private final JdbcOutboxRepository repository;
+    private final OutboxIdGenerator idGenerator;
+    private final int buckets;
+
+    private volatile Runnable commitListener;
+
+    public OutboxEventWriter(JdbcOutboxRepository repository, OutboxIdGenerator idGenerator, int buckets) {
+        this.repository = repository;
+        this.idGenerator = idGenerator;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Write an outbox event, assigning its ID if missing and its bucket.
+     *
+     * @param event the event to write
+     */
+    public void write(OutboxEvent event) {
+        if (event.getId() == null) {
+            event.setId(idGenerator.nextId());
+        }
+        event.setBucket(OutboxLeaseManager.bucketOf(event.getBizId(), buckets));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+            || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            repository.insertAll(List.of(event));
+            notifyCommitted();
+            return;
+        }
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    /**
+     * Insert the events buffered in the current transaction now instead of at commit.
+     */
+    public void flush() {
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            pending.flush();
+        }
+    }
+
+    /**
+     * Set the callback run after outbox events have been committed.
+     *
+     * @param commitListener the callback, or {@code null} for none
+     */
+    public void setCommitListener(Runnable commitListener) {
+        this.commitListener = commitListener;
+    }
+
+    private void notifyCommitted() {
+        Runnable listener = commitListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Events buffered for the current transaction.
+     */
+    private final class PendingEvents implements TransactionSynchronization {
+
+        private final List<OutboxEvent> events = new ArrayList<>();
+
+        @Override
+        public void flush() {
+            if (!events.isEmpty()) {
+                List<OutboxEvent> batch = List.copyOf(events);
+                events.clear();
+                repository.insertAll(batch);
+            }
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(OutboxEventWriter.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(OutboxEventWriter.this, this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flush();
+        }
+
+        @Override
+        public void afterCommit() {
+            notifyCommitted();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OutboxEventWriter.this);
+        }
+    }
+}
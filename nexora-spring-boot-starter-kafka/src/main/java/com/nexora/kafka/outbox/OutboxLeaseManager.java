@@ -0,0 +1,161 @@
+package com.nexora.kafka.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lease-based ownership of outbox buckets for multi-node relays.
+ *
+ * <p>Outbox events are spread over a fixed number of virtual buckets by {@code bizId} hash.
+ * Each node registers itself, renews the bucket leases it holds, and aims for an even share
+ * ({@code ceil(buckets / liveNodes)}): it releases surplus buckets when nodes join and takes
+ * over unowned or expired buckets when nodes leave or crash. A node only relays the buckets
+ * it holds, so relays on different nodes never compete for the same rows.
+ *
+ * <p>{@link #heartbeat()} is driven by the {@link OutboxRelay} thread between batches, so a
+ * bucket is never released while one of its events is being sent.
+ *
+ * <p>Expiries written to and compared in the lease tables are based on the database clock,
+ * so wall-clock skew between nodes can't let two of them hold the same bucket. Locally, a
+ * lease counts as valid for {@code ttl} on the monotonic clock from when the heartbeat
+ * started, i.e. never longer than the database grants it.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class OutboxLeaseManager {
+
+    private final JdbcOutboxLeaseRepository repository;
+    private final String nodeId;
+    private final int buckets;
+    private final Duration ttl;
+    private final Duration renewInterval;
+    private final Duration safetyMargin;
+
+    private boolean initialized;
+    private volatile Set<Integer> owned = Set.of();
+    private volatile long validUntilNanos;
+    private volatile long lastRenewalNanos;
+    private volatile boolean renewed;
+
+    /**
+     * Create a lease manager.
+     *
+     * @param repository    the lease repository
+     * @param nodeId        this node's unique ID
+     * @param buckets       the number of virtual buckets
+     * @param ttl           the lease duration
+     * @param renewInterval the heartbeat interval, shorter than {@code ttl}
+     * @param safetyMargin  how long before expiry a lease stops being used (the relay send timeout)
+     */
+    public OutboxLeaseManager(JdbcOutboxLeaseRepository repository, String nodeId, int buckets,
+                              Duration ttl, Duration renewInterval, Duration safetyMargin) {
+        this.repository = repository;
+        this.nodeId = nodeId;
+        this.buckets = buckets;
+        this.ttl = ttl;
+        this.renewInterval = renewInterval;
+        this.safetyMargin = safetyMargin;
+    }
+
+    /**
+     * Bucket of a business ID.
+     *
+     * @param bizId   the business ID
+     * @param buckets the number of buckets
+     * @return the bucket in {@code [0, buckets)}
+     */
+    public static int bucketOf(String bizId, int buckets) {
+        return bizId == null ? 0 : Math.floorMod(bizId.hashCode(), buckets);
+    }
+
+    /**
+     * Renew held leases and rebalance towards an even share of buckets.
+     */
+    public void heartbeat() {
+        if (!initialized) {
+            repository.initialize(buckets);
+            initialized = true;
+        }
+        long started = System.nanoTime();
+        Instant now = repository.currentTime();
+        Instant expiresAt = now.plus(ttl);
+        repository.heartbeat(nodeId, expiresAt);
+        List<Integer> held = new ArrayList<>(repository.renew(nodeId, now, expiresAt));
+
+        int nodes = Math.max(1, repository.countLiveNodes(now));
+        int target = (buckets + nodes - 1) / nodes;
+        if (held.size() > target) {
+            List<Integer> surplus = held.subList(target, held.size());
+            repository.release(List.copyOf(surplus), nodeId);
+            log.info("Released {} outbox buckets to other nodes: nodes={}", surplus.size(), nodes);
+            surplus.clear();
+        } else if (held.size() < target) {
+            List<Integer> available = new ArrayList<>(repository.findAvailable(now));
+            // Shuffle so nodes starting together don't race for the same buckets
+            Collections.shuffle(available);
+            int acquired = 0;
+            for (Integer bucket : available) {
+                if (held.size() >= target) {
+                    break;
+                }
+                if (repository.tryAcquire(bucket, nodeId, now, expiresAt)) {
+                    held.add(bucket);
+                    acquired++;
+                }
+            }
+            if (acquired > 0) {
+                log.info("Acquired {} outbox buckets: held={}, nodes={}", acquired, held.size(), nodes);
+            }
+        }
+
+        owned = Set.copyOf(held);
+        validUntilNanos = started + ttl.toNanos();
+        lastRenewalNanos = started;
+        renewed = true;
+    }
+
+    /**
+     * Buckets this node may relay right now.
+     *
+     * @return the owned buckets, or empty if the leases are about to expire
+     */
+    public Set<Integer> ownedBuckets() {
+        return renewed && System.nanoTime() - (validUntilNanos - safetyMargin.toNanos()) < 0 ? owned : Set.of();
+    }
+
+    /**
+     * Whether the next heartbeat is due.
+     */
+    public boolean isRenewalDue() {
+        return !renewed || System.nanoTime() - lastRenewalNanos >= renewInterval.toNanos();
+    }
+
+    /**
+     * Release all leases and unregister this node, so others take over immediately.
+     */
+    public void releaseAll() {
+        repository.release(owned, nodeId);
+        repository.unregister(nodeId);
+        owned = Set.of();
+        renewed = false;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public Duration getRenewInterval() {
+        return renewInterval;
+    }
+}
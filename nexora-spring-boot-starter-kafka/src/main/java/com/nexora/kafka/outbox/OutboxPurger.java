@@ -0,0 +1,166 @@
+package com.nexora.kafka.outbox;
+
+import com.nexora.kafka.properties.KafkaProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background purger deleting SENT outbox events older than the retention window.
+ *
+ * <p>Events are deleted in chunks of {@code nexora.kafka.outbox.purge.chunk-size}, each
+ * locked with {@code SKIP LOCKED} and deleted in its own short transaction, so the purger
+ * never holds a long lock and purgers on several nodes don't delete the same rows.
+ *
+ * <p>With {@code nexora.kafka.outbox.purge.archive-dir} set, each chunk is first appended
+ * to a gzip-compressed NDJSON segment (one per purge run, see {@link OutboxArchive}) and
+ * only deleted once written. If archiving fails, the chunk is kept and the run stops.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class OutboxPurger implements SmartLifecycle {
+
+    private final JdbcOutboxRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaProperties.Purge properties;
+
+    private volatile boolean running;
+    private volatile boolean stopping;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Archive segment of the current purge run, created with its first chunk.
+     */
+    private OutboxArchive segment;
+
+    public OutboxPurger(JdbcOutboxRepository repository,
+                        TransactionTemplate transactionTemplate,
+                        KafkaProperties.Purge properties) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Delete, and archive if configured, all SENT events older than the retention window.
+     *
+     * @return the number of deleted events
+     */
+    public synchronized long purge() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        String archiveDir = properties.getArchiveDir();
+        Path archivePath = archiveDir == null || archiveDir.isBlank() ? null : Path.of(archiveDir);
+        long purged = 0;
+        try {
+            while (true) {
+                int deleted = archivePath == null ? deleteChunk(cutoff) : archiveChunk(cutoff, archivePath);
+                purged += deleted;
+                if (deleted < properties.getChunkSize() || stopping) {
+                    break;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            log.error("Failed to archive outbox events, purge stopped", e);
+        } finally {
+            closeSegment();
+        }
+        if (purged > 0) {
+            log.info("Purged {} SENT outbox events older than {}", purged, cutoff);
+        }
+        return purged;
+    }
+
+    private int deleteChunk(Instant cutoff) {
+        Integer deleted = transactionTemplate.execute(status ->
+            repository.deleteSent(repository.findSentIdsBefore(cutoff, properties.getChunkSize())));
+        return deleted != null ? deleted : 0;
+    }
+
+    private int archiveChunk(Instant cutoff, Path archivePath) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = repository.findSentBefore(cutoff, properties.getChunkSize());
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                if (segment == null) {
+                    segment = OutboxArchive.create(archivePath);
+                }
+                segment.append(events);
+            } catch (IOException e) {
+                // Rolls back, the chunk stays in the table
+                throw new UncheckedIOException(e);
+            }
+            repository.deleteSent(events.stream().map(OutboxEvent::getId).toList());
+            return events.size();
+        });
+        return deleted != null ? deleted : 0;
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.close();
+            log.info("Archived {} outbox events to {}", segment.getEvents(), segment.getPath());
+        } catch (IOException e) {
+            log.error("Failed to close outbox archive {}", segment.getPath(), e);
+        } finally {
+            segment = null;
+        }
+    }
+
+    private void runPurge() {
+        try {
+            purge();
+        } catch (Exception e) {
+            log.error("Outbox purge failed", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nexora-outbox-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        stopping = false;
+        running = true;
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::runPurge, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Outbox purger started: retention={}, chunkSize={}, archiveDir={}",
+            properties.getRetention(), properties.getChunkSize(), properties.getArchiveDir());
+    }
+
+    @Override
+    public void stop() {
+        stopping = true;
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Outbox purger stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,551 @@
+package com.nexora.kafka.outbox;
+
+import com.nexora.kafka.properties.KafkaProperties;
+import com.nexora.kafka.publisher.EventHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background relay publishing NEW outbox events to Kafka.
+ *
+ * <p>Each poll claims a batch of events, sends all of them without waiting in between
+ * (pipelined sends), then waits for the broker acknowledgements and writes the batch
+ * outcome with one bulk UPDATE for the sent events and one for the failed ones. Once an
+ * event fails, the later events of its topic and {@code bizId} in the batch are put back
+ * to NEW as well, even if acknowledged, so they are relayed again after it and never end
+ * up SENT ahead of an event of the same aggregate. They did not fail themselves, so their
+ * retry count is left alone.
+ * Claim, send and status update run in a single database transaction, so the row
+ * locks are released as soon as the batch is settled.
+ *
+ * <p>With {@code nexora.kafka.outbox.lanes} greater than 1, a batch is split by
+ * {@code bizId} hash across {@link OutboxRelayLane}s that send in parallel; events of one
+ * aggregate always share a lane and are sent in order.
+ *
+ * <p>With lease coordination enabled, only the buckets leased by this node (see
+ * {@link OutboxLeaseManager}) are claimed, and leases are renewed on the relay thread
+ * between batches.
+ *
+ * <p>Events of a type listed in {@code nexora.kafka.outbox.coalesce-event-types} are state
+ * snapshots: of several such events for the same topic, {@code bizId} and type in one batch,
+ * only the newest is published. The older ones are marked SENT once it is acknowledged, and
+ * otherwise share its outcome, so they are never settled ahead of the state replacing them.
+ *
+ * <p>With {@link #enableTransactions transactions} enabled, the events of each lane go out in
+ * one Kafka transaction with a transactional ID per lane instead, and are marked SENT right
+ * after it commits, or FAILED as a whole when it aborts. Consumers reading with
+ * {@code isolation.level=read_committed} then never see events of an interrupted batch, so a
+ * crash while sending no longer causes a burst of duplicates once the batch is claimed again.
+ * Only a crash between the Kafka commit and the database commit still relays a batch twice.
+ *
+ * <p>With {@code nexora.kafka.outbox.sequences} enabled, events are numbered per topic and
+ * {@code bizId} when first claimed, in the order they are sent, and carry the number in the
+ * {@code nexora-sequence} header. An event keeps its number when it is relayed again. Only one
+ * relay may claim an aggregate's events, so lease coordination is required unless
+ * {@code nexora.kafka.outbox.single-node} declares this the only relaying node.
+ *
+ * <p>While batches come back full the relay keeps draining; otherwise it sleeps for
+ * {@code nexora.kafka.outbox.poll-interval}. {@link #wakeup()} starts a drain right away,
+ * which the {@link OutboxEventWriter} triggers after each commit, so the poll is only a
+ * fallback for events written by other nodes or left behind by failures.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class OutboxRelay implements SmartLifecycle {
+
+    private final JdbcOutboxRepository repository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaProperties.Outbox properties;
+    private final OutboxLeaseManager leaseManager;
+
+    private final OutboxRelayLane[] lanes;
+    private final Set<String> coalesceEventTypes;
+    private final LongAdder coalesced = new LongAdder();
+
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+    private volatile Map<String, Integer> schemaVersions = Map.of();
+    private volatile List<KafkaTemplate<String, byte[]>> transactionalTemplates;
+    private volatile boolean running;
+    private volatile ScheduledExecutorService scheduler;
+
+    public OutboxRelay(JdbcOutboxRepository repository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       KafkaProperties.Outbox properties) {
+        this(repository, kafkaTemplate, transactionTemplate, properties, null);
+    }
+
+    /**
+     * Create a relay that only relays the buckets leased by this node.
+     */
+    public OutboxRelay(JdbcOutboxRepository repository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       KafkaProperties.Outbox properties,
+                       OutboxLeaseManager leaseManager) {
+        this.repository = repository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.leaseManager = leaseManager;
+        this.coalesceEventTypes = Set.copyOf(properties.getCoalesceEventTypes());
+        this.lanes = new OutboxRelayLane[Math.max(1, properties.getLanes())];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new OutboxRelayLane(i);
+        }
+    }
+
+    /**
+     * Claim, publish and settle one batch of outbox events.
+     *
+     * @return the number of events claimed
+     */
+    public int relayBatch() {
+        Set<Integer> buckets = leaseManager != null ? leaseManager.ownedBuckets() : null;
+        if (buckets != null && buckets.isEmpty()) {
+            return 0;
+        }
+        Integer claimed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = buckets != null
+                ? repository.claimBatch(properties.getBatchSize(), buckets)
+                : repository.claimBatch(properties.getBatchSize());
+            if (events.isEmpty()) {
+                return 0;
+            }
+            publish(events);
+            return events.size();
+        });
+        return claimed != null ? claimed : 0;
+    }
+
+    private void publish(List<OutboxEvent> claimed) {
+        List<Long> sent = new ArrayList<>(claimed.size());
+        List<Long> failed = new ArrayList<>();
+        List<Long> requeued = new ArrayList<>();
+        Map<Long, List<Long>> superseded = new LinkedHashMap<>();
+        List<OutboxEvent> events = coalesceEventTypes.isEmpty() ? claimed : coalesce(claimed, superseded);
+        if (repository.isSequences()) {
+            events = sequence(events);
+        }
+        List<KafkaTemplate<String, byte[]>> templates = transactionalTemplates;
+        if (templates != null) {
+            publishInTransactions(events, templates, sent, failed);
+        } else {
+            publishPipelined(events, sent, failed, requeued);
+        }
+        if (!superseded.isEmpty()) {
+            settleSuperseded(superseded, sent, failed, requeued);
+        }
+
+        repository.markSent(sent);
+        repository.markFailed(failed, properties.getMaxRetries());
+        repository.requeue(requeued);
+        log.debug("Relayed outbox batch: sent={}, failed={}, requeued={}", sent.size(), failed.size(),
+            requeued.size());
+    }
+
+    private void publishPipelined(List<OutboxEvent> events, List<Long> sent, List<Long> failed,
+                                  List<Long> requeued) {
+        List<CompletableFuture<?>> futures = lanes.length == 1 ? sendInOrder(events) : sendOnLanes(events);
+
+        // Don't let the last records sit in the producer buffer for linger.ms
+        kafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + properties.getSendTimeout().toNanos();
+        Set<AggregateKey> failedAggregates = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            AggregateKey aggregate = event.getBizId() != null
+                ? new AggregateKey(event.getTopic(), event.getBizId()) : null;
+            boolean acknowledged;
+            try {
+                futures.get(i).get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acknowledged = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acknowledged = false;
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Failed to relay outbox event: id={}, type={}, topic={}",
+                    event.getId(), event.getEventType(), event.getTopic(), e);
+                acknowledged = false;
+            }
+            if (aggregate != null && failedAggregates.contains(aggregate)) {
+                // Keep the aggregate's order: relay this event again after the one that failed
+                requeued.add(event.getId());
+            } else if (acknowledged) {
+                sent.add(event.getId());
+            } else {
+                if (aggregate != null) {
+                    failedAggregates.add(aggregate);
+                }
+                failed.add(event.getId());
+            }
+        }
+    }
+
+    private void publishInTransactions(List<OutboxEvent> events, List<KafkaTemplate<String, byte[]>> templates,
+                                       List<Long> sent, List<Long> failed) {
+        List<List<OutboxEvent>> partitions = partitionByLane(events);
+        List<CompletableFuture<Boolean>> committed = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            KafkaTemplate<String, byte[]> template = templates.get(i);
+            List<OutboxEvent> laneEvents = partitions.get(i);
+            if (laneEvents.isEmpty()) {
+                committed.add(CompletableFuture.completedFuture(true));
+            } else if (lanes.length == 1) {
+                committed.add(CompletableFuture.completedFuture(sendInTransaction(template, laneEvents)));
+            } else {
+                committed.add(lanes[i].submit(laneEvents, batch -> sendInTransaction(template, batch)));
+            }
+        }
+        for (int i = 0; i < lanes.length; i++) {
+            List<Long> outcome = committed.get(i).join() ? sent : failed;
+            for (OutboxEvent event : partitions.get(i)) {
+                outcome.add(event.getId());
+            }
+        }
+    }
+
+    private boolean sendInTransaction(KafkaTemplate<String, byte[]> template, List<OutboxEvent> events) {
+        try {
+            // The commit flushes the sends and fails if any of them failed, aborting them all
+            template.executeInTransaction(operations -> {
+                for (OutboxEvent event : events) {
+                    operations.send(record(event));
+                }
+                return null;
+            });
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to relay outbox events in a transaction: events={}, firstId={}",
+                events.size(), events.getFirst().getId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Drop all but the newest coalescable event per topic, bizId and type.
+     *
+     * @param events     the claimed events, oldest first
+     * @param superseded receives the IDs of the dropped events by the ID of the event kept in their place
+     * @return the events to send, in claim order
+     */
+    private List<OutboxEvent> coalesce(List<OutboxEvent> events, Map<Long, List<Long>> superseded) {
+        Map<CoalesceKey, OutboxEvent> newest = new HashMap<>();
+        for (OutboxEvent event : events) {
+            if (event.getBizId() != null && coalesceEventTypes.contains(event.getEventType())) {
+                newest.put(new CoalesceKey(event.getTopic(), event.getBizId(), event.getEventType()), event);
+            }
+        }
+        if (newest.isEmpty()) {
+            return events;
+        }
+        List<OutboxEvent> kept = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            OutboxEvent latest = event.getBizId() != null && coalesceEventTypes.contains(event.getEventType())
+                ? newest.get(new CoalesceKey(event.getTopic(), event.getBizId(), event.getEventType()))
+                : event;
+            if (latest == event) {
+                kept.add(event);
+            } else {
+                superseded.computeIfAbsent(latest.getId(), id -> new ArrayList<>()).add(event.getId());
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Settle coalesced events with the event kept in their place: SENT once it is acknowledged,
+     * otherwise back to the outbox along with it, so a later batch still publishes a state.
+     */
+    private void settleSuperseded(Map<Long, List<Long>> superseded, List<Long> sent, List<Long> failed,
+                                  List<Long> requeued) {
+        Set<Long> acknowledged = new HashSet<>(sent);
+        Set<Long> returned = new HashSet<>(requeued);
+        for (Map.Entry<Long, List<Long>> entry : superseded.entrySet()) {
+            if (acknowledged.contains(entry.getKey())) {
+                sent.addAll(entry.getValue());
+                coalesced.add(entry.getValue().size());
+            } else if (returned.contains(entry.getKey())) {
+                requeued.addAll(entry.getValue());
+            } else {
+                failed.addAll(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Number the events sent for the first time after the earlier events of their aggregate.
+     *
+     * <p>Events numbered by an earlier attempt move ahead of the new events of their aggregate,
+     * so sequences increase in send order even when a new event has a lower ID.
+     *
+     * @param events the events to send, in claim order
+     * @return the events in send order, all numbered
+     */
+    private List<OutboxEvent> sequence(List<OutboxEvent> events) {
+        Map<AggregateKey, List<OutboxEvent>> byAggregate = new HashMap<>();
+        for (OutboxEvent event : events) {
+            if (event.getBizId() != null) {
+                byAggregate.computeIfAbsent(new AggregateKey(event.getTopic(), event.getBizId()),
+                    key -> new ArrayList<>()).add(event);
+            }
+        }
+        Map<AggregateKey, Iterator<OutboxEvent>> inSequence = new HashMap<>();
+        byAggregate.forEach((aggregate, aggregateEvents) -> {
+            // Stable, so new events keep their claim order
+            aggregateEvents.sort(Comparator.comparing(OutboxEvent::getSequence,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+            inSequence.put(aggregate, aggregateEvents.iterator());
+        });
+        List<OutboxEvent> ordered = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            ordered.add(event.getBizId() != null
+                ? inSequence.get(new AggregateKey(event.getTopic(), event.getBizId())).next()
+                : event);
+        }
+        repository.assignSequences(ordered);
+        return ordered;
+    }
+
+    private List<CompletableFuture<?>> sendInOrder(List<OutboxEvent> events) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            futures.add(send(event));
+        }
+        return futures;
+    }
+
+    private List<List<OutboxEvent>> partitionByLane(List<OutboxEvent> events) {
+        List<List<OutboxEvent>> partitions = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (OutboxEvent event : events) {
+            partitions.get(OutboxRelayLane.laneOf(event.getBizId(), lanes.length)).add(event);
+        }
+        return partitions;
+    }
+
+    private List<CompletableFuture<?>> sendOnLanes(List<OutboxEvent> events) {
+        List<List<OutboxEvent>> partitions = partitionByLane(events);
+
+        List<CompletableFuture<List<CompletableFuture<?>>>> dispatched = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            dispatched.add(partitions.get(i).isEmpty()
+                ? CompletableFuture.completedFuture(List.of())
+                : lanes[i].dispatch(partitions.get(i), this::send));
+        }
+
+        // Restore outbox order so futures line up with the claimed events
+        Map<OutboxEvent, CompletableFuture<?>> byEvent = new IdentityHashMap<>(events.size());
+        for (int i = 0; i < lanes.length; i++) {
+            List<CompletableFuture<?>> laneFutures = dispatched.get(i).join();
+            List<OutboxEvent> laneEvents = partitions.get(i);
+            for (int j = 0; j < laneEvents.size(); j++) {
+                byEvent.put(laneEvents.get(j), laneFutures.get(j));
+            }
+        }
+        List<CompletableFuture<?>> futures = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            futures.add(byEvent.get(event));
+        }
+        return futures;
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(record(event));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private ProducerRecord<String, byte[]> record(OutboxEvent event) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(event.getTopic(), event.getBizId(),
+            event.getPayloadBytes());
+        // Same ID on every relay attempt, so consumers can drop redelivered events
+        record.headers().add(EventHeaders.MESSAGE_ID,
+            String.valueOf(event.getId()).getBytes(StandardCharsets.UTF_8));
+        EventHeaders.addEventHeaders(record.headers(), event.getEventType(), event.getBizId(),
+            schemaVersions.getOrDefault(event.getEventType(), EventHeaders.DEFAULT_SCHEMA_VERSION));
+        if (event.getSequence() != null) {
+            record.headers().add(EventHeaders.SEQUENCE,
+                String.valueOf(event.getSequence()).getBytes(StandardCharsets.UTF_8));
+        }
+        if (event.getPayloadCodec() != null) {
+            // Sent still compressed, consumers decompress with PayloadCodecDeserializer
+            record.headers().add(EventHeaders.PAYLOAD_CODEC, event.getPayloadCodec().getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    /**
+     * Publish each batch in one Kafka transaction per lane instead of pipelined sends.
+     *
+     * @param laneTemplates a template on a transactional producer factory per lane, indexed by
+     *                      lane number, each with its own transactional ID
+     */
+    public void enableTransactions(List<KafkaTemplate<String, byte[]>> laneTemplates) {
+        if (laneTemplates.size() != lanes.length) {
+            throw new IllegalArgumentException(
+                "Expected one transactional template per lane: lanes=" + lanes.length + ", templates=" + laneTemplates.size());
+        }
+        this.transactionalTemplates = List.copyOf(laneTemplates);
+    }
+
+    /**
+     * Set the payload schema version of event types, sent in the
+     * {@link EventHeaders#SCHEMA_VERSION} header.
+     *
+     * @param schemaVersions schema versions by event type
+     */
+    public void setSchemaVersions(Map<String, Integer> schemaVersions) {
+        this.schemaVersions = Map.copyOf(schemaVersions);
+    }
+
+    /**
+     * Number of events marked SENT without being published because a newer event of the
+     * same aggregate superseded them and was acknowledged.
+     *
+     * @return the coalesced event count
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * The relay lanes, for metrics.
+     *
+     * @return the lanes, indexed by lane number
+     */
+    public List<OutboxRelayLane> getLanes() {
+        return List.of(lanes);
+    }
+
+    /**
+     * Drain the outbox now instead of at the next poll.
+     *
+     * <p>Wakeups arriving while one is pending are coalesced into a single drain.
+     */
+    public void wakeup() {
+        ScheduledExecutorService current = scheduler;
+        if (running && current != null && wakeupPending.compareAndSet(false, true)) {
+            try {
+                current.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Stopping
+                wakeupPending.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        wakeupPending.set(false);
+        try {
+            while (running && !isLeaseRenewalDue() && relayBatch() >= properties.getBatchSize()) {
+                // Keep draining while batches come back full
+            }
+        } catch (Exception e) {
+            log.error("Outbox relay poll failed", e);
+        }
+    }
+
+    private boolean isLeaseRenewalDue() {
+        return leaseManager != null && leaseManager.isRenewalDue();
+    }
+
+    private void renewLeases() {
+        try {
+            leaseManager.heartbeat();
+        } catch (Exception e) {
+            log.error("Outbox lease heartbeat failed", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nexora-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        if (leaseManager != null) {
+            // Same thread as the relay polls, so leases never change in the middle of a batch
+            scheduler.scheduleAtFixedRate(this::renewLeases, 0L,
+                leaseManager.getRenewInterval().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(this::drain, 0L,
+            properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Outbox relay started: batchSize={}, lanes={}, pollInterval={}, transactional={}",
+            properties.getBatchSize(), lanes.length, properties.getPollInterval(), transactionalTemplates != null);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                for (OutboxRelayLane lane : lanes) {
+                    lane.shutdown(properties.getSendTimeout().toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<KafkaTemplate<String, byte[]>> templates = transactionalTemplates;
+        if (templates != null) {
+            // Close the lane producers; they aren't beans of their own
+            templates.forEach(template -> template.getProducerFactory().reset());
+        }
+        if (leaseManager != null) {
+            try {
+                leaseManager.releaseAll();
+            } catch (Exception e) {
+                log.warn("Failed to release outbox leases, they will expire", e);
+            }
+        }
+        log.info("Outbox relay stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record CoalesceKey(String topic, String bizId, String eventType) {
+    }
+
+    private record AggregateKey(String topic, String bizId) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.nexora.kafka.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A worker lane of the {@link OutboxRelay}.
+ *
+ * <p>Each lane owns one thread and hands its events to the producer strictly in order.
+ * Events are routed to lanes by {@code bizId} hash, so all events of one aggregate go
+ * through the same lane and keep their order while lanes send in parallel.
+ *
+ * @author sujie
+ */
+public class OutboxRelayLane {
+
+    private final int index;
+    private final ExecutorService executor;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    public OutboxRelayLane(int index) {
+        this.index = index;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nexora-outbox-relay-lane-" + index);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lane index for a business ID.
+     *
+     * @param bizId the business ID
+     * @param lanes the number of lanes
+     * @return the lane index in {@code [0, lanes)}
+     */
+    public static int laneOf(String bizId, int lanes) {
+        return bizId == null ? 0 : Math.floorMod(bizId.hashCode(), lanes);
+    }
+
+    /**
+     * Send events in order on this lane's thread.
+     *
+     * @param events the events, in outbox order
+     * @param sender sends one event and returns its acknowledgement future
+     * @return the acknowledgement futures, in the order of {@code events}
+     */
+    public CompletableFuture<List<CompletableFuture<?>>> dispatch(List<OutboxEvent> events,
+                                                                  Function<OutboxEvent, CompletableFuture<?>> sender) {
+        queueDepth.addAndGet(events.size());
+        return CompletableFuture.supplyAsync(() -> {
+            List<CompletableFuture<?>> futures = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                try {
+                    futures.add(sender.apply(event));
+                } finally {
+                    queueDepth.decrementAndGet();
+                }
+            }
+            return futures;
+        }, executor);
+    }
+
+    /**
+     * Handle a group of events at once on this lane's thread, e.g. in one transaction.
+     *
+     * @param events the events, in outbox order
+     * @param task   handles all events
+     * @param <T>    the result type
+     * @return the task result
+     */
+    public <T> CompletableFuture<T> submit(List<OutboxEvent> events, Function<List<OutboxEvent>, T> task) {
+        queueDepth.addAndGet(events.size());
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.apply(events);
+            } finally {
+                queueDepth.addAndGet(-events.size());
+            }
+        }, executor);
+    }
+
+    /**
+     * Number of events dispatched to this lane and not yet handed to the producer.
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    void shutdown(long timeoutMillis) throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
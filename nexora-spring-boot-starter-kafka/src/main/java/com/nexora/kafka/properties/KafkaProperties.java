@@ -1,6 +1,15 @@
 package com.nexora.kafka.properties;
 
+import com.nexora.kafka.codec.PayloadCodec;
+import com.nexora.kafka.publisher.ProducerProfile;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Kafka configuration properties.
@@ -20,6 +29,26 @@ public class KafkaProperties {
      */
     private Outbox outbox = new Outbox();
 
+    /**
+     * Event producer configuration.
+     */
+    private Producer producer = new Producer();
+
+    /**
+     * Listener container configuration.
+     */
+    private Consumer consumer = new Consumer();
+
+    /**
+     * Duplicate detection for {@code @IdempotentListener} methods.
+     */
+    private Idempotent idempotent = new Idempotent();
+
+    /**
+     * Claim-check offloading of large event payloads to file storage.
+     */
+    private ClaimCheck claimCheck = new ClaimCheck();
+
     public Dlq getDlq() {
         return dlq;
     }
@@ -28,6 +57,38 @@ public class KafkaProperties {
         this.dlq = dlq;
     }
 
+    public Producer getProducer() {
+        return producer;
+    }
+
+    public void setProducer(Producer producer) {
+        this.producer = producer;
+    }
+
+    public Consumer getConsumer() {
+        return consumer;
+    }
+
+    public void setConsumer(Consumer consumer) {
+        this.consumer = consumer;
+    }
+
+    public Idempotent getIdempotent() {
+        return idempotent;
+    }
+
+    public void setIdempotent(Idempotent idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    public ClaimCheck getClaimCheck() {
+        return claimCheck;
+    }
+
+    public void setClaimCheck(ClaimCheck claimCheck) {
+        this.claimCheck = claimCheck;
+    }
+
     public Outbox getOutbox() {
         return outbox;
     }
@@ -47,6 +108,21 @@ public class KafkaProperties {
          */
         private int retryAttempts = 3;
 
+        /**
+         * Non-blocking retries through delayed retry topics.
+         */
+        private RetryTopics retryTopics = new RetryTopics();
+
+        /**
+         * Replay of DLQ records to their original topic.
+         */
+        private Replay replay = new Replay();
+
+        /**
+         * Creation of missing DLQ topics at startup.
+         */
+        private Provisioning provisioning = new Provisioning();
+
         public boolean isEnabled() {
             return enabled;
         }
@@ -62,14 +138,344 @@ public class KafkaProperties {
         public void setRetryAttempts(int retryAttempts) {
             this.retryAttempts = retryAttempts;
         }
+
+        public RetryTopics getRetryTopics() {
+            return retryTopics;
+        }
+
+        public void setRetryTopics(RetryTopics retryTopics) {
+            this.retryTopics = retryTopics;
+        }
+
+        public Replay getReplay() {
+            return replay;
+        }
+
+        public void setReplay(Replay replay) {
+            this.replay = replay;
+        }
+
+        public Provisioning getProvisioning() {
+            return provisioning;
+        }
+
+        public void setProvisioning(Provisioning provisioning) {
+            this.provisioning = provisioning;
+        }
     }
 
-    public static class Outbox {
+    public static class Provisioning {
         /**
-         * Enable Outbox pattern support.
+         * Create the {topic}.dlq topic of every listener topic at startup, with the listener
+         * topic's partition count, and add partitions to existing DLQ topics that have fewer.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Replication factor of created DLQ topics; -1 for the broker default.
+         */
+        private short replicationFactor = -1;
+
+        /**
+         * Max time to wait for each admin request at startup.
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public short getReplicationFactor() {
+            return replicationFactor;
+        }
+
+        public void setReplicationFactor(short replicationFactor) {
+            this.replicationFactor = replicationFactor;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Replay {
+        /**
+         * Register the DLQ replay service.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Max records replayed per second.
+         */
+        private double rate = 100;
+
+        /**
+         * Records that may be replayed at once after an idle period.
+         */
+        private int burst = 100;
+
+        /**
+         * Max records read per poll; progress is checkpointed after each poll.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Consumer group prefix under which replay progress is committed.
+         */
+        private String groupIdPrefix = "nexora-dlq-replay-";
+
+        /**
+         * Max time to wait for the replayed records of a poll to be acknowledged.
+         */
+        private Duration sendTimeout = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public String getGroupIdPrefix() {
+            return groupIdPrefix;
+        }
+
+        public void setGroupIdPrefix(String groupIdPrefix) {
+            this.groupIdPrefix = groupIdPrefix;
+        }
+
+        public Duration getSendTimeout() {
+            return sendTimeout;
+        }
+
+        public void setSendTimeout(Duration sendTimeout) {
+            this.sendTimeout = sendTimeout;
+        }
+    }
+
+    public static class RetryTopics {
+        /**
+         * Retry failed records on {topic}.retry-{delay} topics instead of blocking the partition.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Delay of each retry tier; one retry topic is used per delay, then {topic}.dlq.
+         */
+        private List<Duration> delays = new ArrayList<>(List.of(
+            Duration.ofSeconds(1), Duration.ofSeconds(30), Duration.ofMinutes(5)));
+
+        /**
+         * Topics using retry topics; empty for all listener topics.
+         */
+        private List<String> topics = new ArrayList<>();
+
+        /**
+         * Create retry and DLQ topics on startup.
+         */
+        private boolean autoCreateTopics = true;
+
+        /**
+         * Partitions of auto-created retry and DLQ topics.
+         */
+        private int partitions = 1;
+
+        /**
+         * Replication factor of auto-created retry and DLQ topics; -1 for the broker default.
+         */
+        private short replicationFactor = -1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<Duration> getDelays() {
+            return delays;
+        }
+
+        public void setDelays(List<Duration> delays) {
+            this.delays = delays;
+        }
+
+        public List<String> getTopics() {
+            return topics;
+        }
+
+        public void setTopics(List<String> topics) {
+            this.topics = topics;
+        }
+
+        public boolean isAutoCreateTopics() {
+            return autoCreateTopics;
+        }
+
+        public void setAutoCreateTopics(boolean autoCreateTopics) {
+            this.autoCreateTopics = autoCreateTopics;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public void setPartitions(int partitions) {
+            this.partitions = partitions;
+        }
+
+        public short getReplicationFactor() {
+            return replicationFactor;
+        }
+
+        public void setReplicationFactor(short replicationFactor) {
+            this.replicationFactor = replicationFactor;
+        }
+    }
+
+    public static class Producer {
+        /**
+         * Tuning profile of the event producer; unset keeps the application's producer settings.
+         */
+        private ProducerProfile profile;
+
+        /**
+         * Raw producer configs applied on top of the profile.
+         */
+        private Map<String, String> properties = new LinkedHashMap<>();
+
+        /**
+         * Per-topic overrides, keyed by topic name; each gets its own producer.
+         */
+        private Map<String, TopicProducer> topics = new LinkedHashMap<>();
+
+        /**
+         * Backpressure with a local spill journal.
+         */
+        private Spill spill = new Spill();
+
+        /**
+         * Payload schema version by event type, sent in the {@code nexora-schema-version} header; 1 if unlisted.
+         */
+        private Map<String, Integer> schemaVersions = new LinkedHashMap<>();
+
+        public ProducerProfile getProfile() {
+            return profile;
+        }
+
+        public void setProfile(ProducerProfile profile) {
+            this.profile = profile;
+        }
+
+        public Map<String, String> getProperties() {
+            return properties;
+        }
+
+        public void setProperties(Map<String, String> properties) {
+            this.properties = properties;
+        }
+
+        public Map<String, TopicProducer> getTopics() {
+            return topics;
+        }
+
+        public void setTopics(Map<String, TopicProducer> topics) {
+            this.topics = topics;
+        }
+
+        public Spill getSpill() {
+            return spill;
+        }
+
+        public void setSpill(Spill spill) {
+            this.spill = spill;
+        }
+
+        public Map<String, Integer> getSchemaVersions() {
+            return schemaVersions;
+        }
+
+        public void setSchemaVersions(Map<String, Integer> schemaVersions) {
+            this.schemaVersions = schemaVersions;
+        }
+    }
+
+    public static class Spill {
+        /**
+         * Spill events to a local journal instead of blocking when Kafka falls behind.
          */
         private boolean enabled = false;
 
+        /**
+         * Max event records awaiting broker acknowledgement before events are spilled.
+         */
+        private int maxInFlight = 10_000;
+
+        /**
+         * Directory of the journal files; must be local and private to this instance.
+         */
+        private String directory = "kafka-spill";
+
+        /**
+         * Size of each memory-mapped journal segment.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Delay between two drains of the journal.
+         */
+        private Duration drainInterval = Duration.ofSeconds(1);
+
+        /**
+         * Max records sent per drain batch.
+         */
+        private int drainBatchSize = 500;
+
+        /**
+         * Max time to wait for broker acknowledgements of a drain batch.
+         */
+        private Duration sendTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Default {@code max.block.ms} of the event producer, bounding how long a send blocks
+         * on metadata or a full buffer before the event is spilled.
+         */
+        private Duration maxBlock = Duration.ofSeconds(1);
+
         public boolean isEnabled() {
             return enabled;
         }
@@ -77,5 +483,1025 @@ public class KafkaProperties {
         public void setEnabled(boolean enabled) {
             this.enabled = enabled;
         }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public Duration getDrainInterval() {
+            return drainInterval;
+        }
+
+        public void setDrainInterval(Duration drainInterval) {
+            this.drainInterval = drainInterval;
+        }
+
+        public int getDrainBatchSize() {
+            return drainBatchSize;
+        }
+
+        public void setDrainBatchSize(int drainBatchSize) {
+            this.drainBatchSize = drainBatchSize;
+        }
+
+        public Duration getSendTimeout() {
+            return sendTimeout;
+        }
+
+        public void setSendTimeout(Duration sendTimeout) {
+            this.sendTimeout = sendTimeout;
+        }
+
+        public Duration getMaxBlock() {
+            return maxBlock;
+        }
+
+        public void setMaxBlock(Duration maxBlock) {
+            this.maxBlock = maxBlock;
+        }
+    }
+
+    public static class TopicProducer {
+        /**
+         * Tuning profile for the topic, replacing the default profile.
+         */
+        private ProducerProfile profile;
+
+        /**
+         * Raw producer configs for the topic, applied last.
+         */
+        private Map<String, String> properties = new LinkedHashMap<>();
+
+        public ProducerProfile getProfile() {
+            return profile;
+        }
+
+        public void setProfile(ProducerProfile profile) {
+            this.profile = profile;
+        }
+
+        public Map<String, String> getProperties() {
+            return properties;
+        }
+
+        public void setProperties(Map<String, String> properties) {
+            this.properties = properties;
+        }
+    }
+
+    public static class Consumer {
+        /**
+         * Run listener container consumer threads on virtual threads.
+         */
+        private boolean virtualThreads = false;
+
+        /**
+         * Batch listener container factory.
+         */
+        private Batch batch = new Batch();
+
+        /**
+         * Lag-driven concurrency autoscaling of listener containers.
+         */
+        private Autoscale autoscale = new Autoscale();
+
+        /**
+         * Pausing of listener containers while their circuit breaker is open.
+         */
+        private CircuitBreakerPause circuitBreaker = new CircuitBreakerPause();
+
+        /**
+         * Header-based filtering of records before deserialization.
+         */
+        private Filter filter = new Filter();
+
+        /**
+         * Per-bizId sequence tracking for dropping stale events.
+         */
+        private SequenceGuard sequenceGuard = new SequenceGuard();
+
+        /**
+         * Decompress payloads sent compressed by the outbox relay before deserialization.
+         * Only records carrying the codec header are touched, so it is on by default.
+         */
+        private boolean decompressPayloads = true;
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        public boolean isDecompressPayloads() {
+            return decompressPayloads;
+        }
+
+        public void setDecompressPayloads(boolean decompressPayloads) {
+            this.decompressPayloads = decompressPayloads;
+        }
+
+        public Batch getBatch() {
+            return batch;
+        }
+
+        public void setBatch(Batch batch) {
+            this.batch = batch;
+        }
+
+        public Autoscale getAutoscale() {
+            return autoscale;
+        }
+
+        public void setAutoscale(Autoscale autoscale) {
+            this.autoscale = autoscale;
+        }
+
+        public CircuitBreakerPause getCircuitBreaker() {
+            return circuitBreaker;
+        }
+
+        public void setCircuitBreaker(CircuitBreakerPause circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        public Filter getFilter() {
+            return filter;
+        }
+
+        public void setFilter(Filter filter) {
+            this.filter = filter;
+        }
+
+        public SequenceGuard getSequenceGuard() {
+            return sequenceGuard;
+        }
+
+        public void setSequenceGuard(SequenceGuard sequenceGuard) {
+            this.sequenceGuard = sequenceGuard;
+        }
+    }
+
+    public static class SequenceGuard {
+        /**
+         * Register a {@code SequenceGuard} bean.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of aggregates (topic and bizId) whose highest sequence is tracked; 24 bytes each.
+         */
+        private int capacity = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    public static class Filter {
+        /**
+         * Enable event type filtering on all consumer and listener container factories.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Accepted event types by topic; records of other types are dropped before their value
+         * is deserialized. Topics not listed, and records without the header, are not filtered.
+         */
+        private Map<String, List<String>> eventTypes = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Map<String, List<String>> getEventTypes() {
+            return eventTypes;
+        }
+
+        public void setEventTypes(Map<String, List<String>> eventTypes) {
+            this.eventTypes = eventTypes;
+        }
+    }
+
+    public static class CircuitBreakerPause {
+        /**
+         * Circuit breaker names by listener ID; each listener is paused while its breaker is open.
+         */
+        private Map<String, String> bindings = new LinkedHashMap<>();
+
+        /**
+         * How often open breakers of paused listeners are checked for the half-open transition.
+         */
+        private Duration probeInterval = Duration.ofSeconds(1);
+
+        public Map<String, String> getBindings() {
+            return bindings;
+        }
+
+        public void setBindings(Map<String, String> bindings) {
+            this.bindings = bindings;
+        }
+
+        public Duration getProbeInterval() {
+            return probeInterval;
+        }
+
+        public void setProbeInterval(Duration probeInterval) {
+            this.probeInterval = probeInterval;
+        }
+    }
+
+    public static class Autoscale {
+        /**
+         * Enable the concurrency autoscaling controller.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Listener IDs to scale; empty for all concurrent listener containers.
+         */
+        private List<String> listenerIds = new ArrayList<>();
+
+        /**
+         * Lower bound of container concurrency.
+         */
+        private int minConcurrency = 1;
+
+        /**
+         * Upper bound of container concurrency.
+         */
+        private int maxConcurrency = 8;
+
+        /**
+         * Interval between two evaluations.
+         */
+        private Duration interval = Duration.ofSeconds(30);
+
+        /**
+         * Min time between two concurrency changes of one container; each change rebalances.
+         */
+        private Duration cooldown = Duration.ofMinutes(2);
+
+        /**
+         * Max consumer lag (records) at or above which concurrency is increased.
+         */
+        private long scaleUpLag = 1000;
+
+        /**
+         * Max consumer lag (records) at or below which concurrency may be decreased.
+         */
+        private long scaleDownLag = 100;
+
+        /**
+         * Fraction of time consumers wait in poll() above which they are considered idle;
+         * busy consumers (below it) are scaled up on lag, idle ones are scaled down.
+         */
+        private double idleRatio = 0.5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getListenerIds() {
+            return listenerIds;
+        }
+
+        public void setListenerIds(List<String> listenerIds) {
+            this.listenerIds = listenerIds;
+        }
+
+        public int getMinConcurrency() {
+            return minConcurrency;
+        }
+
+        public void setMinConcurrency(int minConcurrency) {
+            this.minConcurrency = minConcurrency;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Duration getCooldown() {
+            return cooldown;
+        }
+
+        public void setCooldown(Duration cooldown) {
+            this.cooldown = cooldown;
+        }
+
+        public long getScaleUpLag() {
+            return scaleUpLag;
+        }
+
+        public void setScaleUpLag(long scaleUpLag) {
+            this.scaleUpLag = scaleUpLag;
+        }
+
+        public long getScaleDownLag() {
+            return scaleDownLag;
+        }
+
+        public void setScaleDownLag(long scaleDownLag) {
+            this.scaleDownLag = scaleDownLag;
+        }
+
+        public double getIdleRatio() {
+            return idleRatio;
+        }
+
+        public void setIdleRatio(double idleRatio) {
+            this.idleRatio = idleRatio;
+        }
+    }
+
+    public static class Batch {
+        /**
+         * Register the batch listener container factory.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Max records per poll, and so per batch, for batch listeners.
+         */
+        private int maxPollRecords = 500;
+
+        /**
+         * Number of concurrent consumers per batch listener; {@code spring.kafka.listener.concurrency}
+         * if unset.
+         */
+        private Integer concurrency;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxPollRecords() {
+            return maxPollRecords;
+        }
+
+        public void setMaxPollRecords(int maxPollRecords) {
+            this.maxPollRecords = maxPollRecords;
+        }
+
+        public Integer getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(Integer concurrency) {
+            this.concurrency = concurrency;
+        }
+    }
+
+    public static class Idempotent {
+        /**
+         * Enable {@code @IdempotentListener} support.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Processed-ID store: REDIS or JDBC; picked from the available beans if unset.
+         */
+        private Store store;
+
+        /**
+         * Record header carrying the message ID.
+         */
+        private String header = "nexora-message-id";
+
+        /**
+         * How long processed IDs are remembered.
+         */
+        private Duration ttl = Duration.ofDays(7);
+
+        /**
+         * Max entries of the in-memory recent-ID cache.
+         */
+        private long cacheSize = 100_000;
+
+        /**
+         * How long a claimed ID blocks other instances before its claim lapses, e.g. after a
+         * crash mid-processing; should exceed the listener's processing time.
+         */
+        private Duration claimTimeout = Duration.ofMinutes(5);
+
+        /**
+         * Claim IDs the local Bloom filter has not seen in the store before processing as
+         * well. Off, they are processed without a store round trip and recorded afterwards,
+         * so a record another instance already processed, e.g. redelivered after a
+         * rebalance, is processed again and only reported.
+         */
+        private boolean claimUnseen = false;
+
+        /**
+         * Expected IDs per Bloom filter generation.
+         */
+        private int bloomExpectedInsertions = 1_000_000;
+
+        /**
+         * Target false positive probability of the Bloom filter.
+         */
+        private double bloomFalsePositiveRate = 0.01;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Store getStore() {
+            return store;
+        }
+
+        public void setStore(Store store) {
+            this.store = store;
+        }
+
+        public String getHeader() {
+            return header;
+        }
+
+        public void setHeader(String header) {
+            this.header = header;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(long cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getClaimTimeout() {
+            return claimTimeout;
+        }
+
+        public void setClaimTimeout(Duration claimTimeout) {
+            this.claimTimeout = claimTimeout;
+        }
+
+        public boolean isClaimUnseen() {
+            return claimUnseen;
+        }
+
+        public void setClaimUnseen(boolean claimUnseen) {
+            this.claimUnseen = claimUnseen;
+        }
+
+        public int getBloomExpectedInsertions() {
+            return bloomExpectedInsertions;
+        }
+
+        public void setBloomExpectedInsertions(int bloomExpectedInsertions) {
+            this.bloomExpectedInsertions = bloomExpectedInsertions;
+        }
+
+        public double getBloomFalsePositiveRate() {
+            return bloomFalsePositiveRate;
+        }
+
+        public void setBloomFalsePositiveRate(double bloomFalsePositiveRate) {
+            this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        }
+
+        public enum Store {
+            REDIS,
+            JDBC
+        }
+    }
+
+    public static class ClaimCheck {
+        /**
+         * Offload payloads above the threshold to the {@code FileStorageService}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Payloads larger than this are uploaded and replaced by a reference header.
+         */
+        private DataSize threshold = DataSize.ofKilobytes(256);
+
+        /**
+         * Storage path of uploaded payloads; the topic is appended as a sub-directory.
+         */
+        private String path = "kafka-claim-check/";
+
+        /**
+         * Max total size of fetched payloads cached on the consumer side.
+         */
+        private DataSize cacheSize = DataSize.ofMegabytes(64);
+
+        /**
+         * How long a fetched payload stays cached after its last access.
+         */
+        private Duration cacheTtl = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(DataSize threshold) {
+            this.threshold = threshold;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public DataSize getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(DataSize cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getCacheTtl() {
+            return cacheTtl;
+        }
+
+        public void setCacheTtl(Duration cacheTtl) {
+            this.cacheTtl = cacheTtl;
+        }
+    }
+
+    public static class Outbox {
+        /**
+         * Enable Outbox pattern support.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Max number of events claimed and published per relay batch.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Delay between two relay polls when the outbox is drained. With wake-on-commit
+         * this is only a fallback for rows written by other nodes and can be raised.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * Wake the local relay as soon as a transaction writing outbox events commits.
+         */
+        private boolean wakeOnCommit = true;
+
+        /**
+         * Max publish attempts before an event is marked as FAILED.
+         */
+        private int maxRetries = 5;
+
+        /**
+         * Max time to wait for broker acknowledgements of a batch.
+         */
+        private Duration sendTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Number of parallel relay lanes. Events are assigned to lanes by bizId hash,
+         * so per-aggregate order is kept.
+         */
+        private int lanes = 1;
+
+        /**
+         * Node ID (0-1023) embedded in generated outbox event IDs.
+         * Required with the outbox enabled; must be unique per instance sharing the outbox table.
+         */
+        private int nodeId = -1;
+
+        /**
+         * Lease-based coordination of relays running on several nodes.
+         */
+        private Lease lease = new Lease();
+
+        /**
+         * Event types holding the latest state of an aggregate. Within a relay batch only the
+         * newest event per topic, bizId and type is published; older ones are marked SENT.
+         */
+        private List<String> coalesceEventTypes = new ArrayList<>();
+
+        /**
+         * Number events per topic and bizId when the relay first claims them and send the
+         * number in the nexora-sequence header. Requires the outbox_event.seq column and the
+         * outbox_sequence table, and lease coordination unless single-node is set.
+         */
+        private boolean sequences = false;
+
+        /**
+         * Declare that only this instance relays the outbox, so sequences may be used without
+         * lease coordination.
+         */
+        private boolean singleNode = false;
+
+        /**
+         * Purging of SENT events.
+         */
+        private Purge purge = new Purge();
+
+        /**
+         * Exactly-once relay through transactional producers.
+         */
+        private ExactlyOnce exactlyOnce = new ExactlyOnce();
+
+        /**
+         * Compressed storage of large payloads.
+         */
+        private Compression compression = new Compression();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public boolean isWakeOnCommit() {
+            return wakeOnCommit;
+        }
+
+        public void setWakeOnCommit(boolean wakeOnCommit) {
+            this.wakeOnCommit = wakeOnCommit;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getSendTimeout() {
+            return sendTimeout;
+        }
+
+        public void setSendTimeout(Duration sendTimeout) {
+            this.sendTimeout = sendTimeout;
+        }
+
+        public int getLanes() {
+            return lanes;
+        }
+
+        public void setLanes(int lanes) {
+            this.lanes = lanes;
+        }
+
+        public int getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(int nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public Lease getLease() {
+            return lease;
+        }
+
+        public void setLease(Lease lease) {
+            this.lease = lease;
+        }
+
+        public List<String> getCoalesceEventTypes() {
+            return coalesceEventTypes;
+        }
+
+        public void setCoalesceEventTypes(List<String> coalesceEventTypes) {
+            this.coalesceEventTypes = coalesceEventTypes;
+        }
+
+        public boolean isSequences() {
+            return sequences;
+        }
+
+        public void setSequences(boolean sequences) {
+            this.sequences = sequences;
+        }
+
+        public boolean isSingleNode() {
+            return singleNode;
+        }
+
+        public void setSingleNode(boolean singleNode) {
+            this.singleNode = singleNode;
+        }
+
+        public Purge getPurge() {
+            return purge;
+        }
+
+        public void setPurge(Purge purge) {
+            this.purge = purge;
+        }
+
+        public ExactlyOnce getExactlyOnce() {
+            return exactlyOnce;
+        }
+
+        public void setExactlyOnce(ExactlyOnce exactlyOnce) {
+            this.exactlyOnce = exactlyOnce;
+        }
+
+        public Compression getCompression() {
+            return compression;
+        }
+
+        public void setCompression(Compression compression) {
+            this.compression = compression;
+        }
+    }
+
+    public static class Compression {
+        /**
+         * Store payloads above the threshold compressed in the {@code payload_data} column and
+         * relay them without decompressing. Requires the payload_codec and payload_data columns.
+         * Must stay enabled while compressed rows remain; raise the threshold to stop compressing.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Compression codec.
+         */
+        private PayloadCodec codec = PayloadCodec.LZ4;
+
+        /**
+         * Payload size above which payloads are compressed.
+         */
+        private DataSize threshold = DataSize.ofKilobytes(4);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public PayloadCodec getCodec() {
+            return codec;
+        }
+
+        public void setCodec(PayloadCodec codec) {
+            this.codec = codec;
+        }
+
+        public DataSize getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(DataSize threshold) {
+            this.threshold = threshold;
+        }
+    }
+
+    public static class ExactlyOnce {
+        /**
+         * Publish each relay batch in one Kafka transaction per lane, so read_committed
+         * consumers never see a partially relayed batch.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Prefix of the lane transactional IDs, followed by the node ID and the lane number.
+         * Requires {@code node-id} to be set, stable across restarts and unique between instances.
+         */
+        private String transactionalIdPrefix = "nexora-outbox-";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getTransactionalIdPrefix() {
+            return transactionalIdPrefix;
+        }
+
+        public void setTransactionalIdPrefix(String transactionalIdPrefix) {
+            this.transactionalIdPrefix = transactionalIdPrefix;
+        }
+    }
+
+    public static class Lease {
+        /**
+         * Enable lease-based bucket ownership between relay nodes.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of virtual buckets outbox events are spread over by bizId hash.
+         * Must be the same on all nodes and must not change while NEW events exist.
+         */
+        private int buckets = 64;
+
+        /**
+         * Lease duration; a crashed node's buckets move to other nodes after this timeout.
+         * Must be longer than renew-interval plus the outbox send-timeout.
+         */
+        private Duration ttl = Duration.ofSeconds(60);
+
+        /**
+         * Interval between lease renewals.
+         */
+        private Duration renewInterval = Duration.ofSeconds(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBuckets() {
+            return buckets;
+        }
+
+        public void setBuckets(int buckets) {
+            this.buckets = buckets;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getRenewInterval() {
+            return renewInterval;
+        }
+
+        public void setRenewInterval(Duration renewInterval) {
+            this.renewInterval = renewInterval;
+        }
+    }
+
+    public static class Purge {
+        /**
+         * Enable the background purger of SENT outbox events.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long SENT events are kept before they are purged.
+         */
+        private Duration retention = Duration.ofDays(7);
+
+        /**
+         * Delay between two purge runs.
+         */
+        private Duration interval = Duration.ofHours(1);
+
+        /**
+         * Max number of events deleted per transaction.
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * Directory for gzip NDJSON archive segments of purged events; not archived if unset.
+         */
+        private String archiveDir;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public String getArchiveDir() {
+            return archiveDir;
+        }
+
+        public void setArchiveDir(String archiveDir) {
+            this.archiveDir = archiveDir;
+        }
     }
 }
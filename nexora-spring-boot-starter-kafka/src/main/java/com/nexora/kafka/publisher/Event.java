@@ -0,0 +1,26 @@
+package com.nexora.kafka.publisher;
+
+/**
+ * An event to publish with {@link EventPublisher#publishAll(java.util.List)}.
+ *
+ * @param eventType the event type
+ * @param bizId     the business ID, used as the record key
+ * @param topic     the Kafka topic
+ * @param payload   the event payload (will be serialized to JSON)
+ * @author sujie
+ */
+public record Event(String eventType, String bizId, String topic, Object payload) {
+
+    /**
+     * Create a new event.
+     *
+     * @param eventType the event type
+     * @param bizId     the business ID
+     * @param topic     the Kafka topic
+     * @param payload   the event payload
+     * @return the event
+     */
+    public static Event of(String eventType, String bizId, String topic, Object payload) {
+        return new Event(eventType, bizId, topic, payload);
+    }
+}
@@ -0,0 +1,93 @@
+package com.nexora.kafka.publisher;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kafka record headers set on published events.
+ *
+ * @author sujie
+ */
+public final class EventHeaders {
+
+    /**
+     * Unique message ID, stable across redeliveries of the same event (the outbox event ID
+     * for relayed events). Used by {@code @IdempotentListener} to drop duplicates.
+     */
+    public static final String MESSAGE_ID = "nexora-message-id";
+
+    /**
+     * Event type, e.g. {@code USER_CREATED}; lets consumers of shared topics skip records
+     * without deserializing them.
+     */
+    public static final String EVENT_TYPE = "nexora-event-type";
+
+    /**
+     * Business ID of the event, also used as the record key.
+     */
+    public static final String BIZ_ID = "nexora-biz-id";
+
+    /**
+     * Payload schema version of the event type, as a decimal string.
+     */
+    public static final String SCHEMA_VERSION = "nexora-schema-version";
+
+    /**
+     * Per-(topic, bizId) number of a relayed outbox event, as a decimal string: 1, 2, 3, ...
+     * in relay order. Sent when outbox sequences are enabled.
+     * See {@link com.nexora.kafka.listener.SequenceGuard}.
+     */
+    public static final String SEQUENCE = "nexora-sequence";
+
+    /**
+     * Schema version of event types without a configured version.
+     */
+    public static final int DEFAULT_SCHEMA_VERSION = 1;
+
+    /**
+     * File storage key of a payload offloaded by the claim-check serializer; the record
+     * value itself is then empty.
+     */
+    public static final String CLAIM_CHECK = "nexora-claim-check";
+
+    /**
+     * Codec of a compressed outbox payload ({@code lz4} or {@code zstd}); the record value
+     * is then compressed. See {@link com.nexora.kafka.codec.PayloadCodecDeserializer}.
+     */
+    public static final String PAYLOAD_CODEC = "nexora-payload-codec";
+
+    private EventHeaders() {
+    }
+
+    /**
+     * Add the event type, business ID and schema version headers.
+     *
+     * @param headers       the record headers
+     * @param eventType     the event type, may be null
+     * @param bizId         the business ID, may be null
+     * @param schemaVersion the schema version
+     */
+    public static void addEventHeaders(Headers headers, String eventType, String bizId, int schemaVersion) {
+        if (eventType != null) {
+            headers.add(EVENT_TYPE, eventType.getBytes(StandardCharsets.UTF_8));
+        }
+        if (bizId != null) {
+            headers.add(BIZ_ID, bizId.getBytes(StandardCharsets.UTF_8));
+        }
+        headers.add(SCHEMA_VERSION, Integer.toString(schemaVersion).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Value of a string header.
+     *
+     * @param headers the record headers
+     * @param key     the header key
+     * @return the last value of the header, or null if absent
+     */
+    public static String lastValue(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
@@ -1,13 +1,33 @@
 package com.nexora.kafka.publisher;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nexora.kafka.outbox.OutboxEvent;
+import com.nexora.kafka.outbox.OutboxEventWriter;
+import com.nexora.kafka.properties.KafkaProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Event publisher service using Outbox Pattern.
@@ -15,46 +35,375 @@ import java.util.Map;
  * <p>When Outbox is enabled, events are written to the outbox table within the same transaction
  * as the business logic. The events are then published to Kafka by a background job.
  *
+ * <p>With a {@link SpillJournal} enabled, at most {@code max-in-flight} records wait for
+ * broker acknowledgement at a time. Events beyond that, events whose send fails with a
+ * retriable error (e.g. a timeout while the cluster is unreachable), and all events while
+ * the journal still holds undrained records are appended to the journal instead, so callers
+ * never block on a slow or unreachable cluster; the {@link SpillDrainer} replays them in
+ * order. Non-retriable failures, such as an oversized record, still fail the future.
+ *
+ * <p>Records failing after the producer accepted them are appended by a dedicated
+ * {@code nexora-spill-writer} thread rather than the producer I/O thread, in the order their
+ * failures are reported, and new events are spilled behind them until the journal is drained.
+ * Records of the same key that were already in flight and do get acknowledged are delivered
+ * ahead of the spilled one, so per-key order is lost for them.
+ *
+ * <p>Every record carries the {@link EventHeaders event type, bizId and schema version
+ * headers}, so consumers can route and filter events without parsing the payload.
+ *
  * <p>Usage:
  * <pre>
  * &#64;Autowired
  * private EventPublisher eventPublisher;
  *
  * eventPublisher.publish("USER_CREATED", userId, username, email, name, metadata);
+ *
+ * // Typed event, serialized with a cached ObjectWriter per class
+ * eventPublisher.publish("user-topic", userId, new UserCreatedEvent(userId));
+ *
+ * // Wait for the broker acknowledgement of a whole batch
+ * eventPublisher.publishAll(events).join();
  * </pre>
  *
  * @author sujie
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
-public class EventPublisher {
+public class EventPublisher implements DisposableBean {
+
+    /**
+     * Name of the {@code KafkaTemplate<String, byte[]>} used for events.
+     */
+    public static final String KAFKA_TEMPLATE_BEAN_NAME = "eventKafkaTemplate";
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final OutboxEventWriter outboxWriter;
+    private final ClassValue<ObjectWriter> writers;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger pendingSpills = new AtomicInteger();
+
+    private volatile SpillJournal spillJournal;
+    private volatile Semaphore sendPermits;
+    private volatile ExecutorService spillWriter;
+    private volatile Map<String, Integer> schemaVersions = Map.of();
+
+    public EventPublisher(KafkaTemplate<String, byte[]> kafkaTemplate, ObjectMapper objectMapper) {
+        this(kafkaTemplate, objectMapper, (OutboxEventWriter) null);
+    }
+
+    @Autowired
+    public EventPublisher(@Qualifier(KAFKA_TEMPLATE_BEAN_NAME) KafkaTemplate<String, byte[]> kafkaTemplate,
+                          ObjectMapper objectMapper,
+                          ObjectProvider<OutboxEventWriter> outboxWriter,
+                          ObjectProvider<KafkaProperties> properties,
+                          ObjectProvider<SpillJournal> spillJournal) {
+        this(kafkaTemplate, objectMapper, outboxWriter.getIfAvailable());
+        properties.ifAvailable(p -> {
+            setSchemaVersions(p.getProducer().getSchemaVersions());
+            spillJournal.ifAvailable(journal -> enableSpill(journal, p.getProducer().getSpill().getMaxInFlight()));
+        });
+    }
+
+    public EventPublisher(KafkaTemplate<String, byte[]> kafkaTemplate, ObjectMapper objectMapper,
+                          OutboxEventWriter outboxWriter) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.outboxWriter = outboxWriter;
+        // Cached per class, and dropped with the class when its class loader is unloaded
+        this.writers = new ClassValue<>() {
+            @Override
+            protected ObjectWriter computeValue(Class<?> type) {
+                return objectMapper.writerFor(type);
+            }
+        };
+    }
+
+    /**
+     * Publish a typed event without a key.
+     *
+     * <p>The event type is the simple class name of {@code event}. Sent directly, the record
+     * has no key and no bizId header, so the producer's partitioner picks its partition and it
+     * has no ordering relative to other events. Outbox events need a bizId, so with the outbox
+     * enabled this overload is rejected; use {@link #publish(String, String, Object)}.
+     *
+     * @param topic the Kafka topic
+     * @param event the event object (will be serialized to JSON)
+     * @throws IllegalArgumentException if {@code event} is null, or the outbox is enabled
+     */
+    public void publish(String topic, Object event) {
+        publish(topic, null, event);
+    }
+
+    /**
+     * Publish a typed event.
+     *
+     * <p>The event type is the simple class name of {@code event}.
+     *
+     * @param topic the Kafka topic
+     * @param bizId the business ID, used as the record key
+     * @param event the event object (will be serialized to JSON)
+     * @throws IllegalArgumentException if {@code event} is null, or {@code bizId} is null with the
+     *                                  outbox enabled
+     */
+    public void publish(String topic, String bizId, Object event) {
+        requirePayload(event);
+        publishObject(event.getClass().getSimpleName(), bizId, topic, event);
+    }
 
     /**
      * Publish an event to Kafka.
      *
-     * <p>If Outbox is enabled, the event will be written to the outbox table instead.
+     * <p>If Outbox is enabled, the event will be written to the outbox table instead,
+     * batched with the other events of the current transaction.
+     *
+     * <p>Does not wait for the broker acknowledgement; use {@link #publishAsync} to observe it.
      *
      * @param eventType the event type
      * @param bizId     the business ID
      * @param topic     the Kafka topic
      * @param payload   the event payload (will be serialized to JSON)
+     * @throws IllegalArgumentException if {@code payload} is null, or {@code bizId} is null with
+     *                                  the outbox enabled
      */
-    @Transactional
     public void publish(String eventType, String bizId, String topic, Map<String, Object> payload) {
+        publishObject(eventType, bizId, topic, payload);
+    }
+
+    private void publishObject(String eventType, String bizId, String topic, Object payload) {
+        requirePayload(payload);
+        requireOutboxBizId(bizId, topic);
         try {
-            String payloadJson = objectMapper.writeValueAsString(payload);
-            kafkaTemplate.send(topic, bizId, payloadJson);
-            log.debug("Published event: type={}, bizId={}, topic={}", eventType, bizId, topic);
+            send(eventType, bizId, topic, payload).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.error("Failed to deliver event: type={}, bizId={}, topic={}", eventType, bizId, topic, ex);
+                }
+            });
         } catch (Exception e) {
             log.error("Failed to publish event: type={}, bizId={}, topic={}", eventType, bizId, topic, e);
             throw new RuntimeException("Failed to publish event", e);
         }
     }
 
+    /**
+     * Publish an event and return its delivery future.
+     *
+     * <p>The future completes with the partition and offset once the broker acknowledges
+     * the record, or exceptionally if serialization or delivery fails. Events written to
+     * the outbox complete immediately (see {@link PublishResult#isDelivered()}).
+     *
+     * @param eventType the event type
+     * @param bizId     the business ID
+     * @param topic     the Kafka topic
+     * @param payload   the event payload (will be serialized to JSON)
+     * @return the delivery future
+     * @throws IllegalArgumentException if {@code payload} is null, or {@code bizId} is null with
+     *                                  the outbox enabled
+     */
+    public CompletableFuture<PublishResult> publishAsync(String eventType, String bizId, String topic, Object payload) {
+        requirePayload(payload);
+        requireOutboxBizId(bizId, topic);
+        try {
+            return send(eventType, bizId, topic, payload);
+        } catch (Exception e) {
+            log.error("Failed to publish event: type={}, bizId={}, topic={}", eventType, bizId, topic, e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Publish a batch of events without waiting between sends.
+     *
+     * <p>All records are handed to the producer first, so they share producer batches;
+     * the returned future completes once every event is acknowledged, or exceptionally
+     * as soon as one of them fails.
+     *
+     * @param events the events to publish
+     * @return a future of the delivery results, in the order of {@code events}
+     */
+    public CompletableFuture<List<PublishResult>> publishAll(List<Event> events) {
+        List<CompletableFuture<PublishResult>> futures = new ArrayList<>(events.size());
+        for (Event event : events) {
+            futures.add(publishAsync(event.eventType(), event.bizId(), event.topic(), event.payload()));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> {
+                List<PublishResult> results = new ArrayList<>(futures.size());
+                for (CompletableFuture<PublishResult> future : futures) {
+                    results.add(future.join());
+                }
+                return results;
+            });
+    }
+
+    private CompletableFuture<PublishResult> send(String eventType, String bizId, String topic, Object payload)
+            throws JsonProcessingException {
+        ObjectWriter writer = writers.get(payload.getClass());
+        if (outboxWriter != null) {
+            outboxWriter.write(OutboxEvent.of(eventType, topic, bizId, writer.writeValueAsString(payload)));
+            log.debug("Wrote event to outbox: type={}, bizId={}, topic={}", eventType, bizId, topic);
+            return CompletableFuture.completedFuture(PublishResult.outboxed(topic));
+        }
+        // Serialize straight to UTF-8 bytes; no intermediate String for the serializer to re-encode
+        byte[] bytes = writer.writeValueAsBytes(payload);
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, null, bizId, bytes, new RecordHeaders());
+        EventHeaders.addEventHeaders(record.headers(), eventType, bizId,
+            schemaVersions.getOrDefault(eventType, EventHeaders.DEFAULT_SCHEMA_VERSION));
+        SpillJournal journal = spillJournal;
+        Semaphore permits = sendPermits;
+        if (journal != null && (pendingSpills.get() > 0 || !journal.isEmpty() || !permits.tryAcquire())) {
+            // Keep journal order: nothing overtakes records still waiting to be drained
+            return CompletableFuture.completedFuture(spill(journal, record));
+        }
+        for (Listener listener : listeners) {
+            listener.onSend(topic, bytes.length);
+        }
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        CompletableFuture<SendResult<String, byte[]>> sent;
+        try {
+            sent = kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            complete(topic, start, e, permits);
+            if (journal != null && SpillDrainer.isRetriable(e)) {
+                return CompletableFuture.completedFuture(spill(journal, record));
+            }
+            throw e;
+        }
+        CompletableFuture<PublishResult> future = sent
+            .whenComplete((result, ex) -> complete(topic, start, ex, permits))
+            .thenApply(result -> PublishResult.of(result.getRecordMetadata()));
+        if (journal != null) {
+            future = future.exceptionallyCompose(ex -> SpillDrainer.isRetriable(ex)
+                ? spillLater(journal, record)
+                : CompletableFuture.failedFuture(ex));
+        }
+        log.debug("Published event: type={}, bizId={}, topic={}", eventType, bizId, topic);
+        return future;
+    }
+
+    private static void requirePayload(Object payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Event payload must not be null");
+        }
+    }
+
+    private void requireOutboxBizId(String bizId, String topic) {
+        if (outboxWriter != null && bizId == null) {
+            throw new IllegalArgumentException("Outbox events require a bizId: topic=" + topic);
+        }
+    }
+
+    /**
+     * Spill a record on the spill writer thread; called on the producer I/O thread, which
+     * must not block on journal appends.
+     */
+    private CompletableFuture<PublishResult> spillLater(SpillJournal journal, ProducerRecord<String, byte[]> record) {
+        pendingSpills.incrementAndGet();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return spill(journal, record);
+                } finally {
+                    pendingSpills.decrementAndGet();
+                }
+            }, spillWriter);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            pendingSpills.decrementAndGet();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private PublishResult spill(SpillJournal journal, ProducerRecord<String, byte[]> record) {
+        journal.append(record.topic(), record.key(), record.headers(), record.value());
+        for (Listener listener : listeners) {
+            listener.onSpill(record.topic());
+        }
+        log.debug("Spilled event to journal: bizId={}, topic={}", record.key(), record.topic());
+        return PublishResult.spilled(record.topic());
+    }
+
+    private void complete(String topic, long start, Throwable failure, Semaphore permits) {
+        if (permits != null) {
+            permits.release();
+        }
+        inFlight.decrementAndGet();
+        long latency = System.nanoTime() - start;
+        for (Listener listener : listeners) {
+            listener.onComplete(topic, latency, failure);
+        }
+    }
+
+    /**
+     * Enable backpressure: bound the records awaiting acknowledgement and spill the rest.
+     *
+     * @param journal     the journal taking events that can't be sent right away
+     * @param maxInFlight the max records awaiting broker acknowledgement
+     */
+    public void enableSpill(SpillJournal journal, int maxInFlight) {
+        this.spillWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nexora-spill-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sendPermits = new Semaphore(maxInFlight);
+        this.spillJournal = journal;
+    }
+
+    /**
+     * Finish appending records whose send failed, before the journal is closed.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        ExecutorService writer = spillWriter;
+        if (writer != null) {
+            writer.shutdown();
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Timed out spilling failed events, {} are lost", pendingSpills.get());
+            }
+        }
+    }
+
+    /**
+     * Set the payload schema version of event types, sent in the
+     * {@link EventHeaders#SCHEMA_VERSION} header.
+     *
+     * @param schemaVersions schema versions by event type
+     */
+    public void setSchemaVersions(Map<String, Integer> schemaVersions) {
+        this.schemaVersions = Map.copyOf(schemaVersions);
+    }
+
+    /**
+     * Number of spilled events not yet drained to Kafka.
+     *
+     * @return the pending count, 0 when spilling is disabled
+     */
+    public long getSpillPending() {
+        SpillJournal journal = spillJournal;
+        return journal != null ? journal.getPending() : 0L;
+    }
+
+    /**
+     * Register a callback for sends and their outcomes, e.g. for metrics.
+     *
+     * @param listener the callback
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Number of records handed to the producer and not yet acknowledged.
+     *
+     * @return the in-flight record count
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
     /**
      * Publish a user event with common fields.
      *
@@ -66,7 +415,6 @@ public class EventPublisher {
      * @param name      the display name
      * @param metadata  additional metadata
      */
-    @Transactional
     public void publishUserEvent(String eventType, Long bizId, String topic, String username, String email, String name, Map<String, Object> metadata) {
         Map<String, Object> payload = new java.util.HashMap<>();
         payload.put("userId", bizId);
@@ -78,4 +426,37 @@ public class EventPublisher {
         }
         publish(eventType, String.valueOf(bizId), topic, payload);
     }
+
+    /**
+     * Callback for events sent straight to Kafka; events written to the outbox are not reported.
+     */
+    public interface Listener {
+
+        /**
+         * Called before a record is handed to the producer; not called for spilled records.
+         *
+         * @param topic       the topic
+         * @param payloadSize the serialized payload size in bytes
+         */
+        default void onSend(String topic, int payloadSize) {
+        }
+
+        /**
+         * Called once the broker acknowledged the record or the send failed.
+         *
+         * @param topic        the topic
+         * @param latencyNanos time since the record was handed to the producer
+         * @param failure      the failure, or null if the record was acknowledged
+         */
+        default void onComplete(String topic, long latencyNanos, Throwable failure) {
+        }
+
+        /**
+         * Called when an event was appended to the spill journal instead of being sent.
+         *
+         * @param topic the topic
+         */
+        default void onSpill(String topic) {
+        }
+    }
 }
@@ -0,0 +1,56 @@
+package com.nexora.kafka.publisher;
+
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+/**
+ * Delivery result of a published event.
+ *
+ * <p>Events written to the outbox or the spill journal are only delivered later, so their
+ * result carries no partition and offset ({@code -1}).
+ *
+ * @param topic     the Kafka topic
+ * @param partition the partition the record was written to, or {@code -1}
+ * @param offset    the offset of the record in the partition, or {@code -1}
+ * @author sujie
+ */
+public record PublishResult(String topic, int partition, long offset) {
+
+    /**
+     * Create a result from the broker acknowledgement.
+     *
+     * @param metadata the record metadata
+     * @return the publish result
+     */
+    public static PublishResult of(RecordMetadata metadata) {
+        return new PublishResult(metadata.topic(), metadata.partition(), metadata.offset());
+    }
+
+    /**
+     * Create a result for an event written to the outbox.
+     *
+     * @param topic the Kafka topic
+     * @return the publish result
+     */
+    public static PublishResult outboxed(String topic) {
+        return new PublishResult(topic, -1, -1L);
+    }
+
+    /**
+     * Create a result for an event appended to the spill journal.
+     *
+     * @param topic the Kafka topic
+     * @return the publish result
+     */
+    public static PublishResult spilled(String topic) {
+        return new PublishResult(topic, -1, -1L);
+    }
+
+    /**
+     * Whether the broker has acknowledged the record.
+     *
+     * @return false if the event was written to the outbox or the spill journal
+     */
+    public boolean isDelivered() {
+        return offset >= 0;
+    }
+}
@@ -0,0 +1,188 @@
+package com.nexora.kafka.publisher;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays the {@link SpillJournal} to Kafka in append order.
+ *
+ * <p>Every {@code drain-interval} the drainer sends journaled records in batches, waits for
+ * the acknowledgements and consumes the longest acknowledged prefix of each batch. On the
+ * first retriable failure it stops and retries from there on the next run, so records are
+ * delivered at least once and in order.
+ *
+ * <p>A record failing with a non-retriable error (e.g. {@code RecordTooLargeException} or a
+ * deleted topic without auto-creation) would fail again on every run, so it is logged and
+ * skipped instead of blocking the journal behind it.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class SpillDrainer implements SmartLifecycle {
+
+    private final SpillJournal journal;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final int batchSize;
+    private final Duration drainInterval;
+    private final Duration sendTimeout;
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile boolean stopping;
+    private ScheduledExecutorService scheduler;
+
+    public SpillDrainer(SpillJournal journal, KafkaTemplate<String, byte[]> kafkaTemplate,
+                        int batchSize, Duration drainInterval, Duration sendTimeout) {
+        this.journal = journal;
+        this.kafkaTemplate = kafkaTemplate;
+        this.batchSize = batchSize;
+        this.drainInterval = drainInterval;
+        this.sendTimeout = sendTimeout;
+    }
+
+    /**
+     * Send journaled records until the journal is empty or a send fails with a retriable error.
+     *
+     * @return the number of drained records, skipped records included
+     */
+    public int drain() {
+        journal.force();
+        int drained = 0;
+        while (true) {
+            List<SpillJournal.Entry> entries = journal.read(batchSize);
+            if (entries.isEmpty()) {
+                break;
+            }
+            int consumed = sendBatch(entries);
+            if (consumed > 0) {
+                journal.commit(entries.get(consumed - 1), consumed);
+                drained += consumed;
+            }
+            if (consumed < entries.size() || stopping) {
+                break;
+            }
+        }
+        if (drained > 0) {
+            log.info("Drained {} spilled events to Kafka, pending={}", drained, journal.getPending());
+        }
+        return drained;
+    }
+
+    private int sendBatch(List<SpillJournal.Entry> entries) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(entries.size());
+        for (SpillJournal.Entry entry : entries) {
+            try {
+                futures.add(kafkaTemplate.send(
+                    new ProducerRecord<>(entry.topic(), null, entry.key(), entry.value(), entry.headers())));
+            } catch (Exception e) {
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        kafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return i;
+            } catch (ExecutionException e) {
+                if (isRetriable(e.getCause())) {
+                    log.warn("Failed to drain spilled event: topic={}, key={}, will retry",
+                        entries.get(i).topic(), entries.get(i).key(), e.getCause());
+                    return i;
+                }
+                skipped.incrementAndGet();
+                log.error("Skipping spilled event that can't be delivered: topic={}, key={}",
+                    entries.get(i).topic(), entries.get(i).key(), e.getCause());
+            } catch (TimeoutException e) {
+                log.warn("Timed out draining spilled event: topic={}, key={}, will retry",
+                    entries.get(i).topic(), entries.get(i).key());
+                return i;
+            }
+        }
+        return futures.size();
+    }
+
+    /**
+     * Number of journaled records dropped because they failed with a non-retriable error.
+     *
+     * @return the skipped record count since startup
+     */
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Whether a send failure is worth retrying later, i.e. caused by a Kafka
+     * {@link RetriableException} such as a timeout or a leader change.
+     *
+     * @param failure the send failure
+     * @return true if the record may be delivered by a later attempt
+     */
+    static boolean isRetriable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runDrain() {
+        try {
+            drain();
+        } catch (Exception e) {
+            log.error("Spill journal drain failed", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nexora-spill-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        stopping = false;
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::runDrain, 0L, drainInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Spill drainer started: pending={}, drainInterval={}", journal.getPending(), drainInterval);
+    }
+
+    @Override
+    public void stop() {
+        stopping = true;
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("Spill drainer stopped: pending={}", journal.getPending());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,399 @@
+package com.nexora.kafka.publisher;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local append-only journal of events that could not be handed to Kafka.
+ *
+ * <p>Records are appended to fixed-size memory-mapped segment files
+ * ({@code spill-<sequence>.log}) and read back in append order by the
+ * {@link SpillDrainer}. Each frame is {@code [length][crc32c][topic][key][headers][value]}; the
+ * length is written last, so a frame interrupted by a crash is never read. The drain
+ * position is kept in {@code spill.checkpoint}, and fully drained segments are deleted.
+ *
+ * <p>Appended records live in the page cache and survive a process crash; {@link #force()}
+ * writes them to disk and is called by the drainer on every run.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class SpillJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "spill-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "spill.checkpoint";
+    private static final int FRAME_HEADER = 8;
+    private static final int NULL_LENGTH = -1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final MappedByteBuffer checkpoint;
+    private final FileChannel checkpointChannel;
+
+    private Segment writeSegment;
+    private long readSegment;
+    private int readPosition;
+    private long pending;
+
+    /**
+     * Open or create a journal, recovering the records not drained yet.
+     *
+     * @param directory   the journal directory
+     * @param segmentSize the size of each segment file in bytes
+     */
+    public SpillJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES + Integer.BYTES);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open spill journal in " + directory, e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Long> ids;
+        try (Stream<Path> files = Files.list(directory)) {
+            ids = files.map(path -> path.getFileName().toString())
+                .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                .sorted()
+                .toList();
+        }
+        readSegment = checkpoint.getLong(0);
+        readPosition = checkpoint.getInt(Long.BYTES);
+        if (ids.isEmpty() || readSegment < ids.getFirst()) {
+            readSegment = ids.isEmpty() ? 0L : ids.getFirst();
+            readPosition = 0;
+        }
+        for (long id : ids) {
+            if (id < readSegment) {
+                Files.deleteIfExists(segmentPath(id));
+                continue;
+            }
+            Segment segment = openSegment(id);
+            int position = 0;
+            int length;
+            while ((length = frameLength(segment, position)) > 0) {
+                if (id > readSegment || position >= readPosition) {
+                    pending++;
+                }
+                position += FRAME_HEADER + length;
+            }
+            segment.writePosition = position;
+            segments.put(id, segment);
+        }
+        writeSegment = segments.isEmpty() ? createSegment(readSegment) : segments.lastEntry().getValue();
+        if (pending > 0) {
+            log.info("Recovered spill journal: pending={}, segments={}", pending, segments.size());
+        }
+    }
+
+    /**
+     * Append a record without headers.
+     *
+     * @param topic the topic
+     * @param key   the record key, may be null
+     * @param value the record value
+     */
+    public void append(String topic, String key, byte[] value) {
+        append(topic, key, new RecordHeaders(), value);
+    }
+
+    /**
+     * Append a record.
+     *
+     * @param topic   the topic
+     * @param key     the record key, may be null
+     * @param headers the record headers
+     * @param value   the record value
+     */
+    public synchronized void append(String topic, String key, Headers headers, byte[] value) {
+        byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key != null ? key.getBytes(StandardCharsets.UTF_8) : null;
+        Header[] headerArray = headers.toArray();
+        int headersLength = Short.BYTES;
+        for (Header header : headerArray) {
+            headersLength += Short.BYTES + header.key().getBytes(StandardCharsets.UTF_8).length
+                + Integer.BYTES + (header.value() != null ? header.value().length : 0);
+        }
+        int length = Short.BYTES + topicBytes.length + Integer.BYTES + (keyBytes != null ? keyBytes.length : 0)
+            + headersLength + value.length;
+        if (FRAME_HEADER + length > segmentSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes exceeds the spill segment size");
+        }
+        if (writeSegment.writePosition + FRAME_HEADER + length > writeSegment.capacity()) {
+            roll();
+        }
+        MappedByteBuffer buffer = writeSegment.buffer;
+        int position = writeSegment.writePosition;
+        int body = position + FRAME_HEADER;
+        buffer.putShort(body, (short) topicBytes.length);
+        buffer.put(body + Short.BYTES, topicBytes);
+        int keyAt = body + Short.BYTES + topicBytes.length;
+        buffer.putInt(keyAt, keyBytes != null ? keyBytes.length : NULL_LENGTH);
+        int at = keyAt + Integer.BYTES;
+        if (keyBytes != null) {
+            buffer.put(at, keyBytes);
+            at += keyBytes.length;
+        }
+        buffer.putShort(at, (short) headerArray.length);
+        at += Short.BYTES;
+        for (Header header : headerArray) {
+            byte[] headerKey = header.key().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort(at, (short) headerKey.length);
+            buffer.put(at + Short.BYTES, headerKey);
+            at += Short.BYTES + headerKey.length;
+            buffer.putInt(at, header.value() != null ? header.value().length : NULL_LENGTH);
+            at += Integer.BYTES;
+            if (header.value() != null) {
+                buffer.put(at, header.value());
+                at += header.value().length;
+            }
+        }
+        buffer.put(at, value);
+        buffer.putInt(position + Integer.BYTES, crc(buffer, body, length));
+        // Publish the frame last
+        buffer.putInt(position, length);
+        writeSegment.writePosition = body + length;
+        pending++;
+    }
+
+    /**
+     * Read records from the drain position without consuming them.
+     *
+     * @param max the maximum number of records
+     * @return the records in append order
+     */
+    public synchronized List<Entry> read(int max) {
+        List<Entry> entries = new ArrayList<>(Math.min(max, (int) Math.min(pending, Integer.MAX_VALUE)));
+        long id = readSegment;
+        int position = readPosition;
+        while (entries.size() < max) {
+            Segment segment = segments.get(id);
+            if (segment == null) {
+                break;
+            }
+            int length = frameLength(segment, position);
+            if (length <= 0) {
+                if (segment == writeSegment) {
+                    break;
+                }
+                Map.Entry<Long, Segment> next = segments.higherEntry(id);
+                if (next == null) {
+                    break;
+                }
+                id = next.getKey();
+                position = 0;
+                continue;
+            }
+            entries.add(decode(segment, id, position, length));
+            position += FRAME_HEADER + length;
+        }
+        return entries;
+    }
+
+    /**
+     * Consume records up to and including {@code last}, deleting drained segments.
+     *
+     * @param last  the last drained record
+     * @param count the number of drained records
+     */
+    public synchronized void commit(Entry last, int count) {
+        readSegment = last.segment();
+        readPosition = last.nextPosition();
+        pending -= count;
+        checkpoint.putLong(0, readSegment);
+        checkpoint.putInt(Long.BYTES, readPosition);
+        while (!segments.isEmpty() && segments.firstKey() < readSegment) {
+            Segment drained = segments.pollFirstEntry().getValue();
+            drained.close();
+            try {
+                Files.deleteIfExists(segmentPath(drained.id));
+            } catch (IOException e) {
+                log.warn("Failed to delete drained spill segment {}", drained.id, e);
+            }
+        }
+    }
+
+    /**
+     * Whether all appended records have been drained.
+     */
+    public synchronized boolean isEmpty() {
+        return pending == 0;
+    }
+
+    /**
+     * Number of records not drained yet.
+     */
+    public synchronized long getPending() {
+        return pending;
+    }
+
+    /**
+     * Write appended records and the drain position to disk.
+     */
+    public synchronized void force() {
+        writeSegment.buffer.force();
+        checkpoint.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+        segments.values().forEach(Segment::close);
+        try {
+            checkpointChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close spill checkpoint", e);
+        }
+    }
+
+    private void roll() {
+        writeSegment.buffer.force();
+        writeSegment = createSegment(writeSegment.id + 1);
+    }
+
+    private Segment createSegment(long id) {
+        try {
+            Segment segment = openSegment(id);
+            segments.put(id, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create spill segment " + id, e);
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Segments written with another segment size keep their own size
+        long size = Math.max(channel.size(), segmentSize);
+        return new Segment(id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%020d", id) + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Length of the frame at {@code position}, or 0 at the end of the written or valid data.
+     */
+    private static int frameLength(Segment segment, int position) {
+        if (position + FRAME_HEADER > segment.capacity()) {
+            return 0;
+        }
+        int length = segment.buffer.getInt(position);
+        if (length <= 0 || position + FRAME_HEADER + length > segment.capacity()
+            || segment.buffer.getInt(position + Integer.BYTES) != crc(segment.buffer, position + FRAME_HEADER, length)) {
+            return 0;
+        }
+        return length;
+    }
+
+    private static int crc(MappedByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static Entry decode(Segment segment, long id, int position, int length) {
+        MappedByteBuffer buffer = segment.buffer;
+        int body = position + FRAME_HEADER;
+        byte[] topic = new byte[buffer.getShort(body)];
+        buffer.get(body + Short.BYTES, topic);
+        int keyAt = body + Short.BYTES + topic.length;
+        int keyLength = buffer.getInt(keyAt);
+        int at = keyAt + Integer.BYTES;
+        String key = null;
+        if (keyLength != NULL_LENGTH) {
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(at, keyBytes);
+            key = new String(keyBytes, StandardCharsets.UTF_8);
+            at += keyLength;
+        }
+        RecordHeaders headers = new RecordHeaders();
+        int headerCount = buffer.getShort(at);
+        at += Short.BYTES;
+        for (int i = 0; i < headerCount; i++) {
+            byte[] headerKey = new byte[buffer.getShort(at)];
+            buffer.get(at + Short.BYTES, headerKey);
+            at += Short.BYTES + headerKey.length;
+            int valueLength = buffer.getInt(at);
+            at += Integer.BYTES;
+            byte[] headerValue = null;
+            if (valueLength != NULL_LENGTH) {
+                headerValue = new byte[valueLength];
+                buffer.get(at, headerValue);
+                at += valueLength;
+            }
+            headers.add(new String(headerKey, StandardCharsets.UTF_8), headerValue);
+        }
+        byte[] value = new byte[body + length - at];
+        buffer.get(at, value);
+        return new Entry(new String(topic, StandardCharsets.UTF_8), key, headers, value, id, body + length);
+    }
+
+    /**
+     * A journaled record.
+     *
+     * @param topic        the topic
+     * @param key          the record key, may be null
+     * @param headers      the record headers
+     * @param value        the record value
+     * @param segment      the segment holding the record
+     * @param nextPosition the position right after the record in its segment
+     */
+    public record Entry(String topic, String key, Headers headers, byte[] value, long segment, int nextPosition) {
+    }
+
+    private static final class Segment {
+
+        private final long id;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        Segment(long id, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close spill segment {}", id, e);
+            }
+        }
+    }
+}
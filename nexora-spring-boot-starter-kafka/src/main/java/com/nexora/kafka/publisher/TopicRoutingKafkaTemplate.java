@@ -0,0 +1,79 @@
+package com.nexora.kafka.publisher;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.Producer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.Map;
+
+/**
+ * Event {@code KafkaTemplate} that sends some topics through their own producer factories,
+ * e.g. with a different {@link ProducerProfile}.
+ *
+ * <p>Topics without an entry use the default producer factory. Only non-transactional
+ * sends are routed; inside a Kafka transaction every record goes through the
+ * transactional default producer.
+ *
+ * @author sujie
+ */
+@Slf4j
+public class TopicRoutingKafkaTemplate extends KafkaTemplate<String, byte[]> {
+
+    private final Map<String, ProducerFactory<String, byte[]>> topicProducerFactories;
+
+    /**
+     * Create a template.
+     *
+     * @param producerFactory        the default producer factory
+     * @param topicProducerFactories producer factories by exact topic name
+     */
+    public TopicRoutingKafkaTemplate(ProducerFactory<String, byte[]> producerFactory,
+                                     Map<String, ProducerFactory<String, byte[]>> topicProducerFactories) {
+        super(producerFactory);
+        this.topicProducerFactories = Map.copyOf(topicProducerFactories);
+    }
+
+    @Override
+    protected ProducerFactory<String, byte[]> getProducerFactory(String topic) {
+        ProducerFactory<String, byte[]> producerFactory = topic != null ? topicProducerFactories.get(topic) : null;
+        return producerFactory != null ? producerFactory : super.getProducerFactory(topic);
+    }
+
+    /**
+     * Flush the default producer and the producers of all routed topics.
+     */
+    @Override
+    public void flush() {
+        super.flush();
+        for (ProducerFactory<String, byte[]> producerFactory : topicProducerFactories.values()) {
+            try (Producer<String, byte[]> producer = producerFactory.createProducer()) {
+                producer.flush();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        for (ProducerFactory<String, byte[]> producerFactory : topicProducerFactories.values()) {
+            if (producerFactory instanceof DisposableBean disposable) {
+                try {
+                    disposable.destroy();
+                } catch (Exception e) {
+                    log.warn("Failed to close topic producer factory", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The routed topics and their producer factories.
+     *
+     * @return the producer factories by topic
+     */
+    public Map<String, ProducerFactory<String, byte[]>> getTopicProducerFactories() {
+        return topicProducerFactories;
+    }
+}
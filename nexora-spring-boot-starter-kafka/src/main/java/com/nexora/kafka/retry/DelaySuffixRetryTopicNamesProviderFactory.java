@@ -0,0 +1,82 @@
+package com.nexora.kafka.retry;
+
+import org.springframework.kafka.config.KafkaListenerEndpoint;
+import org.springframework.kafka.retrytopic.DestinationTopic;
+import org.springframework.kafka.retrytopic.RetryTopicNamesProviderFactory;
+import org.springframework.kafka.retrytopic.SuffixingRetryTopicNamesProviderFactory;
+
+/**
+ * Names retry topics after their delay in readable units, e.g. {@code orders.retry-1s}
+ * and {@code orders.retry-30s} instead of {@code orders.retry-1000} and {@code orders.retry-30000}.
+ *
+ * <p>Endpoint IDs, group IDs and DLQ topic names are left as produced by
+ * {@link SuffixingRetryTopicNamesProviderFactory}.
+ *
+ * @author sujie
+ */
+public class DelaySuffixRetryTopicNamesProviderFactory implements RetryTopicNamesProviderFactory {
+
+    private final SuffixingRetryTopicNamesProviderFactory delegate = new SuffixingRetryTopicNamesProviderFactory();
+
+    @Override
+    public RetryTopicNamesProvider createRetryTopicNamesProvider(DestinationTopic.Properties properties) {
+        RetryTopicNamesProvider provider = delegate.createRetryTopicNamesProvider(properties);
+        if (!properties.isRetryTopic()) {
+            return provider;
+        }
+        String millisSuffix = "-" + properties.delay();
+        String suffix = properties.suffix();
+        int at = suffix.lastIndexOf(millisSuffix);
+        if (at < 0) {
+            return provider;
+        }
+        String readableSuffix = suffix.substring(0, at) + "-" + format(properties.delay())
+            + suffix.substring(at + millisSuffix.length());
+        return new RetryTopicNamesProvider() {
+
+            @Override
+            public String getEndpointId(KafkaListenerEndpoint endpoint) {
+                return provider.getEndpointId(endpoint);
+            }
+
+            @Override
+            public String getGroupId(KafkaListenerEndpoint endpoint) {
+                return provider.getGroupId(endpoint);
+            }
+
+            @Override
+            public String getClientIdPrefix(KafkaListenerEndpoint endpoint) {
+                return provider.getClientIdPrefix(endpoint);
+            }
+
+            @Override
+            public String getGroup(KafkaListenerEndpoint endpoint) {
+                return provider.getGroup(endpoint);
+            }
+
+            @Override
+            public String getTopicName(String topic) {
+                return topic + readableSuffix;
+            }
+        };
+    }
+
+    /**
+     * Format a delay with the largest unit dividing it evenly.
+     *
+     * @param millis the delay in milliseconds
+     * @return e.g. {@code 500ms}, {@code 30s}, {@code 5m}, {@code 1h}
+     */
+    static String format(long millis) {
+        if (millis > 0 && millis % 3_600_000 == 0) {
+            return millis / 3_600_000 + "h";
+        }
+        if (millis > 0 && millis % 60_000 == 0) {
+            return millis / 60_000 + "m";
+        }
+        if (millis > 0 && millis % 1_000 == 0) {
+            return millis / 1_000 + "s";
+        }
+        return millis + "ms";
+    }
+}
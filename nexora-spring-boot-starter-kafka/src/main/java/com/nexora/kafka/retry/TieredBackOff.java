@@ -0,0 +1,43 @@
+package com.nexora.kafka.retry;
+
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link BackOff} returning an explicit list of delays, one per retry tier.
+ *
+ * <p>Used for retry topics, where each delay becomes its own {@code .retry-<delay>} topic.
+ *
+ * @author sujie
+ */
+public class TieredBackOff implements BackOff {
+
+    private final List<Duration> delays;
+
+    public TieredBackOff(List<Duration> delays) {
+        this.delays = List.copyOf(delays);
+    }
+
+    /**
+     * Number of retries, not counting the first attempt.
+     */
+    public int getRetries() {
+        return delays.size();
+    }
+
+    @Override
+    public BackOffExecution start() {
+        return new BackOffExecution() {
+
+            private int attempt;
+
+            @Override
+            public long nextBackOff() {
+                return attempt < delays.size() ? delays.get(attempt++).toMillis() : STOP;
+            }
+        };
+    }
+}
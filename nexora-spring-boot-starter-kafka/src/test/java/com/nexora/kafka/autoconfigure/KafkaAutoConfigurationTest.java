@@ -1,13 +1,64 @@
 package com.nexora.kafka.autoconfigure;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexora.kafka.claimcheck.ClaimCheckDeserializer;
+import com.nexora.kafka.claimcheck.ClaimCheckSerializer;
+import com.nexora.kafka.claimcheck.ClaimCheckStore;
+import com.nexora.kafka.codec.PayloadCodec;
+import com.nexora.kafka.codec.PayloadCodecDeserializer;
+import com.nexora.kafka.filter.EventTypeFilter;
+import com.nexora.kafka.filter.EventTypeFilteringDeserializer;
+import com.nexora.kafka.idempotent.IdempotencyGuard;
+import com.nexora.kafka.idempotent.IdempotentListener;
+import com.nexora.kafka.idempotent.JdbcProcessedIdStore;
+import com.nexora.kafka.idempotent.ProcessedIdStore;
+import com.nexora.kafka.idempotent.RedisProcessedIdStore;
+import com.nexora.kafka.listener.BatchListenerSupport;
+import com.nexora.kafka.listener.CircuitBreakerListenerBinder;
+import com.nexora.kafka.listener.ListenerConcurrencyController;
+import com.nexora.kafka.listener.SequenceGuard;
+import com.nexora.kafka.metrics.EventPublisherMetrics;
+import com.nexora.kafka.metrics.ListenerConcurrencyMetrics;
+import com.nexora.kafka.metrics.OutboxRelayMetrics;
+import com.nexora.kafka.outbox.JdbcOutboxRepository;
+import com.nexora.kafka.outbox.OutboxLeaseManager;
+import com.nexora.kafka.outbox.OutboxPurger;
+import com.nexora.kafka.outbox.OutboxEventWriter;
+import com.nexora.kafka.outbox.OutboxIdGenerator;
+import com.nexora.kafka.outbox.OutboxRelay;
 import com.nexora.kafka.publisher.EventPublisher;
+import com.nexora.kafka.publisher.SpillDrainer;
+import com.nexora.kafka.publisher.SpillJournal;
+import com.nexora.kafka.publisher.TopicRoutingKafkaTemplate;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import com.nexora.storage.FileStorageService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -21,8 +72,14 @@ class KafkaAutoConfigurationTest {
     private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
         .withConfiguration(AutoConfigurations.of(KafkaAutoConfiguration.class))
         .withBean(KafkaTemplate.class, () -> createMockKafkaTemplate())
+        .withBean(ProducerFactory.class, () -> mock(ProducerFactory.class))
         .withBean(ObjectMapper.class, ObjectMapper::new);
 
+    private final ApplicationContextRunner batchContextRunner = contextRunner
+        .withConfiguration(AutoConfigurations.of(
+            org.springframework.boot.kafka.autoconfigure.KafkaAutoConfiguration.class))
+        .withPropertyValues("nexora.kafka.consumer.batch.enabled=true");
+
     private static KafkaTemplate<String, String> createMockKafkaTemplate() {
         ProducerFactory<String, String> producerFactory = mock(ProducerFactory.class);
         return new KafkaTemplate<>(producerFactory);
@@ -35,6 +92,7 @@ class KafkaAutoConfigurationTest {
             .run(context -> {
                 assertThat(context).hasNotFailed();
                 assertThat(context).hasSingleBean(KafkaAutoConfiguration.class);
+                assertThat(context).hasSingleBean(EventPublisherMetrics.class);
             });
     }
 
@@ -57,6 +115,443 @@ class KafkaAutoConfigurationTest {
             });
     }
 
+    @Test
+    @DisplayName("Should create byte[] event KafkaTemplate that is not a default autowire candidate")
+    void shouldCreateEventKafkaTemplate() {
+        contextRunner
+            .run(context -> {
+                assertThat(context).hasBean(EventPublisher.KAFKA_TEMPLATE_BEAN_NAME);
+                // The application's own KafkaTemplate stays the only injectable one
+                assertThat(context.getBeanProvider(KafkaTemplate.class).getIfUnique()).isNotNull();
+            });
+    }
+
+    @Test
+    @DisplayName("Should apply the producer profile and route overridden topics to their own producer")
+    void shouldApplyProducerProfiles() {
+        contextRunner
+            .withPropertyValues("nexora.kafka.producer.profile=THROUGHPUT",
+                "nexora.kafka.producer.properties.linger.ms=10",
+                "nexora.kafka.producer.topics.payments.profile=DURABILITY",
+                "nexora.kafka.producer.topics.payments.properties.client.id=payments",
+                "nexora.kafka.producer.topics.clicks.profile=LOW_LATENCY")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                ProducerFactory<?, ?> producerFactory = context.getBean("eventProducerFactory", ProducerFactory.class);
+                assertThat(producerFactory.getConfigurationProperties())
+                    .containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4")
+                    .containsEntry(ProducerConfig.LINGER_MS_CONFIG, "10");
+                TopicRoutingKafkaTemplate template = context.getBean(
+                    EventPublisher.KAFKA_TEMPLATE_BEAN_NAME, TopicRoutingKafkaTemplate.class);
+                assertThat(template.getTopicProducerFactories().get("payments").getConfigurationProperties())
+                    .containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd")
+                    .containsEntry(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1)
+                    .containsEntry(ProducerConfig.LINGER_MS_CONFIG, "10")
+                    .containsEntry(ProducerConfig.CLIENT_ID_CONFIG, "payments");
+                assertThat(template.getTopicProducerFactories().get("clicks").getConfigurationProperties())
+                    .containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none")
+                    .containsEntry(ProducerConfig.ACKS_CONFIG, "all")
+                    .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            });
+    }
+
+    @Test
+    @DisplayName("Should offload large payloads through file storage when claim-check is enabled")
+    void shouldCreateClaimCheckSupport() {
+        contextRunner
+            .withBean(FileStorageService.class, () -> mock(FileStorageService.class))
+            .withBean("consumerFactory", DefaultKafkaConsumerFactory.class,
+                () -> new DefaultKafkaConsumerFactory<>(Map.of(), null, new StringDeserializer()))
+            .withPropertyValues("nexora.kafka.claim-check.enabled=true")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(ClaimCheckStore.class);
+                DefaultKafkaProducerFactory<?, ?> producerFactory =
+                    context.getBean("eventProducerFactory", DefaultKafkaProducerFactory.class);
+                assertThat(producerFactory.getValueSerializer()).isInstanceOf(ClaimCheckSerializer.class);
+                assertThat(context.getBean(DefaultKafkaConsumerFactory.class).getValueDeserializer())
+                    .isInstanceOf(ClaimCheckDeserializer.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should not create claim-check support without file storage")
+    void shouldNotCreateClaimCheckSupportWithoutFileStorage() {
+        contextRunner
+            .withPropertyValues("nexora.kafka.claim-check.enabled=true")
+            .run(context -> {
+                assertThat(context).doesNotHaveBean(ClaimCheckStore.class);
+                assertThat(context.getBean("eventProducerFactory", DefaultKafkaProducerFactory.class)
+                    .getValueSerializer()).isInstanceOf(ByteArraySerializer.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should filter event types on consumer and listener container factories when enabled")
+    void shouldCreateEventTypeFilter() {
+        batchContextRunner
+            .withBean(FileStorageService.class, () -> mock(FileStorageService.class))
+            .withBean("consumerFactory", DefaultKafkaConsumerFactory.class,
+                () -> new DefaultKafkaConsumerFactory<>(Map.of(), null, new StringDeserializer()))
+            .withPropertyValues("nexora.kafka.claim-check.enabled=true",
+                "nexora.kafka.consumer.filter.enabled=true",
+                "nexora.kafka.consumer.filter.event-types.orders=ORDER_CREATED,ORDER_PAID")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                EventTypeFilter filter = context.getBean(EventTypeFilter.class);
+                // Outermost, so filtered records are never fetched from the claim-check store
+                assertThat(context.getBean(DefaultKafkaConsumerFactory.class).getValueDeserializer())
+                    .isInstanceOf(EventTypeFilteringDeserializer.class)
+                    .extracting("delegate").isInstanceOf(ClaimCheckDeserializer.class);
+                assertThat(ReflectionTestUtils.getField(
+                    context.getBean(BatchListenerSupport.CONTAINER_FACTORY), "recordFilterStrategy"))
+                    .isSameAs(filter);
+            });
+    }
+
+    @Test
+    @DisplayName("Should decompress payloads on consumer factories by default")
+    void shouldDecompressPayloads() {
+        contextRunner
+            .withBean("consumerFactory", DefaultKafkaConsumerFactory.class,
+                () -> new DefaultKafkaConsumerFactory<>(Map.of(), null, new StringDeserializer()))
+            .withPropertyValues("nexora.kafka.consumer.filter.enabled=true")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                // Innermost, so the filter still sees the record before it is decompressed
+                assertThat(context.getBean(DefaultKafkaConsumerFactory.class).getValueDeserializer())
+                    .isInstanceOf(EventTypeFilteringDeserializer.class)
+                    .extracting("delegate").isInstanceOf(PayloadCodecDeserializer.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should leave consumer payloads alone when decompression is disabled")
+    void shouldNotDecompressPayloadsWhenDisabled() {
+        contextRunner
+            .withBean("consumerFactory", DefaultKafkaConsumerFactory.class,
+                () -> new DefaultKafkaConsumerFactory<>(Map.of(), null, new StringDeserializer()))
+            .withPropertyValues("nexora.kafka.consumer.decompress-payloads=false")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context.getBean(DefaultKafkaConsumerFactory.class).getValueDeserializer())
+                    .isInstanceOf(StringDeserializer.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should store outbox payloads compressed when compression is enabled")
+    void shouldCreateCompressingOutboxRepository() {
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .withPropertyValues("nexora.kafka.outbox.enabled=true", "nexora.kafka.outbox.node-id=1",
+                "nexora.kafka.outbox.compression.enabled=true",
+                "nexora.kafka.outbox.compression.codec=zstd",
+                "nexora.kafka.outbox.compression.threshold=8KB",
+                "nexora.kafka.outbox.sequences=true", "nexora.kafka.outbox.single-node=true")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context.getBean(JdbcOutboxRepository.class))
+                    .hasFieldOrPropertyWithValue("codec", PayloadCodec.ZSTD)
+                    .hasFieldOrPropertyWithValue("compressionThreshold", 8192)
+                    .hasFieldOrPropertyWithValue("sequences", true);
+            });
+    }
+
+    @Test
+    @DisplayName("Should create sequence guard when enabled")
+    void shouldCreateSequenceGuard() {
+        contextRunner
+            .withPropertyValues("nexora.kafka.consumer.sequence-guard.enabled=true",
+                "nexora.kafka.consumer.sequence-guard.capacity=1000")
+            .run(context -> {
+                assertThat(context).hasSingleBean(SequenceGuard.class);
+                assertThat(context.getBean(SequenceGuard.class).getCapacity()).isEqualTo(1024);
+            });
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(SequenceGuard.class));
+    }
+
+    @Test
+    @DisplayName("Should create spill journal and drainer when spilling is enabled")
+    void shouldCreateSpillDrainer(@TempDir Path directory) {
+        contextRunner
+            .withPropertyValues("nexora.kafka.producer.spill.enabled=true",
+                "nexora.kafka.producer.spill.directory=" + directory,
+                "nexora.kafka.producer.spill.segment-size=1MB")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(SpillJournal.class);
+                assertThat(context).hasSingleBean(SpillDrainer.class);
+                assertThat(ReflectionTestUtils.getField(context.getBean(EventPublisher.class), "spillJournal"))
+                    .isSameAs(context.getBean(SpillJournal.class));
+                assertThat(directory.resolve("spill.checkpoint")).exists();
+                assertThat(context.getBean("eventProducerFactory", DefaultKafkaProducerFactory.class)
+                    .getConfigurationProperties()).containsEntry(ProducerConfig.MAX_BLOCK_MS_CONFIG, 1000L);
+            });
+    }
+
+    @Test
+    @DisplayName("Should create batch listener container factory from spring.kafka.listener settings when enabled")
+    void shouldCreateBatchListenerContainerFactory() {
+        batchContextRunner
+            .withBean(ConsumerFactory.class, () -> mock(ConsumerFactory.class))
+            .withPropertyValues("nexora.kafka.consumer.batch.max-poll-records=200",
+                "spring.kafka.listener.concurrency=3",
+                "spring.kafka.listener.ack-mode=manual")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                ConcurrentKafkaListenerContainerFactory<?, ?> factory = context.getBean(
+                    BatchListenerSupport.CONTAINER_FACTORY, ConcurrentKafkaListenerContainerFactory.class);
+                assertThat(factory.isBatchListener()).isTrue();
+                assertThat(factory.getContainerProperties().getAckMode()).isEqualTo(ContainerProperties.AckMode.MANUAL);
+                assertThat(ReflectionTestUtils.getField(factory, "concurrency")).isEqualTo(3);
+                assertThat(factory.getContainerProperties().getKafkaConsumerProperties())
+                    .containsEntry(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "200");
+            });
+    }
+
+    @Test
+    @DisplayName("Should apply the batch concurrency on top of spring.kafka.listener settings")
+    void shouldOverrideBatchListenerConcurrency() {
+        batchContextRunner
+            .withBean(ConsumerFactory.class, () -> mock(ConsumerFactory.class))
+            .withPropertyValues("nexora.kafka.consumer.batch.concurrency=5",
+                "spring.kafka.listener.concurrency=3")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(ReflectionTestUtils.getField(
+                    context.getBean(BatchListenerSupport.CONTAINER_FACTORY), "concurrency")).isEqualTo(5);
+            });
+    }
+
+    @Test
+    @DisplayName("Should not create batch listener container factory unless enabled")
+    void shouldNotCreateBatchListenerContainerFactoryByDefault() {
+        contextRunner
+            .withConfiguration(AutoConfigurations.of(
+                org.springframework.boot.kafka.autoconfigure.KafkaAutoConfiguration.class))
+            .withBean(ConsumerFactory.class, () -> mock(ConsumerFactory.class))
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).doesNotHaveBean(BatchListenerSupport.CONTAINER_FACTORY);
+            });
+    }
+
+    @Test
+    @DisplayName("Should give listener containers a virtual-thread executor when enabled")
+    void shouldUseVirtualThreadsWhenEnabled() {
+        batchContextRunner
+            .withBean(ConsumerFactory.class, () -> mock(ConsumerFactory.class))
+            .withPropertyValues("nexora.kafka.consumer.virtual-threads=true")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                ConcurrentKafkaListenerContainerFactory<?, ?> factory = context.getBean(
+                    BatchListenerSupport.CONTAINER_FACTORY, ConcurrentKafkaListenerContainerFactory.class);
+                assertThat(factory.getContainerProperties().getListenerTaskExecutor())
+                    .isInstanceOfSatisfying(SimpleAsyncTaskExecutor.class,
+                        executor -> assertThat(executor.getThreadNamePrefix()).endsWith("-vt-"));
+            });
+    }
+
+    @Test
+    @DisplayName("Should create concurrency autoscaling controller and its metrics when enabled")
+    void shouldCreateAutoscalingControllerWhenEnabled() {
+        contextRunner
+            .withPropertyValues("nexora.kafka.consumer.autoscale.enabled=true")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(ListenerConcurrencyController.class);
+                assertThat(context).hasSingleBean(ListenerConcurrencyMetrics.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should bind listener containers to circuit breakers when a registry is present")
+    void shouldCreateCircuitBreakerListenerBinder() {
+        contextRunner
+            .withBean(CircuitBreakerRegistry.class, CircuitBreakerRegistry::ofDefaults)
+            .withPropertyValues("nexora.kafka.consumer.circuit-breaker.bindings.orders=payment")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(CircuitBreakerListenerBinder.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should not create circuit breaker binder without a registry")
+    void shouldNotCreateCircuitBreakerListenerBinderWithoutRegistry() {
+        contextRunner
+            .run(context -> assertThat(context).doesNotHaveBean(CircuitBreakerListenerBinder.class));
+    }
+
+    @Test
+    @DisplayName("Should not create batch listener container factory without a consumer factory")
+    void shouldNotCreateBatchListenerContainerFactoryWithoutConsumerFactory() {
+        contextRunner
+            .withPropertyValues("nexora.kafka.consumer.batch.enabled=true")
+            .run(context -> assertThat(context).doesNotHaveBean(BatchListenerSupport.CONTAINER_FACTORY));
+    }
+
+    @Test
+    @DisplayName("Should create outbox relay and its metrics when outbox is enabled")
+    void shouldCreateOutboxRelayWhenEnabled() {
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .withBean(JdbcOutboxRepository.class, () -> mock(JdbcOutboxRepository.class))
+            .withPropertyValues("nexora.kafka.outbox.enabled=true", "nexora.kafka.outbox.node-id=1",
+                "nexora.kafka.outbox.lanes=2")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(OutboxRelay.class);
+                assertThat(context).hasSingleBean(OutboxEventWriter.class);
+                assertThat(context).hasSingleBean(OutboxRelayMetrics.class);
+                assertThat(context.getBean(OutboxRelay.class).getLanes()).hasSize(2);
+                assertThat(context).doesNotHaveBean(OutboxLeaseManager.class);
+                assertThat(context).doesNotHaveBean(OutboxPurger.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should fail to start when the outbox is enabled without a node ID")
+    void shouldRequireOutboxNodeId() {
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .withBean(JdbcOutboxRepository.class, () -> mock(JdbcOutboxRepository.class))
+            .withPropertyValues("nexora.kafka.outbox.enabled=true")
+            .run(context -> assertThat(context).getFailure()
+                .rootCause().hasMessageContaining("nexora.kafka.outbox.node-id must be set"));
+    }
+
+    @Test
+    @DisplayName("Should fail to start with sequences but neither leases nor single-node")
+    void shouldRequireLeasesForSequences() {
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .withPropertyValues("nexora.kafka.outbox.enabled=true", "nexora.kafka.outbox.node-id=1",
+                "nexora.kafka.outbox.sequences=true")
+            .run(context -> assertThat(context).getFailure()
+                .rootCause().hasMessageContaining("nexora.kafka.outbox.sequences requires"));
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .withPropertyValues("nexora.kafka.outbox.enabled=true", "nexora.kafka.outbox.node-id=1",
+                "nexora.kafka.outbox.sequences=true", "nexora.kafka.outbox.lease.enabled=true")
+            .run(context -> assertThat(context).hasNotFailed());
+    }
+
+    @Test
+    @DisplayName("Should relay through a transactional producer per lane when exactly-once is enabled")
+    @SuppressWarnings("unchecked")
+    void shouldCreateTransactionalOutboxRelay() {
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .withBean(JdbcOutboxRepository.class, () -> mock(JdbcOutboxRepository.class))
+            .withPropertyValues("nexora.kafka.outbox.enabled=true", "nexora.kafka.outbox.lanes=2",
+                "nexora.kafka.outbox.node-id=7", "nexora.kafka.outbox.exactly-once.enabled=true")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                List<KafkaTemplate<String, byte[]>> templates = (List<KafkaTemplate<String, byte[]>>)
+                    ReflectionTestUtils.getField(context.getBean(OutboxRelay.class), "transactionalTemplates");
+                assertThat(templates).hasSize(2).allMatch(KafkaTemplate::isTransactional);
+                assertThat(templates.get(1).getProducerFactory().getTransactionIdPrefix())
+                    .isEqualTo("nexora-outbox-7-1-");
+            });
+    }
+
+    @Test
+    @DisplayName("Should fail to start when exactly-once is enabled without a node ID")
+    void shouldRequireNodeIdForExactlyOnce() {
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .withBean(JdbcOutboxRepository.class, () -> mock(JdbcOutboxRepository.class))
+            .withBean(OutboxIdGenerator.class, () -> new OutboxIdGenerator(3))
+            .withPropertyValues("nexora.kafka.outbox.enabled=true", "nexora.kafka.outbox.exactly-once.enabled=true")
+            .run(context -> assertThat(context).getFailure()
+                .rootCause().hasMessageContaining("nexora.kafka.outbox.node-id"));
+    }
+
+    @Test
+    @DisplayName("Should create outbox lease manager and purger when enabled")
+    void shouldCreateLeaseManagerWhenEnabled() {
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .withBean(JdbcOutboxRepository.class, () -> mock(JdbcOutboxRepository.class))
+            .withPropertyValues("nexora.kafka.outbox.enabled=true", "nexora.kafka.outbox.node-id=1",
+                "nexora.kafka.outbox.lease.enabled=true", "nexora.kafka.outbox.lease.buckets=16",
+                "nexora.kafka.outbox.purge.enabled=true")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(OutboxLeaseManager.class);
+                assertThat(context.getBean(OutboxLeaseManager.class).getBuckets()).isEqualTo(16);
+                assertThat(context).hasSingleBean(OutboxPurger.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should not create outbox relay when outbox is disabled")
+    void shouldNotCreateOutboxRelayByDefault() {
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .run(context -> {
+                assertThat(context).doesNotHaveBean(OutboxRelay.class);
+                assertThat(context).doesNotHaveBean(OutboxEventWriter.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should proxy @IdempotentListener beans with a JDBC store when enabled")
+    void shouldCreateIdempotentListenerSupport() {
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(OrderListener.class)
+            .withPropertyValues("nexora.kafka.idempotent.enabled=true")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(IdempotencyGuard.class);
+                assertThat(context.getBean(ProcessedIdStore.class)).isInstanceOf(JdbcProcessedIdStore.class);
+                assertThat(AopUtils.isAopProxy(context.getBean(OrderListener.class))).isTrue();
+            });
+    }
+
+    @Test
+    @DisplayName("Should prefer the Redis store when a StringRedisTemplate is available")
+    void shouldPreferRedisProcessedIdStore() {
+        contextRunner
+            .withBean(DataSource.class, () -> mock(DataSource.class))
+            .withBean(StringRedisTemplate.class, () -> mock(StringRedisTemplate.class))
+            .withPropertyValues("nexora.kafka.idempotent.enabled=true")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context.getBean(ProcessedIdStore.class)).isInstanceOf(RedisProcessedIdStore.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should not proxy @IdempotentListener beans by default")
+    void shouldNotCreateIdempotentListenerSupportByDefault() {
+        contextRunner
+            .withBean(OrderListener.class)
+            .run(context -> {
+                assertThat(context).doesNotHaveBean(IdempotencyGuard.class);
+                assertThat(AopUtils.isAopProxy(context.getBean(OrderListener.class))).isFalse();
+            });
+    }
+
+    static class OrderListener {
+
+        @IdempotentListener
+        public void onEvent(ConsumerRecord<String, String> record) {
+        }
+    }
+
     @Test
     @DisplayName("Should not load without KafkaTemplate class")
     void shouldNotLoadWithoutKafkaTemplate() {
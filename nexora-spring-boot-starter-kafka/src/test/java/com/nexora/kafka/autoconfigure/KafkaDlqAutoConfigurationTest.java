@@ -1,13 +1,31 @@
 package com.nexora.kafka.autoconfigure;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexora.kafka.dlq.DlqDestinationResolver;
+import com.nexora.kafka.dlq.DlqReplayEndpoint;
+import com.nexora.kafka.dlq.DlqReplayService;
+import com.nexora.kafka.dlq.DlqTopicProvisioner;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.retrytopic.RetryTopicBeanNames;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -70,6 +88,91 @@ class KafkaDlqAutoConfigurationTest {
             });
     }
 
+    @Test
+    @DisplayName("Should provision DLQ topics when a Kafka admin and listener registry are present")
+    void shouldCreateDlqTopicProvisioner() {
+        contextRunner
+            .withBean(KafkaAdmin.class, () -> new KafkaAdmin(Map.of()))
+            .withBean(ListenerContainerRegistry.class, () -> mock(ListenerContainerRegistry.class))
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(DlqTopicProvisioner.class);
+                assertThat(context).hasSingleBean(DlqDestinationResolver.class);
+            });
+        contextRunner
+            .withBean(KafkaAdmin.class, () -> new KafkaAdmin(Map.of()))
+            .withBean(ListenerContainerRegistry.class, () -> mock(ListenerContainerRegistry.class))
+            .withPropertyValues("nexora.kafka.dlq.provisioning.enabled=false")
+            .run(context -> assertThat(context).doesNotHaveBean(DlqTopicProvisioner.class));
+    }
+
+    @Test
+    @DisplayName("Should create DLQ replay service and endpoint with consumer and producer factories")
+    void shouldCreateDlqReplayService() {
+        contextRunner
+            .withBean(ConsumerFactory.class, () -> new DefaultKafkaConsumerFactory<>(Map.of()))
+            .withBean(ProducerFactory.class, () -> new DefaultKafkaProducerFactory<>(Map.of()))
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(DlqReplayService.class);
+                assertThat(context).hasSingleBean(DlqReplayEndpoint.class);
+            });
+    }
+
+    @Test
+    @DisplayName("Should not create DLQ replay service when disabled")
+    void shouldNotCreateDlqReplayServiceWhenDisabled() {
+        contextRunner
+            .withBean(ConsumerFactory.class, () -> new DefaultKafkaConsumerFactory<>(Map.of()))
+            .withBean(ProducerFactory.class, () -> new DefaultKafkaProducerFactory<>(Map.of()))
+            .withPropertyValues("nexora.kafka.dlq.replay.enabled=false")
+            .run(context -> assertThat(context).doesNotHaveBean(DlqReplayService.class));
+    }
+
+    @Test
+    @DisplayName("Should create retry topic configuration when retry topics are enabled")
+    void shouldCreateRetryTopicConfiguration() {
+        contextRunner
+            .withPropertyValues("nexora.kafka.dlq.retry-topics.enabled=true",
+                "nexora.kafka.dlq.retry-topics.delays=1s,30s")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                assertThat(context).hasSingleBean(RetryTopicConfiguration.class);
+                assertThat(context).hasSingleBean(RetryTopicConfigurationSupport.class);
+                assertThat(context).hasBean(RetryTopicBeanNames.DEFAULT_RETRY_TOPIC_CONFIG_SUPPORT_BEAN_NAME);
+                // main, two retry tiers, dlq
+                assertThat(context.getBean(RetryTopicConfiguration.class).getDestinationTopicProperties()).hasSize(4);
+            });
+    }
+
+    @Test
+    @DisplayName("Should register listeners on retry topics named after their delay")
+    void shouldNameRetryTopicsAfterDelay() {
+        contextRunner
+            .withConfiguration(AutoConfigurations.of(
+                org.springframework.boot.kafka.autoconfigure.KafkaAutoConfiguration.class))
+            .withBean(OrdersListener.class)
+            .withPropertyValues("nexora.kafka.dlq.retry-topics.enabled=true",
+                "nexora.kafka.dlq.retry-topics.delays=1s,30s",
+                "nexora.kafka.dlq.retry-topics.auto-create-topics=false",
+                "nexora.kafka.dlq.provisioning.enabled=false")
+            .run(context -> {
+                assertThat(context).hasNotFailed();
+                List<String> topics = context.getBean(KafkaListenerEndpointRegistry.class)
+                    .getAllListenerContainers().stream()
+                    .flatMap(container -> Arrays.stream(container.getContainerProperties().getTopics()))
+                    .toList();
+                assertThat(topics).containsExactlyInAnyOrder("orders", "orders.retry-1s", "orders.retry-30s", "orders.dlq");
+            });
+    }
+
+    @Test
+    @DisplayName("Should not create retry topic configuration by default")
+    void shouldNotCreateRetryTopicConfigurationByDefault() {
+        contextRunner
+            .run(context -> assertThat(context).doesNotHaveBean(RetryTopicConfiguration.class));
+    }
+
     @Test
     @DisplayName("Should not load without KafkaTemplate class")
     void shouldNotLoadWithoutKafkaTemplate() {
@@ -81,4 +184,11 @@ class KafkaDlqAutoConfigurationTest {
                 assertThat(context).doesNotHaveBean("kafkaTemplate");
             });
     }
+
+    static class OrdersListener {
+
+        @KafkaListener(id = "orders", topics = "orders", autoStartup = "false")
+        public void listen(String message) {
+        }
+    }
 }
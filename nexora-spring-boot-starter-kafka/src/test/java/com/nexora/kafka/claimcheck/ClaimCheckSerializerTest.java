@@ -0,0 +1,119 @@
+package com.nexora.kafka.claimcheck;
+
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link ClaimCheckSerializer} and {@link ClaimCheckDeserializer}.
+ */
+@DisplayName("ClaimCheckSerializer Tests")
+@ExtendWith(MockitoExtension.class)
+class ClaimCheckSerializerTest {
+
+    @Mock
+    private ClaimCheckStore store;
+
+    @Test
+    @DisplayName("Should pass small payloads through without a header")
+    void testSmallPayloadPassesThrough() {
+        byte[] payload = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        when(store.exceedsThreshold(payload.length)).thenReturn(false);
+        RecordHeaders headers = new RecordHeaders();
+
+        assertSame(payload, new ClaimCheckSerializer(store).serialize("orders", headers, payload));
+        assertNull(headers.lastHeader(EventHeaders.CLAIM_CHECK));
+        verify(store, never()).checkIn(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should replace large payloads by a reference and resolve it on the consumer side")
+    void testRoundTrip() {
+        byte[] payload = "{\"big\":true}".getBytes(StandardCharsets.UTF_8);
+        when(store.exceedsThreshold(payload.length)).thenReturn(true);
+        when(store.checkIn("orders", payload)).thenReturn("claims/orders/abc.bin");
+        when(store.checkOut("claims/orders/abc.bin")).thenReturn(payload);
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] value = new ClaimCheckSerializer(store).serialize("orders", headers, payload);
+
+        assertEquals(0, value.length, "Empty, not a null tombstone");
+        assertArrayEquals("claims/orders/abc.bin".getBytes(StandardCharsets.UTF_8),
+            headers.lastHeader(EventHeaders.CLAIM_CHECK).value());
+        ClaimCheckDeserializer<String> deserializer = new ClaimCheckDeserializer<>(new StringDeserializer(), () -> store);
+        assertEquals("{\"big\":true}", deserializer.deserialize("orders", headers, value));
+    }
+
+    @Test
+    @DisplayName("Deserializer should not touch the store for records without a reference")
+    void testDeserializeWithoutReference() {
+        ClaimCheckDeserializer<String> deserializer = new ClaimCheckDeserializer<>(new StringDeserializer(), () -> store);
+
+        assertEquals("plain", deserializer.deserialize("orders", new RecordHeaders(),
+            "plain".getBytes(StandardCharsets.UTF_8)));
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    @DisplayName("Post processor should wrap configured and instance value deserializers")
+    void testConsumerFactoryPostProcessor() {
+        ClaimCheckConsumerFactoryPostProcessor postProcessor = new ClaimCheckConsumerFactoryPostProcessor(() -> store);
+        DefaultKafkaConsumerFactory<String, String> byClass = new DefaultKafkaConsumerFactory<>(
+            Map.of(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName()));
+        DefaultKafkaConsumerFactory<String, String> byInstance = new DefaultKafkaConsumerFactory<>(
+            Map.of(), null, new StringDeserializer());
+
+        postProcessor.postProcessAfterInitialization(byClass, "byClass");
+        postProcessor.postProcessAfterInitialization(byInstance, "byInstance");
+
+        assertInstanceOf(ClaimCheckDeserializer.class, byClass.getValueDeserializer());
+        assertInstanceOf(ClaimCheckDeserializer.class, byInstance.getValueDeserializer());
+    }
+
+    @Test
+    @DisplayName("Post processor should keep creating a deserializer per consumer")
+    void testConsumerFactoryPostProcessorWrapsSupplier() {
+        ClaimCheckConsumerFactoryPostProcessor postProcessor = new ClaimCheckConsumerFactoryPostProcessor(() -> store);
+        DefaultKafkaConsumerFactory<String, String> factory = new DefaultKafkaConsumerFactory<>(
+            Map.of(), null, StringDeserializer::new);
+
+        postProcessor.postProcessAfterInitialization(factory, "factory");
+
+        assertNotSame(factory.getValueDeserializer(), factory.getValueDeserializer());
+        assertInstanceOf(ClaimCheckDeserializer.class, factory.getValueDeserializer());
+    }
+
+    @Test
+    @DisplayName("Download failures should be reported like ErrorHandlingDeserializer failures")
+    void testConsumerFactoryPostProcessorReportsFailures() {
+        when(store.checkOut("claims/orders/abc.bin")).thenThrow(new IllegalStateException("store unavailable"));
+        ClaimCheckConsumerFactoryPostProcessor postProcessor = new ClaimCheckConsumerFactoryPostProcessor(() -> store);
+        DefaultKafkaConsumerFactory<String, String> factory = new DefaultKafkaConsumerFactory<>(
+            Map.of(), null, new ErrorHandlingDeserializer<>(new StringDeserializer()));
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(EventHeaders.CLAIM_CHECK, "claims/orders/abc.bin".getBytes(StandardCharsets.UTF_8));
+
+        postProcessor.postProcessAfterInitialization(factory, "factory");
+        Deserializer<String> deserializer = factory.getValueDeserializer();
+
+        assertNull(deserializer.deserialize("orders", headers, new byte[0]));
+        assertNotNull(headers.lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER));
+    }
+}
@@ -0,0 +1,88 @@
+package com.nexora.kafka.claimcheck;
+
+import com.nexora.kafka.properties.KafkaProperties;
+import com.nexora.storage.FileMetadata;
+import com.nexora.storage.FileStorageService;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link ClaimCheckStore}.
+ */
+@DisplayName("ClaimCheckStore Tests")
+@ExtendWith(MockitoExtension.class)
+class ClaimCheckStoreTest {
+
+    @Mock
+    private FileStorageService storage;
+
+    private ClaimCheckStore store;
+
+    @BeforeEach
+    void setUp() {
+        KafkaProperties.ClaimCheck properties = new KafkaProperties.ClaimCheck();
+        properties.setThreshold(DataSize.ofBytes(100));
+        properties.setPath("claims");
+        store = new ClaimCheckStore(storage, properties);
+    }
+
+    @Test
+    @DisplayName("Should only check in payloads above the threshold")
+    void testExceedsThreshold() {
+        assertFalse(store.exceedsThreshold(100));
+        assertTrue(store.exceedsThreshold(101));
+    }
+
+    @Test
+    @DisplayName("CheckIn should upload under the topic path and return the file key")
+    void testCheckIn() throws IOException {
+        FileMetadata metadata = new FileMetadata();
+        metadata.setFileKey("claims/orders/abc.bin");
+        when(storage.upload(any(InputStream.class), eq("orders.bin"), eq("claims/orders/"))).thenReturn(metadata);
+
+        assertEquals("claims/orders/abc.bin", store.checkIn("orders", new byte[200]));
+        assertEquals(1, store.getCheckedIn());
+    }
+
+    @Test
+    @DisplayName("CheckIn should fail as a serialization error when the upload fails")
+    void testCheckInFailure() throws IOException {
+        when(storage.upload(any(InputStream.class), anyString(), anyString())).thenThrow(new IOException("disk full"));
+
+        assertThrows(SerializationException.class, () -> store.checkIn("orders", new byte[200]));
+    }
+
+    @Test
+    @DisplayName("CheckOut should download a payload once and serve repeats from the cache")
+    void testCheckOutCaches() throws IOException {
+        when(storage.download("key")).thenAnswer(invocation -> new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, store.checkOut("key"));
+        assertArrayEquals(new byte[]{1, 2, 3}, store.checkOut("key"));
+
+        verify(storage, times(1)).download("key");
+        assertEquals(1, store.getFetched());
+    }
+
+    @Test
+    @DisplayName("CheckOut should fail as a serialization error when the download fails")
+    void testCheckOutFailure() throws IOException {
+        when(storage.download("missing")).thenThrow(new IOException("File not found: missing"));
+
+        assertThrows(SerializationException.class, () -> store.checkOut("missing"));
+    }
+}
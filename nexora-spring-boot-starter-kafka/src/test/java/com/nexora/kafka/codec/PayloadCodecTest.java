@@ -0,0 +1,53 @@
+package com.nexora.kafka.codec;
+
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link PayloadCodec} and {@link PayloadCodecDeserializer}.
+ */
+@DisplayName("PayloadCodec Tests")
+class PayloadCodecTest {
+
+    private static final String PAYLOAD = "{\"items\":[" + "{\"sku\":\"A-1\",\"qty\":1},".repeat(200) + "{}]}";
+
+    @Test
+    @DisplayName("Should compress and decompress payloads with every codec")
+    void testRoundTrip() {
+        byte[] data = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+        for (PayloadCodec codec : PayloadCodec.values()) {
+            byte[] compressed = codec.compress(data);
+
+            assertTrue(compressed.length < data.length / 4, codec.getId());
+            assertArrayEquals(data, codec.decompress(compressed), codec.getId());
+            assertSame(codec, PayloadCodec.of(codec.getId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject unknown codecs")
+    void testUnknownCodec() {
+        assertThrows(IllegalArgumentException.class, () -> PayloadCodec.of("snappy"));
+    }
+
+    @Test
+    @DisplayName("Deserializer should decompress records with the codec header only")
+    void testDeserializer() {
+        PayloadCodecDeserializer<String> deserializer = new PayloadCodecDeserializer<>(new StringDeserializer());
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(EventHeaders.PAYLOAD_CODEC, "zstd".getBytes(StandardCharsets.UTF_8));
+        byte[] data = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(PAYLOAD, deserializer.deserialize("orders", headers, PayloadCodec.ZSTD.compress(data)));
+        assertEquals(PAYLOAD, deserializer.deserialize("orders", new RecordHeaders(), data));
+        assertNull(deserializer.deserialize("orders", headers, (byte[]) null));
+    }
+}
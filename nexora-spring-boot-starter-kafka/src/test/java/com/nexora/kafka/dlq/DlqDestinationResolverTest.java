@@ -0,0 +1,42 @@
+package com.nexora.kafka.dlq;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link DlqDestinationResolver}.
+ */
+@DisplayName("DlqDestinationResolver Tests")
+class DlqDestinationResolverTest {
+
+    private static ConsumerRecord<String, String> record(String topic, int partition) {
+        return new ConsumerRecord<>(topic, partition, 0L, "key", "value");
+    }
+
+    @Test
+    @DisplayName("Should resolve the same DLQ partition and reuse cached destinations")
+    void testSamePartition() {
+        DlqDestinationResolver resolver = new DlqDestinationResolver(".dlq", true);
+
+        TopicPartition destination = resolver.apply(record("orders", 2), new RuntimeException());
+
+        assertEquals(new TopicPartition("orders.dlq", 2), destination);
+        assertSame(destination, resolver.apply(record("orders", 2), new RuntimeException()));
+        assertEquals(new TopicPartition("orders.dlq", 0), resolver.apply(record("orders", 0), new RuntimeException()));
+    }
+
+    @Test
+    @DisplayName("Should let the producer pick partitions the DLQ lacks or doesn't know")
+    void testAnyPartition() {
+        DlqDestinationResolver resolver = new DlqDestinationResolver(".dlq", false);
+        resolver.register("orders", 2);
+
+        assertEquals(new TopicPartition("orders.dlq", 1), resolver.apply(record("orders", 1), new RuntimeException()));
+        assertEquals(new TopicPartition("orders.dlq", -1), resolver.apply(record("orders", 5), new RuntimeException()));
+        assertEquals(new TopicPartition("payments.dlq", -1), resolver.apply(record("payments", 0), new RuntimeException()));
+    }
+}
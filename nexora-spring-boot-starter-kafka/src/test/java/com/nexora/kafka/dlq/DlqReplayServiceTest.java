@@ -0,0 +1,211 @@
+package com.nexora.kafka.dlq;
+
+import com.nexora.kafka.properties.KafkaProperties;
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link DlqReplayService}.
+ */
+@DisplayName("DlqReplayService Tests")
+@ExtendWith(MockitoExtension.class)
+class DlqReplayServiceTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("orders.dlq", 0);
+
+    @Mock
+    private ConsumerFactory<byte[], byte[]> consumerFactory;
+
+    @Mock
+    private KafkaTemplate<byte[], byte[]> kafkaTemplate;
+
+    private MockConsumer<byte[], byte[]> consumer;
+    private DlqReplayService replayService;
+
+    @BeforeEach
+    void setUp() {
+        consumer = spy(new MockConsumer<>("earliest"));
+        consumer.updatePartitions("orders.dlq", List.of(new PartitionInfo("orders.dlq", 0, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        replayService = new DlqReplayService(consumerFactory, kafkaTemplate, new KafkaProperties.Replay());
+    }
+
+    private static ConsumerRecord<byte[], byte[]> dlqRecord(long offset, String key, String exception) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(EventHeaders.MESSAGE_ID, String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, "orders".getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_EXCEPTION_FQCN, exception.getBytes(StandardCharsets.UTF_8));
+        return new ConsumerRecord<>("orders.dlq", 0, offset, 1000L * offset, TimestampType.CREATE_TIME, -1, -1,
+            key.getBytes(StandardCharsets.UTF_8), ("{\"id\":" + offset + "}").getBytes(StandardCharsets.UTF_8),
+            headers, Optional.empty());
+    }
+
+    private void givenRecords(String replayId, long endOffset, List<ConsumerRecord<byte[], byte[]>> records) {
+        consumer.updateEndOffsets(Map.of(PARTITION, endOffset));
+        consumer.schedulePollTask(() -> records.forEach(consumer::addRecord));
+        when(consumerFactory.createConsumer("nexora-dlq-replay-orders.dlq." + replayId, null)).thenReturn(consumer);
+        lenient().when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    @DisplayName("Should replay matching records to the original topic and checkpoint progress")
+    void testReplayFiltersAndCheckpoints() {
+        givenRecords("incident-42", 3, List.of(
+            dlqRecord(0, "a", "java.lang.IllegalStateException"),
+            dlqRecord(1, "b", "java.lang.NullPointerException"),
+            dlqRecord(2, "c", "java.lang.IllegalStateException")));
+
+        DlqReplayStatus status = replayService.replay(new DlqReplayRequest(
+            "orders.dlq", "incident-42", Set.of("IllegalStateException"), null, null, null));
+
+        assertFalse(status.running());
+        assertNull(status.error());
+        assertEquals(3, status.scanned());
+        assertEquals(2, status.replayed());
+        assertEquals(1, status.skipped());
+        verify(kafkaTemplate, times(2)).send(argThat((ProducerRecord<byte[], byte[]> record) ->
+            "orders".equals(record.topic())
+                && record.headers().lastHeader(EventHeaders.MESSAGE_ID) != null
+                && record.headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_FQCN) == null));
+        verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(3)));
+    }
+
+    @Test
+    @DisplayName("Should drop dead-letter and retry-topic headers from replayed records")
+    void testReplayRecordStripsRetryHeaders() {
+        ConsumerRecord<byte[], byte[]> record = dlqRecord(0, "a", "java.lang.IllegalStateException");
+        record.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, new byte[]{0, 0, 0, 4});
+        record.headers().add(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP,
+            "1700000000000".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ORIGINAL_TIMESTAMP,
+            "1700000000000".getBytes(StandardCharsets.UTF_8));
+
+        ProducerRecord<byte[], byte[]> replayed = DlqReplayService.replayRecord(record);
+
+        assertEquals("orders", replayed.topic());
+        assertNotNull(replayed.headers().lastHeader(EventHeaders.MESSAGE_ID));
+        assertNull(replayed.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertNull(replayed.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS));
+        assertNull(replayed.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP));
+        assertNull(replayed.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ORIGINAL_TIMESTAMP));
+    }
+
+    @Test
+    @DisplayName("Should resume from the checkpoint of a previous replay")
+    void testReplayResumesFromCheckpoint() {
+        givenRecords("default", 3, List.of(
+            dlqRecord(0, "a", "java.lang.IllegalStateException"),
+            dlqRecord(1, "b", "java.lang.IllegalStateException"),
+            dlqRecord(2, "c", "java.lang.IllegalStateException")));
+        doReturn(Map.of(PARTITION, new OffsetAndMetadata(2))).when(consumer).committed(anySet());
+
+        DlqReplayStatus status = replayService.replay(DlqReplayRequest.of("orders.dlq"));
+
+        assertEquals(1, status.scanned());
+        verify(kafkaTemplate).send(argThat((ProducerRecord<byte[], byte[]> record) ->
+            "c".equals(new String(record.key(), StandardCharsets.UTF_8))));
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    @DisplayName("Should stop at the end offsets taken when the replay started")
+    void testReplayStopsAtStartEndOffsets() {
+        givenRecords("default", 2, List.of(
+            dlqRecord(0, "a", "java.lang.IllegalStateException"),
+            dlqRecord(1, "b", "java.lang.IllegalStateException"),
+            dlqRecord(2, "c", "java.lang.IllegalStateException")));
+
+        DlqReplayStatus status = replayService.replay(DlqReplayRequest.of("orders.dlq"));
+
+        assertEquals(2, status.replayed());
+        verify(consumer).commitSync(Map.of(PARTITION, new OffsetAndMetadata(2)));
+    }
+
+    @Test
+    @DisplayName("Request should filter by key and dead-lettering time")
+    void testRequestFilters() {
+        DlqReplayRequest request = new DlqReplayRequest("orders.dlq", null, null,
+            Instant.ofEpochMilli(1000), Instant.ofEpochMilli(3000), Set.of("b", "c", "d"));
+
+        assertFalse(request.matches(dlqRecord(0, "a", "E")), "Before the time range");
+        assertTrue(request.matches(dlqRecord(1, "b", "E")));
+        assertTrue(request.matches(dlqRecord(2, "c", "E")));
+        assertFalse(request.matches(dlqRecord(3, "d", "E")), "End of the time range is exclusive");
+        assertFalse(new DlqReplayRequest("orders.dlq", null, null, null, null, Set.of("x"))
+            .matches(dlqRecord(1, "b", "E")), "Key not listed");
+    }
+
+    @Test
+    @DisplayName("Request should derive its checkpoint from the filters when no replay ID is given")
+    void testRequestReplayIdFromFilters() {
+        DlqReplayRequest keys = new DlqReplayRequest("orders.dlq", null, null, null, null, Set.of("a", "b"));
+        DlqReplayRequest sameKeys = new DlqReplayRequest("orders.dlq", " ", null, null, null, Set.of("b", "a"));
+        DlqReplayRequest otherKeys = new DlqReplayRequest("orders.dlq", null, null, null, null, Set.of("c"));
+
+        assertEquals(DlqReplayRequest.DEFAULT_REPLAY_ID, DlqReplayRequest.of("orders.dlq").replayId());
+        assertEquals(keys.replayId(), sameKeys.replayId());
+        assertNotEquals(keys.replayId(), otherKeys.replayId());
+        assertNotEquals(DlqReplayRequest.DEFAULT_REPLAY_ID, keys.replayId());
+        assertEquals("incident-42",
+            new DlqReplayRequest("orders.dlq", "incident-42", null, null, null, Set.of("c")).replayId());
+    }
+
+    @Test
+    @DisplayName("Should refuse a second replay while one is running")
+    void testSingleReplayAtATime() throws InterruptedException {
+        when(consumerFactory.createConsumer(anyString(), isNull())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            throw new IllegalStateException("broker unavailable");
+        });
+
+        assertTrue(replayService.start(DlqReplayRequest.of("orders.dlq")));
+        assertFalse(replayService.start(DlqReplayRequest.of("orders.dlq")));
+        assertThrows(IllegalStateException.class, () -> replayService.replay(DlqReplayRequest.of("orders.dlq")));
+
+        while (replayService.getStatus().running()) {
+            Thread.sleep(10);
+        }
+        assertTrue(replayService.getStatus().error().contains("broker unavailable"));
+    }
+
+    @Test
+    @DisplayName("Token bucket should allow a burst and then pace at the configured rate")
+    void testTokenBucket() {
+        TokenBucket bucket = new TokenBucket(10, 2);
+        long now = System.nanoTime();
+
+        assertEquals(0, bucket.reserve(now));
+        assertEquals(0, bucket.reserve(now));
+        assertEquals(100_000_000L, bucket.reserve(now), 1_000_000L);
+        assertEquals(0, bucket.reserve(now + 300_000_000L));
+    }
+}
@@ -0,0 +1,152 @@
+package com.nexora.kafka.dlq;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.CreatePartitionsResult;
+import org.apache.kafka.clients.admin.CreateTopicsResult;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.NewPartitions;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link DlqTopicProvisioner}.
+ */
+@DisplayName("DlqTopicProvisioner Tests")
+@ExtendWith(MockitoExtension.class)
+class DlqTopicProvisionerTest {
+
+    @Mock
+    private Admin admin;
+
+    @Mock
+    private ListenerContainerRegistry containerRegistry;
+
+    private final CommonErrorHandler errorHandler = new DefaultErrorHandler();
+    private final DlqDestinationResolver resolver = new DlqDestinationResolver(".dlq", false);
+    private DlqTopicProvisioner provisioner;
+
+    @BeforeEach
+    void setUp() {
+        provisioner = new DlqTopicProvisioner(() -> admin, containerRegistry, errorHandler, resolver,
+            (short) -1, Duration.ofSeconds(1));
+    }
+
+    private static TopicDescription description(String topic, int partitions) {
+        return new TopicDescription(topic, false, IntStream.range(0, partitions)
+            .mapToObj(i -> new TopicPartitionInfo(i, null, List.of(), List.of()))
+            .toList());
+    }
+
+    private static KafkaFuture<TopicDescription> unknown() {
+        KafkaFutureImpl<TopicDescription> future = new KafkaFutureImpl<>();
+        future.completeExceptionally(new UnknownTopicOrPartitionException("unknown"));
+        return future;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaMessageListenerContainer<String, String> container(CommonErrorHandler errorHandler,
+                                                                          String... topics) {
+        ContainerProperties properties = new ContainerProperties(topics);
+        properties.setMessageListener((MessageListener<String, String>) record -> { });
+        KafkaMessageListenerContainer<String, String> container =
+            new KafkaMessageListenerContainer<>(mock(ConsumerFactory.class), properties);
+        container.setCommonErrorHandler(errorHandler);
+        return container;
+    }
+
+    private static ConsumerRecord<String, String> record(String topic, int partition) {
+        return new ConsumerRecord<>(topic, partition, 0L, "key", "value");
+    }
+
+    @Test
+    @DisplayName("Should provision the topics of containers using the DLQ error handler only")
+    void testListenerTopics() {
+        when(containerRegistry.getAllListenerContainers()).thenReturn(List.of(
+            container(errorHandler, "orders", "payments"),
+            container(new DefaultErrorHandler(), "audit"),
+            container(errorHandler, "orders.dlq")));
+
+        assertEquals(List.of("orders", "payments"), List.copyOf(provisioner.listenerTopics()));
+    }
+
+    @Test
+    @DisplayName("Should create missing DLQs, grow smaller ones and register their partition counts")
+    @SuppressWarnings("unchecked")
+    void testProvision() throws Exception {
+        Map<String, KafkaFuture<TopicDescription>> descriptions = new HashMap<>();
+        descriptions.put("orders", KafkaFuture.completedFuture(description("orders", 3)));
+        descriptions.put("orders.dlq", unknown());
+        descriptions.put("payments", KafkaFuture.completedFuture(description("payments", 4)));
+        descriptions.put("payments.dlq", KafkaFuture.completedFuture(description("payments.dlq", 1)));
+        descriptions.put("audit", unknown());
+        descriptions.put("audit.dlq", unknown());
+        DescribeTopicsResult describeResult = mock(DescribeTopicsResult.class);
+        when(describeResult.topicNameValues()).thenReturn(descriptions);
+        when(admin.describeTopics(anyCollection())).thenReturn(describeResult);
+        CreateTopicsResult createResult = mock(CreateTopicsResult.class);
+        when(createResult.values()).thenReturn(Map.of("orders.dlq", KafkaFuture.completedFuture(null)));
+        when(admin.createTopics(anyCollection())).thenReturn(createResult);
+        CreatePartitionsResult partitionsResult = mock(CreatePartitionsResult.class);
+        when(partitionsResult.values()).thenReturn(Map.of("payments.dlq", KafkaFuture.completedFuture(null)));
+        when(admin.createPartitions(anyMap())).thenReturn(partitionsResult);
+
+        provisioner.provision(admin, List.of("orders", "payments", "audit"));
+
+        ArgumentCaptor<Collection<NewTopic>> newTopics = ArgumentCaptor.forClass(Collection.class);
+        verify(admin).createTopics(newTopics.capture());
+        NewTopic created = newTopics.getValue().iterator().next();
+        assertEquals("orders.dlq", created.name());
+        assertEquals(3, created.numPartitions());
+        ArgumentCaptor<Map<String, NewPartitions>> newPartitions = ArgumentCaptor.forClass(Map.class);
+        verify(admin).createPartitions(newPartitions.capture());
+        assertEquals(4, newPartitions.getValue().get("payments.dlq").totalCount());
+
+        assertEquals(new TopicPartition("orders.dlq", 2), resolver.apply(record("orders", 2), new RuntimeException()));
+        assertEquals(new TopicPartition("payments.dlq", 3), resolver.apply(record("payments", 3), new RuntimeException()));
+        assertEquals(new TopicPartition("audit.dlq", -1), resolver.apply(record("audit", 0), new RuntimeException()));
+    }
+
+    @Test
+    @DisplayName("Should not fail startup when the cluster is unreachable")
+    void testStartFailure() {
+        when(containerRegistry.getAllListenerContainers()).thenReturn(List.of(container(errorHandler, "orders")));
+        when(admin.describeTopics(anyCollection())).thenThrow(new IllegalStateException("unreachable"));
+
+        assertDoesNotThrow(() -> provisioner.start());
+
+        assertTrue(provisioner.isRunning());
+        verify(admin).close();
+        assertEquals(new TopicPartition("orders.dlq", -1), resolver.apply(record("orders", 0), new RuntimeException()));
+    }
+}
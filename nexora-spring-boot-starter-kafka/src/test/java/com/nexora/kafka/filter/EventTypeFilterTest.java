@@ -0,0 +1,101 @@
+package com.nexora.kafka.filter;
+
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link EventTypeFilter}, {@link EventTypeFilteringDeserializer} and
+ * {@link EventTypeFilterPostProcessor}.
+ */
+@DisplayName("EventTypeFilter Tests")
+@ExtendWith(MockitoExtension.class)
+class EventTypeFilterTest {
+
+    private final EventTypeFilter filter = new EventTypeFilter(Map.of("orders", List.of("ORDER_CREATED")));
+
+    @Mock
+    private Deserializer<String> delegate;
+
+    private static RecordHeaders headers(String eventType) {
+        RecordHeaders headers = new RecordHeaders();
+        EventHeaders.addEventHeaders(headers, eventType, "1", EventHeaders.DEFAULT_SCHEMA_VERSION);
+        return headers;
+    }
+
+    @Test
+    @DisplayName("Should accept only the configured event types of a listed topic")
+    void testAccepts() {
+        assertTrue(filter.accepts("orders", headers("ORDER_CREATED")));
+        assertFalse(filter.accepts("orders", headers("ORDER_PAID")));
+        assertTrue(filter.accepts("payments", headers("ORDER_PAID")), "Unlisted topics are not filtered");
+        assertTrue(filter.accepts("orders", new RecordHeaders()), "Records without the header are not filtered");
+    }
+
+    @Test
+    @DisplayName("Should discard rejected records as record filter strategy")
+    void testFilterStrategy() {
+        ConsumerRecord<Object, Object> paid = new ConsumerRecord<>("orders", 0, 0L, 0L, null, 0, 0, "1", null,
+            headers("ORDER_PAID"), Optional.empty());
+        ConsumerRecord<Object, Object> created = new ConsumerRecord<>("orders", 0, 1L, 0L, null, 0, 0, "1", "{}",
+            headers("ORDER_CREATED"), Optional.empty());
+
+        assertTrue(filter.filter(paid));
+        assertFalse(filter.filter(created));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should compose with a record filter strategy already set on the container factory")
+    void testPostProcessorKeepsExistingStrategy() {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setRecordFilterStrategy(consumerRecord -> "skip".equals(consumerRecord.key()));
+        ConsumerRecord<Object, Object> skipped = new ConsumerRecord<>("orders", 0, 0L, 0L, null, 0, 0, "skip", "{}",
+            headers("ORDER_CREATED"), Optional.empty());
+        ConsumerRecord<Object, Object> paid = new ConsumerRecord<>("orders", 0, 1L, 0L, null, 0, 0, "1", null,
+            headers("ORDER_PAID"), Optional.empty());
+        ConsumerRecord<Object, Object> created = new ConsumerRecord<>("orders", 0, 2L, 0L, null, 0, 0, "1", "{}",
+            headers("ORDER_CREATED"), Optional.empty());
+
+        new EventTypeFilterPostProcessor(() -> filter).postProcessAfterInitialization(factory, "factory");
+
+        RecordFilterStrategy<Object, Object> strategy = (RecordFilterStrategy<Object, Object>)
+            ReflectionTestUtils.getField(factory, "recordFilterStrategy");
+        assertTrue(strategy.filter(skipped), "Rejected by the existing strategy");
+        assertTrue(strategy.filter(paid), "Rejected by the event type filter");
+        assertFalse(strategy.filter(created));
+        assertEquals(List.of(created), strategy.filterBatch(new ArrayList<>(List.of(skipped, paid, created))));
+    }
+
+    @Test
+    @DisplayName("Should deserialize accepted records only")
+    void testFilteringDeserializer() {
+        byte[] data = "{}".getBytes(StandardCharsets.UTF_8);
+        RecordHeaders created = headers("ORDER_CREATED");
+        when(delegate.deserialize("orders", created, data)).thenReturn("{}");
+        EventTypeFilteringDeserializer<String> deserializer = new EventTypeFilteringDeserializer<>(delegate, () -> filter);
+
+        assertEquals("{}", deserializer.deserialize("orders", created, data));
+        assertNull(deserializer.deserialize("orders", headers("ORDER_PAID"), data));
+        verify(delegate, times(1)).deserialize(anyString(), any(), any(byte[].class));
+    }
+}
@@ -0,0 +1,119 @@
+package com.nexora.kafka.idempotent;
+
+import com.nexora.kafka.properties.KafkaProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link IdempotencyGuard}.
+ */
+@DisplayName("IdempotencyGuard Tests")
+@ExtendWith(MockitoExtension.class)
+class IdempotencyGuardTest {
+
+    @Mock
+    private ProcessedIdStore store;
+
+    private KafkaProperties.Idempotent properties;
+    private IdempotencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        properties = new KafkaProperties.Idempotent();
+        properties.setCacheSize(100);
+        properties.setClaimTimeout(Duration.ofMinutes(1));
+        guard = new IdempotencyGuard(store, properties);
+    }
+
+    @Test
+    @DisplayName("IDs unknown to the Bloom filter should be processed without the store")
+    void testUnseenIdSkipsStore() {
+        assertEquals(IdempotencyGuard.Admission.UNCLAIMED, guard.admit("1"));
+
+        verifyNoInteractions(store);
+        assertEquals(1, guard.getBloomMisses());
+    }
+
+    @Test
+    @DisplayName("Unclaimed IDs should be recorded once processed and late duplicates reported")
+    void testRecordUnclaimedId() {
+        when(store.record("1")).thenReturn(true);
+        when(store.record("2")).thenReturn(false);
+
+        guard.markProcessed("1", IdempotencyGuard.Admission.UNCLAIMED);
+        guard.markProcessed("2", IdempotencyGuard.Admission.UNCLAIMED);
+
+        verify(store, never()).markProcessed(anyString());
+        assertEquals(1, guard.getLateDuplicates());
+    }
+
+    @Test
+    @DisplayName("Warmed-up IDs missing from the cache should be claimed in the store")
+    void testBloomHitIsClaimed() {
+        properties.setCacheSize(1);
+        guard = new IdempotencyGuard(store, properties);
+        // Only the newest ID fits in the cache, the Bloom filter gets both
+        when(store.recentIds(anyInt())).thenReturn(List.of("1", "2"));
+        when(store.claim("2", Duration.ofMinutes(1))).thenReturn(false);
+
+        guard.warmUp();
+
+        assertEquals(IdempotencyGuard.Admission.DUPLICATE, guard.admit("1"));
+        assertEquals(IdempotencyGuard.Admission.DUPLICATE, guard.admit("2"));
+        assertEquals(1, guard.getCacheHits());
+        assertEquals(1, guard.getClaims());
+        assertEquals(0, guard.getBloomMisses());
+    }
+
+    @Test
+    @DisplayName("With claim-unseen, new IDs should be claimed in the store")
+    void testClaimUnseen() {
+        properties.setClaimUnseen(true);
+        guard = new IdempotencyGuard(store, properties);
+        when(store.claim("1", Duration.ofMinutes(1))).thenReturn(true);
+        when(store.claim("2", Duration.ofMinutes(1))).thenReturn(false);
+
+        assertEquals(IdempotencyGuard.Admission.CLAIMED, guard.admit("1"));
+        assertEquals(IdempotencyGuard.Admission.DUPLICATE, guard.admit("2"));
+        guard.markProcessed("1", IdempotencyGuard.Admission.CLAIMED);
+
+        verify(store).markProcessed("1");
+        assertEquals(2, guard.getClaims());
+        assertEquals(1, guard.getDuplicates());
+    }
+
+    @Test
+    @DisplayName("Processed IDs should be detected from the cache without the store")
+    void testProcessedIdIsDuplicate() {
+        when(store.record("1")).thenReturn(true);
+        guard.markProcessed("1", IdempotencyGuard.Admission.UNCLAIMED);
+
+        assertEquals(IdempotencyGuard.Admission.DUPLICATE, guard.admit("1"));
+
+        verify(store, never()).claim(anyString(), any());
+        assertEquals(1, guard.getCacheHits());
+        assertEquals(1, guard.getDuplicates());
+    }
+
+    @Test
+    @DisplayName("Released IDs should be dropped from the store")
+    void testRelease() {
+        doThrow(new IllegalStateException("store down")).when(store).release("2");
+
+        guard.release("1");
+        guard.release("2");
+
+        verify(store).release("1");
+    }
+}
@@ -0,0 +1,130 @@
+package com.nexora.kafka.idempotent;
+
+import com.nexora.kafka.publisher.EventHeaders;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link IdempotentListenerInterceptor}.
+ */
+@DisplayName("IdempotentListenerInterceptor Tests")
+@ExtendWith(MockitoExtension.class)
+class IdempotentListenerInterceptorTest {
+
+    @Mock
+    private IdempotencyGuard guard;
+
+    @Mock
+    private MethodInvocation invocation;
+
+    private IdempotentListenerInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        interceptor = new IdempotentListenerInterceptor(() -> guard, EventHeaders.MESSAGE_ID);
+        lenient().when(invocation.getMethod()).thenReturn(Listener.class.getMethod("onEvent", ConsumerRecord.class));
+    }
+
+    private static ConsumerRecord<String, String> record(String messageId) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("orders", 2, 42L, "key", "value");
+        if (messageId != null) {
+            record.headers().add(EventHeaders.MESSAGE_ID, messageId.getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    @Test
+    @DisplayName("Should invoke the listener and mark the ID for a new record")
+    void testNewRecord() throws Throwable {
+        when(invocation.getArguments()).thenReturn(new Object[]{record("7")});
+        when(guard.admit("7")).thenReturn(IdempotencyGuard.Admission.UNCLAIMED);
+
+        interceptor.invoke(invocation);
+
+        verify(invocation).proceed();
+        verify(guard).markProcessed("7", IdempotencyGuard.Admission.UNCLAIMED);
+    }
+
+    @Test
+    @DisplayName("Should skip the listener for a duplicate record")
+    void testDuplicateRecord() throws Throwable {
+        when(invocation.getArguments()).thenReturn(new Object[]{record("7")});
+        when(guard.admit("7")).thenReturn(IdempotencyGuard.Admission.DUPLICATE);
+
+        assertNull(interceptor.invoke(invocation));
+
+        verify(invocation, never()).proceed();
+        verify(guard, never()).markProcessed(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should release the claim instead of marking the ID when the listener fails")
+    void testFailedRecord() throws Throwable {
+        when(invocation.getArguments()).thenReturn(new Object[]{record(null)});
+        when(guard.admit("orders-2@42")).thenReturn(IdempotencyGuard.Admission.CLAIMED);
+        when(invocation.proceed()).thenThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> interceptor.invoke(invocation));
+
+        verify(guard, never()).markProcessed(any(), any());
+        verify(guard).release("orders-2@42");
+    }
+
+    @Test
+    @DisplayName("Should leave the store alone when an unclaimed record fails")
+    void testFailedUnclaimedRecord() throws Throwable {
+        when(invocation.getArguments()).thenReturn(new Object[]{record("7")});
+        when(guard.admit("7")).thenReturn(IdempotencyGuard.Admission.UNCLAIMED);
+        when(invocation.proceed()).thenThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> interceptor.invoke(invocation));
+
+        verify(guard, never()).markProcessed(any(), any());
+        verify(guard, never()).release(any());
+    }
+
+    @Test
+    @DisplayName("Should read the ID from Message headers")
+    void testMessageId() {
+        assertEquals("9", IdempotentListenerInterceptor.messageId(new Object[]{
+            MessageBuilder.withPayload("value").setHeader(EventHeaders.MESSAGE_ID, "9".getBytes(StandardCharsets.UTF_8)).build()
+        }, EventHeaders.MESSAGE_ID));
+        assertEquals("orders-1@5", IdempotentListenerInterceptor.messageId(new Object[]{
+            MessageBuilder.withPayload("value")
+                .setHeader(KafkaHeaders.RECEIVED_TOPIC, "orders")
+                .setHeader(KafkaHeaders.RECEIVED_PARTITION, 1)
+                .setHeader(KafkaHeaders.OFFSET, 5L)
+                .build()
+        }, EventHeaders.MESSAGE_ID));
+    }
+
+    @Test
+    @DisplayName("Should reject listeners without a record parameter")
+    void testMissingRecord() {
+        when(invocation.getArguments()).thenReturn(new Object[]{"value"});
+
+        assertThrows(IllegalStateException.class, () -> interceptor.invoke(invocation));
+    }
+
+    static class Listener {
+
+        @IdempotentListener
+        public void onEvent(ConsumerRecord<String, String> record) {
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.nexora.kafka.idempotent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the {@link JdbcProcessedIdStore} statements against an in-memory H2 database in
+ * PostgreSQL mode.
+ */
+@DisplayName("JdbcProcessedIdStore Tests")
+class JdbcProcessedIdStoreTest {
+
+    private static final String SCHEMA = """
+        CREATE TABLE processed_message (
+            id            VARCHAR(191) PRIMARY KEY,
+            processed_at  TIMESTAMP NOT NULL,
+            claimed_until TIMESTAMP NULL
+        );
+        """;
+
+    private JdbcProcessedIdStore store;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:processed-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.getJdbcOperations().execute(SCHEMA);
+        store = new JdbcProcessedIdStore(jdbcTemplate, Duration.ofDays(7));
+    }
+
+    @Test
+    @DisplayName("A live claim should block other claims until it is released")
+    void testClaim() {
+        assertTrue(store.claim("1", Duration.ofMinutes(1)));
+        assertFalse(store.claim("1", Duration.ofMinutes(1)));
+
+        store.release("1");
+
+        assertTrue(store.claim("1", Duration.ofMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("A lapsed claim should be taken over")
+    void testLapsedClaim() {
+        assertTrue(store.claim("1", Duration.ofMinutes(-1)));
+
+        assertTrue(store.claim("1", Duration.ofMinutes(1)));
+        assertFalse(store.claim("1", Duration.ofMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("Processed IDs should never be claimed, released or recorded again")
+    void testProcessed() {
+        assertTrue(store.claim("1", Duration.ofMinutes(-1)));
+        store.markProcessed("1");
+        assertTrue(store.record("2"));
+
+        store.release("1");
+        store.release("2");
+
+        assertFalse(store.claim("1", Duration.ofMinutes(1)));
+        assertFalse(store.claim("2", Duration.ofMinutes(1)));
+        assertFalse(store.record("2"));
+        assertEquals(Set.of("1", "2"), Set.copyOf(store.recentIds(10)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.nexora.kafka.idempotent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link RedisProcessedIdStore}.
+ */
+@DisplayName("RedisProcessedIdStore Tests")
+@ExtendWith(MockitoExtension.class)
+class RedisProcessedIdStoreTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private RedisProcessedIdStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RedisProcessedIdStore(redisTemplate, Duration.ofDays(7));
+    }
+
+    @Test
+    @DisplayName("Release should only delete the key while it holds this instance's claim")
+    @SuppressWarnings("unchecked")
+    void testReleaseOwnClaim() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("nexora:kafka:processed:1"), anyString(), eq(Duration.ofMinutes(1))))
+            .thenReturn(true);
+        assertTrue(store.claim("1", Duration.ofMinutes(1)));
+        ArgumentCaptor<String> claimValue = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).setIfAbsent(anyString(), claimValue.capture(), any(Duration.class));
+
+        store.release("1");
+
+        ArgumentCaptor<RedisScript<Long>> script = ArgumentCaptor.forClass(RedisScript.class);
+        verify(redisTemplate).execute(script.capture(), eq(List.of("nexora:kafka:processed:1")),
+            eq(claimValue.getValue()));
+        assertTrue(script.getValue().getScriptAsString().contains("GET"));
+        verify(redisTemplate, never()).delete(anyString());
+    }
+}
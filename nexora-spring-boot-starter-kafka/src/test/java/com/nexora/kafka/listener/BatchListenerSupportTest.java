@@ -0,0 +1,129 @@
+package com.nexora.kafka.listener;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link BatchListenerSupport}.
+ */
+@DisplayName("BatchListenerSupport Tests")
+class BatchListenerSupportTest {
+
+    private static List<ConsumerRecord<String, String>> records(int count) {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(new ConsumerRecord<>("orders", 0, i, "key" + i, "value" + i));
+        }
+        return records;
+    }
+
+    @Test
+    @DisplayName("Should handle every record in order")
+    void testHandlesAllRecords() {
+        List<String> handled = new ArrayList<>();
+
+        BatchListenerSupport.forEachRecord(records(3), record -> handled.add(record.value()));
+
+        assertEquals(List.of("value0", "value1", "value2"), handled);
+    }
+
+    @Test
+    @DisplayName("Should report the failing record and stop the batch there")
+    void testReportsFailingRecord() {
+        List<ConsumerRecord<String, String>> records = records(5);
+        List<Long> handled = new ArrayList<>();
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class, () ->
+            BatchListenerSupport.forEachRecord(records, record -> {
+                if (record.offset() == 2) {
+                    throw new IllegalStateException("poison");
+                }
+                handled.add(record.offset());
+            }));
+
+        assertSame(records.get(2), e.getRecord());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(List.of(0L, 1L), handled);
+    }
+
+    @Test
+    @DisplayName("Concurrent mode should run different keys in parallel")
+    void testConcurrentRunsKeysInParallel() {
+        List<ConsumerRecord<String, String>> records = records(2);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        BatchListenerSupport.forEachRecordConcurrently(records, record -> {
+            bothStarted.countDown();
+            try {
+                // Only completes if the other record runs at the same time
+                assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Concurrent mode should keep order within a key and report the earliest failure")
+    void testConcurrentKeepsKeyOrderAndReportsEarliestFailure() {
+        List<ConsumerRecord<String, String>> records = List.of(
+            new ConsumerRecord<>("orders", 0, 0, "a", "a0"),
+            new ConsumerRecord<>("orders", 0, 1, "b", "b0"),
+            new ConsumerRecord<>("orders", 0, 2, "a", "a1"),
+            new ConsumerRecord<>("orders", 0, 3, "b", "b1"),
+            new ConsumerRecord<>("orders", 0, 4, "a", "a2"));
+        List<String> handledA = Collections.synchronizedList(new ArrayList<>());
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class, () ->
+            BatchListenerSupport.forEachRecordConcurrently(records, record -> {
+                if (record.value().equals("b1") || record.value().equals("a2")) {
+                    throw new IllegalStateException("poison " + record.value());
+                }
+                if (record.key().equals("a")) {
+                    handledA.add(record.value());
+                }
+            }));
+
+        assertSame(records.get(3), e.getRecord());
+        assertEquals(List.of("a0", "a1"), handledA);
+    }
+
+    @Test
+    @DisplayName("Concurrent mode should keep order within a byte[] key")
+    void testConcurrentKeepsByteArrayKeyOrder() {
+        List<ConsumerRecord<byte[], String>> records = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            // A new array per record, as the deserializer returns
+            records.add(new ConsumerRecord<>("orders", 0, i, "a".getBytes(StandardCharsets.UTF_8), "a" + i));
+        }
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        BatchListenerSupport.forEachRecordConcurrently(records, record -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            handled.add(record.value());
+            running.decrementAndGet();
+        });
+
+        assertEquals(List.of("a0", "a1", "a2"), handled);
+        assertEquals(1, maxRunning.get(), "Records of one key must not overlap");
+    }
+}
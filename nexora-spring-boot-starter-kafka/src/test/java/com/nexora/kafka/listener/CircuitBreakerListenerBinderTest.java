@@ -0,0 +1,110 @@
+package com.nexora.kafka.listener;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link CircuitBreakerListenerBinder}.
+ */
+@DisplayName("CircuitBreakerListenerBinder Tests")
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakerListenerBinderTest {
+
+    @Mock
+    private ListenerContainerRegistry containerRegistry;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private CircuitBreakerListenerBinder binder;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .waitDurationInOpenState(Duration.ofMillis(50))
+            .build());
+        binder = new CircuitBreakerListenerBinder(containerRegistry, circuitBreakerRegistry,
+            Map.of("orders", "payment"), Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("Should pause the container when its breaker opens and resume on half-open")
+    void testPauseAndResume() {
+        when(containerRegistry.getListenerContainer("orders")).thenReturn(container);
+        binder.start();
+        try {
+            CircuitBreaker breaker = circuitBreakerRegistry.circuitBreaker("payment");
+
+            breaker.transitionToOpenState();
+            verify(container).pause();
+
+            when(container.isPauseRequested()).thenReturn(true);
+            breaker.transitionToHalfOpenState();
+            verify(container).resume();
+        } finally {
+            binder.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should pause the container on start if its breaker is already open")
+    void testPauseOnStartWhenOpen() {
+        when(containerRegistry.getListenerContainer("orders")).thenReturn(container);
+        circuitBreakerRegistry.circuitBreaker("payment").transitionToForcedOpenState();
+
+        binder.start();
+        binder.stop();
+
+        verify(container).pause();
+    }
+
+    @Test
+    @DisplayName("Probe should move an open breaker to half-open after its wait duration")
+    void testProbeMovesToHalfOpen() throws InterruptedException {
+        when(containerRegistry.getListenerContainer("orders")).thenReturn(container);
+        binder.start();
+        try {
+            CircuitBreaker breaker = circuitBreakerRegistry.circuitBreaker("payment");
+            breaker.transitionToOpenState();
+
+            binder.probe();
+            assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+            Thread.sleep(100);
+            when(container.isPauseRequested()).thenReturn(true);
+            binder.probe();
+
+            assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+            verify(container).resume();
+            assertEquals(0, breaker.getMetrics().getNumberOfBufferedCalls(), "Probes must not count as calls");
+        } finally {
+            binder.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip listeners without a container")
+    void testMissingContainer() {
+        binder.start();
+        binder.stop();
+
+        circuitBreakerRegistry.circuitBreaker("payment").transitionToOpenState();
+        verifyNoInteractions(container);
+    }
+}
@@ -0,0 +1,134 @@
+package com.nexora.kafka.listener;
+
+import com.nexora.kafka.properties.KafkaProperties;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ListenerContainerRegistry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link ListenerConcurrencyController}.
+ */
+@DisplayName("ListenerConcurrencyController Tests")
+@ExtendWith(MockitoExtension.class)
+class ListenerConcurrencyControllerTest {
+
+    @Mock
+    private ListenerContainerRegistry registry;
+
+    @Mock
+    private ConcurrentMessageListenerContainer<String, String> container;
+
+    private KafkaProperties.Autoscale properties;
+    private ListenerConcurrencyController controller;
+
+    @BeforeEach
+    void setUp() {
+        properties = new KafkaProperties.Autoscale();
+        properties.setMinConcurrency(1);
+        properties.setMaxConcurrency(8);
+        properties.setScaleUpLag(1000);
+        properties.setScaleDownLag(100);
+        controller = new ListenerConcurrencyController(registry, properties);
+    }
+
+    private static Metric metric(double value) {
+        Metric metric = mock(Metric.class);
+        when(metric.metricValue()).thenReturn(value);
+        return metric;
+    }
+
+    private void givenContainer(int concurrency, double lag, double idleRatio, int partitions) {
+        Map<MetricName, Metric> metrics = new HashMap<>();
+        metrics.put(new MetricName(ListenerConcurrencyController.LAG_METRIC, ListenerConcurrencyController.LAG_GROUP,
+            "", Map.of("client-id", "c-0")), metric(lag));
+        metrics.put(new MetricName(ListenerConcurrencyController.IDLE_METRIC, ListenerConcurrencyController.IDLE_GROUP,
+            "", Map.of("client-id", "c-0")), metric(idleRatio));
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true);
+        when(container.getListenerId()).thenReturn("orders");
+        when(container.getConcurrency()).thenReturn(concurrency);
+        doReturn(Map.of("c-0", metrics)).when(container).metrics();
+        doReturn(IntStream.range(0, partitions)
+            .mapToObj(p -> new TopicPartition("orders", p)).toList()).when(container).getAssignedPartitions();
+    }
+
+    @Test
+    @DisplayName("Target should double concurrency on lag, capped by partitions and bounds")
+    void testTargetScalesUp() {
+        assertEquals(4, controller.target(2, 5000, 0.1, 12));
+        assertEquals(3, controller.target(2, 5000, 0.1, 3));
+        assertEquals(8, controller.target(6, 5000, 0.1, 12));
+        assertEquals(2, controller.target(2, 5000, 0.9, 12), "Idle consumers are not the bottleneck");
+    }
+
+    @Test
+    @DisplayName("Target should drop one consumer when idle without lag and keep the minimum")
+    void testTargetScalesDown() {
+        assertEquals(3, controller.target(4, 10, 0.9, 12));
+        assertEquals(1, controller.target(1, 0, 1.0, 12));
+        assertEquals(4, controller.target(4, 500, 0.9, 12), "Lag between thresholds keeps concurrency");
+    }
+
+    @Test
+    @DisplayName("Evaluate should restart a lagging container with higher concurrency")
+    void testEvaluateRescales() {
+        givenContainer(2, 5000, 0.1, 6);
+
+        controller.evaluate();
+
+        ArgumentCaptor<Runnable> callback = ArgumentCaptor.forClass(Runnable.class);
+        verify(container).stop(callback.capture());
+        callback.getValue().run();
+        verify(container).setConcurrency(4);
+        verify(container).start();
+        ListenerConcurrencyController.ContainerState state = controller.getStates().iterator().next();
+        assertEquals(4, state.getConcurrency());
+        assertEquals(5000, state.getLag());
+        assertEquals(1, state.getScaleUps());
+    }
+
+    @Test
+    @DisplayName("Evaluate should not rescale again within the cooldown")
+    void testEvaluateCooldown() {
+        givenContainer(2, 5000, 0.1, 6);
+        controller.evaluate();
+        ArgumentCaptor<Runnable> callback = ArgumentCaptor.forClass(Runnable.class);
+        verify(container).stop(callback.capture());
+        callback.getValue().run();
+
+        controller.evaluate();
+
+        verify(container, times(1)).stop(any(Runnable.class));
+    }
+
+    @Test
+    @DisplayName("Evaluate should skip containers not listed in listener-ids")
+    void testEvaluateSkipsUnmanaged() {
+        properties.setListenerIds(List.of("payments"));
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isRunning()).thenReturn(true);
+        when(container.getListenerId()).thenReturn("orders");
+
+        controller.evaluate();
+
+        verify(container, never()).stop(any(Runnable.class));
+        assertTrue(controller.getStates().isEmpty());
+    }
+}
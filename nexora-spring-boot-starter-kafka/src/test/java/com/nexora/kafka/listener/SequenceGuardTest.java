@@ -0,0 +1,116 @@
+package com.nexora.kafka.listener;
+
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SequenceGuard}.
+ */
+@DisplayName("SequenceGuard Tests")
+class SequenceGuardTest {
+
+    private static ConsumerRecord<String, String> record(String topic, String bizId, String sequence) {
+        RecordHeaders headers = new RecordHeaders();
+        if (bizId != null) {
+            headers.add(EventHeaders.BIZ_ID, bizId.getBytes(StandardCharsets.UTF_8));
+        }
+        if (sequence != null) {
+            headers.add(EventHeaders.SEQUENCE, sequence.getBytes(StandardCharsets.UTF_8));
+        }
+        return new ConsumerRecord<>(topic, 0, 0L, 0L, null, 0, 0, bizId, "{}", headers, Optional.empty());
+    }
+
+    @Test
+    @DisplayName("Should drop events older than or equal to the highest processed sequence")
+    void testDropsStaleEvents() {
+        SequenceGuard guard = new SequenceGuard(1024);
+        List<String> handled = new ArrayList<>();
+
+        assertTrue(guard.process(record("profiles", "a", "100"), r -> handled.add("a100")));
+        assertTrue(guard.process(record("profiles", "a", "300"), r -> handled.add("a300")));
+        assertFalse(guard.process(record("profiles", "a", "200"), r -> handled.add("a200")));
+        assertFalse(guard.process(record("profiles", "a", "300"), r -> handled.add("a300")));
+        assertTrue(guard.process(record("profiles", "b", "200"), r -> handled.add("b200")));
+        assertTrue(guard.process(record("orders", "a", "200"), r -> handled.add("orders-a200")));
+
+        assertEquals(List.of("a100", "a300", "b200", "orders-a200"), handled);
+        assertEquals(2, guard.getStale());
+    }
+
+    @Test
+    @DisplayName("Should not record the sequence when the handler fails, so a retry is processed")
+    void testFailedHandlerNotRecorded() {
+        SequenceGuard guard = new SequenceGuard(1024);
+        ConsumerRecord<String, String> record = record("profiles", "a", "100");
+
+        assertThrows(IllegalStateException.class, () -> guard.process(record, r -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertFalse(guard.isStale(record));
+    }
+
+    @Test
+    @DisplayName("Should accept records without sequence or bizId headers")
+    void testAcceptsRecordsWithoutHeaders() {
+        SequenceGuard guard = new SequenceGuard(1024);
+        guard.markProcessed("profiles", "a", 100L);
+
+        assertFalse(guard.isStale(record("profiles", "a", null)));
+        assertFalse(guard.isStale(record("profiles", null, "50")));
+        assertFalse(guard.isStale(record("profiles", "a", "not-a-number")));
+        assertTrue(guard.isStale(record("profiles", "a", "50")));
+        assertTrue(guard.isStale("profiles", "a", 100L));
+    }
+
+    @Test
+    @DisplayName("Should stay bounded and evict the least recently written aggregates")
+    void testBoundedCapacity() {
+        SequenceGuard guard = new SequenceGuard(64);
+        assertEquals(64, guard.getCapacity());
+
+        for (int i = 0; i < 10_000; i++) {
+            guard.markProcessed("profiles", "biz-" + i, 1_000L + i);
+        }
+
+        assertTrue(guard.getEvictions() >= 10_000 - 64);
+        int tracked = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (guard.isStale("profiles", "biz-" + i, 1_000L + i)) {
+                tracked++;
+            }
+        }
+        assertTrue(tracked <= 64);
+        assertTrue(guard.isStale("profiles", "biz-9999", 10_999L), "The newest aggregate is kept");
+    }
+
+    @Test
+    @DisplayName("Should evict the aggregate written longest ago, whatever its sequence")
+    void testEvictsLeastRecentlyWritten() {
+        // A single set of 4 ways
+        SequenceGuard guard = new SequenceGuard(4);
+        guard.markProcessed("profiles", "a", 900L);
+        guard.markProcessed("profiles", "b", 1L);
+        guard.markProcessed("profiles", "c", 2L);
+        guard.markProcessed("profiles", "d", 3L);
+        guard.markProcessed("profiles", "b", 4L);
+
+        guard.markProcessed("profiles", "e", 1L);
+
+        assertEquals(1, guard.getEvictions());
+        assertFalse(guard.isStale("profiles", "a", 900L), "a was written longest ago");
+        assertTrue(guard.isStale("profiles", "b", 4L));
+        assertTrue(guard.isStale("profiles", "c", 2L));
+        assertTrue(guard.isStale("profiles", "e", 1L));
+    }
+}
@@ -0,0 +1,83 @@
+package com.nexora.kafka.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexora.kafka.publisher.EventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link EventPublisherMetrics}.
+ */
+@DisplayName("EventPublisherMetrics Tests")
+@ExtendWith(MockitoExtension.class)
+class EventPublisherMetricsTest {
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private EventPublisher eventPublisher;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = new EventPublisher(kafkaTemplate, new ObjectMapper());
+        registry = new SimpleMeterRegistry();
+        new EventPublisherMetrics(eventPublisher).bindTo(registry);
+    }
+
+    private static ProducerRecord<String, byte[]> record(String topic, String key) {
+        return argThat(record -> record != null && topic.equals(record.topic()) && key.equals(record.key()));
+    }
+
+    @Test
+    @DisplayName("Should record latency, payload size and in-flight records per topic")
+    void testRecordsSends() {
+        CompletableFuture<SendResult<String, byte[]>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(record("orders", "1"))).thenReturn(pending);
+
+        eventPublisher.publishAsync("ORDER_CREATED", "1", "orders", Map.of("id", 1));
+
+        assertEquals(1.0, registry.get("nexora.kafka.publish.in.flight").gauge().value());
+        assertEquals(8.0, registry.get("nexora.kafka.publish.payload.size").tag("topic", "orders").summary().totalAmount());
+
+        pending.complete(new SendResult<>(new ProducerRecord<>("orders", "1", new byte[0]),
+            new RecordMetadata(new TopicPartition("orders", 0), 0L, 0, 0L, 0, 0)));
+
+        assertEquals(0.0, registry.get("nexora.kafka.publish.in.flight").gauge().value());
+        assertEquals(1, registry.get("nexora.kafka.publish.latency")
+            .tags("topic", "orders", "result", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should record failed sends with the error result")
+    void testRecordsFailures() {
+        when(kafkaTemplate.send(record("orders", "1")))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+        when(kafkaTemplate.send(record("orders", "2")))
+            .thenThrow(new RuntimeException("buffer exhausted"));
+
+        eventPublisher.publishAsync("ORDER_CREATED", "1", "orders", Map.of("id", 1));
+        eventPublisher.publishAsync("ORDER_CREATED", "2", "orders", Map.of("id", 2));
+
+        assertEquals(2, registry.get("nexora.kafka.publish.latency")
+            .tags("topic", "orders", "result", "error").timer().count());
+        assertEquals(0.0, registry.get("nexora.kafka.publish.in.flight").gauge().value());
+    }
+}
@@ -0,0 +1,58 @@
+package com.nexora.kafka.metrics;
+
+import com.nexora.kafka.outbox.JdbcOutboxRepository;
+import com.nexora.kafka.outbox.OutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link OutboxRelayMetrics}.
+ */
+@DisplayName("OutboxRelayMetrics Tests")
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayMetricsTest {
+
+    @Mock
+    private OutboxRelay relay;
+
+    @Mock
+    private JdbcOutboxRepository repository;
+
+    @Test
+    @DisplayName("Should report the outbox backlog from one sampled query")
+    void testBacklogGauges() {
+        when(relay.getLanes()).thenReturn(List.of());
+        when(repository.backlog()).thenReturn(
+            new JdbcOutboxRepository.Backlog(42L, Instant.now().minusSeconds(30)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new OutboxRelayMetrics(relay, repository).bindTo(registry);
+
+        assertEquals(42.0, registry.get("nexora.kafka.outbox.pending").gauge().value());
+        double lag = registry.get("nexora.kafka.outbox.lag").timeGauge().value(TimeUnit.SECONDS);
+        assertTrue(lag >= 30 && lag < 40, "lag: " + lag);
+
+        verify(repository, times(1)).backlog();
+    }
+
+    @Test
+    @DisplayName("Should report no lag when the outbox is drained")
+    void testDrainedOutbox() {
+        when(relay.getLanes()).thenReturn(List.of());
+        when(repository.backlog()).thenReturn(new JdbcOutboxRepository.Backlog(0L, null));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new OutboxRelayMetrics(relay, repository).bindTo(registry);
+
+        assertEquals(0.0, registry.get("nexora.kafka.outbox.lag").timeGauge().value(TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,83 @@
+package com.nexora.kafka.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the {@link JdbcOutboxLeaseRepository} statements against an in-memory H2 database in
+ * PostgreSQL mode.
+ */
+@DisplayName("JdbcOutboxLeaseRepository Tests")
+class JdbcOutboxLeaseRepositoryTest {
+
+    private static final String SCHEMA = """
+        CREATE TABLE outbox_lease (
+            bucket     INT PRIMARY KEY,
+            owner      VARCHAR(128),
+            expires_at TIMESTAMP NOT NULL
+        );
+        CREATE TABLE outbox_relay_node (
+            node_id    VARCHAR(128) PRIMARY KEY,
+            expires_at TIMESTAMP NOT NULL
+        );
+        """;
+
+    private JdbcOutboxLeaseRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:lease-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.getJdbcOperations().execute(SCHEMA);
+        repository = new JdbcOutboxLeaseRepository(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Leases should be acquired once, renewed by their owner and released")
+    void testLeases() {
+        repository.initialize(2);
+        Instant now = repository.currentTime();
+
+        assertEquals(List.of(0, 1), repository.findAvailable(now));
+        assertTrue(repository.tryAcquire(0, "node-a", now, now.plusSeconds(60)));
+        assertFalse(repository.tryAcquire(0, "node-b", now, now.plusSeconds(60)));
+        assertEquals(List.of(0), repository.renew("node-a", now, now.plusSeconds(120)));
+        assertEquals(List.of(1), repository.findAvailable(now.plusSeconds(90)));
+
+        repository.release(List.of(0), "node-a");
+
+        assertEquals(List.of(0, 1), repository.findAvailable(now));
+    }
+
+    @Test
+    @DisplayName("Nodes in different time zones should agree on when a lease expires")
+    void testTimeZones() {
+        repository.initialize(1);
+        Instant now = repository.currentTime();
+        TimeZone original = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Shanghai"));
+            assertTrue(repository.tryAcquire(0, "node-a", now, now.plusSeconds(60)));
+            repository.heartbeat("node-a", now.plusSeconds(60));
+
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+            assertEquals(List.of(), repository.findAvailable(now.plusSeconds(59)));
+            assertEquals(1, repository.countLiveNodes(now.plusSeconds(59)));
+            assertEquals(List.of(0), repository.findAvailable(now.plusSeconds(61)));
+            assertEquals(0, repository.countLiveNodes(now.plusSeconds(61)));
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+}
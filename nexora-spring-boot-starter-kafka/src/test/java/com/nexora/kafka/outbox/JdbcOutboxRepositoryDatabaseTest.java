@@ -0,0 +1,243 @@
+package com.nexora.kafka.outbox;
+
+import com.nexora.kafka.codec.PayloadCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the {@link JdbcOutboxRepository} statements against an in-memory H2 database in
+ * PostgreSQL mode.
+ */
+@DisplayName("JdbcOutboxRepository Database Tests")
+class JdbcOutboxRepositoryDatabaseTest {
+
+    private static final String SCHEMA = """
+        CREATE TABLE outbox_event (
+            id            BIGINT       PRIMARY KEY,
+            event_type    VARCHAR(64)  NOT NULL,
+            topic         VARCHAR(128) NOT NULL,
+            biz_id        VARCHAR(64)  NOT NULL,
+            payload       TEXT,
+            payload_codec VARCHAR(16),
+            payload_data  BYTEA,
+            status        VARCHAR(16)  NOT NULL,
+            retry_count   INT,
+            bucket        INT          NOT NULL,
+            created_at    TIMESTAMP    NOT NULL,
+            updated_at    TIMESTAMP    NOT NULL,
+            seq           BIGINT
+        );
+        CREATE TABLE outbox_sequence (
+            topic  VARCHAR(128) NOT NULL,
+            biz_id VARCHAR(64)  NOT NULL,
+            seq    BIGINT       NOT NULL,
+            PRIMARY KEY (topic, biz_id)
+        );
+        """;
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private JdbcOutboxRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:outbox-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        jdbcTemplate.getJdbcOperations().execute(SCHEMA);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        repository = new JdbcOutboxRepository(jdbcTemplate, PayloadCodec.LZ4, 64);
+        repository.setSequences(true);
+    }
+
+    private static OutboxEvent event(long id, String bizId, int bucket) {
+        OutboxEvent event = OutboxEvent.of("EVENT", "topic", bizId, "{\"id\":" + id + "}");
+        event.setId(id);
+        event.setBucket(bucket);
+        return event;
+    }
+
+    private void insert(OutboxEvent... events) {
+        transactionTemplate.executeWithoutResult(status -> repository.insertAll(List.of(events)));
+    }
+
+    private List<OutboxEvent> claim(int limit) {
+        return transactionTemplate.execute(status -> repository.claimBatch(limit));
+    }
+
+    private List<OutboxEvent> claimAndNumber(int limit) {
+        return transactionTemplate.execute(status -> {
+            List<OutboxEvent> claimed = repository.claimBatch(limit);
+            repository.assignSequences(claimed);
+            return claimed;
+        });
+    }
+
+    private static List<Long> sequences(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getSequence).toList();
+    }
+
+    private String status(long id) {
+        return jdbcTemplate.getJdbcOperations()
+            .queryForObject("SELECT status FROM outbox_event WHERE id = ?", String.class, id);
+    }
+
+    private int retryCount(long id) {
+        return jdbcTemplate.getJdbcOperations()
+            .queryForObject("SELECT retry_count FROM outbox_event WHERE id = ?", Integer.class, id);
+    }
+
+    @Test
+    @DisplayName("Assign sequences should number each aggregate's events after its last sequence")
+    void testSequences() {
+        insert(event(1L, "a", 0), event(2L, "b", 0), event(3L, "a", 0));
+
+        assertEquals(List.of(1L, 1L, 2L), sequences(claimAndNumber(10)));
+
+        repository.markSent(List.of(1L, 2L, 3L));
+        insert(event(4L, "a", 0));
+
+        assertEquals(List.of(3L), sequences(claimAndNumber(10)));
+        // Stored with the event, so it is sent again with the same number
+        assertEquals(List.of(3L), sequences(claim(10)));
+    }
+
+    @Test
+    @DisplayName("Purge should delete numbered events, and numbering should go on after them")
+    void testPurgeNumberedEvents() {
+        insert(event(1L, "a", 0), event(2L, "a", 0), event(3L, "b", 0));
+        claimAndNumber(10);
+        repository.markSent(List.of(1L, 2L, 3L));
+        Instant cutoff = Instant.now().plusSeconds(60);
+
+        List<Long> ids = transactionTemplate.execute(status -> repository.findSentIdsBefore(cutoff, 10));
+
+        assertEquals(List.of(1L, 2L, 3L), ids);
+        repository.deleteSent(ids);
+        insert(event(4L, "a", 0), event(5L, "c", 0));
+        assertEquals(List.of(3L, 1L), sequences(claimAndNumber(10)));
+    }
+
+    @Test
+    @DisplayName("Two relays numbering the same aggregate at once should not hand out a sequence twice")
+    void testConcurrentRelays() throws Exception {
+        insert(event(1L, "a", 0));
+        claimAndNumber(10);
+        repository.markSent(List.of(1L));
+        insert(event(2L, "a", 0), event(3L, "a", 0));
+        JdbcOutboxRepository other = new JdbcOutboxRepository(jdbcTemplate, PayloadCodec.LZ4, 64);
+        other.setSequences(true);
+        CompletableFuture<Void> numbered = new CompletableFuture<>();
+        CompletableFuture<Void> release = new CompletableFuture<>();
+
+        CompletableFuture<List<OutboxEvent>> first = CompletableFuture.supplyAsync(() ->
+            transactionTemplate.execute(status -> {
+                List<OutboxEvent> claimed = repository.claimBatch(1);
+                repository.assignSequences(claimed);
+                repository.markSent(claimed.stream().map(OutboxEvent::getId).toList());
+                numbered.complete(null);
+                release.join();
+                return claimed;
+            }));
+        numbered.get(10, TimeUnit.SECONDS);
+        // Skips the event locked by the first relay, then waits for its outbox_sequence row
+        CompletableFuture<List<OutboxEvent>> second = CompletableFuture.supplyAsync(() ->
+            transactionTemplate.execute(status -> {
+                List<OutboxEvent> claimed = other.claimBatch(1);
+                other.assignSequences(claimed);
+                return claimed;
+            }));
+        release.complete(null);
+
+        assertEquals(List.of(2L), sequences(first.get(10, TimeUnit.SECONDS)));
+        assertEquals(List.of(3L), sequences(second.get(10, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    @DisplayName("Claim should return NEW events oldest first, up to the limit and of the given buckets")
+    void testClaim() {
+        insert(event(3L, "a", 1), event(1L, "b", 2), event(2L, "c", 1));
+        repository.markSent(List.of(2L));
+
+        assertEquals(List.of(1L), claim(1).stream().map(OutboxEvent::getId).toList());
+        assertEquals(List.of(3L), transactionTemplate.execute(status -> repository.claimBatch(10, Set.of(1)))
+            .stream().map(OutboxEvent::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Claim should read back compressed and plain payloads")
+    void testCompressedPayload() {
+        OutboxEvent large = event(1L, "a", 0);
+        String payload = "{\"name\":\"" + "x".repeat(1000) + "\"}";
+        large.setPayload(payload);
+        insert(large, event(2L, "b", 0));
+
+        List<OutboxEvent> claimed = claim(10);
+
+        assertEquals("lz4", claimed.get(0).getPayloadCodec());
+        assertNull(claimed.get(0).getPayload());
+        assertEquals(payload, claimed.get(0).getPayloadText());
+        assertNull(claimed.get(1).getPayloadCodec());
+        assertEquals("{\"id\":2}", claimed.get(1).getPayloadText());
+    }
+
+    @Test
+    @DisplayName("Without compression, insert and claim should not need the codec columns")
+    void testWithoutCodecColumns() {
+        jdbcTemplate.getJdbcOperations().execute("ALTER TABLE outbox_event DROP COLUMN payload_codec");
+        jdbcTemplate.getJdbcOperations().execute("ALTER TABLE outbox_event DROP COLUMN payload_data");
+        repository = new JdbcOutboxRepository(jdbcTemplate);
+        insert(event(1L, "a", 0));
+
+        List<OutboxEvent> claimed = claim(10);
+
+        assertEquals(1, claimed.size());
+        assertEquals("{\"id\":1}", claimed.get(0).getPayloadText());
+    }
+
+    @Test
+    @DisplayName("Mark statements should settle events and count failed attempts only")
+    void testMarkStatements() {
+        insert(event(1L, "a", 0), event(2L, "b", 0), event(3L, "c", 0));
+
+        assertEquals(1, repository.markSent(List.of(1L)));
+        assertEquals(1, repository.markFailed(List.of(2L), 1));
+        assertEquals(1, repository.requeue(List.of(3L)));
+
+        assertEquals("SENT", status(1L));
+        assertEquals("FAILED", status(2L));
+        assertEquals(1, retryCount(2L));
+        assertEquals("NEW", status(3L));
+        assertEquals(0, retryCount(3L));
+        assertEquals(1L, repository.backlog().pending());
+    }
+
+    @Test
+    @DisplayName("Purge statements should find and delete SENT events before the cutoff")
+    void testPurgeStatements() {
+        insert(event(1L, "a", 0), event(2L, "b", 0));
+        repository.markSent(List.of(1L));
+        Instant cutoff = Instant.now().plusSeconds(60);
+
+        List<Long> ids = transactionTemplate.execute(status -> repository.findSentIdsBefore(cutoff, 10));
+
+        assertEquals(List.of(1L), ids);
+        assertEquals(1, transactionTemplate.execute(status -> repository.findSentBefore(cutoff, 10)).size());
+        assertEquals(1, repository.deleteSent(ids));
+        assertEquals(1L, repository.backlog().pending());
+    }
+}
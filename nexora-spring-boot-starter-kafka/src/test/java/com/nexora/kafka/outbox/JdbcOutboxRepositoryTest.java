@@ -0,0 +1,96 @@
+package com.nexora.kafka.outbox;
+
+import com.nexora.kafka.codec.PayloadCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link JdbcOutboxRepository}.
+ */
+@DisplayName("JdbcOutboxRepository Tests")
+@ExtendWith(MockitoExtension.class)
+class JdbcOutboxRepositoryTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private JdbcOperations jdbcOperations;
+
+    private JdbcOutboxRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new JdbcOutboxRepository(jdbcTemplate);
+        repository.setSequences(true);
+    }
+
+    private static OutboxEvent event(long id, String bizId) {
+        OutboxEvent event = OutboxEvent.of("EVENT", "topic", bizId, "{}");
+        event.setId(id);
+        return event;
+    }
+
+    @Test
+    @DisplayName("Insert should leave sequences to the relay and need no transaction")
+    void testInsertWithoutSequences() {
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+        OutboxEvent event = event(1L, "a");
+
+        repository.insertAll(List.of(event));
+
+        assertNull(event.getSequence());
+        verify(jdbcOperations).batchUpdate(argThat((String sql) -> !sql.contains("seq")), eq(List.of(event)), eq(1), any());
+    }
+
+    @Test
+    @DisplayName("Purge with sequences should not look at sequences")
+    void testPurgeIgnoresSequences() {
+        repository.findSentIdsBefore(Instant.now(), 10);
+
+        verify(jdbcTemplate).queryForList(argThat((String sql) -> !sql.contains("seq")), any(SqlParameterSource.class),
+            eq(Long.class));
+    }
+
+    @Test
+    @DisplayName("Claim should read the codec columns only when compression is on")
+    void testClaimReadsCodecColumnsWithCompression() {
+        JdbcOutboxRepository plain = new JdbcOutboxRepository(jdbcTemplate);
+        JdbcOutboxRepository compressing = new JdbcOutboxRepository(jdbcTemplate, PayloadCodec.LZ4, 64);
+
+        plain.claimBatch(10);
+        compressing.claimBatch(20);
+
+        verify(jdbcTemplate).query(argThat((String sql) -> !sql.contains("payload_codec")),
+            argThat((SqlParameterSource params) -> Integer.valueOf(10).equals(params.getValue("limit"))),
+            any(RowMapper.class));
+        verify(jdbcTemplate).query(contains("payload_codec, payload_data"),
+            argThat((SqlParameterSource params) -> Integer.valueOf(20).equals(params.getValue("limit"))),
+            any(RowMapper.class));
+    }
+
+    @Test
+    @DisplayName("Requeue should reset events to NEW without counting a publish attempt")
+    void testRequeue() {
+        repository.requeue(List.of(1L, 2L));
+
+        verify(jdbcTemplate).update(argThat((String sql) -> sql.contains("status = 'NEW'")
+            && !sql.contains("retry_count")), any(SqlParameterSource.class));
+        assertEquals(0, repository.requeue(List.of()));
+    }
+}
@@ -1,8 +1,10 @@
 package com.nexora.kafka.outbox;
 
+import com.nexora.kafka.codec.PayloadCodec;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Map;
 
@@ -123,4 +125,30 @@ class OutboxEventTest {
             () -> assertEquals(now, event.getUpdatedAt())
         );
     }
+
+    @Test
+    @DisplayName("Payload accessors should decompress compressed payloads")
+    void testCompressedPayload() {
+        String payload = "{\"name\":\"" + "x".repeat(100) + "\"}";
+        OutboxEvent plain = OutboxEvent.of("EVENT", "topic", "biz123", payload);
+        OutboxEvent compressed = OutboxEvent.of("EVENT", "topic", "biz123", null);
+        compressed.setPayloadCodec("zstd");
+        compressed.setPayloadData(PayloadCodec.ZSTD.compress(payload.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(payload, plain.getPayloadText());
+        assertArrayEquals(payload.getBytes(StandardCharsets.UTF_8), plain.getPayloadBytes());
+        assertEquals(payload, compressed.getPayloadText());
+        assertSame(compressed.getPayloadData(), compressed.getPayloadBytes());
+    }
+
+    @Test
+    @DisplayName("Payload accessors should reject an event without any payload")
+    void testMissingPayload() {
+        OutboxEvent event = OutboxEvent.of("EVENT", "topic", "biz123", null);
+        event.setId(42L);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, event::getPayloadText);
+        assertTrue(e.getMessage().contains("42"));
+        assertThrows(IllegalStateException.class, event::getPayloadBytes);
+    }
 }
@@ -0,0 +1,109 @@
+package com.nexora.kafka.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link OutboxEventWriter}.
+ */
+@DisplayName("OutboxEventWriter Tests")
+@ExtendWith(MockitoExtension.class)
+class OutboxEventWriterTest {
+
+    @Mock
+    private JdbcOutboxRepository repository;
+
+    private OutboxEventWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new OutboxEventWriter(repository, new OutboxIdGenerator(1), 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.unbindResourceIfPossible(writer);
+    }
+
+    @Test
+    @DisplayName("Write without transaction should insert immediately with assigned ID")
+    void testWriteWithoutTransaction() {
+        OutboxEvent event = OutboxEvent.of("EVENT", "topic", "biz1", "{}");
+
+        writer.write(event);
+
+        assertNotNull(event.getId());
+        assertEquals(OutboxLeaseManager.bucketOf("biz1", 64), event.getBucket());
+        verify(repository).insertAll(List.of(event));
+    }
+
+    @Test
+    @DisplayName("Write in transaction should batch all events before commit")
+    void testWriteInTransactionBatchesBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        OutboxEvent first = OutboxEvent.of("EVENT", "topic", "biz1", "{}");
+        OutboxEvent second = OutboxEvent.of("EVENT", "topic", "biz2", "{}");
+
+        writer.write(first);
+        writer.write(second);
+
+        verify(repository, never()).insertAll(any());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size(), "Only one synchronization per transaction");
+
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        verify(repository).insertAll(List.of(first, second));
+        assertNull(TransactionSynchronizationManager.getResource(writer));
+    }
+
+    @Test
+    @DisplayName("Rolled back transaction should not insert buffered events")
+    void testRollbackDiscardsEvents() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        writer.write(OutboxEvent.of("EVENT", "topic", "biz1", "{}"));
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(repository, never()).insertAll(any());
+        assertNull(TransactionSynchronizationManager.getResource(writer));
+    }
+
+    @Test
+    @DisplayName("Commit listener should run only after the transaction commits")
+    void testCommitListenerRunsAfterCommit() {
+        Runnable listener = mock(Runnable.class);
+        writer.setCommitListener(listener);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        writer.write(OutboxEvent.of("EVENT", "topic", "biz1", "{}"));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        verify(listener, never()).run();
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        verify(listener).run();
+    }
+}
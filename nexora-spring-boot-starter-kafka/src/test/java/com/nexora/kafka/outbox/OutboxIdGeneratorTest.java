@@ -0,0 +1,45 @@
+package com.nexora.kafka.outbox;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link OutboxIdGenerator}.
+ */
+@DisplayName("OutboxIdGenerator Tests")
+class OutboxIdGeneratorTest {
+
+    @Test
+    @DisplayName("IDs should be strictly increasing")
+    void testIdsStrictlyIncreasing() {
+        OutboxIdGenerator generator = new OutboxIdGenerator(7);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long next = generator.nextId();
+            assertTrue(next > previous, "ID must increase");
+            previous = next;
+        }
+    }
+
+    @Test
+    @DisplayName("IDs from different nodes should not collide")
+    void testDifferentNodesDoNotCollide() {
+        OutboxIdGenerator node1 = new OutboxIdGenerator(1);
+        OutboxIdGenerator node2 = new OutboxIdGenerator(2);
+
+        assertNotEquals(node1.nextId(), node2.nextId());
+    }
+
+    @Test
+    @DisplayName("Constructor should reject out-of-range node ID")
+    void testRejectsInvalidNodeId() {
+        assertAll("Invalid node IDs",
+            () -> assertThrows(IllegalArgumentException.class, () -> new OutboxIdGenerator(-1)),
+            () -> assertThrows(IllegalArgumentException.class,
+                () -> new OutboxIdGenerator(OutboxIdGenerator.MAX_NODE_ID + 1))
+        );
+    }
+}
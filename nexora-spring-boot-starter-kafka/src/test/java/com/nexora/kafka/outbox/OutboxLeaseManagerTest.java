@@ -0,0 +1,119 @@
+package com.nexora.kafka.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link OutboxLeaseManager}.
+ */
+@DisplayName("OutboxLeaseManager Tests")
+@ExtendWith(MockitoExtension.class)
+class OutboxLeaseManagerTest {
+
+    @Mock
+    private JdbcOutboxLeaseRepository repository;
+
+    private OutboxLeaseManager leaseManager;
+
+    @BeforeEach
+    void setUp() {
+        leaseManager = new OutboxLeaseManager(repository, "node-1", 4,
+            Duration.ofSeconds(60), Duration.ofSeconds(10), Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should own no buckets before the first heartbeat")
+    void testNoBucketsBeforeHeartbeat() {
+        assertTrue(leaseManager.ownedBuckets().isEmpty());
+        assertTrue(leaseManager.isRenewalDue());
+    }
+
+    @Test
+    @DisplayName("Heartbeat should acquire available buckets up to an even share")
+    void testHeartbeatAcquiresEvenShare() {
+        when(repository.currentTime()).thenReturn(Instant.now());
+        when(repository.renew(eq("node-1"), any(), any())).thenReturn(List.of());
+        when(repository.countLiveNodes(any())).thenReturn(2);
+        when(repository.findAvailable(any())).thenReturn(List.of(0, 1, 2, 3));
+        when(repository.tryAcquire(anyInt(), eq("node-1"), any(), any())).thenReturn(true);
+
+        leaseManager.heartbeat();
+
+        verify(repository).initialize(4);
+        verify(repository).heartbeat(eq("node-1"), any());
+        verify(repository, times(2)).tryAcquire(anyInt(), eq("node-1"), any(), any());
+        assertEquals(2, leaseManager.ownedBuckets().size());
+        assertFalse(leaseManager.isRenewalDue());
+    }
+
+    @Test
+    @DisplayName("Heartbeat should release surplus buckets when nodes join")
+    void testHeartbeatReleasesSurplus() {
+        when(repository.currentTime()).thenReturn(Instant.now());
+        when(repository.renew(eq("node-1"), any(), any())).thenReturn(List.of(0, 1, 2, 3));
+        when(repository.countLiveNodes(any())).thenReturn(2);
+
+        leaseManager.heartbeat();
+
+        verify(repository).release(List.of(2, 3), "node-1");
+        verify(repository, never()).tryAcquire(anyInt(), any(), any(), any());
+        assertEquals(Set.of(0, 1), leaseManager.ownedBuckets());
+    }
+
+    @Test
+    @DisplayName("Should stop using leases inside the safety margin before expiry")
+    void testSafetyMargin() {
+        leaseManager = new OutboxLeaseManager(repository, "node-1", 4,
+            Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofSeconds(5));
+        when(repository.currentTime()).thenReturn(Instant.now());
+        when(repository.renew(eq("node-1"), any(), any())).thenReturn(List.of(0, 1, 2, 3));
+        when(repository.countLiveNodes(any())).thenReturn(1);
+
+        leaseManager.heartbeat();
+
+        assertTrue(leaseManager.ownedBuckets().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should base lease expiries on the database clock")
+    void testDatabaseClock() {
+        Instant databaseTime = Instant.parse("2020-01-01T00:00:00Z");
+        when(repository.currentTime()).thenReturn(databaseTime);
+        when(repository.renew("node-1", databaseTime, databaseTime.plusSeconds(60))).thenReturn(List.of(0, 1, 2, 3));
+        when(repository.countLiveNodes(databaseTime)).thenReturn(1);
+
+        leaseManager.heartbeat();
+
+        verify(repository).heartbeat("node-1", databaseTime.plusSeconds(60));
+        // Validity is measured locally, so a lagging database clock doesn't expire the leases
+        assertEquals(Set.of(0, 1, 2, 3), leaseManager.ownedBuckets());
+    }
+
+    @Test
+    @DisplayName("ReleaseAll should give up buckets and unregister the node")
+    void testReleaseAll() {
+        when(repository.currentTime()).thenReturn(Instant.now());
+        when(repository.renew(eq("node-1"), any(), any())).thenReturn(List.of(0, 1, 2, 3));
+        when(repository.countLiveNodes(any())).thenReturn(1);
+        leaseManager.heartbeat();
+
+        leaseManager.releaseAll();
+
+        verify(repository).release(Set.of(0, 1, 2, 3), "node-1");
+        verify(repository).unregister("node-1");
+        assertTrue(leaseManager.ownedBuckets().isEmpty());
+    }
+}
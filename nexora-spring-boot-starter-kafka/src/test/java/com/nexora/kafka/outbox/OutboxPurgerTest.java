@@ -0,0 +1,110 @@
+package com.nexora.kafka.outbox;
+
+import com.nexora.kafka.properties.KafkaProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link OutboxPurger}.
+ */
+@DisplayName("OutboxPurger Tests")
+@ExtendWith(MockitoExtension.class)
+class OutboxPurgerTest {
+
+    @Mock
+    private JdbcOutboxRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private KafkaProperties.Purge properties;
+    private OutboxPurger purger;
+
+    @BeforeEach
+    void setUp() {
+        properties = new KafkaProperties.Purge();
+        properties.setChunkSize(2);
+        purger = new OutboxPurger(repository, new TransactionTemplate(transactionManager), properties);
+    }
+
+    private static OutboxEvent sent(long id) {
+        OutboxEvent event = OutboxEvent.of("EVENT", "topic", "biz" + id, "{\"id\":" + id + "}");
+        event.setId(id);
+        event.markAsSent();
+        return event;
+    }
+
+    @Test
+    @DisplayName("Purge should delete in chunks until a chunk comes back short")
+    void testPurgeInChunks() {
+        when(repository.findSentIdsBefore(any(), eq(2)))
+            .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        when(repository.deleteSent(anyCollection())).thenAnswer(inv -> inv.<List<Long>>getArgument(0).size());
+
+        assertEquals(5, purger.purge());
+
+        verify(repository).deleteSent(List.of(1L, 2L));
+        verify(repository).deleteSent(List.of(3L, 4L));
+        verify(repository).deleteSent(List.of(5L));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Purge with archive dir should write deleted events to a gzip NDJSON segment")
+    void testPurgeArchivesBeforeDelete(@TempDir Path dir) throws Exception {
+        properties.setArchiveDir(dir.toString());
+        when(repository.findSentBefore(any(), eq(2)))
+            .thenReturn(List.of(sent(1L), sent(2L)), List.of(sent(3L)));
+        when(repository.deleteSent(anyCollection())).thenAnswer(inv -> inv.<List<Long>>getArgument(0).size());
+
+        assertEquals(3, purger.purge());
+
+        verify(repository).deleteSent(List.of(1L, 2L));
+        verify(repository).deleteSent(List.of(3L));
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.toList();
+        }
+        assertEquals(1, segments.size());
+        assertTrue(segments.get(0).getFileName().toString().endsWith(".ndjson.gz"));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(segments.get(0))), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().toList();
+            assertEquals(3, lines.size());
+            assertTrue(lines.get(0).startsWith("{\"id\":1,"));
+            assertTrue(lines.get(2).contains("\"status\":\"SENT\""));
+        }
+    }
+
+    @Test
+    @DisplayName("Purge should not create an archive segment when nothing is due")
+    void testPurgeNothingDue(@TempDir Path dir) throws Exception {
+        properties.setArchiveDir(dir.resolve("archive").toString());
+        when(repository.findSentBefore(any(), eq(2))).thenReturn(List.of());
+
+        assertEquals(0, purger.purge());
+
+        verify(repository, never()).deleteSent(anyCollection());
+        assertFalse(Files.exists(dir.resolve("archive")));
+    }
+}
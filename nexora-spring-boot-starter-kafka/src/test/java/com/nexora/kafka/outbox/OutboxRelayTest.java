@@ -0,0 +1,380 @@
+package com.nexora.kafka.outbox;
+
+import com.nexora.kafka.codec.PayloadCodec;
+import com.nexora.kafka.properties.KafkaProperties;
+import com.nexora.kafka.publisher.EventHeaders;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link OutboxRelay}.
+ */
+@DisplayName("OutboxRelay Tests")
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private JdbcOutboxRepository repository;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private KafkaProperties.Outbox properties;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        properties = new KafkaProperties.Outbox();
+        properties.setBatchSize(10);
+        properties.setMaxRetries(3);
+        relay = new OutboxRelay(repository, kafkaTemplate, new TransactionTemplate(transactionManager), properties);
+    }
+
+    private static OutboxEvent event(long id, String bizId) {
+        OutboxEvent event = OutboxEvent.of("EVENT", "topic", bizId, "{\"id\":" + id + "}");
+        event.setId(id);
+        return event;
+    }
+
+    private static OutboxEvent snapshot(long id, String bizId) {
+        OutboxEvent event = event(id, bizId);
+        event.setEventType("PROFILE_UPDATED");
+        return event;
+    }
+
+    private static ProducerRecord<String, byte[]> keyed(String key) {
+        return argThat(record -> record != null && key.equals(record.key()));
+    }
+
+    private static ProducerRecord<String, byte[]> record(String key, long id) {
+        byte[] payload = ("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8);
+        byte[] messageId = String.valueOf(id).getBytes(StandardCharsets.UTF_8);
+        return argThat(record -> record != null
+            && "topic".equals(record.topic())
+            && key.equals(record.key())
+            && Arrays.equals(payload, record.value())
+            && Arrays.equals(messageId, record.headers().lastHeader(EventHeaders.MESSAGE_ID).value()));
+    }
+
+    @Test
+    @DisplayName("RelayBatch should return 0 and skip Kafka when outbox is empty")
+    void testRelayBatchEmpty() {
+        when(repository.claimBatch(10)).thenReturn(List.of());
+
+        assertEquals(0, relay.relayBatch());
+
+        verifyNoInteractions(kafkaTemplate);
+        verify(repository, never()).markSent(any());
+    }
+
+    @Test
+    @DisplayName("RelayBatch should send all events and mark them SENT in one update")
+    void testRelayBatchMarksSent() {
+        when(repository.claimBatch(10)).thenReturn(List.of(event(1L, "a"), event(2L, "b")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        assertEquals(2, relay.relayBatch());
+
+        verify(kafkaTemplate).send(record("a", 1L));
+        verify(kafkaTemplate).send(record("b", 2L));
+        verify(kafkaTemplate).flush();
+        verify(repository).markSent(List.of(1L, 2L));
+        verify(repository).markFailed(List.of(), 3);
+    }
+
+    @Test
+    @DisplayName("RelayBatch should add event type, bizId, schema version and sequence headers")
+    void testRelayBatchAddsEventHeaders() {
+        relay.setSchemaVersions(Map.of("EVENT", 2));
+        OutboxEvent sequenced = event(1L, "a");
+        sequenced.setSequence(7L);
+        when(repository.claimBatch(10)).thenReturn(List.of(sequenced, event(2L, "b")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        relay.relayBatch();
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) ->
+            "EVENT".equals(EventHeaders.lastValue(record.headers(), EventHeaders.EVENT_TYPE))
+                && "a".equals(EventHeaders.lastValue(record.headers(), EventHeaders.BIZ_ID))
+                && "2".equals(EventHeaders.lastValue(record.headers(), EventHeaders.SCHEMA_VERSION))
+                && "7".equals(EventHeaders.lastValue(record.headers(), EventHeaders.SEQUENCE))));
+        // Events written without sequences carry no sequence header
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) ->
+            "b".equals(record.key()) && EventHeaders.lastValue(record.headers(), EventHeaders.SEQUENCE) == null));
+    }
+
+    @Test
+    @DisplayName("RelayBatch should send compressed payloads as stored with the codec header")
+    void testRelayBatchSendsCompressedPayload() {
+        byte[] compressed = PayloadCodec.LZ4.compress("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        OutboxEvent event = event(1L, "a");
+        event.setPayload(null);
+        event.setPayloadCodec("lz4");
+        event.setPayloadData(compressed);
+        when(repository.claimBatch(10)).thenReturn(List.of(event));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        relay.relayBatch();
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) ->
+            Arrays.equals(compressed, record.value())
+                && "lz4".equals(EventHeaders.lastValue(record.headers(), EventHeaders.PAYLOAD_CODEC))));
+    }
+
+    @Test
+    @DisplayName("RelayBatch should mark failed sends as FAILED attempts")
+    void testRelayBatchMarksFailed() {
+        when(repository.claimBatch(10)).thenReturn(List.of(event(1L, "a"), event(2L, "b"), event(3L, "c")));
+        when(kafkaTemplate.send(keyed("a")))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(kafkaTemplate.send(keyed("b")))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+        when(kafkaTemplate.send(keyed("c")))
+            .thenThrow(new RuntimeException("buffer exhausted"));
+
+        assertEquals(3, relay.relayBatch());
+
+        verify(repository).markSent(List.of(1L));
+        verify(repository).markFailed(List.of(2L, 3L), 3);
+    }
+
+    @Test
+    @DisplayName("RelayBatch should requeue later events of a failed aggregate even if acknowledged")
+    void testRelayBatchRequeuesRestOfAggregate() {
+        when(repository.claimBatch(10)).thenReturn(
+            List.of(event(1L, "a"), event(2L, "a"), event(3L, "b"), event(4L, "a")));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(kafkaTemplate.send(record("a", 2L)))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        assertEquals(4, relay.relayBatch());
+
+        verify(repository).markSent(List.of(1L, 3L));
+        verify(repository).markFailed(List.of(2L), 3);
+        // Acknowledged, so no publish attempt is counted against it
+        verify(repository).requeue(List.of(4L));
+    }
+
+    @Test
+    @DisplayName("RelayBatch with sequences should number events in send order, retried ones first")
+    void testRelayBatchAssignsSequences() {
+        when(repository.isSequences()).thenReturn(true);
+        OutboxEvent retried = event(2L, "a");
+        retried.setSequence(5L);
+        OutboxEvent newer = event(1L, "a");
+        OutboxEvent other = event(3L, "b");
+        when(repository.claimBatch(10)).thenReturn(List.of(newer, retried, other));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        relay.relayBatch();
+
+        // The new event has a lower ID but is numbered after the one sent before
+        verify(repository).assignSequences(List.of(retried, newer, other));
+        InOrder inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send(record("a", 2L));
+        inOrder.verify(kafkaTemplate).send(record("a", 1L));
+        verify(repository).markSent(List.of(2L, 1L, 3L));
+    }
+
+    @Test
+    @DisplayName("RelayBatch with lanes should keep per-bizId order and settle all events")
+    void testRelayBatchOnLanes() {
+        properties.setLanes(4);
+        relay = new OutboxRelay(repository, kafkaTemplate, new TransactionTemplate(transactionManager), properties);
+        List<OutboxEvent> events = List.of(
+            event(1L, "a"), event(2L, "b"), event(3L, "a"), event(4L, "c"), event(5L, "a"), event(6L, "b"));
+        when(repository.claimBatch(10)).thenReturn(events);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        assertEquals(6, relay.relayBatch());
+
+        InOrder inOrder = inOrder(kafkaTemplate);
+        inOrder.verify(kafkaTemplate).send(record("a", 1L));
+        inOrder.verify(kafkaTemplate).send(record("a", 3L));
+        inOrder.verify(kafkaTemplate).send(record("a", 5L));
+        verify(repository).markSent(List.of(1L, 2L, 3L, 4L, 5L, 6L));
+        assertEquals(4, relay.getLanes().size());
+        relay.getLanes().forEach(lane -> assertEquals(0, lane.getQueueDepth()));
+    }
+
+    @Test
+    @DisplayName("RelayBatch should publish only the newest coalescable event per aggregate")
+    void testRelayBatchCoalesces() {
+        properties.setCoalesceEventTypes(List.of("PROFILE_UPDATED"));
+        relay = new OutboxRelay(repository, kafkaTemplate, new TransactionTemplate(transactionManager), properties);
+        OutboxEvent created = event(1L, "a");
+        created.setEventType("USER_CREATED");
+        List<OutboxEvent> events = List.of(created,
+            snapshot(2L, "a"), snapshot(3L, "b"), snapshot(4L, "a"), snapshot(5L, "a"));
+        when(repository.claimBatch(10)).thenReturn(events);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        assertEquals(5, relay.relayBatch());
+
+        verify(kafkaTemplate).send(record("a", 1L));
+        verify(kafkaTemplate).send(record("b", 3L));
+        verify(kafkaTemplate).send(record("a", 5L));
+        verify(kafkaTemplate, times(3)).send(any(ProducerRecord.class));
+        verify(repository).markSent(List.of(1L, 3L, 5L, 2L, 4L));
+        assertEquals(2, relay.getCoalesced());
+    }
+
+    @Test
+    @DisplayName("RelayBatch should return coalesced events with the newest one when it fails")
+    void testRelayBatchCoalescedFailure() {
+        properties.setCoalesceEventTypes(List.of("PROFILE_UPDATED"));
+        relay = new OutboxRelay(repository, kafkaTemplate, new TransactionTemplate(transactionManager), properties);
+        when(repository.claimBatch(10)).thenReturn(
+            List.of(snapshot(1L, "a"), snapshot(2L, "b"), snapshot(3L, "a")));
+        when(kafkaTemplate.send(keyed("b")))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(kafkaTemplate.send(keyed("a")))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        assertEquals(3, relay.relayBatch());
+
+        verify(repository).markSent(List.of(2L));
+        verify(repository).markFailed(List.of(3L, 1L), 3);
+        assertEquals(0, relay.getCoalesced());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaTemplate<String, byte[]> transactionalTemplate(RuntimeException commitFailure) {
+        KafkaTemplate<String, byte[]> template = mock(KafkaTemplate.class);
+        when(template.executeInTransaction(any())).thenAnswer(invocation -> {
+            invocation.getArgument(0, KafkaOperations.OperationsCallback.class).doInOperations(template);
+            if (commitFailure != null) {
+                throw commitFailure;
+            }
+            return null;
+        });
+        return template;
+    }
+
+    @Test
+    @DisplayName("RelayBatch with transactions should send the batch in one transaction and mark it SENT")
+    void testRelayBatchInTransaction() {
+        KafkaTemplate<String, byte[]> laneTemplate = transactionalTemplate(null);
+        relay.enableTransactions(List.of(laneTemplate));
+        when(repository.claimBatch(10)).thenReturn(List.of(event(1L, "a"), event(2L, "b")));
+
+        assertEquals(2, relay.relayBatch());
+
+        InOrder inOrder = inOrder(laneTemplate);
+        inOrder.verify(laneTemplate).executeInTransaction(any());
+        inOrder.verify(laneTemplate).send(record("a", 1L));
+        inOrder.verify(laneTemplate).send(record("b", 2L));
+        verifyNoInteractions(kafkaTemplate);
+        verify(repository).markSent(List.of(1L, 2L));
+        verify(repository).markFailed(List.of(), 3);
+    }
+
+    @Test
+    @DisplayName("RelayBatch with transactions should mark the events of an aborted lane FAILED")
+    void testRelayBatchTransactionAborted() {
+        properties.setLanes(2);
+        relay = new OutboxRelay(repository, kafkaTemplate, new TransactionTemplate(transactionManager), properties);
+        List<KafkaTemplate<String, byte[]>> templates = new ArrayList<>();
+        templates.add(null);
+        templates.add(null);
+        OutboxEvent first = event(1L, "a");
+        OutboxEvent second = event(2L, "b");
+        int failingLane = OutboxRelayLane.laneOf("a", 2);
+        assertNotEquals(failingLane, OutboxRelayLane.laneOf("b", 2), "Events must go to different lanes");
+        templates.set(failingLane, transactionalTemplate(new KafkaException("Transaction aborted")));
+        templates.set(1 - failingLane, transactionalTemplate(null));
+        relay.enableTransactions(templates);
+        when(repository.claimBatch(10)).thenReturn(List.of(first, second));
+
+        assertEquals(2, relay.relayBatch());
+
+        verify(repository).markSent(List.of(2L));
+        verify(repository).markFailed(List.of(1L), 3);
+    }
+
+    @Test
+    @DisplayName("EnableTransactions should require one template per lane")
+    void testEnableTransactionsPerLane() {
+        assertThrows(IllegalArgumentException.class, () -> relay.enableTransactions(List.of()));
+    }
+
+    @Test
+    @DisplayName("RelayBatch with leases should only claim owned buckets")
+    void testRelayBatchClaimsOwnedBuckets() {
+        OutboxLeaseManager leaseManager = mock(OutboxLeaseManager.class);
+        relay = new OutboxRelay(repository, kafkaTemplate, new TransactionTemplate(transactionManager),
+            properties, leaseManager);
+        when(leaseManager.ownedBuckets()).thenReturn(Set.of(3, 7));
+        when(repository.claimBatch(10, Set.of(3, 7))).thenReturn(List.of());
+
+        assertEquals(0, relay.relayBatch());
+
+        verify(repository, never()).claimBatch(10);
+    }
+
+    @Test
+    @DisplayName("RelayBatch without leases should not touch the outbox")
+    void testRelayBatchWithoutLeases() {
+        OutboxLeaseManager leaseManager = mock(OutboxLeaseManager.class);
+        relay = new OutboxRelay(repository, kafkaTemplate, new TransactionTemplate(transactionManager),
+            properties, leaseManager);
+        when(leaseManager.ownedBuckets()).thenReturn(Set.of());
+
+        assertEquals(0, relay.relayBatch());
+
+        verifyNoInteractions(repository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Wakeup should drain the outbox without waiting for the next poll")
+    void testWakeupDrainsImmediately() {
+        properties.setPollInterval(Duration.ofHours(1));
+        relay = new OutboxRelay(repository, kafkaTemplate, new TransactionTemplate(transactionManager), properties);
+        when(repository.claimBatch(10)).thenReturn(List.of());
+        relay.start();
+        try {
+            verify(repository, timeout(1000)).claimBatch(10);
+
+            relay.wakeup();
+
+            verify(repository, timeout(1000).times(2)).claimBatch(10);
+        } finally {
+            relay.stop();
+        }
+    }
+}
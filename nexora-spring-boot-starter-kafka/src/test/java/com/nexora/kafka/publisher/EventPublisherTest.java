@@ -1,20 +1,35 @@
 package com.nexora.kafka.publisher;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexora.kafka.outbox.OutboxEvent;
+import com.nexora.kafka.outbox.OutboxEventWriter;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,7 +42,7 @@ import static org.mockito.Mockito.*;
 class EventPublisherTest {
 
     @Mock
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
 
     private ObjectMapper objectMapper;
     private EventPublisher eventPublisher;
@@ -38,6 +53,10 @@ class EventPublisherTest {
         eventPublisher = new EventPublisher(kafkaTemplate, objectMapper);
     }
 
+    private static ProducerRecord<String, byte[]> record(String topic, String key) {
+        return argThat(record -> record != null && topic.equals(record.topic()) && key.equals(record.key()));
+    }
+
     @Test
     @DisplayName("Publish should send event to Kafka with correct parameters")
     void testPublishSendsEvent() {
@@ -48,21 +67,43 @@ class EventPublisherTest {
         payload.put("userId", 123L);
         payload.put("username", "testuser");
 
-        when(kafkaTemplate.send(eq(topic), eq(bizId), anyString()))
+        when(kafkaTemplate.send(record(topic, bizId)))
             .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
 
         eventPublisher.publish(eventType, bizId, topic, payload);
 
-        ArgumentCaptor<String> payloadCaptor = ArgumentCaptor.forClass(String.class);
-        verify(kafkaTemplate).send(eq(topic), eq(bizId), payloadCaptor.capture());
+        ArgumentCaptor<ProducerRecord<String, byte[]>> payloadCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(payloadCaptor.capture());
 
-        String capturedPayload = payloadCaptor.getValue();
+        String capturedPayload = new String(payloadCaptor.getValue().value(), StandardCharsets.UTF_8);
         assertAll("Published payload",
             () -> assertTrue(capturedPayload.contains("\"userId\":123")),
             () -> assertTrue(capturedPayload.contains("\"username\":\"testuser\""))
         );
     }
 
+    @Test
+    @DisplayName("Publish should add event type, bizId and schema version headers")
+    void testPublishAddsEventHeaders() {
+        eventPublisher.setSchemaVersions(Map.of("ORDER_CREATED", 3));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        eventPublisher.publish("ORDER_CREATED", "order1", "orders", Map.of("id", 1));
+        eventPublisher.publish("ORDER_PAID", "order1", "orders", Map.of("id", 1));
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(recordCaptor.capture());
+        ProducerRecord<String, byte[]> created = recordCaptor.getAllValues().get(0);
+        assertAll("Event headers",
+            () -> assertEquals("ORDER_CREATED", EventHeaders.lastValue(created.headers(), EventHeaders.EVENT_TYPE)),
+            () -> assertEquals("order1", EventHeaders.lastValue(created.headers(), EventHeaders.BIZ_ID)),
+            () -> assertEquals("3", EventHeaders.lastValue(created.headers(), EventHeaders.SCHEMA_VERSION)),
+            () -> assertEquals("1", EventHeaders.lastValue(recordCaptor.getAllValues().get(1).headers(),
+                EventHeaders.SCHEMA_VERSION))
+        );
+    }
+
     @Test
     @DisplayName("Publish should serialize payload to JSON")
     void testPublishSerializesPayload() throws Exception {
@@ -74,16 +115,16 @@ class EventPublisherTest {
         payload.put("key2", 42);
         payload.put("nested", Map.of("innerKey", "innerValue"));
 
-        when(kafkaTemplate.send(eq(topic), eq(bizId), anyString()))
+        when(kafkaTemplate.send(record(topic, bizId)))
             .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
 
         eventPublisher.publish(eventType, bizId, topic, payload);
 
-        ArgumentCaptor<String> jsonCaptor = ArgumentCaptor.forClass(String.class);
-        verify(kafkaTemplate).send(eq(topic), eq(bizId), jsonCaptor.capture());
+        ArgumentCaptor<ProducerRecord<String, byte[]>> jsonCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(jsonCaptor.capture());
 
         Map<String, Object> deserialized = objectMapper.readValue(
-            jsonCaptor.getValue(),
+            jsonCaptor.getValue().value(),
             objectMapper.getTypeFactory().constructMapType(Map.class, String.class, Object.class)
         );
 
@@ -103,15 +144,15 @@ class EventPublisherTest {
         Map<String, Object> metadata = new HashMap<>();
         metadata.put("department", "engineering");
 
-        when(kafkaTemplate.send(eq(topic), eq(String.valueOf(bizId)), anyString()))
+        when(kafkaTemplate.send(record(topic, String.valueOf(bizId))))
             .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
 
         eventPublisher.publishUserEvent(eventType, bizId, topic, username, email, name, metadata);
 
-        ArgumentCaptor<String> payloadCaptor = ArgumentCaptor.forClass(String.class);
-        verify(kafkaTemplate).send(eq(topic), eq(String.valueOf(bizId)), payloadCaptor.capture());
+        ArgumentCaptor<ProducerRecord<String, byte[]>> payloadCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(payloadCaptor.capture());
 
-        String capturedPayload = payloadCaptor.getValue();
+        String capturedPayload = new String(payloadCaptor.getValue().value(), StandardCharsets.UTF_8);
         assertAll("User event payload",
             () -> assertTrue(capturedPayload.contains("\"userId\":456")),
             () -> assertTrue(capturedPayload.contains("\"username\":\"testuser\"")),
@@ -131,15 +172,15 @@ class EventPublisherTest {
         String email = "deleted@example.com";
         String name = "Deleted User";
 
-        when(kafkaTemplate.send(eq(topic), eq(String.valueOf(bizId)), anyString()))
+        when(kafkaTemplate.send(record(topic, String.valueOf(bizId))))
             .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
 
         eventPublisher.publishUserEvent(eventType, bizId, topic, username, email, name, null);
 
-        ArgumentCaptor<String> payloadCaptor = ArgumentCaptor.forClass(String.class);
-        verify(kafkaTemplate).send(eq(topic), eq(String.valueOf(bizId)), payloadCaptor.capture());
+        ArgumentCaptor<ProducerRecord<String, byte[]>> payloadCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(payloadCaptor.capture());
 
-        String capturedPayload = payloadCaptor.getValue();
+        String capturedPayload = new String(payloadCaptor.getValue().value(), StandardCharsets.UTF_8);
         assertAll("User event without metadata",
             () -> assertTrue(capturedPayload.contains("\"userId\":789")),
             () -> assertTrue(capturedPayload.contains("\"username\":\"deleteduser\"")),
@@ -156,15 +197,15 @@ class EventPublisherTest {
         String topic = "empty-topic";
         Map<String, Object> payload = new HashMap<>();
 
-        when(kafkaTemplate.send(eq(topic), eq(bizId), anyString()))
+        when(kafkaTemplate.send(record(topic, bizId)))
             .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
 
         eventPublisher.publish(eventType, bizId, topic, payload);
 
-        ArgumentCaptor<String> payloadCaptor = ArgumentCaptor.forClass(String.class);
-        verify(kafkaTemplate).send(eq(topic), eq(bizId), payloadCaptor.capture());
+        ArgumentCaptor<ProducerRecord<String, byte[]>> payloadCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(payloadCaptor.capture());
 
-        assertEquals("{}", payloadCaptor.getValue(), "Empty map should serialize to empty JSON object");
+        assertEquals("{}", new String(payloadCaptor.getValue().value(), StandardCharsets.UTF_8), "Empty map should serialize to empty JSON object");
     }
 
     @Test
@@ -176,7 +217,7 @@ class EventPublisherTest {
         Map<String, Object> payload = new HashMap<>();
         payload.put("data", "test");
 
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
             .thenThrow(new RuntimeException("Kafka connection failed"));
 
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -189,11 +230,233 @@ class EventPublisherTest {
     @Test
     @DisplayName("Publish should handle null metadata in user event")
     void testPublishUserEventWithNullMetadata() {
-        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
             .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
 
         assertDoesNotThrow(() ->
             eventPublisher.publishUserEvent("EVENT", 1L, "topic", "user", "email", "name", null)
         );
     }
+
+    @Test
+    @DisplayName("Publish should write to outbox instead of Kafka when outbox is enabled")
+    void testPublishWritesToOutbox() {
+        OutboxEventWriter outboxWriter = mock(OutboxEventWriter.class);
+        EventPublisher outboxPublisher = new EventPublisher(kafkaTemplate, objectMapper, outboxWriter);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("userId", 1L);
+
+        outboxPublisher.publish("USER_CREATED", "user1", "user-events", payload);
+
+        ArgumentCaptor<OutboxEvent> eventCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxWriter).write(eventCaptor.capture());
+        verifyNoInteractions(kafkaTemplate);
+
+        OutboxEvent event = eventCaptor.getValue();
+        assertAll("Outbox event",
+            () -> assertEquals("USER_CREATED", event.getEventType()),
+            () -> assertEquals("user-events", event.getTopic()),
+            () -> assertEquals("user1", event.getBizId()),
+            () -> assertEquals("{\"userId\":1}", event.getPayload())
+        );
+    }
+
+    private static CompletableFuture<SendResult<String, byte[]>> acked(String topic, int partition, long offset) {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(topic, partition), offset, 0, 0L, 0, 0);
+        return CompletableFuture.completedFuture(new SendResult<>(new ProducerRecord<>(topic, new byte[0]), metadata));
+    }
+
+    @Test
+    @DisplayName("PublishAsync should complete with partition and offset")
+    void testPublishAsyncReturnsDeliveryResult() {
+        when(kafkaTemplate.send(record("orders", "order1"))).thenReturn(acked("orders", 2, 42L));
+
+        PublishResult result = eventPublisher.publishAsync("ORDER_CREATED", "order1", "orders", Map.of("id", 1)).join();
+
+        assertAll("Delivery result",
+            () -> assertEquals("orders", result.topic()),
+            () -> assertEquals(2, result.partition()),
+            () -> assertEquals(42L, result.offset()),
+            () -> assertTrue(result.isDelivered())
+        );
+    }
+
+    @Test
+    @DisplayName("PublishAsync should return a failed future instead of throwing")
+    void testPublishAsyncFailure() {
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenThrow(new RuntimeException("Kafka connection failed"));
+
+        CompletableFuture<PublishResult> future = eventPublisher.publishAsync("EVENT", "biz", "topic", Map.of());
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("PublishAll should send every event and combine results in order")
+    void testPublishAll() {
+        when(kafkaTemplate.send(record("orders", "a"))).thenReturn(acked("orders", 0, 10L));
+        when(kafkaTemplate.send(record("orders", "b"))).thenReturn(acked("orders", 1, 20L));
+
+        List<PublishResult> results = eventPublisher.publishAll(List.of(
+            Event.of("ORDER_CREATED", "a", "orders", Map.of("id", "a")),
+            Event.of("ORDER_CREATED", "b", "orders", Map.of("id", "b"))
+        )).join();
+
+        assertEquals(List.of(new PublishResult("orders", 0, 10L), new PublishResult("orders", 1, 20L)), results);
+    }
+
+    @Test
+    @DisplayName("PublishAll should fail when one event fails")
+    void testPublishAllFailure() {
+        when(kafkaTemplate.send(record("orders", "a"))).thenReturn(acked("orders", 0, 10L));
+        when(kafkaTemplate.send(record("orders", "b")))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("not leader")));
+
+        CompletableFuture<List<PublishResult>> future = eventPublisher.publishAll(List.of(
+            Event.of("ORDER_CREATED", "a", "orders", Map.of()),
+            Event.of("ORDER_CREATED", "b", "orders", Map.of())
+        ));
+
+        assertThrows(ExecutionException.class, future::get);
+    }
+
+    record UserCreated(long userId, String username) {
+    }
+
+    @Test
+    @DisplayName("Typed publish should serialize the event object with its class name as type")
+    void testPublishTypedEvent() {
+        when(kafkaTemplate.send(record("user-events", "7")))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        eventPublisher.publish("user-events", "7", new UserCreated(7L, "alice"));
+        eventPublisher.publish("user-events", "7", new UserCreated(8L, "bob"));
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> payloadCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(payloadCaptor.capture());
+        assertEquals("{\"userId\":7,\"username\":\"alice\"}",
+            new String(payloadCaptor.getAllValues().get(0).value(), StandardCharsets.UTF_8));
+        assertEquals("{\"userId\":8,\"username\":\"bob\"}",
+            new String(payloadCaptor.getAllValues().get(1).value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Publish should spill events beyond max in-flight and keep spilling until drained")
+    void testSpillWhenInFlightExhausted(@TempDir Path directory) {
+        when(kafkaTemplate.send(record("orders", "1"))).thenReturn(new CompletableFuture<>());
+        List<String> sends = new CopyOnWriteArrayList<>();
+        eventPublisher.addListener(new EventPublisher.Listener() {
+            @Override
+            public void onSend(String topic, int payloadSize) {
+                sends.add(topic);
+            }
+        });
+        try (SpillJournal journal = new SpillJournal(directory, 4096)) {
+            eventPublisher.enableSpill(journal, 1);
+
+            PublishResult first = eventPublisher.publishAsync("ORDER_CREATED", "1", "orders", Map.of("id", 1)).getNow(null);
+            PublishResult second = eventPublisher.publishAsync("ORDER_CREATED", "2", "orders", Map.of("id", 2)).join();
+
+            assertNull(first);
+            assertFalse(second.isDelivered());
+            assertEquals(1, eventPublisher.getSpillPending());
+            SpillJournal.Entry spilled = journal.read(10).getFirst();
+            assertEquals("2", spilled.key());
+            assertEquals("ORDER_CREATED", EventHeaders.lastValue(spilled.headers(), EventHeaders.EVENT_TYPE));
+            verify(kafkaTemplate, never()).send(record("orders", "2"));
+            assertEquals(List.of("orders"), sends, "Spilled events are not reported as sent");
+        }
+    }
+
+    @Test
+    @DisplayName("Publish should spill events whose send fails")
+    void testSpillOnSendFailure(@TempDir Path directory) {
+        when(kafkaTemplate.send(record("orders", "1")))
+            .thenThrow(new KafkaException(new TimeoutException("max.block.ms exceeded")));
+        try (SpillJournal journal = new SpillJournal(directory, 4096)) {
+            eventPublisher.enableSpill(journal, 10);
+
+            PublishResult result = eventPublisher.publishAsync("ORDER_CREATED", "1", "orders", Map.of("id", 1)).join();
+
+            assertFalse(result.isDelivered());
+            assertEquals(1, journal.getPending());
+            assertEquals(0, eventPublisher.getInFlight());
+        }
+    }
+
+    @Test
+    @DisplayName("Publish should spill events failing after the send off the producer thread, and spill behind them")
+    void testSpillOnAsyncFailure(@TempDir Path directory) throws Exception {
+        CompletableFuture<SendResult<String, byte[]>> sent = new CompletableFuture<>();
+        when(kafkaTemplate.send(record("orders", "1"))).thenReturn(sent);
+        List<String> spillThreads = new CopyOnWriteArrayList<>();
+        eventPublisher.addListener(new EventPublisher.Listener() {
+            @Override
+            public void onSpill(String topic) {
+                spillThreads.add(Thread.currentThread().getName());
+            }
+        });
+        try (SpillJournal journal = new SpillJournal(directory, 4096)) {
+            eventPublisher.enableSpill(journal, 10);
+            CompletableFuture<PublishResult> future =
+                eventPublisher.publishAsync("ORDER_CREATED", "1", "orders", Map.of("id", 1));
+
+            sent.completeExceptionally(new TimeoutException("delivery.timeout.ms exceeded"));
+            PublishResult result = future.get(10, TimeUnit.SECONDS);
+            eventPublisher.publishAsync("ORDER_CREATED", "2", "orders", Map.of("id", 2)).join();
+
+            assertFalse(result.isDelivered());
+            assertEquals(List.of("nexora-spill-writer", Thread.currentThread().getName()), spillThreads);
+            assertEquals(List.of("1", "2"), journal.read(10).stream().map(SpillJournal.Entry::key).toList());
+            verify(kafkaTemplate, never()).send(record("orders", "2"));
+        } finally {
+            eventPublisher.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("Publish should fail events whose send fails with a non-retriable error")
+    void testNoSpillOnNonRetriableFailure(@TempDir Path directory) {
+        when(kafkaTemplate.send(record("orders", "1")))
+            .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too large")));
+        try (SpillJournal journal = new SpillJournal(directory, 4096)) {
+            eventPublisher.enableSpill(journal, 10);
+
+            CompletableFuture<PublishResult> future =
+                eventPublisher.publishAsync("ORDER_CREATED", "1", "orders", Map.of("id", 1));
+
+            ExecutionException failure = assertThrows(ExecutionException.class, future::get);
+            assertInstanceOf(RecordTooLargeException.class, failure.getCause());
+            assertTrue(journal.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Publish should reject a null payload")
+    void testPublishRejectsNullPayload() {
+        assertThrows(IllegalArgumentException.class, () -> eventPublisher.publish("orders", "1", null));
+        assertThrows(IllegalArgumentException.class,
+            () -> eventPublisher.publishAsync("ORDER_CREATED", "1", "orders", null));
+
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    @DisplayName("Publish without a bizId should send an unkeyed record, but be rejected with the outbox")
+    void testPublishWithoutBizId() {
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        OutboxEventWriter outboxWriter = mock(OutboxEventWriter.class);
+        EventPublisher outboxPublisher = new EventPublisher(kafkaTemplate, objectMapper, outboxWriter);
+
+        eventPublisher.publish("orders", Map.of("id", 1));
+
+        verify(kafkaTemplate).send(argThat((ProducerRecord<String, byte[]> record) -> record.key() == null
+            && EventHeaders.lastValue(record.headers(), EventHeaders.BIZ_ID) == null));
+        assertThrows(IllegalArgumentException.class, () -> outboxPublisher.publish("orders", Map.of("id", 1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> outboxPublisher.publishAsync("ORDER_CREATED", null, "orders", Map.of("id", 1)));
+        verifyNoInteractions(outboxWriter);
+    }
 }
@@ -0,0 +1,101 @@
+package com.nexora.kafka.publisher;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link SpillDrainer}.
+ */
+@DisplayName("SpillDrainer Tests")
+@ExtendWith(MockitoExtension.class)
+class SpillDrainerTest {
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @TempDir
+    Path directory;
+
+    private static ProducerRecord<String, byte[]> record(String topic, String key) {
+        return argThat(record -> record != null && topic.equals(record.topic()) && key.equals(record.key()));
+    }
+
+    @Test
+    @DisplayName("Drain should replay the journal in order and consume it")
+    void testDrainInOrder() {
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        try (SpillJournal journal = new SpillJournal(directory, 4096)) {
+            for (int i = 0; i < 5; i++) {
+                journal.append("orders", String.valueOf(i), new byte[]{(byte) i});
+            }
+            SpillDrainer drainer = new SpillDrainer(journal, kafkaTemplate, 2, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+            assertEquals(5, drainer.drain());
+
+            InOrder inOrder = inOrder(kafkaTemplate);
+            for (int i = 0; i < 5; i++) {
+                inOrder.verify(kafkaTemplate).send(record("orders", String.valueOf(i)));
+            }
+            assertTrue(journal.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Drain should keep records from the first failure for the next run")
+    void testDrainStopsAtFailure() {
+        when(kafkaTemplate.send(record("orders", "0")))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(kafkaTemplate.send(record("orders", "1")))
+            .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker down")));
+        when(kafkaTemplate.send(record("orders", "2")))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        try (SpillJournal journal = new SpillJournal(directory, 4096)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append("orders", String.valueOf(i), new byte[]{(byte) i});
+            }
+            SpillDrainer drainer = new SpillDrainer(journal, kafkaTemplate, 10, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+            assertEquals(1, drainer.drain());
+
+            assertEquals(2, journal.getPending());
+            assertEquals("1", journal.read(10).getFirst().key());
+        }
+    }
+
+    @Test
+    @DisplayName("Drain should skip records failing with a non-retriable error")
+    void testDrainSkipsNonRetriableFailure() {
+        when(kafkaTemplate.send(record("orders", "0")))
+            .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too large")));
+        when(kafkaTemplate.send(record("orders", "1")))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        try (SpillJournal journal = new SpillJournal(directory, 4096)) {
+            journal.append("orders", "0", new byte[]{0});
+            journal.append("orders", "1", new byte[]{1});
+            SpillDrainer drainer = new SpillDrainer(journal, kafkaTemplate, 10, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+            assertEquals(2, drainer.drain());
+
+            assertTrue(journal.isEmpty());
+            assertEquals(1, drainer.getSkipped());
+        }
+    }
+}
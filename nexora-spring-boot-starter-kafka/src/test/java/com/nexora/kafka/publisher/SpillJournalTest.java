@@ -0,0 +1,133 @@
+package com.nexora.kafka.publisher;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SpillJournal}.
+ */
+@DisplayName("SpillJournal Tests")
+class SpillJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Should read records in append order until committed")
+    void testAppendReadCommit() {
+        try (SpillJournal journal = new SpillJournal(directory, 4096)) {
+            journal.append("orders", "1", bytes("a"));
+            journal.append("orders", null, bytes("b"));
+            journal.append("payments", "3", bytes("c"));
+
+            List<SpillJournal.Entry> entries = journal.read(2);
+            assertEquals(2, entries.size());
+            assertEquals("1", entries.get(0).key());
+            assertNull(entries.get(1).key());
+            assertArrayEquals(bytes("b"), entries.get(1).value());
+
+            // Reading doesn't consume
+            assertEquals(3, journal.read(10).size());
+
+            journal.commit(entries.get(1), 2);
+            List<SpillJournal.Entry> rest = journal.read(10);
+            assertEquals(1, rest.size());
+            assertEquals("payments", rest.getFirst().topic());
+            assertEquals(1, journal.getPending());
+
+            journal.commit(rest.getFirst(), 1);
+            assertTrue(journal.isEmpty());
+            assertTrue(journal.read(10).isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should roll segments and delete them once drained")
+    void testRollAndDelete() throws Exception {
+        try (SpillJournal journal = new SpillJournal(directory, 256)) {
+            for (int i = 0; i < 20; i++) {
+                journal.append("orders", String.valueOf(i), new byte[40]);
+            }
+            assertTrue(segmentFiles() > 1);
+
+            List<SpillJournal.Entry> entries = journal.read(100);
+            assertEquals(20, entries.size());
+            for (int i = 0; i < 20; i++) {
+                assertEquals(String.valueOf(i), entries.get(i).key());
+            }
+
+            journal.commit(entries.getLast(), 20);
+            assertEquals(1, segmentFiles());
+        }
+    }
+
+    @Test
+    @DisplayName("Should recover undrained records after reopening")
+    void testRecovery() {
+        try (SpillJournal journal = new SpillJournal(directory, 256)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append("orders", String.valueOf(i), new byte[40]);
+            }
+            List<SpillJournal.Entry> entries = journal.read(4);
+            journal.commit(entries.getLast(), 4);
+        }
+
+        try (SpillJournal journal = new SpillJournal(directory, 256)) {
+            assertEquals(6, journal.getPending());
+            List<SpillJournal.Entry> entries = journal.read(100);
+            assertEquals(6, entries.size());
+            assertEquals("4", entries.getFirst().key());
+
+            journal.append("orders", "10", new byte[40]);
+            assertEquals("10", journal.read(100).getLast().key());
+        }
+    }
+
+    @Test
+    @DisplayName("Should persist record headers across reopening")
+    void testHeaders() {
+        RecordHeaders headers = new RecordHeaders();
+        EventHeaders.addEventHeaders(headers, "ORDER_CREATED", "1", 2);
+        headers.add("empty", null);
+        try (SpillJournal journal = new SpillJournal(directory, 4096)) {
+            journal.append("orders", "1", headers, bytes("a"));
+        }
+
+        try (SpillJournal journal = new SpillJournal(directory, 4096)) {
+            Headers read = journal.read(1).getFirst().headers();
+            assertEquals("ORDER_CREATED", EventHeaders.lastValue(read, EventHeaders.EVENT_TYPE));
+            assertEquals("1", EventHeaders.lastValue(read, EventHeaders.BIZ_ID));
+            assertEquals("2", EventHeaders.lastValue(read, EventHeaders.SCHEMA_VERSION));
+            assertNull(read.lastHeader("empty").value());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject records larger than a segment")
+    void testRecordTooLarge() {
+        try (SpillJournal journal = new SpillJournal(directory, 128)) {
+            assertThrows(IllegalArgumentException.class, () -> journal.append("orders", "1", new byte[200]));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.nexora.kafka.retry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link DelaySuffixRetryTopicNamesProviderFactory}.
+ */
+@DisplayName("DelaySuffixRetryTopicNamesProviderFactory Tests")
+class DelaySuffixRetryTopicNamesProviderFactoryTest {
+
+    @Test
+    @DisplayName("Should format delays with the largest whole unit")
+    void testFormat() {
+        assertEquals("500ms", DelaySuffixRetryTopicNamesProviderFactory.format(500));
+        assertEquals("1500ms", DelaySuffixRetryTopicNamesProviderFactory.format(1500));
+        assertEquals("30s", DelaySuffixRetryTopicNamesProviderFactory.format(30_000));
+        assertEquals("5m", DelaySuffixRetryTopicNamesProviderFactory.format(300_000));
+        assertEquals("2h", DelaySuffixRetryTopicNamesProviderFactory.format(7_200_000));
+    }
+}